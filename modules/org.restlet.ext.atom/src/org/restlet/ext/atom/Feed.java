@@ -36,6 +36,7 @@ package org.restlet.ext.atom;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import org.restlet.Client;
@@ -86,6 +87,12 @@ public class Feed extends SaxRepresentation {
      */
     private List<Entry> entries;
 
+    /**
+     * Source of additional entries, pulled one at a time while the feed is
+     * written.
+     */
+    private volatile Iterator<Entry> entryIterator;
+
     /** The agent used to generate a feed. */
     private volatile Generator generator;
 
@@ -292,6 +299,16 @@ public class Feed extends SaxRepresentation {
         return e;
     }
 
+    /**
+     * Returns the source of additional entries, pulled one at a time while the
+     * feed is written, after the entries returned by {@link #getEntries()}.
+     * 
+     * @return The source of additional entries or null.
+     */
+    public Iterator<Entry> getEntryIterator() {
+        return entryIterator;
+    }
+
     /**
      * Returns the agent used to generate a feed.
      * 
@@ -409,6 +426,21 @@ public class Feed extends SaxRepresentation {
         setBaseReference(new Reference(baseUri));
     }
 
+    /**
+     * Sets the source of additional entries, pulled one at a time while the
+     * feed is written, after the entries returned by {@link #getEntries()}.
+     * Each entry is written as soon as it is returned by the iterator and isn't
+     * retained by the feed, so the memory needed doesn't depend on the size of
+     * the feed. As an iterator can only be consumed once, the feed should then
+     * be written only once.
+     * 
+     * @param entryIterator
+     *            The source of additional entries.
+     */
+    public void setEntryIterator(Iterator<Entry> entryIterator) {
+        this.entryIterator = entryIterator;
+    }
+
     /**
      * Sets the agent used to generate a feed.
      * 
@@ -618,6 +650,13 @@ public class Feed extends SaxRepresentation {
             }
         }
 
+        Iterator<Entry> iterator = getEntryIterator();
+        if (iterator != null) {
+            while (iterator.hasNext()) {
+                iterator.next().writeElement(writer);
+            }
+        }
+
         writer.endElement(ATOM_NAMESPACE, "feed");
     }
 
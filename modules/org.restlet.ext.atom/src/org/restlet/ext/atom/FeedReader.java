@@ -44,12 +44,24 @@ import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Content reader for feeds that is able to transmit events to another
- * FeedReader.
+ * FeedReader.<br>
+ * <br>
+ * By default, the parsed entries are added to the parsed {@link Feed}. For
+ * large feeds, set the "discardingEntries" property to true: each entry is
+ * then only given to {@link #endEntry(Entry)} as soon as its closing tag is
+ * parsed and isn't retained afterwards, so the memory needed doesn't depend on
+ * the size of the feed.
  * 
  * @author Thierry Boileau
  */
 public class FeedReader extends DefaultHandler {
 
+    /**
+     * Indicates if the parsed entries are discarded after being handed to
+     * {@link #endEntry(Entry)}.
+     */
+    private volatile boolean discardingEntries;
+
     /** Extra feed reader. */
     private FeedReader feedReader;
 
@@ -174,6 +186,17 @@ public class FeedReader extends DefaultHandler {
         }
     }
 
+    /**
+     * Indicates if the parsed entries are discarded after being handed to
+     * {@link #endEntry(Entry)} instead of being added to the parsed feed.
+     * Default value is false.
+     * 
+     * @return True if the parsed entries are discarded.
+     */
+    public boolean isDiscardingEntries() {
+        return discardingEntries;
+    }
+
     @Override
     public void ignorableWhitespace(char[] ch, int start, int length)
             throws SAXException {
@@ -211,6 +234,17 @@ public class FeedReader extends DefaultHandler {
         return null;
     }
 
+    /**
+     * Indicates if the parsed entries are discarded after being handed to
+     * {@link #endEntry(Entry)} instead of being added to the parsed feed.
+     * 
+     * @param discardingEntries
+     *            True if the parsed entries are discarded.
+     */
+    public void setDiscardingEntries(boolean discardingEntries) {
+        this.discardingEntries = discardingEntries;
+    }
+
     @Override
     public void setDocumentLocator(Locator locator) {
         // Send the event to the extra handler.
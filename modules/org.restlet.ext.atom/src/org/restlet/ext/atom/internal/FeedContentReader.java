@@ -90,6 +90,9 @@ public class FeedContentReader extends FeedReader {
     /** The currently parsed Entry. */
     private Entry currentEntry;
 
+    /** Indicates if the parsed entries are added to the current feed. */
+    private final boolean retainingEntries;
+
     /** The currently parsed Feed. */
     private final Feed currentFeed;
 
@@ -140,6 +143,8 @@ public class FeedContentReader extends FeedReader {
         this.currentContent = null;
         this.prefixMappings = new ConcurrentHashMap<String, String>();
         this.contentDepth = -1;
+        this.retainingEntries = (extraFeedReader == null)
+                || !extraFeedReader.isDiscardingEntries();
     }
 
     @Override
@@ -302,11 +307,19 @@ public class FeedContentReader extends FeedReader {
                 endLink(this.currentLink);
             } else if (localName.equalsIgnoreCase("entry")) {
                 if (this.state == State.FEED_ENTRY) {
-                    this.currentFeed.getEntries().add(this.currentEntry);
+                    if (this.retainingEntries) {
+                        this.currentFeed.getEntries().add(this.currentEntry);
+                    }
+
                     this.state = State.FEED;
                 }
 
                 endEntry(this.currentEntry);
+
+                if (!this.retainingEntries) {
+                    // Let the entry be garbage collected
+                    this.currentEntry = null;
+                }
             } else if (localName.equals("category")) {
                 if (this.state == State.FEED_CATEGORY) {
                     this.currentFeed.getCategories().add(this.currentCategory);
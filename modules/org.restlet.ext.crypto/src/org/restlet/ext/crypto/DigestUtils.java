@@ -35,13 +35,10 @@ package org.restlet.ext.crypto;
 
 import java.io.UnsupportedEncodingException;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
 import org.restlet.data.Digest;
+import org.restlet.engine.security.CryptoPools;
 import org.restlet.engine.util.Base64;
 
 /**
@@ -107,15 +104,9 @@ public class DigestUtils {
         byte[] result = null;
 
         try {
-            // Create the HMAC/SHA1 key
-            SecretKeySpec signingKey = new SecretKeySpec(secretKey, "HmacSHA1");
-
-            // Create the message authentication code (MAC)
-            Mac mac = Mac.getInstance("HmacSHA1");
-            mac.init(signingKey);
-
-            // Compute the HMAC value
-            result = mac.doFinal(source.getBytes());
+            // Compute the HMAC value with a pooled MAC initialized with the
+            // HMAC/SHA1 key
+            result = CryptoPools.mac("HmacSHA1", secretKey, source.getBytes());
         } catch (NoSuchAlgorithmException nsae) {
             throw new RuntimeException(
                     "Could not find the SHA-1 algorithm. HMac conversion failed.",
@@ -155,16 +146,10 @@ public class DigestUtils {
         byte[] result = null;
 
         try {
-            // Create the HMAC/SHA256 key
-            SecretKeySpec signingKey = new SecretKeySpec(secretKey,
-                    "HmacSHA256");
-
-            // Create the message authentication code (MAC)
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(signingKey);
-
-            // Compute the HMAC value
-            result = mac.doFinal(source.getBytes("UTF-8"));
+            // Compute the HMAC value with a pooled MAC initialized with the
+            // HMAC/SHA256 key
+            result = CryptoPools.mac("HmacSHA256", secretKey,
+                    source.getBytes("UTF-8"));
         } catch (NoSuchAlgorithmException nsae) {
             throw new RuntimeException(
                     "Could not find the SHA256 algorithm. HMac conversion failed.",
@@ -258,7 +243,7 @@ public class DigestUtils {
     public static String toMd5(String target, String charsetName)
             throws UnsupportedEncodingException {
         try {
-            final byte[] md5 = MessageDigest.getInstance("MD5").digest(
+            final byte[] md5 = CryptoPools.digest("MD5",
                     target.getBytes(charsetName));
             final char[] md5Chars = new char[32];
             int i = 0;
@@ -307,8 +292,8 @@ public class DigestUtils {
             throws UnsupportedEncodingException {
         try {
             return Base64.encode(
-                    MessageDigest.getInstance("SHA1").digest(
-                            target.getBytes(charsetName)), false);
+                    CryptoPools.digest("SHA1", target.getBytes(charsetName)),
+                    false);
         } catch (NoSuchAlgorithmException nsae) {
             throw new RuntimeException(
                     "No SHA1 algorithm, unable to compute SHA1");
@@ -43,6 +43,7 @@ import org.restlet.routing.Filter;
 import org.restlet.util.Resolver;
 
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 import freemarker.template.TemplateHashModel;
 
 /**
@@ -52,6 +53,11 @@ import freemarker.template.TemplateHashModel;
  * happen, the representations must have the {@link Encoding#FREEMARKER}
  * encoding set.<br>
  * <br>
+ * Unless a configuration is explicitly set, the one of the application's
+ * {@link TemplateService} is used when available, so that compiled templates
+ * are shared between filters. Otherwise, a default configuration is shared by
+ * all the filters.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -60,6 +66,9 @@ import freemarker.template.TemplateHashModel;
  */
 public class TemplateFilter extends Filter {
 
+    /** The default configuration, lazily created. */
+    private static volatile Configuration defaultConfiguration;
+
     /** The FreeMarker configuration. */
     private volatile Configuration configuration;
 
@@ -71,7 +80,6 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter() {
         super();
-        this.configuration = new Configuration();
     }
 
     /**
@@ -82,7 +90,6 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter(Context context) {
         super(context);
-        this.configuration = new Configuration();
     }
 
     /**
@@ -95,7 +102,6 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter(Context context, Restlet next) {
         super(context, next);
-        this.configuration = new Configuration();
     }
 
     /**
@@ -134,9 +140,21 @@ public class TemplateFilter extends Filter {
         if (response.isEntityAvailable()
                 && response.getEntity().getEncodings().contains(
                         Encoding.FREEMARKER)) {
+            Configuration config = getConfiguration();
+            TemplateService templateService = TemplateService.getCurrent();
+            Template template = null;
+
+            if ((templateService != null)
+                    && (templateService.getConfiguration() == config)) {
+                // Reuse the compiled template if possible
+                template = templateService.getTemplate(response.getEntity());
+            } else {
+                template = TemplateRepresentation.getTemplate(config,
+                        response.getEntity());
+            }
+
             TemplateRepresentation representation = new TemplateRepresentation(
-                    response.getEntity(), this.configuration, response
-                            .getEntity().getMediaType());
+                    template, response.getEntity().getMediaType());
             representation.setDataModel(createDataModel(request, response));
             response.setEntity(representation);
         }
@@ -168,12 +186,37 @@ public class TemplateFilter extends Filter {
     }
 
     /**
-     * Returns the FreeMarker configuration.
+     * Returns the FreeMarker configuration. If none was set, the configuration
+     * of the current application's {@link TemplateService} is used, otherwise
+     * a default configuration shared by all the filters.
      * 
      * @return The FreeMarker configuration.
      */
     public Configuration getConfiguration() {
-        return this.configuration;
+        Configuration result = this.configuration;
+
+        if (result == null) {
+            TemplateService templateService = TemplateService.getCurrent();
+
+            if (templateService != null) {
+                result = templateService.getConfiguration();
+            } else {
+                result = defaultConfiguration;
+
+                if (result == null) {
+                    synchronized (TemplateFilter.class) {
+                        result = defaultConfiguration;
+
+                        if (result == null) {
+                            result = new Configuration();
+                            defaultConfiguration = result;
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
     }
 
     /**
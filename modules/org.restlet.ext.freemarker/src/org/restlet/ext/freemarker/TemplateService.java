@@ -0,0 +1,238 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+package org.restlet.ext.freemarker;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.restlet.Application;
+import org.restlet.representation.Representation;
+import org.restlet.service.Service;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * Application service sharing a single FreeMarker configuration between the
+ * template filters and representations of an application. Templates loaded by
+ * name are cached by the configuration itself, while templates provided as
+ * representations are cached by this service and invalidated when the
+ * modification date of their source changes. A list of template names can also
+ * be compiled in advance when the application starts.<br>
+ * <br>
+ * In order to use it, you need to add an instance to the services of your
+ * application:
+ * 
+ * <pre>
+ * getServices().add(new TemplateService(configuration));
+ * </pre>
+ * 
+ * @author Jerome Louvel
+ */
+public class TemplateService extends Service {
+
+    /**
+     * Compiled template along with the modification date of its source.
+     */
+    private static class CachedTemplate {
+        /** The modification date of the template source. */
+        private final Date modificationDate;
+
+        /** The compiled template. */
+        private final Template template;
+
+        /**
+         * Constructor.
+         * 
+         * @param template
+         *            The compiled template.
+         * @param modificationDate
+         *            The modification date of the template source.
+         */
+        public CachedTemplate(Template template, Date modificationDate) {
+            this.template = template;
+            this.modificationDate = modificationDate;
+        }
+    }
+
+    /**
+     * Returns the template service of the current application if available.
+     * 
+     * @return The template service of the current application or null.
+     */
+    public static TemplateService getCurrent() {
+        Application application = Application.getCurrent();
+        return (application == null) ? null : application.getServices().get(
+                TemplateService.class);
+    }
+
+    /** The FreeMarker configuration. */
+    private volatile Configuration configuration;
+
+    /** The names of the templates to compile when the service starts. */
+    private final List<String> preloadedTemplates;
+
+    /** The templates provided as representations, by location URI. */
+    private final ConcurrentMap<String, CachedTemplate> templates;
+
+    /**
+     * Constructor. Uses a default FreeMarker configuration.
+     */
+    public TemplateService() {
+        this(new Configuration());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param configuration
+     *            The FreeMarker configuration.
+     */
+    public TemplateService(Configuration configuration) {
+        this.configuration = configuration;
+        this.preloadedTemplates = new CopyOnWriteArrayList<String>();
+        this.templates = new ConcurrentHashMap<String, CachedTemplate>();
+    }
+
+    /**
+     * Returns the FreeMarker configuration.
+     * 
+     * @return The FreeMarker configuration.
+     */
+    public Configuration getConfiguration() {
+        return this.configuration;
+    }
+
+    /**
+     * Returns the modifiable list of template names to compile when the
+     * service starts.
+     * 
+     * @return The list of template names to compile when the service starts.
+     */
+    public List<String> getPreloadedTemplates() {
+        return this.preloadedTemplates;
+    }
+
+    /**
+     * Returns a compiled template provided as a representation. The template
+     * is only cached if the representation has both a location reference and a
+     * modification date. In this case, the template is compiled again each
+     * time the modification date changes. When the cached template is reused,
+     * the representation is released without being read.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The template or null if not found.
+     */
+    public Template getTemplate(Representation templateRepresentation) {
+        Template result = null;
+        Date modificationDate = templateRepresentation.getModificationDate();
+        String key = (templateRepresentation.getLocationRef() == null) ? null
+                : templateRepresentation.getLocationRef().toString();
+
+        if ((key == null) || (modificationDate == null)) {
+            result = TemplateRepresentation.getTemplate(getConfiguration(),
+                    templateRepresentation);
+        } else {
+            CachedTemplate cached = this.templates.get(key);
+
+            if ((cached != null)
+                    && cached.modificationDate.equals(modificationDate)) {
+                result = cached.template;
+                templateRepresentation.release();
+            } else {
+                result = TemplateRepresentation.getTemplate(
+                        getConfiguration(), templateRepresentation);
+
+                if (result != null) {
+                    this.templates.put(key, new CachedTemplate(result,
+                            modificationDate));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a compiled template from its name. The template is cached and
+     * checked for updates by the FreeMarker configuration.
+     * 
+     * @param templateName
+     *            The template name.
+     * @return The template or null if not found.
+     */
+    public Template getTemplate(String templateName) {
+        return TemplateRepresentation.getTemplate(getConfiguration(),
+                templateName);
+    }
+
+    /**
+     * Sets the FreeMarker configuration.
+     * 
+     * @param configuration
+     *            The FreeMarker configuration.
+     */
+    public void setConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+        this.templates.clear();
+    }
+
+    /**
+     * Starts the service and compiles the preloaded templates.
+     */
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+
+        if (isStarted()) {
+            for (String templateName : getPreloadedTemplates()) {
+                getTemplate(templateName);
+            }
+        }
+    }
+
+    /**
+     * Stops the service and clears the template caches.
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+        this.templates.clear();
+        getConfiguration().clearTemplateCache();
+    }
+
+}
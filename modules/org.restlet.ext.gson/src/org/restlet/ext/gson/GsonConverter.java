@@ -35,6 +35,8 @@ package org.restlet.ext.gson;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
@@ -44,8 +46,12 @@ import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
+import com.google.gson.Gson;
+
 /**
  * Converter between the JSON and Representation classe based on Gson library.
+ * The Gson instance is created once per class of representation and shared by
+ * all the representations created by the converter.
  * 
  * @author Neal Mi
  */
@@ -55,6 +61,23 @@ public class GsonConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_JSON = new VariantInfo(
             MediaType.APPLICATION_JSON);
 
+    /** The shared Gson instances, per class of representation. */
+    private final ConcurrentMap<Class<?>, Gson> gsons;
+
+    /**
+     * Constructor.
+     */
+    public GsonConverter() {
+        this.gsons = new ConcurrentHashMap<Class<?>, Gson>();
+    }
+
+    /**
+     * Clears the shared Gson instances.
+     */
+    public void clear() {
+        this.gsons.clear();
+    }
+
     /**
      * Creates the unmarshaling {@link GsonRepresentation}.
      * 
@@ -67,7 +90,7 @@ public class GsonConverter extends ConverterHelper {
      */
     protected <T> GsonRepresentation<T> create(Representation source,
             Class<T> objectClass) {
-        return new GsonRepresentation<T>(source, objectClass);
+        return share(new GsonRepresentation<T>(source, objectClass));
     }
 
     /**
@@ -79,7 +102,7 @@ public class GsonConverter extends ConverterHelper {
      * @return The marshaling {@link GsonRepresentation}.
      */
     protected <T> GsonRepresentation<T> create(T source) {
-        return new GsonRepresentation<T>(source);
+        return share(new GsonRepresentation<T>(source));
     }
 
     @Override
@@ -141,6 +164,32 @@ public class GsonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Sets the Gson instance shared by the representations of the same class.
+     * It is created from the builder of the first representation.
+     * 
+     * @param representation
+     *            The Gson representation.
+     * @return The Gson representation.
+     */
+    protected <T> GsonRepresentation<T> share(
+            GsonRepresentation<T> representation) {
+        Gson gson = this.gsons.get(representation.getClass());
+
+        if (gson == null) {
+            gson = representation.getGson();
+            Gson existing = this.gsons.putIfAbsent(representation.getClass(),
+                    gson);
+
+            if (existing != null) {
+                gson = existing;
+            }
+        }
+
+        representation.setGson(gson);
+        return representation;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> T toObject(Representation source, Class<T> target,
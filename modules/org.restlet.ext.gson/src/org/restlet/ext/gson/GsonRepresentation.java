@@ -70,7 +70,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
      * 
      * @author Neal Mi.
      */
-    private class ISODateDeserializer implements JsonDeserializer<Date> {
+    private static class ISODateDeserializer implements JsonDeserializer<Date> {
         public Date deserialize(JsonElement json, Type typeOfT,
                 JsonDeserializationContext context) throws JsonParseException {
             return new DateTime(json.getAsJsonPrimitive().getAsString())
@@ -83,7 +83,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
      * 
      * @author Neal Mi.
      */
-    private class ISODateSerializer implements JsonSerializer<Date> {
+    private static class ISODateSerializer implements JsonSerializer<Date> {
         public JsonElement serialize(Date src, Type typeOfSrc,
                 JsonSerializationContext context) {
             DateTime dt = new DateTime(src);
@@ -95,6 +95,9 @@ public class GsonRepresentation<T> extends WriterRepresentation {
     /** The modifiable Gson builder. */
     private GsonBuilder builder;
 
+    /** The Gson instance, created from the builder on first use. */
+    private volatile Gson gson;
+
     /** The JSON representation to parse. */
     private Representation jsonRepresentation;
 
@@ -119,6 +122,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
         this.objectClass = objectClass;
         this.jsonRepresentation = representation;
         this.builder = null;
+        this.gson = null;
     }
 
     /**
@@ -135,6 +139,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
                 .getClass()));
         this.jsonRepresentation = null;
         this.builder = null;
+        this.gson = null;
     }
 
     /**
@@ -149,11 +154,38 @@ public class GsonRepresentation<T> extends WriterRepresentation {
     }
 
     /**
-     * Returns the builder for Gson instances.
+     * Returns the builder for Gson instances. As the builder may be customized
+     * by the caller, the current Gson instance is discarded.
      * 
      * @return The builder for Gson instances.
      */
     public GsonBuilder getBuilder() {
+        this.gson = null;
+        return getInternalBuilder();
+    }
+
+    /**
+     * Returns the Gson instance used for the conversions. It is created from
+     * the builder on first use and discarded when {@link #getBuilder()} is
+     * called. Gson instances are thread-safe and can be shared between
+     * representations.
+     * 
+     * @return The Gson instance.
+     */
+    public Gson getGson() {
+        if (this.gson == null) {
+            this.gson = getInternalBuilder().create();
+        }
+
+        return this.gson;
+    }
+
+    /**
+     * Returns the builder for Gson instances, created on first use.
+     * 
+     * @return The builder for Gson instances.
+     */
+    private GsonBuilder getInternalBuilder() {
         if (builder == null) {
             builder = createBuilder().registerTypeAdapter(Date.class,
                     new ISODateSerializer()).registerTypeAdapter(Date.class,
@@ -175,8 +207,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
         if (this.object != null) {
             result = this.object;
         } else if (this.jsonRepresentation != null) {
-            Gson gson = getBuilder().create();
-            result = gson.fromJson(
+            result = getGson().fromJson(
                     new JsonReader(jsonRepresentation.getReader()),
                     this.objectClass);
         }
@@ -201,6 +232,17 @@ public class GsonRepresentation<T> extends WriterRepresentation {
      */
     public void setBuilder(GsonBuilder builder) {
         this.builder = builder;
+        this.gson = null;
+    }
+
+    /**
+     * Sets the Gson instance used for the conversions.
+     * 
+     * @param gson
+     *            The Gson instance.
+     */
+    public void setGson(Gson gson) {
+        this.gson = gson;
     }
 
     /**
@@ -228,8 +270,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
         if (jsonRepresentation != null) {
             jsonRepresentation.write(writer);
         } else {
-            Gson gson = getBuilder().create();
-            gson.toJson(object, objectClass, new JsonWriter(writer));
+            getGson().toJson(object, objectClass, new JsonWriter(writer));
         }
     }
 
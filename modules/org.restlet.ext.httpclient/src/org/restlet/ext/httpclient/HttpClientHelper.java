@@ -34,6 +34,9 @@
 package org.restlet.ext.httpclient;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -54,7 +57,6 @@ import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
 import org.apache.http.cookie.CookieSpecRegistry;
 import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
@@ -63,6 +65,7 @@ import org.restlet.Request;
 import org.restlet.data.Protocol;
 import org.restlet.engine.Engine;
 import org.restlet.engine.adapter.ClientCall;
+import org.restlet.engine.log.LoggingThreadFactory;
 import org.restlet.engine.ssl.DefaultSslContextFactory;
 import org.restlet.engine.ssl.SslContextFactory;
 import org.restlet.engine.ssl.SslUtils;
@@ -70,6 +73,7 @@ import org.restlet.engine.util.ReferenceUtils;
 import org.restlet.ext.httpclient.internal.HttpIdleConnectionReaper;
 import org.restlet.ext.httpclient.internal.HttpMethodCall;
 import org.restlet.ext.httpclient.internal.IgnoreCookieSpecFactory;
+import org.restlet.ext.httpclient.internal.MonitoredConnectionManager;
 
 /**
  * HTTP client connector using the HttpMethodCall and Apache HTTP Client
@@ -77,6 +81,14 @@ import org.restlet.ext.httpclient.internal.IgnoreCookieSpecFactory;
  * surely release the underlying connection. Not doing so may cause future
  * requests to block.<br>
  * <br>
+ * Connections are pooled per route by a {@link MonitoredConnectionManager}
+ * that also records the number of leases and the time spent waiting for a
+ * connection. Idle and expired connections are closed in the background by a
+ * reaper thread. Asynchronous calls, with a response callback set on the
+ * request, are executed by a pool of worker threads that never exceeds the
+ * maximum number of connections, so that the calling thread isn't blocked and
+ * no thread is created per request.<br>
+ * <br>
  * Here is the list of parameters that are supported. They should be set in the
  * Client's context before it is started:
  * <table>
@@ -96,9 +108,11 @@ import org.restlet.ext.httpclient.internal.IgnoreCookieSpecFactory;
  * <tr>
  * <td>idleCheckInterval</td>
  * <td>int</td>
- * <td>0</td>
+ * <td>5000</td>
  * <td>Time between checks for idle and expired connections. The check happens
- * only if this property is set to a value greater than 0.</td>
+ * only if this property is set to a value greater than 0. Note that the
+ * default value was 0 in previous versions, so idle connections were only
+ * closed when stopping the connector. Set it to 0 to restore this behavior.</td>
  * </tr>
  * <tr>
  * <td>idleTimeout</td>
@@ -192,6 +206,9 @@ import org.restlet.ext.httpclient.internal.IgnoreCookieSpecFactory;
 @SuppressWarnings("deprecation")
 public class HttpClientHelper extends
         org.restlet.engine.adapter.HttpClientHelper {
+    /** The worker threads executing the asynchronous calls. */
+    private volatile ExecutorService executorService;
+
     private volatile DefaultHttpClient httpClient;
 
     /** the idle connection reaper. */
@@ -332,8 +349,8 @@ public class HttpClientHelper extends
     }
 
     /**
-     * Creates the connection manager. By default, it creates a thread safe
-     * connection manager.
+     * Creates the connection manager. By default, it creates a
+     * {@link MonitoredConnectionManager} pooling connections per route.
      * 
      * @param params
      *            The configuration parameters.
@@ -343,7 +360,54 @@ public class HttpClientHelper extends
      */
     protected ClientConnectionManager createClientConnectionManager(
             HttpParams params, SchemeRegistry schemeRegistry) {
-        return new ThreadSafeClientConnManager(params, schemeRegistry);
+        MonitoredConnectionManager result = new MonitoredConnectionManager(
+                schemeRegistry);
+        result.setMaxTotal(getMaxTotalConnections());
+        result.setDefaultMaxPerRoute(getMaxConnectionsPerHost());
+        return result;
+    }
+
+    /**
+     * Creates the executor service running the asynchronous calls. By
+     * default, it creates a pool of daemon threads limited to the maximum
+     * number of connections, as additional threads would only wait for a
+     * connection to be available.
+     * 
+     * @return The executor service running the asynchronous calls.
+     */
+    protected ExecutorService createExecutorService() {
+        ThreadPoolExecutor result = new ThreadPoolExecutor(
+                getMaxTotalConnections(), getMaxTotalConnections(), 60L,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new LoggingThreadFactory(getLogger(), true));
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    /**
+     * Returns the connection manager if it is a
+     * {@link MonitoredConnectionManager}, giving access to the pool and lease
+     * statistics.
+     * 
+     * @return The monitored connection manager or null.
+     */
+    public MonitoredConnectionManager getConnectionManager() {
+        if ((getHttpClient() != null)
+                && (getHttpClient().getConnectionManager() instanceof MonitoredConnectionManager)) {
+            return (MonitoredConnectionManager) getHttpClient()
+                    .getConnectionManager();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the executor service running the asynchronous calls.
+     * 
+     * @return The executor service running the asynchronous calls.
+     */
+    public ExecutorService getExecutorService() {
+        return this.executorService;
     }
 
     /**
@@ -370,14 +434,16 @@ public class HttpClientHelper extends
     /**
      * Time in milliseconds between two checks for idle and expired connections.
      * The check happens only if this property is set to a value greater than 0.
+     * The default value is 5000 ms. Note that it was 0 in previous versions,
+     * which disabled the check, so set this parameter to 0 to disable it
+     * again.
      * 
-     * @return A value indicating the idle connection check interval or 0 if a
-     *         value has not been provided
+     * @return A value indicating the idle connection check interval.
      * @see #getIdleTimeout()
      */
     public long getIdleCheckInterval() {
         return Long.parseLong(getHelpedParameters().getFirstValue(
-                "idleCheckInterval", "0"));
+                "idleCheckInterval", "5000"));
     }
 
     /**
@@ -529,6 +595,7 @@ public class HttpClientHelper extends
 
         this.idleConnectionReaper = new HttpIdleConnectionReaper(httpClient,
                 getIdleCheckInterval(), getIdleTimeout());
+        this.executorService = createExecutorService();
 
         getLogger().info("Starting the Apache HTTP client");
     }
@@ -538,6 +605,11 @@ public class HttpClientHelper extends
         if (this.idleConnectionReaper != null) {
             this.idleConnectionReaper.stop();
         }
+
+        if (this.executorService != null) {
+            this.executorService.shutdown();
+        }
+
         if (getHttpClient() != null) {
             getHttpClient().getConnectionManager().closeExpiredConnections();
             getHttpClient().getConnectionManager().closeIdleConnections(
@@ -51,6 +51,16 @@ public class HttpIdleConnectionReaper {
      * Thread that reaps idle and expired connections.
      */
     private class ReaperThread extends Thread {
+
+        /**
+         * Constructor. The thread is a daemon so that it doesn't prevent the
+         * JVM from exiting if the connector isn't stopped.
+         */
+        private ReaperThread() {
+            super("Restlet-HttpIdleConnectionReaper");
+            setDaemon(true);
+        }
+
         /** Indicates if the thread is shut down. */
         private volatile boolean shutdown;
 
@@ -41,6 +41,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 
 import org.apache.http.Header;
@@ -359,9 +360,47 @@ public class HttpMethodCall extends ClientCall {
         return result;
     }
 
+    /**
+     * Sends the request and invokes the callbacks once the response is
+     * received. The call is executed by the worker threads of the helper, if
+     * available, so that the calling thread isn't blocked.
+     * 
+     * @param request
+     *            The high-level request.
+     * @param response
+     *            The high-level response.
+     * @param callback
+     *            The callback invoked upon request completion.
+     */
     @Override
-    public void sendRequest(Request request, Response response, Uniform callback)
-            throws Exception {
+    public void sendRequest(final Request request, final Response response,
+            final Uniform callback) throws Exception {
+        ExecutorService executorService = this.clientHelper
+                .getExecutorService();
+
+        if (executorService == null) {
+            sendRequestAndCallback(request, response, callback);
+        } else {
+            executorService.execute(new Runnable() {
+                public void run() {
+                    sendRequestAndCallback(request, response, callback);
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends the request then invokes the callbacks.
+     * 
+     * @param request
+     *            The high-level request.
+     * @param response
+     *            The high-level response.
+     * @param callback
+     *            The callback invoked upon request completion.
+     */
+    private void sendRequestAndCallback(Request request, Response response,
+            Uniform callback) {
         sendRequest(request);
 
         if (request.getOnSent() != null) {
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.httpclient.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+
+/**
+ * Pooling connection manager that measures the leasing of connections. Each
+ * route has its own pool, bounded by the maximum number of connections per
+ * route, and callers waiting for a connection are served in arrival order.
+ * The number of leases, the number of lease timeouts and the time spent
+ * waiting for a connection are recorded in addition to the pool statistics
+ * available via the {@link #getTotalStats()} and
+ * {@link #getStats(HttpRoute)} methods.<br>
+ * <br>
+ * Note that it extends the deprecated {@link PoolingClientConnectionManager}
+ * rather than the newer PoolingHttpClientConnectionManager because the
+ * connector is built on {@link org.apache.http.impl.client.DefaultHttpClient}
+ * which only accepts a {@link org.apache.http.conn.ClientConnectionManager}.
+ * The newer manager implements the unrelated HttpClientConnectionManager
+ * interface which is only usable with the clients created by the
+ * HttpClientBuilder.
+ * 
+ * @author Jerome Louvel
+ */
+@SuppressWarnings("deprecation")
+public class MonitoredConnectionManager extends
+        PoolingClientConnectionManager {
+
+    /** The number of connections leased. */
+    private final AtomicLong leaseCount;
+
+    /** The number of lease requests that timed out. */
+    private final AtomicLong leaseTimeoutCount;
+
+    /** The longest time spent waiting for a connection, in nanoseconds. */
+    private final AtomicLong maxLeaseWaitTime;
+
+    /** The total time spent waiting for connections, in nanoseconds. */
+    private final AtomicLong totalLeaseWaitTime;
+
+    /**
+     * Constructor.
+     * 
+     * @param schemeRegistry
+     *            The scheme registry to use.
+     */
+    public MonitoredConnectionManager(SchemeRegistry schemeRegistry) {
+        super(schemeRegistry);
+        this.leaseCount = new AtomicLong();
+        this.leaseTimeoutCount = new AtomicLong();
+        this.maxLeaseWaitTime = new AtomicLong();
+        this.totalLeaseWaitTime = new AtomicLong();
+    }
+
+    /**
+     * Returns the average time spent waiting for a connection, in
+     * milliseconds.
+     * 
+     * @return The average time spent waiting for a connection.
+     */
+    public double getAverageLeaseWaitTime() {
+        long count = this.leaseCount.get() + this.leaseTimeoutCount.get();
+        return (count == 0) ? 0D : (this.totalLeaseWaitTime.get() / 1000000D)
+                / count;
+    }
+
+    /**
+     * Returns the number of connections leased.
+     * 
+     * @return The number of connections leased.
+     */
+    public long getLeaseCount() {
+        return this.leaseCount.get();
+    }
+
+    /**
+     * Returns the number of lease requests that timed out.
+     * 
+     * @return The number of lease requests that timed out.
+     */
+    public long getLeaseTimeoutCount() {
+        return this.leaseTimeoutCount.get();
+    }
+
+    /**
+     * Returns the longest time spent waiting for a connection, in
+     * milliseconds.
+     * 
+     * @return The longest time spent waiting for a connection.
+     */
+    public long getMaxLeaseWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxLeaseWaitTime.get());
+    }
+
+    /**
+     * Returns the total time spent waiting for connections, in milliseconds.
+     * 
+     * @return The total time spent waiting for connections.
+     */
+    public long getTotalLeaseWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.totalLeaseWaitTime.get());
+    }
+
+    /**
+     * Records the time spent waiting for a connection.
+     * 
+     * @param waitTime
+     *            The time spent waiting, in nanoseconds.
+     * @param leased
+     *            True if a connection was leased, false if the request timed
+     *            out.
+     */
+    private void recordLease(long waitTime, boolean leased) {
+        if (leased) {
+            this.leaseCount.incrementAndGet();
+        } else {
+            this.leaseTimeoutCount.incrementAndGet();
+        }
+
+        this.totalLeaseWaitTime.addAndGet(waitTime);
+        long max = this.maxLeaseWaitTime.get();
+
+        while ((waitTime > max)
+                && !this.maxLeaseWaitTime.compareAndSet(max, waitTime)) {
+            max = this.maxLeaseWaitTime.get();
+        }
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection(HttpRoute route,
+            Object state) {
+        final ClientConnectionRequest request = super.requestConnection(route,
+                state);
+
+        return new ClientConnectionRequest() {
+
+            public void abortRequest() {
+                request.abortRequest();
+            }
+
+            public ManagedClientConnection getConnection(long timeout,
+                    TimeUnit tunit) throws InterruptedException,
+                    ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+
+                try {
+                    ManagedClientConnection result = request.getConnection(
+                            timeout, tunit);
+                    recordLease(System.nanoTime() - start, true);
+                    return result;
+                } catch (ConnectionPoolTimeoutException e) {
+                    recordLease(System.nanoTime() - start, false);
+                    throw e;
+                }
+            }
+        };
+    }
+
+}
@@ -35,6 +35,8 @@ package org.restlet.ext.jackson;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
@@ -44,14 +46,56 @@ import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 /**
  * Converter between the JSON, JSON Smile, CSV, XML, YAML and Representation
- * classes based on Jackson.
+ * classes based on Jackson.<br>
+ * <br>
+ * The converter shares one Jackson object mapper per media type between all
+ * the representations it creates, as well as the object readers and writers
+ * of each converted class. This lets Jackson reuse its serializer and
+ * deserializer caches across requests. As a consequence, the object mapper of
+ * a representation created by the converter shouldn't be modified. In order
+ * to customize the mappers, override the {@link #create(MediaType, Object)}
+ * and {@link #create(Representation, Class)} methods to return a subclass of
+ * {@link JacksonRepresentation}, which will then get its own shared mappers.
  * 
  * @author Jerome Louvel
  * @author Thierry Boileau
  */
 public class JacksonConverter extends ConverterHelper {
+
+    /**
+     * Jackson object mapper shared by the representations of a given media
+     * type, with its object readers and writers per class.
+     */
+    private static final class ObjectMapperEntry {
+
+        /** The shared object mapper. */
+        private final ObjectMapper objectMapper;
+
+        /** The object readers per class. */
+        private final ConcurrentMap<Class<?>, ObjectReader> objectReaders;
+
+        /** The object writers per class. */
+        private final ConcurrentMap<Class<?>, ObjectWriter> objectWriters;
+
+        /**
+         * Constructor.
+         * 
+         * @param objectMapper
+         *            The shared object mapper.
+         */
+        private ObjectMapperEntry(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            this.objectReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
+            this.objectWriters = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+        }
+    }
+
     /** Variant with media type application/xml. */
     private static final VariantInfo VARIANT_APPLICATION_XML = new VariantInfo(
             MediaType.APPLICATION_XML);
@@ -80,6 +124,23 @@ public class JacksonConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_TEXT_YAML = new VariantInfo(
             MediaType.TEXT_YAML);
 
+    /** The shared object mappers. */
+    private final ConcurrentMap<String, ObjectMapperEntry> objectMappers;
+
+    /**
+     * Constructor.
+     */
+    public JacksonConverter() {
+        this.objectMappers = new ConcurrentHashMap<String, ObjectMapperEntry>();
+    }
+
+    /**
+     * Clears the shared object mappers, readers and writers.
+     */
+    public void clear() {
+        this.objectMappers.clear();
+    }
+
     /**
      * Creates the marshaling {@link JacksonRepresentation}.
      * 
@@ -109,6 +170,32 @@ public class JacksonConverter extends ConverterHelper {
         return new JacksonRepresentation<T>(source, objectClass);
     }
 
+    /**
+     * Returns the shared object mapper entry matching a representation. It is
+     * created with the {@link JacksonRepresentation#createObjectMapper()}
+     * method of the first representation of its kind.
+     * 
+     * @param representation
+     *            The Jackson representation.
+     * @return The shared object mapper entry.
+     */
+    private ObjectMapperEntry getEntry(JacksonRepresentation<?> representation) {
+        String key = getObjectMapperKey(representation);
+        ObjectMapperEntry result = this.objectMappers.get(key);
+
+        if (result == null) {
+            result = new ObjectMapperEntry(representation.createObjectMapper());
+            ObjectMapperEntry existing = this.objectMappers.putIfAbsent(key,
+                    result);
+
+            if (existing != null) {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<Class<?>> getObjectClasses(Variant source) {
         List<Class<?>> result = null;
@@ -121,6 +208,40 @@ public class JacksonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Returns the key of the object mapper shared by similar representations.
+     * It depends on the representation class, on the family of its media type
+     * and on its XML parsing options.
+     * 
+     * @param representation
+     *            The Jackson representation.
+     * @return The key of the shared object mapper.
+     */
+    protected String getObjectMapperKey(JacksonRepresentation<?> representation) {
+        StringBuilder result = new StringBuilder(representation.getClass()
+                .getName()).append('|');
+        MediaType mediaType = representation.getMediaType();
+
+        if (MediaType.APPLICATION_JSON.isCompatible(mediaType)) {
+            result.append("json");
+        } else if (MediaType.APPLICATION_JSON_SMILE.isCompatible(mediaType)) {
+            result.append("smile");
+        } else if (MediaType.APPLICATION_XML.isCompatible(mediaType)
+                || MediaType.TEXT_XML.isCompatible(mediaType)) {
+            result.append("xml|")
+                    .append(representation.isExpandingEntityRefs())
+                    .append('|').append(representation.isValidatingDtd());
+        } else if (MediaType.APPLICATION_YAML.isCompatible(mediaType)) {
+            result.append("yaml");
+        } else if (MediaType.TEXT_CSV.isCompatible(mediaType)) {
+            result.append("csv");
+        } else {
+            result.append("json");
+        }
+
+        return result.toString();
+    }
+
     @Override
     public List<VariantInfo> getVariants(Class<?> source) {
         List<VariantInfo> result = null;
@@ -206,6 +327,7 @@ public class JacksonConverter extends ConverterHelper {
             jacksonSource = (JacksonRepresentation<?>) source;
         } else if (isCompatible(source)) {
             jacksonSource = create(source, target);
+            share(jacksonSource, true);
         }
 
         if (jacksonSource != null) {
@@ -221,6 +343,47 @@ public class JacksonConverter extends ConverterHelper {
         return (T) result;
     }
 
+    /**
+     * Sets the shared object mapper on a representation, as well as the shared
+     * object reader or writer of its object class.
+     * 
+     * @param representation
+     *            The Jackson representation.
+     * @param reading
+     *            True if the representation will be read, false if it will be
+     *            written.
+     */
+    protected void share(JacksonRepresentation<?> representation,
+            boolean reading) {
+        ObjectMapperEntry entry = getEntry(representation);
+        representation.setObjectMapper(entry.objectMapper);
+        Class<?> objectClass = representation.getObjectClass();
+
+        if (objectClass != null) {
+            if (reading) {
+                ObjectReader objectReader = entry.objectReaders
+                        .get(objectClass);
+
+                if (objectReader == null) {
+                    objectReader = representation.createObjectReader();
+                    entry.objectReaders.putIfAbsent(objectClass, objectReader);
+                }
+
+                representation.setObjectReader(objectReader);
+            } else {
+                ObjectWriter objectWriter = entry.objectWriters
+                        .get(objectClass);
+
+                if (objectWriter == null) {
+                    objectWriter = representation.createObjectWriter();
+                    entry.objectWriters.putIfAbsent(objectClass, objectWriter);
+                }
+
+                representation.setObjectWriter(objectWriter);
+            }
+        }
+    }
+
     @Override
     public Representation toRepresentation(Object source, Variant target,
             Resource resource) {
@@ -233,7 +396,10 @@ public class JacksonConverter extends ConverterHelper {
                 target.setMediaType(MediaType.APPLICATION_JSON);
             }
             if (isCompatible(target)) {
-                result = create(target.getMediaType(), source);
+                JacksonRepresentation<Object> jacksonResult = create(
+                        target.getMediaType(), source);
+                share(jacksonResult, false);
+                result = jacksonResult;
             }
         }
 
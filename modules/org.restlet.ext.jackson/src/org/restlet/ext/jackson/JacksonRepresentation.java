@@ -35,6 +35,7 @@ package org.restlet.ext.jackson;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Iterator;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.stream.XMLInputFactory;
@@ -45,10 +46,12 @@ import org.restlet.representation.OutputRepresentation;
 import org.restlet.representation.Representation;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonGenerator.Feature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.csv.CsvFactory;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
@@ -61,6 +64,10 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
  * Representation based on the Jackson library. It can serialize and deserialize
  * automatically in JSON, JSON binary (Smile), XML, YAML and CSV. <br>
  * <br>
+ * When the streaming mode is enabled, {@link Iterable} and {@link Iterator}
+ * objects are serialized element by element as a JSON, Smile or YAML array,
+ * without requiring the whole content to be available in memory.<br>
+ * <br>
  * SECURITY WARNING: Using XML parsers configured to not prevent nor limit
  * document type definition (DTD) entity resolution can expose the parser to an
  * XML Entity Expansion injection attack.
@@ -117,6 +124,9 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
     /** The representation to parse. */
     private Representation representation;
 
+    /** Indicates if iterable objects are serialized element by element. */
+    private volatile boolean streaming;
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against a DTD. Note that for XML schema or Relax NG validation, use the
@@ -146,6 +156,7 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         this.objectWriter = null;
         this.csvSchema = null;
         this.expandingEntityRefs = XML_EXPANDING_ENTITY_REFS;
+        this.streaming = false;
         this.validatingDtd = XML_VALIDATING_DTD;
     }
 
@@ -168,6 +179,7 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         this.objectWriter = null;
         this.csvSchema = null;
         this.expandingEntityRefs = XML_EXPANDING_ENTITY_REFS;
+        this.streaming = false;
         this.validatingDtd = XML_VALIDATING_DTD;
     }
 
@@ -374,6 +386,17 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         return expandingEntityRefs;
     }
 
+    /**
+     * Indicates if {@link Iterable} and {@link Iterator} objects are serialized
+     * element by element. This is only supported for the JSON, JSON Smile and
+     * YAML media types. By default the value of this is set to false.
+     * 
+     * @return True if iterable objects are serialized element by element.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against an XML schema if one is referenced within the contents.
@@ -455,6 +478,18 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         this.objectWriter = objectWriter;
     }
 
+    /**
+     * Indicates if {@link Iterable} and {@link Iterator} objects are serialized
+     * element by element. This is only supported for the JSON, JSON Smile and
+     * YAML media types.
+     * 
+     * @param streaming
+     *            True if iterable objects are serialized element by element.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against an XML schema if one is referenced within the contents.
@@ -471,7 +506,46 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         if (representation != null) {
             representation.write(outputStream);
         } else if (object != null) {
-            getObjectWriter().writeValue(outputStream, object);
+            if (isStreaming()
+                    && ((object instanceof Iterable) || (object instanceof Iterator))
+                    && !MediaType.APPLICATION_XML.isCompatible(getMediaType())
+                    && !MediaType.TEXT_XML.isCompatible(getMediaType())
+                    && !MediaType.TEXT_CSV.isCompatible(getMediaType())) {
+                writeElements(outputStream);
+            } else {
+                getObjectWriter().writeValue(outputStream, object);
+            }
+        }
+    }
+
+    /**
+     * Writes the wrapped {@link Iterable} or {@link Iterator} object as an
+     * array, serializing each element as soon as it is obtained. The output is
+     * only flushed at the end, leaving the buffering to the generator.
+     * 
+     * @param outputStream
+     *            The output stream.
+     * @throws IOException
+     */
+    protected void writeElements(OutputStream outputStream) throws IOException {
+        Iterator<?> elements = (object instanceof Iterator) ? (Iterator<?>) object
+                : ((Iterable<?>) object).iterator();
+        ObjectMapper objectMapper = getObjectMapper();
+        ObjectWriter elementWriter = objectMapper.writer().without(
+                SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                outputStream);
+
+        try {
+            generator.writeStartArray();
+
+            while (elements.hasNext()) {
+                elementWriter.writeValue(generator, elements.next());
+            }
+
+            generator.writeEndArray();
+        } finally {
+            generator.close();
         }
     }
 }
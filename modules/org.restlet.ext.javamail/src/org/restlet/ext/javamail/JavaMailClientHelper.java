@@ -34,7 +34,13 @@
 package org.restlet.ext.javamail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import javax.mail.FetchProfile;
@@ -53,12 +59,17 @@ import org.restlet.Client;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.ChallengeScheme;
+import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Status;
 import org.restlet.engine.connector.ClientHelper;
+import org.restlet.ext.xml.DomRepresentation;
 import org.restlet.representation.Representation;
 import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 import com.sun.mail.pop3.POP3Folder;
 
@@ -91,6 +102,29 @@ import com.sun.mail.pop3.POP3Folder;
  *  &lt;/email&gt;
  * </pre>
  * 
+ * To send several emails at once, wrap them inside an "emails" root element.
+ * They are sent one after the other over the same SMTP connection:<br>
+ * 
+ * <pre>
+ * &lt;?xml version=&quot;1.0&quot; encoding=&quot;ISO-8859-1&quot; ?&gt;
+ * &lt;emails&gt;
+ *    &lt;email&gt;...&lt;/email&gt;
+ *    &lt;email&gt;...&lt;/email&gt;
+ * &lt;/emails&gt;
+ * </pre>
+ * 
+ * Such a batch can also be built from JavaMail messages with the
+ * {@link MessagesRepresentation#MessagesRepresentation(Message[])}
+ * constructor. If a message of a batch can't be sent, the following ones
+ * aren't sent either, and the description of the error status tells how many
+ * messages were sent.<br>
+ * <br>
+ * SMTP connections are kept open and authenticated after use, for each
+ * server and credentials, so that consecutive messages don't pay again for
+ * the connection, STARTTLS and authentication handshakes. Once started, the
+ * connector closes the expired idle connections in the background. See the
+ * {@link #getTransportPool()} method for the pool statistics.<br>
+ * <br>
  * To receive the list of emails, send a GET request to a resource reference on
  * a POP or POPS URI, leaving the reference path empty. A POP URI has the
  * following syntax: pop://host[:port]<br>
@@ -139,6 +173,21 @@ import com.sun.mail.pop3.POP3Folder;
  * <td>If true, the connector will generate JavaMail debug messages.</td>
  * </tr>
  * <tr>
+ * <td>idleTimeout</td>
+ * <td>long</td>
+ * <td>30000</td>
+ * <td>Time in ms beyond which idle SMTP connections are closed. They are
+ * checked in the background with the same period. A value of 0 disables the
+ * timeout.</td>
+ * </tr>
+ * <tr>
+ * <td>maxIdleConnections</td>
+ * <td>int</td>
+ * <td>4</td>
+ * <td>Maximum number of idle SMTP connections kept open for each server and
+ * credentials. A value of 0 disables the reuse of connections.</td>
+ * </tr>
+ * <tr>
  * <td>representationMessageClass</td>
  * <td>String</td>
  * <td>null</td>
@@ -154,6 +203,12 @@ import com.sun.mail.pop3.POP3Folder;
  */
 public class JavaMailClientHelper extends ClientHelper {
 
+    /** The executor closing the expired idle SMTP connections. */
+    private volatile ScheduledExecutorService sweeper;
+
+    /** The pool of SMTP connections. */
+    private volatile SmtpTransportPool transportPool;
+
     /**
      * Constructor.
      * 
@@ -203,6 +258,44 @@ public class JavaMailClientHelper extends ClientHelper {
         }
     }
 
+    /**
+     * Creates the JavaMail messages to send by parsing an XML representation.
+     * The representation contains either a single "email" element or a batch
+     * of "email" elements inside an "emails" root element.
+     * 
+     * @param xmlMessages
+     *            The XML message or batch of messages to parse.
+     * @param session
+     *            The current JavaMail session.
+     * @return The created JavaMail messages.
+     * @throws IOException
+     * @throws AddressException
+     * @throws MessagingException
+     */
+    protected List<Message> createMessages(Representation xmlMessages,
+            Session session) throws IOException, AddressException,
+            MessagingException {
+        List<Message> result = new ArrayList<Message>();
+        DomRepresentation dom = new DomRepresentation(xmlMessages);
+        Element root = dom.getDocument().getDocumentElement();
+
+        if ((root != null) && "emails".equals(root.getNodeName())) {
+            NodeList emails = root.getElementsByTagName("email");
+
+            for (int i = 0; i < emails.getLength(); i++) {
+                DomRepresentation email = new DomRepresentation(
+                        MediaType.APPLICATION_XML);
+                Document document = email.getDocument();
+                document.appendChild(document.importNode(emails.item(i), true));
+                result.add(createMessage(email, session));
+            }
+        } else {
+            result.add(createMessage(dom, session));
+        }
+
+        return result;
+    }
+
     /**
      * Creates an XML representation based on a JavaMail message.
      * 
@@ -247,6 +340,18 @@ public class JavaMailClientHelper extends ClientHelper {
         return null;
     }
 
+    /**
+     * Returns the maximum number of idle SMTP connections kept for each server
+     * and credentials. The default value is 4.
+     * 
+     * @return The maximum number of idle SMTP connections kept for each server
+     *         and credentials.
+     */
+    public int getMaxIdleConnections() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxIdleConnections", "4"));
+    }
+
     /**
      * Returns the request password.
      * 
@@ -262,6 +367,17 @@ public class JavaMailClientHelper extends ClientHelper {
         return null;
     }
 
+    /**
+     * Returns the time in ms beyond which idle SMTP connections are closed.
+     * The default value is 30000 ms.
+     * 
+     * @return The time in ms beyond which idle SMTP connections are closed.
+     */
+    public long getIdleTimeout() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "idleTimeout", "30000"));
+    }
+
     /**
      * Returns the full name of the class used for generating JavaMail Message
      * instances from an XML representation and a JavaMail Session.
@@ -274,6 +390,30 @@ public class JavaMailClientHelper extends ClientHelper {
                 .getFirstValue("representationMessageClass");
     }
 
+    /**
+     * Returns the pool of SMTP connections. It can be used to monitor the
+     * reuse of connections.
+     * 
+     * @return The pool of SMTP connections.
+     */
+    public SmtpTransportPool getTransportPool() {
+        SmtpTransportPool result = this.transportPool;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.transportPool;
+
+                if (result == null) {
+                    result = new SmtpTransportPool(getMaxIdleConnections(),
+                            getIdleTimeout(), getLogger());
+                    this.transportPool = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public void handle(Request request, Response response) {
         try {
@@ -442,7 +582,9 @@ public class JavaMailClientHelper extends ClientHelper {
             }
 
             // Check if authentication required
-            final boolean authenticate = ((getLogin(request) != null) && (getPassword(request) != null));
+            final String login = getLogin(request);
+            final String password = getPassword(request);
+            final boolean authenticate = ((login != null) && (password != null));
             String transport = null;
 
             if (Protocol.SMTP.equals(request.getProtocol())) {
@@ -451,7 +593,11 @@ public class JavaMailClientHelper extends ClientHelper {
                 transport = "smtps";
             }
 
-            final Properties props = System.getProperties();
+            // Connections are shared by server and credentials
+            final SmtpTransportPool.Key key = new SmtpTransportPool.Key(
+                    transport, smtpHost, smtpPort, isStartTls(), login,
+                    password);
+            final Properties props = new Properties(System.getProperties());
             props.put("mail." + transport + ".host", smtpHost);
             props.put("mail." + transport + ".port", Integer.toString(smtpPort));
             props.put("mail." + transport + ".auth",
@@ -459,35 +605,46 @@ public class JavaMailClientHelper extends ClientHelper {
             props.put("mail." + transport + ".starttls.enable",
                     Boolean.toString(isStartTls()));
 
-            // Open the JavaMail session
-            final Session session = Session.getDefaultInstance(props);
+            // Get the JavaMail session and create the messages before
+            // borrowing a connection
+            final Session session = getTransportPool().getSession(key, props);
             session.setDebug(isDebug());
-            final Transport tr = session.getTransport(transport);
-
-            if (tr != null) {
-                // Check if authentication is needed
-                if (authenticate) {
-                    tr.connect(smtpHost, getLogin(request),
-                            getPassword(request));
-                } else {
-                    tr.connect();
+            final List<Message> messages = createMessages(request.getEntity(),
+                    session);
+            final Transport tr = getTransportPool().acquire(key, session,
+                    password);
+            boolean reusable = false;
+            int sent = 0;
+
+            try {
+                // Actually send the messages
+                getLogger()
+                        .info("JavaMail client connection successfully established. Attempting to send the message(s)");
+
+                for (Message msg : messages) {
+                    tr.sendMessage(msg, msg.getAllRecipients());
+                    sent++;
                 }
 
-                // Actually send the message
-                if (tr.isConnected()) {
-                    getLogger()
-                            .info("JavaMail client connection successfully established. Attempting to send the message");
-
-                    // Create the JavaMail message
-                    final Message msg = createMessage(request.getEntity(),
-                            session);
-
-                    // Send the message
-                    tr.sendMessage(msg, msg.getAllRecipients());
-                    tr.close();
+                reusable = true;
+                getLogger().info(
+                        "JavaMail client successfully sent " + messages.size()
+                                + " message(s).");
+            } catch (MessagingException e) {
+                if (messages.size() <= 1) {
+                    throw e;
+                }
 
-                    getLogger().info(
-                            "JavaMail client successfully sent the message.");
+                // Tell which messages of the batch were sent
+                getLogger().log(Level.WARNING, "JavaMail client error", e);
+                response.setStatus(Status.SERVER_ERROR_INTERNAL, "Only the "
+                        + sent + " first message(s) of the batch of "
+                        + messages.size() + " were sent: " + e.getMessage());
+            } finally {
+                if (reusable) {
+                    getTransportPool().release(key, tr);
+                } else {
+                    getTransportPool().discard(tr);
                 }
             }
         }
@@ -513,4 +670,44 @@ public class JavaMailClientHelper extends ClientHelper {
                 "startTls", "false"));
     }
 
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+        final SmtpTransportPool pool = new SmtpTransportPool(
+                getMaxIdleConnections(), getIdleTimeout(), getLogger());
+        this.transportPool = pool;
+
+        if (pool.getIdleTimeout() > 0) {
+            this.sweeper = Executors
+                    .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable,
+                                    "restlet-javamail-sweeper");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            this.sweeper.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    pool.sweep();
+                }
+            }, pool.getIdleTimeout(), pool.getIdleTimeout(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        if (this.sweeper != null) {
+            this.sweeper.shutdownNow();
+            this.sweeper = null;
+        }
+
+        if (this.transportPool != null) {
+            this.transportPool.clear();
+        }
+
+        super.stop();
+    }
+
 }
@@ -46,12 +46,38 @@ import org.w3c.dom.Element;
 import com.sun.mail.pop3.POP3Folder;
 
 /**
- * XML representation of a list of JavaMail messages.
+ * XML representation of a list of JavaMail messages. It either references the
+ * messages of a POP mailbox or contains a batch of complete messages to send.
  * 
  * @author Jerome Louvel
  */
 public class MessagesRepresentation extends DomRepresentation {
 
+    /**
+     * Constructor of a batch of complete messages, that can be posted at once
+     * to a SMTP URI with the {@link JavaMailClientHelper}.
+     * 
+     * @param messages
+     *            The list of JavaMail messages to format.
+     * @throws IOException
+     * @throws MessagingException
+     */
+    public MessagesRepresentation(Message[] messages) throws IOException,
+            MessagingException {
+        super(MediaType.APPLICATION_XML);
+
+        // Format the list
+        final Document dom = getDocument();
+        final Element emails = dom.createElement("emails");
+        dom.appendChild(emails);
+
+        // Add the complete messages
+        for (final Message message : messages) {
+            emails.appendChild(dom.importNode(new MessageRepresentation(
+                    message).getDocument().getDocumentElement(), true));
+        }
+    }
+
     /**
      * Constructor.
      * 
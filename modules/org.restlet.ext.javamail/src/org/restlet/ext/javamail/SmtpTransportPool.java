@@ -0,0 +1,656 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.javamail;
+
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.restlet.engine.security.CryptoPools;
+
+/**
+ * Pool of connected SMTP transports. Transports are grouped by {@link Key},
+ * combining the SMTP server address and the credentials used to authenticate.
+ * Each key has its own JavaMail session and its own list of idle transports,
+ * so consecutive messages sent to the same server with the same credentials
+ * reuse an already established and authenticated connection instead of going
+ * through the TCP, TLS and authentication handshakes again.<br>
+ * <br>
+ * A transport is lent to a single caller at a time. Idle transports are closed
+ * when they have not been used for longer than the idle timeout, when they are
+ * no longer connected or when the maximum number of idle transports is
+ * reached for their key. The {@link #sweep()} method, periodically called by
+ * the {@link JavaMailClientHelper}, closes the expired idle transports and
+ * forgets the keys that are no longer used.
+ * 
+ * @author Jerome Louvel
+ */
+public class SmtpTransportPool {
+
+    /** Pooled transports and session for a given key. */
+    private static class Entry {
+
+        /** The idle transports, most recently used first. */
+        private final LinkedList<IdleTransport> idleTransports;
+
+        /** The last time the entry was used. */
+        private volatile long lastUseTime;
+
+        /** Indicates if the entry was removed from the pool. */
+        private boolean removed;
+
+        /** The JavaMail session. */
+        private final Session session;
+
+        /**
+         * Constructor.
+         * 
+         * @param session
+         *            The JavaMail session.
+         */
+        private Entry(Session session) {
+            this.idleTransports = new LinkedList<IdleTransport>();
+            this.lastUseTime = System.currentTimeMillis();
+            this.session = session;
+        }
+    }
+
+    /** Idle transport with the time it was released to the pool. */
+    private static class IdleTransport {
+
+        /** The time the transport was released. */
+        private final long releaseTime;
+
+        /** The connected transport. */
+        private final Transport transport;
+
+        /**
+         * Constructor.
+         * 
+         * @param transport
+         *            The connected transport.
+         */
+        private IdleTransport(Transport transport) {
+            this.releaseTime = System.currentTimeMillis();
+            this.transport = transport;
+        }
+    }
+
+    /**
+     * Key of the pooled transports. The password isn't kept, only a keyed
+     * hash of it, so that connections opened with different passwords aren't
+     * shared.
+     */
+    public static final class Key {
+
+        /** The secret key used to hash the passwords. */
+        private static final byte[] SECRET = new byte[32];
+
+        static {
+            new SecureRandom().nextBytes(SECRET);
+        }
+
+        /** The SMTP server host. */
+        private final String host;
+
+        /** The login or null. */
+        private final String login;
+
+        /** The keyed hash of the password or null. */
+        private final byte[] passwordHash;
+
+        /** The SMTP server port. */
+        private final int port;
+
+        /** The JavaMail protocol name. */
+        private final String protocol;
+
+        /** Indicates if a TLS tunnel is started. */
+        private final boolean startTls;
+
+        /**
+         * Constructor.
+         * 
+         * @param protocol
+         *            The JavaMail protocol name, "smtp" or "smtps".
+         * @param host
+         *            The SMTP server host.
+         * @param port
+         *            The SMTP server port.
+         * @param startTls
+         *            Indicates if a TLS tunnel is started.
+         * @param login
+         *            The login or null.
+         * @param password
+         *            The password or null.
+         */
+        public Key(String protocol, String host, int port, boolean startTls,
+                String login, String password) {
+            this.protocol = protocol;
+            this.host = host;
+            this.port = port;
+            this.startTls = startTls;
+            this.login = login;
+
+            if (password == null) {
+                this.passwordHash = null;
+            } else {
+                try {
+                    this.passwordHash = CryptoPools.mac("HmacSHA256", SECRET,
+                            password.getBytes("UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) obj;
+            return (this.port == key.port)
+                    && (this.startTls == key.startTls)
+                    && equals(this.protocol, key.protocol)
+                    && equals(this.host, key.host)
+                    && equals(this.login, key.login)
+                    && ((this.passwordHash == null) ? (key.passwordHash == null)
+                            : ((key.passwordHash != null) && MessageDigest
+                                    .isEqual(this.passwordHash,
+                                            key.passwordHash)));
+        }
+
+        /**
+         * Compares two nullable strings.
+         * 
+         * @param a
+         *            The first string or null.
+         * @param b
+         *            The second string or null.
+         * @return True if both strings are equal or null.
+         */
+        private static boolean equals(String a, String b) {
+            return (a == null) ? (b == null) : a.equals(b);
+        }
+
+        /**
+         * Returns the SMTP server host.
+         * 
+         * @return The SMTP server host.
+         */
+        public String getHost() {
+            return this.host;
+        }
+
+        /**
+         * Returns the login or null.
+         * 
+         * @return The login or null.
+         */
+        public String getLogin() {
+            return this.login;
+        }
+
+        /**
+         * Returns the SMTP server port.
+         * 
+         * @return The SMTP server port.
+         */
+        public int getPort() {
+            return this.port;
+        }
+
+        /**
+         * Returns the JavaMail protocol name.
+         * 
+         * @return The JavaMail protocol name.
+         */
+        public String getProtocol() {
+            return this.protocol;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.port;
+            result = 31 * result + (this.startTls ? 1 : 0);
+            result = 31 * result
+                    + ((this.protocol == null) ? 0 : this.protocol.hashCode());
+            result = 31 * result
+                    + ((this.host == null) ? 0 : this.host.hashCode());
+            result = 31 * result
+                    + ((this.login == null) ? 0 : this.login.hashCode());
+            return result;
+        }
+
+        /**
+         * Indicates if a TLS tunnel is started.
+         * 
+         * @return True if a TLS tunnel is started.
+         */
+        public boolean isStartTls() {
+            return this.startTls;
+        }
+
+        @Override
+        public String toString() {
+            return this.protocol + "://"
+                    + ((this.login == null) ? "" : this.login + "@")
+                    + this.host + ":" + this.port
+                    + (this.startTls ? " (STARTTLS)" : "");
+        }
+    }
+
+    /** The number of transports closed by the pool. */
+    private final AtomicLong closedCount;
+
+    /** The number of transports created and connected by the pool. */
+    private final AtomicLong createdCount;
+
+    /** The pooled transports and sessions. */
+    private final ConcurrentMap<Key, Entry> entries;
+
+    /** The time in ms beyond which idle transports are closed. */
+    private volatile long idleTimeout;
+
+    /** The logger to use. */
+    private final Logger logger;
+
+    /** The maximum number of idle transports kept for each key. */
+    private volatile int maxIdleTransports;
+
+    /** The number of transports reused from the pool. */
+    private final AtomicLong reusedCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxIdleTransports
+     *            The maximum number of idle transports kept for each key.
+     * @param idleTimeout
+     *            The time in ms beyond which idle transports are closed.
+     * @param logger
+     *            The logger to use.
+     */
+    public SmtpTransportPool(int maxIdleTransports, long idleTimeout,
+            Logger logger) {
+        this.closedCount = new AtomicLong();
+        this.createdCount = new AtomicLong();
+        this.entries = new ConcurrentHashMap<Key, Entry>();
+        this.idleTimeout = idleTimeout;
+        this.logger = logger;
+        this.maxIdleTransports = maxIdleTransports;
+        this.reusedCount = new AtomicLong();
+    }
+
+    /**
+     * Returns a connected transport for the given key, either an idle one
+     * taken from the pool or a new one created from the given session.
+     * 
+     * @param key
+     *            The pool key.
+     * @param session
+     *            The JavaMail session returned by
+     *            {@link #getSession(Key, Properties)}.
+     * @param password
+     *            The password or null if no authentication is required.
+     * @return A connected transport.
+     * @throws MessagingException
+     */
+    public Transport acquire(Key key, Session session, String password)
+            throws MessagingException {
+        Entry entry = this.entries.get(key);
+
+        if (entry != null) {
+            entry.lastUseTime = System.currentTimeMillis();
+            IdleTransport idle = poll(entry);
+
+            while (idle != null) {
+                if (!isExpired(idle) && idle.transport.isConnected()) {
+                    this.reusedCount.incrementAndGet();
+                    return idle.transport;
+                }
+
+                close(idle.transport);
+                idle = poll(entry);
+            }
+        }
+
+        Transport result = session.getTransport(key.getProtocol());
+
+        if ((key.getLogin() != null) && (password != null)) {
+            result.connect(key.getHost(), key.getLogin(), password);
+        } else {
+            result.connect();
+        }
+
+        this.createdCount.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Closes all the idle transports and forgets the sessions.
+     */
+    public void clear() {
+        for (Entry entry : this.entries.values()) {
+            synchronized (entry) {
+                entry.removed = true;
+            }
+
+            closeIdleTransports(entry, false);
+        }
+
+        this.entries.clear();
+    }
+
+    /**
+     * Closes a transport, ignoring errors.
+     * 
+     * @param transport
+     *            The transport to close.
+     */
+    private void close(Transport transport) {
+        try {
+            this.closedCount.incrementAndGet();
+            transport.close();
+        } catch (MessagingException e) {
+            this.logger.log(Level.FINE, "Unable to close the SMTP transport",
+                    e);
+        }
+    }
+
+    /**
+     * Closes the idle transports of an entry.
+     * 
+     * @param entry
+     *            The pool entry.
+     * @param expiredOnly
+     *            True if only the expired transports are closed.
+     */
+    private void closeIdleTransports(Entry entry, boolean expiredOnly) {
+        LinkedList<IdleTransport> closed = new LinkedList<IdleTransport>();
+
+        synchronized (entry) {
+            for (Iterator<IdleTransport> iter = entry.idleTransports
+                    .iterator(); iter.hasNext();) {
+                IdleTransport idle = iter.next();
+
+                if (!expiredOnly || isExpired(idle)) {
+                    iter.remove();
+                    closed.add(idle);
+                }
+            }
+        }
+
+        for (IdleTransport idle : closed) {
+            close(idle.transport);
+        }
+    }
+
+    /**
+     * Closes a transport that can't be reused, for example after a failure
+     * while sending a message.
+     * 
+     * @param transport
+     *            The transport to discard.
+     */
+    public void discard(Transport transport) {
+        if (transport != null) {
+            close(transport);
+        }
+    }
+
+    /**
+     * Returns the number of transports closed by the pool.
+     * 
+     * @return The number of transports closed by the pool.
+     */
+    public long getClosedCount() {
+        return this.closedCount.get();
+    }
+
+    /**
+     * Returns the number of transports created and connected by the pool.
+     * 
+     * @return The number of transports created and connected by the pool.
+     */
+    public long getCreatedCount() {
+        return this.createdCount.get();
+    }
+
+    /**
+     * Returns the current number of idle transports, for all keys.
+     * 
+     * @return The current number of idle transports.
+     */
+    public int getIdleCount() {
+        int result = 0;
+
+        for (Entry entry : this.entries.values()) {
+            synchronized (entry) {
+                result += entry.idleTransports.size();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the time in ms beyond which idle transports are closed.
+     * 
+     * @return The time in ms beyond which idle transports are closed.
+     */
+    public long getIdleTimeout() {
+        return this.idleTimeout;
+    }
+
+    /**
+     * Returns the current number of keys with a pooled session.
+     * 
+     * @return The current number of keys.
+     */
+    public int getKeyCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the maximum number of idle transports kept for each key.
+     * 
+     * @return The maximum number of idle transports kept for each key.
+     */
+    public int getMaxIdleTransports() {
+        return this.maxIdleTransports;
+    }
+
+    /**
+     * Returns the number of transports reused from the pool.
+     * 
+     * @return The number of transports reused from the pool.
+     */
+    public long getReusedCount() {
+        return this.reusedCount.get();
+    }
+
+    /**
+     * Returns the JavaMail session of the given key, creating it with the
+     * given properties if needed.
+     * 
+     * @param key
+     *            The pool key.
+     * @param properties
+     *            The session properties, used only on creation.
+     * @return The JavaMail session.
+     */
+    public Session getSession(Key key, Properties properties) {
+        Entry entry = this.entries.get(key);
+
+        if (entry == null) {
+            Entry newEntry = new Entry(Session.getInstance(properties));
+            entry = this.entries.putIfAbsent(key, newEntry);
+
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+
+        entry.lastUseTime = System.currentTimeMillis();
+        return entry.session;
+    }
+
+    /**
+     * Indicates if an idle transport was released for longer than the idle
+     * timeout.
+     * 
+     * @param idle
+     *            The idle transport.
+     * @return True if the idle transport has expired.
+     */
+    private boolean isExpired(IdleTransport idle) {
+        return (getIdleTimeout() > 0)
+                && (System.currentTimeMillis() - idle.releaseTime > getIdleTimeout());
+    }
+
+    /**
+     * Removes and returns the most recently used idle transport of an entry.
+     * 
+     * @param entry
+     *            The pool entry.
+     * @return The idle transport or null.
+     */
+    private IdleTransport poll(Entry entry) {
+        synchronized (entry) {
+            return entry.idleTransports.poll();
+        }
+    }
+
+    /**
+     * Gives back a transport that is still usable to the pool. It is closed
+     * instead if the pool is full for its key, or if the key was forgotten in
+     * the meantime.
+     * 
+     * @param key
+     *            The pool key.
+     * @param transport
+     *            The transport to release.
+     */
+    public void release(Key key, Transport transport) {
+        Entry entry = this.entries.get(key);
+        boolean pooled = false;
+
+        if (entry != null) {
+            entry.lastUseTime = System.currentTimeMillis();
+
+            synchronized (entry) {
+                if (!entry.removed
+                        && (entry.idleTransports.size() < getMaxIdleTransports())) {
+                    entry.idleTransports.addFirst(new IdleTransport(
+                            transport));
+                    pooled = true;
+                }
+            }
+        }
+
+        if (!pooled) {
+            close(transport);
+        }
+    }
+
+    /**
+     * Sets the time in ms beyond which idle transports are closed. A value of
+     * 0 disables the timeout.
+     * 
+     * @param idleTimeout
+     *            The time in ms beyond which idle transports are closed.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Sets the maximum number of idle transports kept for each key. A value
+     * of 0 disables the reuse of transports.
+     * 
+     * @param maxIdleTransports
+     *            The maximum number of idle transports kept for each key.
+     */
+    public void setMaxIdleTransports(int maxIdleTransports) {
+        this.maxIdleTransports = maxIdleTransports;
+    }
+
+    /**
+     * Closes the idle transports released for longer than the idle timeout,
+     * then forgets the keys without idle transports that have not been used
+     * for longer than the idle timeout. Does nothing if the idle timeout is
+     * disabled.
+     */
+    public void sweep() {
+        if (getIdleTimeout() <= 0) {
+            return;
+        }
+
+        for (Map.Entry<Key, Entry> mapEntry : this.entries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            closeIdleTransports(entry, true);
+
+            synchronized (entry) {
+                if (entry.idleTransports.isEmpty()
+                        && (System.currentTimeMillis() - entry.lastUseTime > getIdleTimeout())) {
+                    // Transports released later are closed
+                    entry.removed = true;
+                    this.entries.remove(mapEntry.getKey(), entry);
+                }
+            }
+        }
+    }
+
+}
@@ -34,9 +34,8 @@
 package org.restlet.ext.jaxb;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import javax.xml.bind.JAXBContext;
@@ -47,6 +46,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.restlet.Context;
 import org.restlet.data.MediaType;
+import org.restlet.ext.jaxb.internal.ContextPool;
 import org.restlet.ext.jaxb.internal.Marshaller;
 import org.restlet.ext.jaxb.internal.Unmarshaller;
 import org.restlet.representation.Representation;
@@ -65,9 +65,6 @@ import com.sun.xml.bind.marshaller.NamespacePrefixMapper;
  */
 public class JaxbRepresentation<T> extends WriterRepresentation {
 
-    /** Improves performance by caching contexts which are expensive to create. */
-    private final static Map<String, JAXBContext> contexts = new ConcurrentHashMap<String, JAXBContext>();
-
     /**
      * Returns the JAXB context, if possible from the cached contexts.
      * 
@@ -77,13 +74,15 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
      * @return The JAXB context.
      * @throws JAXBException
      */
-    public static synchronized JAXBContext getContext(String contextPath)
+    public static JAXBContext getContext(String contextPath)
             throws JAXBException {
         return getContext(contextPath, null);
     }
 
     /**
-     * Returns the JAXB context, if possible from the cached contexts.
+     * Returns the JAXB context, if possible from the cached contexts. Contexts
+     * are expensive to create but thread-safe, so they are registered per
+     * context path and reused. Looking up a registered context doesn't block.
      * 
      * @param contextPath
      *            The JAXB context path.
@@ -94,19 +93,27 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
      * @return The JAXB context.
      * @throws JAXBException
      */
-    public static synchronized JAXBContext getContext(String contextPath,
+    public static JAXBContext getContext(String contextPath,
             ClassLoader classLoader) throws JAXBException {
-        // Contexts are thread-safe so reuse those.
-        JAXBContext result = contexts.get(contextPath);
-
-        if (result == null) {
-            result = (classLoader == null) ? JAXBContext
-                    .newInstance(contextPath) : JAXBContext.newInstance(
-                    contextPath, classLoader);
-            contexts.put(contextPath, result);
-        }
+        return ContextPool.get(contextPath, classLoader).getContext();
+    }
 
-        return result;
+    /**
+     * Creates and registers the JAXB contexts of the given context paths, so
+     * that the first requests don't have to. Typically called when an
+     * application starts.
+     * 
+     * @param classLoader
+     *            The JAXB classloader to use for annotated JAXB classes.
+     * @param contextPaths
+     *            The JAXB context paths to preload.
+     * @throws JAXBException
+     */
+    public static void preloadContexts(ClassLoader classLoader,
+            String... contextPaths) throws JAXBException {
+        for (String contextPath : contextPaths) {
+            ContextPool.get(contextPath, classLoader);
+        }
     }
 
     /**
@@ -153,6 +160,12 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
     /** Limits potential XML overflow attacks. */
     private boolean secureProcessing;
 
+    /**
+     * Indicates if the object is marshalled directly to the output stream or
+     * channel in the target character set.
+     */
+    private volatile boolean streaming;
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against a DTD. Note that for XML schema or Relax NG validation, use the
@@ -216,6 +229,7 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
         this.noNamespaceSchemaLocation = null;
         this.schemaLocation = null;
         this.secureProcessing = true;
+        this.streaming = false;
         this.validatingDtd = false;
         this.xIncludeAware = false;
     }
@@ -500,6 +514,18 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
         return secureProcessing;
     }
 
+    /**
+     * Indicates if the object is marshalled directly to the output stream or
+     * channel in the target character set, instead of going through an
+     * intermediary character writer. By default the value of this is set to
+     * false.
+     * 
+     * @return True if the object is marshalled directly to the output stream.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against an XML schema if one is referenced within the contents.
@@ -630,6 +656,19 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
         this.secureProcessing = secureProcessing;
     }
 
+    /**
+     * Indicates if the object is marshalled directly to the output stream or
+     * channel in the target character set, instead of going through an
+     * intermediary character writer.
+     * 
+     * @param streaming
+     *            True if the object is marshalled directly to the output
+     *            stream.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against an XML schema if one is referenced within the contents.
@@ -664,6 +703,42 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
         xIncludeAware = includeAware;
     }
 
+    /**
+     * Writes the representation to a stream of bytes. In streaming mode, the
+     * object is directly marshalled to the stream, otherwise this goes through
+     * the {@link #write(Writer)} method. Note that writing to a NIO channel
+     * relies on this method.
+     * 
+     * @param outputStream
+     *            The output stream to use when writing.
+     * 
+     * @throws IOException
+     *             If any error occurs attempting to write the stream.
+     */
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        if (isStreaming()) {
+            try {
+                new Marshaller<T>(this, this.contextPath, getClassLoader())
+                        .marshal(getObject(), outputStream);
+            } catch (JAXBException e) {
+                Context.getCurrentLogger().log(Level.WARNING,
+                        "JAXB marshalling error caught.", e);
+
+                // Maybe the tree represents a failure, try that.
+                try {
+                    new Marshaller<T>(this, "failure", getClassLoader())
+                            .marshal(getObject(), outputStream);
+                } catch (JAXBException e2) {
+                    // We don't know what package this tree is from.
+                    throw new IOException(e.getMessage());
+                }
+            }
+        } else {
+            super.write(outputStream);
+        }
+    }
+
     /**
      * Writes the representation to a stream of characters.
      * 
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxb.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+/**
+ * JAXB context with bounded pools of marshallers and unmarshallers. The
+ * contexts are registered per context path in a concurrent map, so looking up
+ * an existing context never blocks. In case of concurrent first lookups, a
+ * context might be created several times, but only one is kept. Contexts can
+ * be preloaded at application start to avoid this.
+ * 
+ * @author Jerome Louvel
+ */
+public class ContextPool {
+
+    /** Maximum number of idle marshallers or unmarshallers per context. */
+    private static final int MAX_IDLE = Math.max(8, 2 * Runtime.getRuntime()
+            .availableProcessors());
+
+    /** The registered pools, per context path. */
+    private static final ConcurrentMap<String, ContextPool> pools = new ConcurrentHashMap<String, ContextPool>();
+
+    /**
+     * Removes all the registered contexts.
+     */
+    public static void clear() {
+        pools.clear();
+    }
+
+    /**
+     * Returns the pool of the given context path. Creates and registers the
+     * JAXB context if needed.
+     * 
+     * @param contextPath
+     *            The JAXB context path.
+     * @param classLoader
+     *            The optional classloader to use for JAXB annotated classes.
+     * @return The pool of the given context path.
+     * @throws JAXBException
+     */
+    public static ContextPool get(String contextPath, ClassLoader classLoader)
+            throws JAXBException {
+        ContextPool result = pools.get(contextPath);
+
+        if (result == null) {
+            JAXBContext context = (classLoader == null) ? JAXBContext
+                    .newInstance(contextPath) : JAXBContext.newInstance(
+                    contextPath, classLoader);
+            result = new ContextPool(context);
+            ContextPool existing = pools.putIfAbsent(contextPath, result);
+
+            if (existing != null) {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
+    /** The JAXB context, thread-safe. */
+    private final JAXBContext context;
+
+    /** The idle marshallers. */
+    private final Queue<javax.xml.bind.Marshaller> marshallers;
+
+    /** The idle unmarshallers. */
+    private final Queue<javax.xml.bind.Unmarshaller> unmarshallers;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The JAXB context.
+     */
+    public ContextPool(JAXBContext context) {
+        this.context = context;
+        this.marshallers = new ArrayBlockingQueue<javax.xml.bind.Marshaller>(
+                MAX_IDLE);
+        this.unmarshallers = new ArrayBlockingQueue<javax.xml.bind.Unmarshaller>(
+                MAX_IDLE);
+    }
+
+    /**
+     * Checks in a marshaller previously checked out. It is dropped if the pool
+     * is full.
+     * 
+     * @param marshaller
+     *            The marshaller to check in.
+     */
+    public void checkin(javax.xml.bind.Marshaller marshaller) {
+        if (marshaller != null) {
+            this.marshallers.offer(marshaller);
+        }
+    }
+
+    /**
+     * Checks in an unmarshaller previously checked out. It is dropped if the
+     * pool is full.
+     * 
+     * @param unmarshaller
+     *            The unmarshaller to check in.
+     */
+    public void checkin(javax.xml.bind.Unmarshaller unmarshaller) {
+        if (unmarshaller != null) {
+            this.unmarshallers.offer(unmarshaller);
+        }
+    }
+
+    /**
+     * Checks out a marshaller from the pool, or creates a new one. It must be
+     * reconfigured by the caller as its previous properties are kept.
+     * 
+     * @return A marshaller.
+     * @throws JAXBException
+     */
+    public javax.xml.bind.Marshaller checkoutMarshaller() throws JAXBException {
+        javax.xml.bind.Marshaller result = this.marshallers.poll();
+        return (result == null) ? this.context.createMarshaller() : result;
+    }
+
+    /**
+     * Checks out an unmarshaller from the pool, or creates a new one. It must
+     * be reconfigured by the caller as its previous properties are kept.
+     * 
+     * @return An unmarshaller.
+     * @throws JAXBException
+     */
+    public javax.xml.bind.Unmarshaller checkoutUnmarshaller()
+            throws JAXBException {
+        javax.xml.bind.Unmarshaller result = this.unmarshallers.poll();
+        return (result == null) ? this.context.createUnmarshaller() : result;
+    }
+
+    /**
+     * Returns the JAXB context.
+     * 
+     * @return The JAXB context.
+     */
+    public JAXBContext getContext() {
+        return this.context;
+    }
+
+}
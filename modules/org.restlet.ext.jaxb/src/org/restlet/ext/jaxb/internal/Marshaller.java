@@ -34,13 +34,10 @@
 package org.restlet.ext.jaxb.internal;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.logging.Level;
 
 import javax.xml.bind.JAXBException;
 
-import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 
 /**
@@ -49,7 +46,8 @@ import org.restlet.ext.jaxb.JaxbRepresentation;
  * 
  * This class is a factory that constructs an instance of itself for multiple
  * uses. The created instance is thread safe and is optimized to be used for
- * multiple, possibly concurrent calls.
+ * multiple, possibly concurrent calls. The JAXB marshallers are taken from the
+ * pool of the JAXB context and reconfigured for each call.
  * 
  * @author Overstock.com
  */
@@ -58,52 +56,6 @@ public class Marshaller<T> {
     /** The parent JAXB representation. */
     private final JaxbRepresentation<T> jaxbRepresentation;
 
-    /** Use thread identity to preserve safety of access to marshalers. */
-    private final ThreadLocal<javax.xml.bind.Marshaller> marshaller = new ThreadLocal<javax.xml.bind.Marshaller>() {
-
-        @Override
-        protected synchronized javax.xml.bind.Marshaller initialValue() {
-            javax.xml.bind.Marshaller m = null;
-
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createMarshaller();
-                m.setProperty("jaxb.formatted.output", getJaxbRepresentation()
-                        .isFormattedOutput());
-
-                if (getJaxbRepresentation().getSchemaLocation() != null) {
-                    m.setProperty("jaxb.schemaLocation",
-                            getJaxbRepresentation().getSchemaLocation());
-                }
-                if (getJaxbRepresentation().getNoNamespaceSchemaLocation() != null) {
-                    m.setProperty("jaxb.noNamespaceSchemaLocation",
-                            getJaxbRepresentation()
-                                    .getNoNamespaceSchemaLocation());
-                }
-
-                if (Marshaller.this.jaxbRepresentation.getCharacterSet() != null) {
-                    m.setProperty("jaxb.encoding",
-                            Marshaller.this.jaxbRepresentation
-                                    .getCharacterSet().getName());
-                }
-
-                if (getJaxbRepresentation().getNamespacePrefixMapper() != null) {
-                    m.setProperty("com.sun.xml.bind.namespacePrefixMapper",
-                            getJaxbRepresentation().getNamespacePrefixMapper());
-                }
-
-                m.setProperty("jaxb.fragment", getJaxbRepresentation()
-                        .isFragment());
-            } catch (Exception e) {
-                Context.getCurrentLogger().log(Level.WARNING,
-                        "Problem creating Marshaller", e);
-                return null;
-            }
-
-            return m;
-        }
-    };
-
     /** The JAXB context path. */
     private final String contextPath;
 
@@ -132,6 +84,49 @@ public class Marshaller<T> {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Configures a pooled marshaller with the properties of the parent JAXB
+     * representation.
+     * 
+     * @param marshaller
+     *            The marshaller to configure.
+     * @return True if the marshaller can be given back to the pool, false if
+     *         it received custom properties that can't be reset.
+     * @throws JAXBException
+     */
+    private boolean configure(javax.xml.bind.Marshaller marshaller)
+            throws JAXBException {
+        boolean result = true;
+        JaxbRepresentation<T> rep = getJaxbRepresentation();
+        marshaller.setProperty("jaxb.formatted.output",
+                rep.isFormattedOutput());
+        marshaller.setProperty("jaxb.fragment", rep.isFragment());
+        marshaller.setProperty("jaxb.encoding",
+                (rep.getCharacterSet() != null) ? rep.getCharacterSet()
+                        .getName() : "UTF-8");
+        marshaller.setEventHandler(rep.getValidationEventHandler());
+
+        if (rep.getSchemaLocation() != null) {
+            marshaller.setProperty("jaxb.schemaLocation",
+                    rep.getSchemaLocation());
+            result = false;
+        }
+
+        if (rep.getNoNamespaceSchemaLocation() != null) {
+            marshaller.setProperty("jaxb.noNamespaceSchemaLocation",
+                    rep.getNoNamespaceSchemaLocation());
+            result = false;
+        }
+
+        if (rep.getNamespacePrefixMapper() != null) {
+            marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper",
+                    rep.getNamespacePrefixMapper());
+            result = false;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the JAXB context path.
      * 
@@ -159,24 +154,9 @@ public class Marshaller<T> {
         return jaxbRepresentation;
     }
 
-    /**
-     * Returns the JAXB marshaller.
-     * 
-     * @return The JAXB marshaller.
-     * @throws JAXBException
-     */
-    private javax.xml.bind.Marshaller getMarshaller() throws JAXBException {
-        final javax.xml.bind.Marshaller m = this.marshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger().warning("Unable to locate marshaller.");
-            throw new JAXBException("Unable to locate marshaller.");
-        }
-        return m;
-    }
-
     /**
      * Marshals the content tree rooted at {@code jaxbElement} into an output
-     * stream.
+     * stream, using the character set of the parent JAXB representation.
      * 
      * @param jaxbElement
      *            The root of the content tree to be marshalled.
@@ -187,7 +167,14 @@ public class Marshaller<T> {
      */
     public void marshal(Object jaxbElement, OutputStream stream)
             throws JAXBException {
-        marshal(jaxbElement, new OutputStreamWriter(stream));
+        ContextPool pool = ContextPool.get(getContextPath(), getClassLoader());
+        javax.xml.bind.Marshaller m = pool.checkoutMarshaller();
+        boolean reusable = configure(m);
+        m.marshal(jaxbElement, stream);
+
+        if (reusable) {
+            pool.checkin(m);
+        }
     }
 
     /**
@@ -201,9 +188,14 @@ public class Marshaller<T> {
      *             If any unexpected problem occurs during marshaling.
      */
     public void marshal(Object jaxbElement, Writer writer) throws JAXBException {
-        getMarshaller().setEventHandler(
-                getJaxbRepresentation().getValidationEventHandler());
-        getMarshaller().marshal(jaxbElement, writer);
+        ContextPool pool = ContextPool.get(getContextPath(), getClassLoader());
+        javax.xml.bind.Marshaller m = pool.checkoutMarshaller();
+        boolean reusable = configure(m);
+        m.marshal(jaxbElement, writer);
+
+        if (reusable) {
+            pool.checkin(m);
+        }
     }
 
 }
@@ -37,18 +37,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.logging.Level;
 
-import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.ValidationEventHandler;
-import javax.xml.parsers.SAXParserFactory;
+import javax.xml.parsers.SAXParser;
 import javax.xml.transform.sax.SAXSource;
 
-import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
+import org.restlet.ext.xml.internal.XmlPools;
 import org.xml.sax.InputSource;
-import org.xml.sax.XMLReader;
 
 /**
  * This is a utility class to assist in unmarshaling XML into a new Java content
@@ -56,33 +53,48 @@ import org.xml.sax.XMLReader;
  * 
  * Each {@code unmarshal} method takes a different source for the XML. This
  * class caches information to improve unmarshaling performance across calls
- * using the same schema (package).
+ * using the same schema (package). The JAXB unmarshallers are taken from the
+ * pool of the JAXB context, and the SAX parsers from the pools of the XML
+ * extension, shared per combination of parsing features.
  * 
  * @author Overstock.com
  */
 public class Unmarshaller<T> {
 
-    /** The JAXB context path. */
-    private final String contextPath;
-
     /**
-     * Use thread identity to preserve safety of access to unmarshallers.
+     * Returns the combination of parsing features of a JAXB representation.
+     * 
+     * @param jaxbRep
+     *            The JAXB representation.
+     * @return The combination of parsing features.
      */
-    private final ThreadLocal<javax.xml.bind.Unmarshaller> unmarshaller = new ThreadLocal<javax.xml.bind.Unmarshaller>() {
-        @Override
-        protected synchronized javax.xml.bind.Unmarshaller initialValue() {
-            javax.xml.bind.Unmarshaller m = null;
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createUnmarshaller();
-            } catch (Exception e) {
-                Context.getCurrentLogger().log(Level.WARNING,
-                        "Problem creating Unmarshaller", e);
-                return null;
-            }
-            return m;
+    private static int getFeatures(JaxbRepresentation<?> jaxbRep) {
+        int result = XmlPools.NAMESPACE_AWARE;
+
+        if (jaxbRep.isExpandingEntityRefs()) {
+            result |= XmlPools.EXPANDING_ENTITY_REFS;
         }
-    };
+
+        if (jaxbRep.isSecureProcessing()) {
+            result |= XmlPools.SECURE_PROCESSING;
+        }
+
+        if (jaxbRep.isValidatingDtd()) {
+            result |= XmlPools.VALIDATING_DTD;
+        }
+
+        if (jaxbRep.isXIncludeAware()) {
+            result |= XmlPools.XINCLUDE_AWARE;
+        }
+
+        return result;
+    }
+
+    /** The JAXB context path. */
+    private final String contextPath;
+
+    /** The optional validation handler. */
+    private volatile ValidationEventHandler eventHandler;
 
     /** The JAXB classloader. */
     private final ClassLoader classLoader;
@@ -98,6 +110,7 @@ public class Unmarshaller<T> {
     public Unmarshaller(String contextPath, ClassLoader classloader) {
         this.contextPath = contextPath;
         this.classLoader = classloader;
+        this.eventHandler = null;
     }
 
     /**
@@ -119,23 +132,8 @@ public class Unmarshaller<T> {
     }
 
     /**
-     * Returns the JAXB unmarshaller.
-     * 
-     * @return The JAXB unmarshaller.
-     * @throws JAXBException
-     */
-    private javax.xml.bind.Unmarshaller getUnmarshaller() throws JAXBException {
-        final javax.xml.bind.Unmarshaller m = this.unmarshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger()
-                    .warning("Unable to locate unmarshaller.");
-            throw new JAXBException("Unable to locate unmarshaller.");
-        }
-        return m;
-    }
-
-    /**
-     * Sets the validation handler for this unmarshaller.
+     * Sets the validation handler for this unmarshaller. It is used when the
+     * JAXB representation doesn't have its own handler.
      * 
      * @param handler
      *            A validation handler.
@@ -144,7 +142,7 @@ public class Unmarshaller<T> {
      */
     public void setEventHandler(ValidationEventHandler handler)
             throws JAXBException {
-        getUnmarshaller().setEventHandler(handler);
+        this.eventHandler = handler;
     }
 
     /**
@@ -178,31 +176,27 @@ public class Unmarshaller<T> {
      */
     public Object unmarshal(JaxbRepresentation<?> jaxbRep, Reader reader)
             throws JAXBException {
+        int features = getFeatures(jaxbRep);
+        SAXParser parser = null;
         SAXSource ss = null;
 
         try {
-            SAXParserFactory spf = SAXParserFactory.newInstance();
-
-            // Keep before the external entity preferences
-            spf.setNamespaceAware(true);
-            spf.setValidating(jaxbRep.isValidatingDtd());
-            spf.setXIncludeAware(jaxbRep.isXIncludeAware());
-            spf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
-                    jaxbRep.isSecureProcessing());
-            spf.setFeature(
-                    "http://xml.org/sax/features/external-general-entities",
-                    jaxbRep.isExpandingEntityRefs());
-            spf.setFeature(
-                    "http://xml.org/sax/features/external-parameter-entities",
-                    jaxbRep.isExpandingEntityRefs());
-            XMLReader xmlReader = spf.newSAXParser().getXMLReader();
-            ss = new SAXSource(xmlReader, new InputSource(reader));
+            parser = XmlPools.checkoutSaxParser(features);
+            ss = new SAXSource(parser.getXMLReader(), new InputSource(reader));
         } catch (Exception e) {
             throw new JAXBException("Unable to create customized SAX source", e);
         }
 
-        getUnmarshaller().setEventHandler(jaxbRep.getValidationEventHandler());
-        return getUnmarshaller().unmarshal(ss);
+        ContextPool pool = ContextPool.get(getContextPath(), getClassLoader());
+        javax.xml.bind.Unmarshaller u = pool.checkoutUnmarshaller();
+        u.setEventHandler((jaxbRep.getValidationEventHandler() != null) ? jaxbRep
+                .getValidationEventHandler() : this.eventHandler);
+        Object result = u.unmarshal(ss);
+
+        // Only reuse the parser and unmarshaller after a successful parsing
+        pool.checkin(u);
+        XmlPools.checkin(features, parser);
+        return result;
     }
 
     /**
@@ -923,19 +923,20 @@ public class JaxRsRestlet extends Restlet {
         // e: Set<RegExp>
         // Map<UriTemplateRegExp, Class> eAndCs = new HashMap();
         Collection<RootResourceClass> eAndCs = new ArrayList<RootResourceClass>();
-        // (a) and (b) and (c) Filter E
-        for (RootResourceClass rootResourceClass : this.resourceClasses.roots()) {
-            // Map.Entry<UriTemplateRegExp, Class> eAndC = eAndCIter.next();
-            // UriTemplateRegExp regExp = eAndC.getKey();
-            // Class clazz = eAndC.getValue();
+        List<MatchingResult> matchingResults = new ArrayList<MatchingResult>();
+        // (a) and (b) and (c) Filter E, only among the root resource classes
+        // whose literal path prefix matches
+        for (RootResourceClass rootResourceClass : this.resourceClasses
+                .getRootTree().getCandidates(u)) {
             PathRegExp rrcPathRegExp = rootResourceClass.getPathRegExp();
             MatchingResult matchingResult = rrcPathRegExp.match(u);
             if (matchingResult == null)
                 continue; // doesn't match
-            if (matchingResult.getFinalCapturingGroup().isEmptyOrSlash())
-                eAndCs.add(rootResourceClass);
-            else if (rootResourceClass.hasSubResourceMethodsOrLocators())
+            if (matchingResult.getFinalCapturingGroup().isEmptyOrSlash()
+                    || rootResourceClass.hasSubResourceMethodsOrLocators()) {
                 eAndCs.add(rootResourceClass);
+                matchingResults.add(matchingResult);
+            }
         }
         // (d)
         if (eAndCs.isEmpty())
@@ -943,14 +944,34 @@ public class JaxRsRestlet extends Restlet {
         // (e) and (f)
         RootResourceClass tClass = getFirstByNoOfLiteralCharsNoOfCapturingGroups(eAndCs);
         // (f)
-        PathRegExp rMatch = tClass.getPathRegExp();
-        MatchingResult matchResult = rMatch.match(u);
+        MatchingResult matchResult = matchingResults
+                .get(indexOf(eAndCs, tClass));
         u = matchResult.getFinalCapturingGroup();
         addPathVarsToMap(matchResult, tlContext.get());
         ResourceObject o = instantiateRrc(tClass);
         return new RroRemPathAndMatchedPath(o, u, matchResult.getMatched());
     }
 
+    /**
+     * Returns the position of the given element, compared by identity.
+     * 
+     * @param elements
+     *            The elements to search in.
+     * @param element
+     *            The element to search.
+     * @return The position of the element, or -1 if not found.
+     */
+    private static int indexOf(Collection<?> elements, Object element) {
+        int index = 0;
+        for (Object e : elements) {
+            if (e == element) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
     /**
      * Instantiates the root resource class and handles thrown exceptions.
      * 
@@ -1108,19 +1129,23 @@ public class JaxRsRestlet extends Restlet {
             }
             // (b) Set C = class ofO,E = {}
             Collection<ResourceMethodOrLocator> eWithMethod = new ArrayList<ResourceMethodOrLocator>();
+            List<MatchingResult> matchingResults = new ArrayList<MatchingResult>();
             // (c) and (d) Filter E: remove members do not match U or final
-            // match not empty
+            // match not empty, only among the methods and locators whose
+            // literal path prefix matches
             for (ResourceMethodOrLocator methodOrLocator : resClass
-                    .getResourceMethodsAndLocators()) {
+                    .getResourceMethodsAndLocatorsTree().getCandidates(u)) {
                 PathRegExp pathRegExp = methodOrLocator.getPathRegExp();
                 MatchingResult matchingResult = pathRegExp.match(u);
                 if (matchingResult == null)
                     continue;
-                if (matchingResult.getFinalCapturingGroup().isEmptyOrSlash())
-                    eWithMethod.add(methodOrLocator);
-                // the following is added by Stephan (is not in spec 2008-03-06)
-                else if (methodOrLocator instanceof SubResourceLocator)
+                // the second condition is added by Stephan (is not in spec
+                // 2008-03-06)
+                if (matchingResult.getFinalCapturingGroup().isEmptyOrSlash()
+                        || (methodOrLocator instanceof SubResourceLocator)) {
                     eWithMethod.add(methodOrLocator);
+                    matchingResults.add(matchingResult);
+                }
             }
             // (e) If E is empty -> HTTP 404
             if (eWithMethod.isEmpty())
@@ -1128,8 +1153,8 @@ public class JaxRsRestlet extends Restlet {
             // (f) and (g) sort E, use first member of E
             ResourceMethodOrLocator firstMeth = getFirstByNoOfLiteralCharsNoOfCapturingGroups(eWithMethod);
 
-            PathRegExp rMatch = firstMeth.getPathRegExp();
-            MatchingResult matchingResult = rMatch.match(u);
+            MatchingResult matchingResult = matchingResults.get(indexOf(
+                    eWithMethod, firstMeth));
 
             addPathVarsToMap(matchingResult, callContext);
 
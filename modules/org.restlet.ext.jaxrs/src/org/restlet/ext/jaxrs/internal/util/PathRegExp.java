@@ -142,6 +142,12 @@ public class PathRegExp {
 
     private final boolean emptyOrSlash;
 
+    /**
+     * The literal start of the regular expression, that every matched path
+     * starts with.
+     */
+    private final String literalPrefix;
+
     /** Contains the number of literal chars in this Regular Expression */
     private final Integer noLitChars;
 
@@ -193,8 +199,12 @@ public class PathRegExp {
             forStart = 1;
         int noLitChars = 0;
         int numberOfCapturingGroups = 0;
+        int literalPrefixLength = -1;
         for (int i = forStart; i < l; i++) {
             final char c = pathTemplate.charAt(i);
+            if ((literalPrefixLength < 0) && !isLiteral(c)) {
+                literalPrefixLength = pathPattern.length();
+            }
             if (c == '{') {
                 i = processTemplVarname(pathTemplate, i, pathPattern,
                         pathForExcMess);
@@ -229,6 +239,10 @@ public class PathRegExp {
                 && pathPattern.charAt(pathPattern.length() - 1) != '/') {
             pathPattern.append('/');
         }
+        if (literalPrefixLength < 0) {
+            literalPrefixLength = pathPattern.length();
+        }
+        this.literalPrefix = pathPattern.substring(0, literalPrefixLength);
         pathPattern.append("(.*)");
 
         this.pattern = Pattern.compile(pathPattern.toString());
@@ -270,6 +284,17 @@ public class PathRegExp {
         return this.noNonDefaultRegExp;
     }
 
+    /**
+     * Returns the literal start of this regular expression. Every path matched
+     * by {@link #match(RemainingPath)} starts with it, so it can be used to
+     * exclude paths without evaluating the regular expression.
+     * 
+     * @return The literal start of this regular expression, maybe empty.
+     */
+    public String getLiteralPrefix() {
+        return this.literalPrefix;
+    }
+
     /**
      * @return Returns the number of capturing groups.
      */
@@ -316,6 +341,20 @@ public class PathRegExp {
         return this.emptyOrSlash;
     }
 
+    /**
+     * Indicates if the given template character is copied as is into the
+     * regular expression and only matches itself.
+     * 
+     * @param c
+     *            The template character.
+     * @return True if the character is a literal one.
+     */
+    private boolean isLiteral(char c) {
+        return ((c >= 'A') && (c <= 'Z')) || ((c >= 'a') && (c <= 'z'))
+                || ((c >= '0') && (c <= '9')) || (c == '-') || (c == '_')
+                || (c == '~') || (c == '/');
+    }
+
     /**
      * Checks if this regular expression matches the given remaining path.
      * 
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxrs.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
+
+/**
+ * Precompiled tree of root resource classes or of sub resource methods and
+ * locators, indexed by the literal path segments at the start of their
+ * {@link PathRegExp}. It returns the elements that may match a given path
+ * without evaluating all the regular expressions; the regular expression of
+ * each returned element must still be matched by the caller. Instances are
+ * immutable.
+ * 
+ * @author Jerome Louvel
+ * @param <R>
+ *            The type of the indexed elements.
+ */
+public class PathTree<R extends RrcOrRml> {
+
+    /**
+     * An indexed element with its position in the original collection.
+     * 
+     * @param <R>
+     *            The type of the indexed element.
+     */
+    private static class Element<R> implements Comparable<Element<R>> {
+
+        /** The position in the original collection. */
+        private final int index;
+
+        /** The literal prefix of the regular expression. */
+        private final String prefix;
+
+        /** The indexed element. */
+        private final R value;
+
+        /**
+         * Constructor.
+         * 
+         * @param index
+         *            The position in the original collection.
+         * @param prefix
+         *            The literal prefix of the regular expression.
+         * @param value
+         *            The indexed element.
+         */
+        private Element(int index, String prefix, R value) {
+            this.index = index;
+            this.prefix = prefix;
+            this.value = value;
+        }
+
+        public int compareTo(Element<R> other) {
+            return (this.index < other.index) ? -1
+                    : ((this.index == other.index) ? 0 : 1);
+        }
+    }
+
+    /**
+     * A node of the tree, reached by a sequence of literal path segments.
+     * 
+     * @param <R>
+     *            The type of the indexed elements.
+     */
+    private static class Node<R> {
+
+        /** The child nodes, by path segment. */
+        private final Map<String, Node<R>> children = new HashMap<String, Node<R>>();
+
+        /** The elements whose complete literal segments lead to this node. */
+        private final List<Element<R>> elements = new ArrayList<Element<R>>();
+    }
+
+    /** The root node. */
+    private final Node<R> root;
+
+    /**
+     * Constructor.
+     * 
+     * @param elements
+     *            The elements to index, in their preferred order.
+     */
+    public PathTree(Iterable<? extends R> elements) {
+        this.root = new Node<R>();
+        int index = 0;
+
+        for (R element : elements) {
+            String prefix = element.getPathRegExp().getLiteralPrefix();
+            Node<R> node = this.root;
+            int start = 0;
+
+            for (int slash = prefix.indexOf('/'); slash >= 0; slash = prefix
+                    .indexOf('/', start)) {
+                String segment = prefix.substring(start, slash);
+                Node<R> child = node.children.get(segment);
+
+                if (child == null) {
+                    child = new Node<R>();
+                    node.children.put(segment, child);
+                }
+
+                node = child;
+                start = slash + 1;
+            }
+
+            node.elements.add(new Element<R>(index++, prefix, element));
+        }
+    }
+
+    /**
+     * Returns the elements whose literal prefix matches the start of the given
+     * path, in the order they were given to the constructor. The path doesn't
+     * contain any matrix parameter and has no leading slash.
+     * 
+     * @param path
+     *            The path to match.
+     * @return The elements that may match the path.
+     */
+    public List<R> getCandidates(RemainingPath path) {
+        String givenPath = path.getWithoutParams();
+        List<Element<R>> found = new ArrayList<Element<R>>();
+        boolean sorted = true;
+        Node<R> node = this.root;
+        int start = 0;
+
+        while (node != null) {
+            for (Element<R> element : node.elements) {
+                if (givenPath.startsWith(element.prefix)) {
+                    if (!found.isEmpty()
+                            && (found.get(found.size() - 1).index > element.index)) {
+                        sorted = false;
+                    }
+
+                    found.add(element);
+                }
+            }
+
+            int slash = givenPath.indexOf('/', start);
+
+            if ((slash < 0) || node.children.isEmpty()) {
+                node = null;
+            } else {
+                node = node.children.get(givenPath.substring(start, slash));
+                start = slash + 1;
+            }
+        }
+
+        if (!sorted) {
+            Collections.sort(found);
+        }
+
+        List<R> result = new ArrayList<R>(found.size());
+        for (Element<R> element : found) {
+            result.add(element.value);
+        }
+
+        return result;
+    }
+
+}
@@ -60,6 +60,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnClassException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnMethodException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
+import org.restlet.ext.jaxrs.internal.util.PathTree;
 import org.restlet.ext.jaxrs.internal.util.RemainingPath;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.JaxRsProviders;
@@ -101,6 +102,12 @@ public class ResourceClass extends AbstractJaxRsWrapper {
      */
     private final Collection<ResourceMethodOrLocator> resourceMethodsAndLocators = new ArrayList<ResourceMethodOrLocator>();
 
+    /**
+     * The matching tree of the resource methods and sub resource locators,
+     * lazily built.
+     */
+    private volatile PathTree<ResourceMethodOrLocator> resourceMethodsAndLocatorsTree;
+
     /**
      * The sub resource locators of this resource class. (It is initialized in
      * method.)
@@ -350,6 +357,26 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         return this.resourceMethodsAndLocators;
     }
 
+    /**
+     * Returns the matching tree of the sub resource locators and sub resource
+     * methods.
+     * 
+     * @return The matching tree of the sub resource locators and sub resource
+     *         methods.
+     */
+    public final PathTree<ResourceMethodOrLocator> getResourceMethodsAndLocatorsTree() {
+        PathTree<ResourceMethodOrLocator> result = this.resourceMethodsAndLocatorsTree;
+
+        if (result == null) {
+            // The tree is immutable, so concurrent builds are harmless
+            result = new PathTree<ResourceMethodOrLocator>(
+                    this.resourceMethodsAndLocators);
+            this.resourceMethodsAndLocatorsTree = result;
+        }
+
+        return result;
+    }
+
     /**
      * @return Returns the sub resource locators of the given class.
      */
@@ -53,6 +53,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.InjectException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingConstructorException;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
+import org.restlet.ext.jaxrs.internal.util.PathTree;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.JaxRsProviders;
 
@@ -77,6 +78,13 @@ public class ResourceClasses {
      */
     private final Set<RootResourceClass> rootResourceClasses = new CopyOnWriteArraySet<RootResourceClass>();
 
+    /**
+     * The matching tree of the root resource classes, rebuilt each time a root
+     * resource class is added.
+     */
+    private volatile PathTree<RootResourceClass> rootTree = new PathTree<RootResourceClass>(
+            this.rootResourceClasses);
+
     private final ThreadLocalizedContext tlContext;
 
     /**
@@ -166,6 +174,8 @@ public class ResourceClasses {
             }
         }
         rootResourceClasses.add(newRrc);
+        this.rootTree = new PathTree<RootResourceClass>(
+                this.rootResourceClasses);
         return true;
     }
 
@@ -250,6 +260,8 @@ public class ResourceClasses {
             }
         }
         rootResourceClasses.add(newRrc);
+        this.rootTree = new PathTree<RootResourceClass>(
+                this.rootResourceClasses);
         return true;
     }
 
@@ -334,6 +346,15 @@ public class ResourceClasses {
                 this.extensionBackwardMapping, Context.getCurrentLogger());
     }
 
+    /**
+     * Returns the matching tree of the wrapped root resource classes.
+     * 
+     * @return The matching tree of the wrapped root resource classes.
+     */
+    public PathTree<RootResourceClass> getRootTree() {
+        return this.rootTree;
+    }
+
     /**
      * @return the wrapped root resource classes
      */
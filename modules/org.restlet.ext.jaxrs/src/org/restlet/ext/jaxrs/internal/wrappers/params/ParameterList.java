@@ -38,6 +38,7 @@ import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -133,6 +134,29 @@ public class ParameterList {
 		 */
 		protected final DefaultValue defaultValue;
 
+		/**
+		 * The value of the default value annotation, read once.
+		 */
+		private final String defaultString;
+
+		/**
+		 * The first static factory method to convert a String into
+		 * {@link #convertTo}, resolved once. Null if not available.
+		 */
+		private final Method firstFactoryMethod;
+
+		/**
+		 * The second static factory method to convert a String into
+		 * {@link #convertTo}, resolved once. Null if not available.
+		 */
+		private final Method secondFactoryMethod;
+
+		/**
+		 * The constructor of {@link #convertTo} accepting a String, resolved
+		 * once. Null if not available.
+		 */
+		private final Constructor<?> stringConstructor;
+
 		/**
 		 * True, if this parameter should be an array, otherwise false. If true,
 		 * the {@link #collType} must be set to a {@link List}.
@@ -169,11 +193,30 @@ public class ParameterList {
 				this.collType = null;
 				this.isArray = false;
 			}
+			this.defaultString = (defaultValue == null) ? null : defaultValue
+					.value();
+			if (this.convertTo.isPrimitive()
+					|| this.convertTo.equals(String.class)) {
+				this.stringConstructor = null;
+				this.firstFactoryMethod = null;
+				this.secondFactoryMethod = null;
+			} else {
+				// Resolve the conversion members once instead of on each call
+				this.stringConstructor = ConstructorUtils
+						.getMatchingAccessibleConstructor(this.convertTo,
+								STRING_PARAM_TYPES);
+				// fixes for:
+				// https://github.com/restlet/restlet-framework-java/issues/645
+				this.firstFactoryMethod = getFactoryMethod(this.convertTo,
+						this.convertTo.isEnum() ? "fromString" : "valueOf");
+				this.secondFactoryMethod = getFactoryMethod(this.convertTo,
+						this.convertTo.isEnum() ? "valueOf" : "fromString");
+			}
 		}
 
 		protected Object convertParamValue(String firstHeader)
 				throws ConvertParameterException {
-			return convertParamValue(firstHeader, this.defaultValue);
+			return convertParamValue(firstHeader, this.defaultString);
 		}
 
 		/**
@@ -191,18 +234,18 @@ public class ParameterList {
 		 * @see CookieParam
 		 */
 		protected Object convertParamValue(String paramValue,
-				DefaultValue defaultValue) throws ConvertParameterException {
+				String defaultValue) throws ConvertParameterException {
 			if (decoding() && (paramValue != null)) {
 				paramValue = Reference.decode(paramValue);
-			} else if ((paramValue == null) && (defaultValue != null)) {
-				paramValue = defaultValue.value();
+			} else if (paramValue == null) {
+				paramValue = defaultValue;
 			}
 			if (this.convertTo.equals(String.class)) {
 				return paramValue;
 			}
 			if (this.convertTo.isPrimitive()) {
 				if ((paramValue != null) && (paramValue.length() <= 0)) {
-					paramValue = defaultValue.value();
+					paramValue = defaultValue;
 				}
 				return getParamValueForPrimitive(paramValue);
 			}
@@ -221,7 +264,7 @@ public class ParameterList {
 		 *             WebApplicationException.
 		 */
 		private Object convertParamValueInner(String paramValue,
-				DefaultValue defaultValue) throws ConvertParameterException,
+				String defaultValue) throws ConvertParameterException,
 				WebApplicationException {
 
 			Object convertWithConverterUtils = convertWithConverterUtils(paramValue);
@@ -231,32 +274,34 @@ public class ParameterList {
 
 			String value = paramValue;
 			if (StringUtils.isEmpty(paramValue)) {
-				if (defaultValue == null || defaultValue.value() == null) {
+				if (defaultValue == null) {
 					return null;
 				}
-				value = defaultValue.value();
+				value = defaultValue;
 			}
 
-			try {
-				return ConstructorUtils.invokeConstructor(convertTo, value);
-			} catch (Exception e) {
-				handleExceptionOnInvocation(value, e);
+			if (this.stringConstructor != null) {
+				try {
+					return this.stringConstructor.newInstance(value);
+				} catch (Exception e) {
+					handleExceptionOnInvocation(value, e);
+				}
 			}
 
-			// fixes for:
-			// https://github.com/restlet/restlet-framework-java/issues/645
-			try {
-				return MethodUtils.invokeStaticMethod(convertTo,
-						convertTo.isEnum() ? "fromString" : "valueOf", value);
-			} catch (Exception e) {
-				handleExceptionOnInvocation(value, e);
+			if (this.firstFactoryMethod != null) {
+				try {
+					return this.firstFactoryMethod.invoke(null, value);
+				} catch (Exception e) {
+					handleExceptionOnInvocation(value, e);
+				}
 			}
 
-			try {
-				return MethodUtils.invokeStaticMethod(convertTo,
-						convertTo.isEnum() ? "valueOf" : "fromString", value);
-			} catch (Exception e) {
-				handleExceptionOnInvocation(value, e);
+			if (this.secondFactoryMethod != null) {
+				try {
+					return this.secondFactoryMethod.invoke(null, value);
+				} catch (Exception e) {
+					handleExceptionOnInvocation(value, e);
+				}
 			}
 
 			throw ConvertParameterException
@@ -454,7 +499,7 @@ public class ParameterList {
 
 	static class CookieParamGetter extends NoEncParamGetter {
 
-		private final CookieParam cookieParam;
+		private final String cookieName;
 
 		/**
 		 * @param annoSaysLeaveClassEncoded
@@ -467,13 +512,13 @@ public class ParameterList {
 				boolean annoSaysLeaveClassEncoded) {
 			super(defaultValue, convToCl, convToGen, tlContext,
 					annoSaysLeaveClassEncoded);
-			this.cookieParam = cookieParam;
+			this.cookieName = cookieParam.value();
 		}
 
 		@Override
 		@SuppressWarnings({ "unchecked", "rawtypes" })
 		public Object getParamValue() {
-			String cookieName = this.cookieParam.value();
+			String cookieName = this.cookieName;
 			Series<org.restlet.data.Cookie> cookies;
 			cookies = this.tlContext.get().getRequest().getCookies();
 
@@ -579,7 +624,7 @@ public class ParameterList {
 
 	static class FormParamGetter extends FormOrQueryParamGetter {
 
-		private final FormParam formParam;
+		private final String paramName;
 
 		private static Form form;
 
@@ -587,7 +632,7 @@ public class ParameterList {
 				Class<?> convToCl, Type convToGen,
 				ThreadLocalizedContext tlContext, boolean leaveEncoded) {
 			super(defaultValue, convToCl, convToGen, tlContext, leaveEncoded);
-			this.formParam = formParam;
+			this.paramName = formParam.value();
 		}
 
 		@Override
@@ -598,9 +643,8 @@ public class ParameterList {
 				form = new Form(entity);
 			}
 
-			final String paramName = this.formParam.value();
 			try {
-				return super.getParamValue(form, paramName);
+				return super.getParamValue(form, this.paramName);
 			} catch (ConvertParameterException e) {
 				throw new ConvertQueryParamException(e);
 			}
@@ -609,7 +653,7 @@ public class ParameterList {
 
 	static class HeaderParamGetter extends NoEncParamGetter {
 
-		private final HeaderParam headerParam;
+		private final String headerName;
 
 		/**
 		 * @param annoSaysLeaveClassEncoded
@@ -621,14 +665,14 @@ public class ParameterList {
 				boolean annoSaysLeaveClassEncoded) {
 			super(defaultValue, convToCl, paramGenericType, tlContext,
 					annoSaysLeaveClassEncoded);
-			this.headerParam = headerParam;
+			this.headerName = headerParam.value();
 		}
 
 		@Override
 		public Object getParamValue() {
 			Series<Header> httpHeaders = Util.getHttpHeaders(this.tlContext
 					.get().getRequest());
-			String headerName = this.headerParam.value();
+			String headerName = this.headerName;
 
 			try {
 				if (this.collType == null) { // no collection parameter
@@ -797,13 +841,13 @@ public class ParameterList {
 
 	static class QueryParamGetter extends FormOrQueryParamGetter {
 
-		private final QueryParam queryParam;
+		private final String paramName;
 
 		QueryParamGetter(QueryParam queryParam, DefaultValue defaultValue,
 				Class<?> convToCl, Type convToGen,
 				ThreadLocalizedContext tlContext, boolean leaveEncoded) {
 			super(defaultValue, convToCl, convToGen, tlContext, leaveEncoded);
-			this.queryParam = queryParam;
+			this.paramName = queryParam.value();
 		}
 
 		@Override
@@ -812,9 +856,8 @@ public class ParameterList {
 					.getResourceRef();
 			final String queryString = resourceRef.getQuery();
 			final Form form = Converter.toFormEncoded(queryString);
-			final String paramName = this.queryParam.value();
 			try {
-				return super.getParamValue(form, paramName);
+				return super.getParamValue(form, this.paramName);
 			} catch (ConvertParameterException e) {
 				throw new ConvertQueryParamException(e);
 			}
@@ -861,6 +904,9 @@ public class ParameterList {
 
 	private static final Short DEFAULT_SHORT = 0;
 
+	/** The parameter types of a String constructor or factory method. */
+	private static final Class<?>[] STRING_PARAM_TYPES = { String.class };
+
 	private static final Logger localLogger = org.restlet.Context
 			.getCurrentLogger();
 
@@ -912,6 +958,20 @@ public class ParameterList {
 		return null;
 	}
 
+	/**
+	 * Returns the accessible static method of the given class with the given
+	 * name and a single String parameter, or null if there is none. Instance
+	 * methods with the same signature are ignored.
+	 */
+	static Method getFactoryMethod(Class<?> type, String methodName) {
+		final Method method = MethodUtils.getMatchingAccessibleMethod(type,
+				methodName, STRING_PARAM_TYPES);
+		if ((method != null) && Modifier.isStatic(method.getModifiers())) {
+			return method;
+		}
+		return null;
+	}
+
 	/**
 	 * Returns true, if one of the annotations is &#64;{@link Encoded}
 	 */
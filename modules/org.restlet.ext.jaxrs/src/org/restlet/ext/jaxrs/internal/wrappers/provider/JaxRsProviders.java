@@ -40,6 +40,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +59,7 @@ import javax.ws.rs.ext.Providers;
 
 import org.restlet.Context;
 import org.restlet.data.MediaType;
+import org.restlet.engine.util.SystemUtils;
 import org.restlet.ext.jaxrs.InstantiateException;
 import org.restlet.ext.jaxrs.ObjectFactory;
 import org.restlet.ext.jaxrs.internal.core.ThreadLocalizedContext;
@@ -79,8 +81,81 @@ import org.restlet.ext.jaxrs.internal.util.Converter;
 public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         MessageBodyReaderSet {
 
+    /**
+     * Key of the entity provider caches, made of an entity type, its generic
+     * type and a media type. Both types and the media type may be null.
+     */
+    private static final class ProviderKey {
+
+        private final Type genericType;
+
+        private final MediaType mediaType;
+
+        private final Class<?> type;
+
+        /**
+         * Constructor.
+         * 
+         * @param type
+         * @param genericType
+         * @param mediaType
+         */
+        private ProviderKey(Class<?> type, Type genericType,
+                MediaType mediaType) {
+            this.type = type;
+            this.genericType = genericType;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ProviderKey)) {
+                return false;
+            }
+            ProviderKey otherKey = (ProviderKey) other;
+            return (this.type == otherKey.type)
+                    && equal(this.genericType, otherKey.genericType)
+                    && equal(this.mediaType, otherKey.mediaType);
+        }
+
+        @Override
+        public int hashCode() {
+            return SystemUtils.hashCode(this.type, this.genericType,
+                    this.mediaType);
+        }
+    }
+
     private static final Logger localLogger = Context.getCurrentLogger();
 
+    /**
+     * Maximum number of entries of each entity provider cache. As media types
+     * come from the requests, a full cache is cleared rather than growing
+     * forever.
+     */
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    /**
+     * Compares two objects that may be null.
+     */
+    private static boolean equal(Object o1, Object o2) {
+        return (o1 == null) ? (o2 == null) : o1.equals(o2);
+    }
+
+    /**
+     * Puts the given value in the given cache, clearing it first if it is
+     * full.
+     */
+    private static void putInCache(Map<ProviderKey, List<ProviderWrapper>> cache,
+            ProviderKey key, List<ProviderWrapper> value) {
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
     /**
      * Returns the generic class of the given {@link ContextResolver} class.
      */
@@ -116,6 +191,18 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
 
     private final List<ProviderWrapper> messageBodyWriterWrappers;
 
+    /**
+     * Caches the wrapper of the best reader, by parameter type, generic type
+     * and media type. An empty list means that no reader matches.
+     */
+    private final Map<ProviderKey, List<ProviderWrapper>> readerCache;
+
+    /**
+     * Caches the wrappers of the writers supporting an entity class and a
+     * generic type.
+     */
+    private final Map<ProviderKey, List<ProviderWrapper>> writerCache;
+
     private volatile ObjectFactory objectFactory;
 
     private final ThreadLocalizedContext tlContext;
@@ -136,6 +223,8 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         this.messageBodyWriterWrappers = new CopyOnWriteArrayList<ProviderWrapper>();
         this.contextResolvers = new CopyOnWriteArraySet<ProviderWrapper>();
         this.excMappers = new ConcurrentHashMap<Class<? extends Throwable>, ProviderWrapper>();
+        this.readerCache = new ConcurrentHashMap<ProviderKey, List<ProviderWrapper>>();
+        this.writerCache = new ConcurrentHashMap<ProviderKey, List<ProviderWrapper>>();
 
         this.objectFactory = objectFactory;
         this.tlContext = tlContext;
@@ -168,6 +257,8 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         if (provider.isExceptionMapper())
             this.addExcMapper(provider);
         this.all.add(provider);
+        this.readerCache.clear();
+        this.writerCache.clear();
     }
 
     /**
@@ -317,22 +408,49 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
      */
     public MessageBodyReader getBestReader(Class<?> paramType,
             Type genericType, Annotation[] annotations, MediaType mediaType) {
-        // NICE optimization: may be cached for speed.
+        // Annotations may influence the choice, so only the common case
+        // without annotations is cached.
+        ProviderKey key = null;
+        if ((annotations == null) || (annotations.length == 0)) {
+            key = new ProviderKey(paramType, genericType, mediaType);
+            List<ProviderWrapper> cached = this.readerCache.get(key);
+            if (cached != null) {
+                if (cached.isEmpty())
+                    return null;
+                try {
+                    return cached.get(0).getInitializedReader();
+                } catch (ProviderNotInitializableException e) {
+                    // Fall back to the full scan
+                } catch (WebApplicationException e) {
+                    // Fall back to the full scan
+                }
+            }
+        }
+        boolean complete = true;
         for (ProviderWrapper mbrw : this.messageBodyReaderWrappers) {
             if (mbrw.supportsRead(mediaType)) {
                 MessageBodyReader mbr;
                 try {
                     mbr = mbrw.getInitializedReader();
                 } catch (ProviderNotInitializableException e) {
+                    complete = false;
                     continue;
                 } catch (WebApplicationException e) {
+                    complete = false;
                     continue;
                 }
                 if (mbr.isReadable(paramType, genericType, annotations,
-                        Converter.toJaxRsMediaType(mediaType)))
+                        Converter.toJaxRsMediaType(mediaType))) {
+                    if ((key != null) && complete)
+                        putInCache(this.readerCache, key,
+                                Collections.singletonList(mbrw));
                     return mbr;
+                }
             }
         }
+        if ((key != null) && complete)
+            putInCache(this.readerCache, key,
+                    Collections.<ProviderWrapper> emptyList());
         return null;
     }
 
@@ -534,6 +652,8 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         this.contextResolvers.remove(provider);
         this.messageBodyReaderWrappers.remove(provider);
         this.messageBodyWriterWrappers.remove(provider);
+        this.readerCache.clear();
+        this.writerCache.clear();
         Iterator<Map.Entry<Class<? extends Throwable>, ProviderWrapper>> excMapperEntryIter = this.excMappers
                 .entrySet().iterator();
         while (excMapperEntryIter.hasNext()) {
@@ -560,19 +680,39 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
      */
     public MessageBodyWriterSubSet writerSubSet(Class<?> entityClass,
             Type genericType) {
+        ProviderKey key = new ProviderKey(entityClass, genericType, null);
+        List<ProviderWrapper> cached = this.writerCache.get(key);
+        if (cached != null) {
+            List<MessageBodyWriter> mbws = new ArrayList<MessageBodyWriter>(
+                    cached.size());
+            try {
+                for (ProviderWrapper mbww : cached) {
+                    mbws.add(mbww.getInitializedWriter());
+                }
+                return new MessageBodyWriterSubSet(mbws, entityClass,
+                        genericType);
+            } catch (ProviderNotInitializableException e) {
+                // Fall back to the full scan
+            }
+        }
         final List<MessageBodyWriter> mbws = new ArrayList<MessageBodyWriter>();
+        final List<ProviderWrapper> mbwws = new ArrayList<ProviderWrapper>();
+        boolean complete = true;
         for (ProviderWrapper mbww : this.messageBodyWriterWrappers) {
             MessageBodyWriter mbw;
             try {
                 mbw = mbww.getInitializedWriter();
             } catch (ProviderNotInitializableException e) {
+                complete = false;
                 continue;
             }
             if (mbw.supportsWrite(entityClass, genericType)) {
                 mbws.add(mbw);
+                mbwws.add(mbww);
             }
         }
-        // NICE optimization: may be cached for speed.
+        if (complete)
+            putInCache(this.writerCache, key, mbwws);
         return new MessageBodyWriterSubSet(mbws, entityClass, genericType);
     }
 
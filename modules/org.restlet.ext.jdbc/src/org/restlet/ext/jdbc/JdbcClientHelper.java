@@ -36,21 +36,28 @@ package org.restlet.ext.jdbc;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.commons.dbcp.AbandonedConfig;
+import org.apache.commons.dbcp.AbandonedObjectPool;
 import org.apache.commons.dbcp.ConnectionFactory;
 import org.apache.commons.dbcp.DriverManagerConnectionFactory;
 import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.pool.KeyedObjectPoolFactory;
 import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPoolFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.restlet.Client;
 import org.restlet.Request;
@@ -117,6 +124,124 @@ import org.xml.sax.SAXException;
  * <p>
  * Several SQL Statements can be specified. A {@link RowSetRepresentation} of
  * the last correctly executed SQL request is returned to the Client.
+ * <p>
+ * A statement can contain "?" placeholders whose values are given by
+ * "parameter" elements, in order:<br>
+ * <br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code <statement>SELECT myField2 FROM myTable
+ * WHERE myField1 = ?<parameter>value1</parameter></statement>}<br>
+ * <br>
+ * Such statements are executed as {@link PreparedStatement} instances and the
+ * parameters are bound as strings. When pooling is used, they are also cached
+ * per connection and keyed by their SQL text, so that repeated calls don't
+ * need to prepare the same statements again. Statements without parameters
+ * are executed as plain {@link Statement} instances, so that their text,
+ * including any literal "?" character or driver specific syntax, is sent
+ * unchanged to the database.
+ * <p>
+ * Here is the list of parameters that are supported. They should be set in the
+ * Client's context before it is started:
+ * <table>
+ * <tr>
+ * <th>Parameter name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>maxActive</td>
+ * <td>int</td>
+ * <td>8</td>
+ * <td>The maximum number of active connections per pool, or a negative value
+ * for no limit.</td>
+ * </tr>
+ * <tr>
+ * <td>maxIdle</td>
+ * <td>int</td>
+ * <td>8</td>
+ * <td>The maximum number of idle connections per pool, or a negative value for
+ * no limit.</td>
+ * </tr>
+ * <tr>
+ * <td>minIdle</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>The minimum number of idle connections maintained by the idle connection
+ * evictor in each pool.</td>
+ * </tr>
+ * <tr>
+ * <td>maxWait</td>
+ * <td>long</td>
+ * <td>-1</td>
+ * <td>The maximum time in ms to wait for a connection when a pool is
+ * exhausted, or a negative value to wait indefinitely.</td>
+ * </tr>
+ * <tr>
+ * <td>validationQuery</td>
+ * <td>String</td>
+ * <td>null</td>
+ * <td>The SQL query used to validate pooled connections. If null, only the
+ * closed state of the connections is checked.</td>
+ * </tr>
+ * <tr>
+ * <td>validationQueryTimeout</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>The timeout in seconds of the validation query, or a negative value for
+ * no timeout.</td>
+ * </tr>
+ * <tr>
+ * <td>testOnBorrow</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the connections should be validated before being borrowed
+ * from a pool.</td>
+ * </tr>
+ * <tr>
+ * <td>timeBetweenEvictionRuns</td>
+ * <td>long</td>
+ * <td>-1</td>
+ * <td>The time in ms between two runs of the idle connection evictor, which
+ * also validates idle connections. No evictor runs if the value isn't
+ * positive.</td>
+ * </tr>
+ * <tr>
+ * <td>poolPreparedStatements</td>
+ * <td>boolean</td>
+ * <td>true</td>
+ * <td>Indicates if the prepared statements should be cached per pooled
+ * connection.</td>
+ * </tr>
+ * <tr>
+ * <td>maxOpenPreparedStatements</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>The maximum number of prepared statements cached per pooled connection,
+ * or a negative value for no limit.</td>
+ * </tr>
+ * <tr>
+ * <td>removeAbandoned</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if connections that were not released after the
+ * "removeAbandonedTimeout" delay should be considered as leaked and be
+ * reclaimed by the pool.</td>
+ * </tr>
+ * <tr>
+ * <td>removeAbandonedTimeout</td>
+ * <td>int</td>
+ * <td>300</td>
+ * <td>The delay in seconds after which a borrowed connection is considered as
+ * abandoned.</td>
+ * </tr>
+ * <tr>
+ * <td>logAbandoned</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the stack trace of the code that borrowed an abandoned
+ * connection should be logged.</td>
+ * </tr>
+ * </table>
  * 
  * @see org.restlet.ext.jdbc.RowSetRepresentation
  * 
@@ -153,9 +278,49 @@ public class JdbcClientHelper extends ClientHelper {
      */
     public static ObjectPool createConnectionPool(String uri,
             Properties properties) {
+        return createConnectionPool(uri, properties,
+                new GenericObjectPool.Config(), null, null, -1, null);
+    }
+
+    /**
+     * Creates a connection pool for a given connection configuration.
+     * 
+     * @param uri
+     *            The connection URI.
+     * @param properties
+     *            The connection properties.
+     * @param poolConfig
+     *            The configuration of the pool of connections.
+     * @param statementPoolFactory
+     *            The factory of prepared statement pools or null if statements
+     *            shouldn't be cached.
+     * @param validationQuery
+     *            The validation query or null.
+     * @param validationQueryTimeout
+     *            The timeout in seconds of the validation query.
+     * @param abandonedConfig
+     *            The abandoned connection configuration or null if abandoned
+     *            connections shouldn't be detected.
+     * @return The new connection pool.
+     */
+    @SuppressWarnings("deprecation")
+    public static ObjectPool createConnectionPool(String uri,
+            Properties properties, GenericObjectPool.Config poolConfig,
+            KeyedObjectPoolFactory statementPoolFactory,
+            String validationQuery, int validationQueryTimeout,
+            AbandonedConfig abandonedConfig) {
         // Create an ObjectPool that will serve as the actual pool of
         // connections
-        ObjectPool result = new GenericObjectPool(null);
+        GenericObjectPool result = null;
+
+        if (abandonedConfig == null) {
+            result = new GenericObjectPool(null, poolConfig);
+        } else {
+            // Tracks the borrowed connections in order to reclaim the
+            // leaked ones
+            result = new AbandonedObjectPool(null, abandonedConfig);
+            result.setConfig(poolConfig);
+        }
 
         // Create a ConnectionFactory that the pool will use to create
         // Connections
@@ -166,7 +331,10 @@ public class JdbcClientHelper extends ClientHelper {
         // Connections created by the ConnectionFactory with
         // the classes that implement the pooling functionality.
         PoolableConnectionFactory poolableConnectionFactory = new PoolableConnectionFactory(
-                connectionFactory, result, null, null, false, false);
+                connectionFactory, result, statementPoolFactory,
+                validationQuery, false, false, abandonedConfig);
+        poolableConnectionFactory
+                .setValidationQueryTimeout(validationQueryTimeout);
 
         // To remove warnings
         poolableConnectionFactory.getPool();
@@ -197,8 +365,8 @@ public class JdbcClientHelper extends ClientHelper {
         return result.toString();
     }
 
-    /** Map of connection factories. */
-    private volatile List<ConnectionSource> connectionSources;
+    /** List of connection sources. */
+    private final List<ConnectionSource> connectionSources;
 
     /**
      * Constructor.
@@ -212,7 +380,55 @@ public class JdbcClientHelper extends ClientHelper {
         getProtocols().add(Protocol.JDBC);
 
         // Set up the list of factories
-        this.connectionSources = new ArrayList<ConnectionSource>();
+        this.connectionSources = new CopyOnWriteArrayList<ConnectionSource>();
+    }
+
+    /**
+     * Creates a connection source for a given connection configuration, based
+     * on the parameters of the helper.
+     * 
+     * @param uri
+     *            The connection URI.
+     * @param properties
+     *            The connection properties.
+     * @return The new connection source.
+     */
+    protected ConnectionSource createConnectionSource(String uri,
+            Properties properties) {
+        GenericObjectPool.Config poolConfig = new GenericObjectPool.Config();
+        poolConfig.maxActive = getMaxActive();
+        poolConfig.maxIdle = getMaxIdle();
+        poolConfig.minIdle = getMinIdle();
+        poolConfig.maxWait = getMaxWait();
+        poolConfig.testOnBorrow = isTestOnBorrow();
+        poolConfig.testWhileIdle = (getTimeBetweenEvictionRuns() > 0);
+        poolConfig.timeBetweenEvictionRunsMillis = getTimeBetweenEvictionRuns();
+
+        KeyedObjectPoolFactory statementPoolFactory = null;
+
+        if (isPoolPreparedStatements()) {
+            // Statements are keyed by their SQL text
+            int maxOpen = getMaxOpenPreparedStatements();
+            statementPoolFactory = new GenericKeyedObjectPoolFactory(null, -1,
+                    GenericKeyedObjectPool.WHEN_EXHAUSTED_FAIL, 0, 1,
+                    (maxOpen > 0) ? maxOpen
+                            : GenericKeyedObjectPool.DEFAULT_MAX_TOTAL);
+        }
+
+        AbandonedConfig abandonedConfig = null;
+
+        if (isRemoveAbandoned()) {
+            abandonedConfig = new AbandonedConfig();
+            abandonedConfig.setRemoveAbandoned(true);
+            abandonedConfig
+                    .setRemoveAbandonedTimeout(getRemoveAbandonedTimeout());
+            abandonedConfig.setLogAbandoned(isLogAbandoned());
+        }
+
+        return new ConnectionSource(uri, properties, createConnectionPool(uri,
+                properties, poolConfig, statementPoolFactory,
+                getValidationQuery(), getValidationQueryTimeout(),
+                abandonedConfig));
     }
 
     /**
@@ -232,35 +448,22 @@ public class JdbcClientHelper extends ClientHelper {
         Connection result = null;
 
         if (usePooling) {
-            for (ConnectionSource c : this.connectionSources) {
-                // Check if the connection URI is identical
-                // and if the same number of properties is present
-                if ((result == null) && c.getUri().equalsIgnoreCase(uri)
-                        && (properties.size() == c.getProperties().size())) {
-                    // Check that the properties tables are equivalent
-                    boolean equal = true;
-                    for (Object key : c.getProperties().keySet()) {
-                        if (equal && properties.containsKey(key)) {
-                            equal = equal
-                                    && (properties.get(key).equals(c
-                                            .getProperties().get(key)));
-                        } else {
-                            equal = false;
-                        }
-                    }
+            ConnectionSource cs = getConnectionSource(uri, properties);
+
+            if (cs == null) {
+                synchronized (this.connectionSources) {
+                    // Check again in case another thread has just created it
+                    cs = getConnectionSource(uri, properties);
 
-                    if (equal) {
-                        result = c.getConnection();
+                    if (cs == null) {
+                        // No existing connection source found
+                        cs = createConnectionSource(uri, properties);
+                        this.connectionSources.add(cs);
                     }
                 }
             }
 
-            if (result == null) {
-                // No existing connection source found
-                ConnectionSource cs = new ConnectionSource(uri, properties);
-                this.connectionSources.add(cs);
-                result = cs.getConnection();
-            }
+            result = cs.getConnection();
         } else {
             result = DriverManager.getConnection(uri, properties);
         }
@@ -268,6 +471,153 @@ public class JdbcClientHelper extends ClientHelper {
         return result;
     }
 
+    /**
+     * Returns the existing connection source matching a given connection
+     * configuration.
+     * 
+     * @param uri
+     *            The connection URI.
+     * @param properties
+     *            The connection properties.
+     * @return The matching connection source or null.
+     */
+    private ConnectionSource getConnectionSource(String uri,
+            Properties properties) {
+        ConnectionSource result = null;
+
+        for (ConnectionSource c : this.connectionSources) {
+            // Check if the connection URI is identical
+            // and if the same number of properties is present
+            if ((result == null) && c.getUri().equalsIgnoreCase(uri)
+                    && (properties.size() == c.getProperties().size())) {
+                // Check that the properties tables are equivalent
+                boolean equal = true;
+                for (Object key : c.getProperties().keySet()) {
+                    if (equal && properties.containsKey(key)) {
+                        equal = equal
+                                && (properties.get(key).equals(c
+                                        .getProperties().get(key)));
+                    } else {
+                        equal = false;
+                    }
+                }
+
+                if (equal) {
+                    result = c;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the list of connection sources, one per pooled connection
+     * configuration. Useful to monitor the connection pools.
+     * 
+     * @return The list of connection sources.
+     */
+    public List<ConnectionSource> getConnectionSources() {
+        return this.connectionSources;
+    }
+
+    /**
+     * Returns the maximum number of active connections per pool, or a negative
+     * value for no limit.
+     * 
+     * @return The maximum number of active connections per pool.
+     */
+    public int getMaxActive() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxActive", "8"));
+    }
+
+    /**
+     * Returns the maximum number of idle connections per pool, or a negative
+     * value for no limit.
+     * 
+     * @return The maximum number of idle connections per pool.
+     */
+    public int getMaxIdle() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxIdle", "8"));
+    }
+
+    /**
+     * Returns the maximum number of prepared statements cached per pooled
+     * connection, or a negative value for no limit.
+     * 
+     * @return The maximum number of prepared statements cached per connection.
+     */
+    public int getMaxOpenPreparedStatements() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxOpenPreparedStatements", "-1"));
+    }
+
+    /**
+     * Returns the maximum time in ms to wait for a connection when a pool is
+     * exhausted, or a negative value to wait indefinitely.
+     * 
+     * @return The maximum time in ms to wait for a connection.
+     */
+    public long getMaxWait() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "maxWait", "-1"));
+    }
+
+    /**
+     * Returns the minimum number of idle connections maintained by the idle
+     * connection evictor in each pool.
+     * 
+     * @return The minimum number of idle connections per pool.
+     */
+    public int getMinIdle() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "minIdle", "0"));
+    }
+
+    /**
+     * Returns the delay in seconds after which a borrowed connection is
+     * considered as abandoned.
+     * 
+     * @return The delay in seconds after which a connection is abandoned.
+     */
+    public int getRemoveAbandonedTimeout() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "removeAbandonedTimeout", "300"));
+    }
+
+    /**
+     * Returns the time in ms between two runs of the idle connection evictor.
+     * 
+     * @return The time in ms between two runs of the idle connection evictor.
+     */
+    public long getTimeBetweenEvictionRuns() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "timeBetweenEvictionRuns", "-1"));
+    }
+
+    /**
+     * Returns the SQL query used to validate pooled connections.
+     * 
+     * @return The SQL query used to validate pooled connections.
+     */
+    public String getValidationQuery() {
+        return getHelpedParameters().getFirstValue(
+                "validationQuery", null);
+    }
+
+    /**
+     * Returns the timeout in seconds of the validation query, or a negative
+     * value for no timeout.
+     * 
+     * @return The timeout in seconds of the validation query.
+     */
+    public int getValidationQueryTimeout() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "validationQueryTimeout", "-1"));
+    }
+
     /**
      * Handles a call.
      * 
@@ -347,16 +697,36 @@ public class JdbcClientHelper extends ClientHelper {
                 NodeList statementNodes = bodyElt
                         .getElementsByTagName("statement");
                 List<String> sqlRequests = new ArrayList<String>();
+                List<List<String>> sqlParameters = new ArrayList<List<String>>();
                 for (int i = 0; i < statementNodes.getLength(); i++) {
-                    String sqlRequest = statementNodes.item(i).getTextContent();
-                    sqlRequests.add(sqlRequest);
+                    // The SQL text is made of the text nodes, the parameters
+                    // of the "parameter" elements
+                    StringBuilder sqlRequest = new StringBuilder();
+                    List<String> parameters = new ArrayList<String>();
+                    NodeList childNodes = statementNodes.item(i)
+                            .getChildNodes();
+
+                    for (int j = 0; j < childNodes.getLength(); j++) {
+                        Node childNode = childNodes.item(j);
+
+                        if ((childNode.getNodeType() == Node.TEXT_NODE)
+                                || (childNode.getNodeType() == Node.CDATA_SECTION_NODE)) {
+                            sqlRequest.append(childNode.getNodeValue());
+                        } else if ((childNode.getNodeType() == Node.ELEMENT_NODE)
+                                && "parameter".equals(childNode.getNodeName())) {
+                            parameters.add(childNode.getTextContent());
+                        }
+                    }
+
+                    sqlRequests.add(sqlRequest.toString());
+                    sqlParameters.add(parameters);
                 }
 
                 // Execute the List of SQL requests
                 connection = getConnection(connectionURI, properties,
                         usePooling);
                 JdbcResult result = handleSqlRequests(connection,
-                        returnGeneratedKeys, sqlRequests);
+                        returnGeneratedKeys, sqlRequests, sqlParameters);
                 response.setEntity(new RowSetRepresentation(result, start,
                         limit));
             } catch (SQLException se) {
@@ -387,18 +757,60 @@ public class JdbcClientHelper extends ClientHelper {
      * @param connection
      * @param returnGeneratedKeys
      * @param sqlRequests
+     * @param sqlParameters
+     *            The parameters of each SQL request, empty for plain
+     *            statements.
      * @return the result of the last executed SQL request
      */
     private JdbcResult handleSqlRequests(Connection connection,
-            boolean returnGeneratedKeys, List<String> sqlRequests) {
+            boolean returnGeneratedKeys, List<String> sqlRequests,
+            List<List<String>> sqlParameters) {
         JdbcResult result = null;
         try {
             connection.setAutoCommit(true);
-            Statement statement = connection.createStatement();
-            for (String sqlRequest : sqlRequests) {
-                statement.execute(sqlRequest,
-                        returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS
-                                : Statement.NO_GENERATED_KEYS);
+            Statement statement = null;
+            boolean prepared = false;
+
+            for (int i = 0; i < sqlRequests.size(); i++) {
+                String sqlRequest = sqlRequests.get(i);
+                List<String> parameters = sqlParameters.get(i);
+
+                if (parameters.isEmpty()) {
+                    if ((statement == null) || prepared) {
+                        if (statement != null) {
+                            // Returns the previous statement to the cache
+                            statement.close();
+                        }
+
+                        statement = connection.createStatement();
+                        prepared = false;
+                    }
+
+                    statement.execute(sqlRequest,
+                            returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS
+                                    : Statement.NO_GENERATED_KEYS);
+                } else {
+                    if (statement != null) {
+                        // Returns the previous statement to the cache, if any
+                        statement.close();
+                    }
+
+                    // Only statements without generated keys are cached by
+                    // the pooled connections
+                    PreparedStatement preparedStatement = returnGeneratedKeys ? connection
+                            .prepareStatement(sqlRequest,
+                                    Statement.RETURN_GENERATED_KEYS)
+                            : connection.prepareStatement(sqlRequest);
+
+                    for (int j = 0; j < parameters.size(); j++) {
+                        preparedStatement.setString(j + 1, parameters.get(j));
+                    }
+
+                    preparedStatement.execute();
+                    statement = preparedStatement;
+                    prepared = true;
+                }
+
                 result = new JdbcResult(statement);
             }
 
@@ -421,4 +833,63 @@ public class JdbcClientHelper extends ClientHelper {
         return result;
 
     }
+
+    /**
+     * Indicates if the stack trace of the code that borrowed an abandoned
+     * connection should be logged.
+     * 
+     * @return True if the abandoned connections should be logged.
+     */
+    public boolean isLogAbandoned() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "logAbandoned", "false"));
+    }
+
+    /**
+     * Indicates if the prepared statements should be cached per pooled
+     * connection.
+     * 
+     * @return True if the prepared statements should be cached.
+     */
+    public boolean isPoolPreparedStatements() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "poolPreparedStatements", "true"));
+    }
+
+    /**
+     * Indicates if leaked connections should be reclaimed by the pools.
+     * 
+     * @return True if leaked connections should be reclaimed by the pools.
+     */
+    public boolean isRemoveAbandoned() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "removeAbandoned", "false"));
+    }
+
+    /**
+     * Indicates if the connections should be validated before being borrowed
+     * from a pool.
+     * 
+     * @return True if the connections should be validated when borrowed.
+     */
+    public boolean isTestOnBorrow() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "testOnBorrow", "false"));
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+
+        for (ConnectionSource cs : this.connectionSources) {
+            try {
+                cs.close();
+            } catch (Exception e) {
+                getLogger().log(Level.FINE,
+                        "Unable to close the connection pool", e);
+            }
+        }
+
+        this.connectionSources.clear();
+    }
 }
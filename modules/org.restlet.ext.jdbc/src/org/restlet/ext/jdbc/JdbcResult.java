@@ -34,6 +34,7 @@
 package org.restlet.ext.jdbc;
 
 import java.io.Serializable;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -99,7 +100,14 @@ public class JdbcResult implements Serializable {
         // One connection per jdbcResult
         // releasing the instance means releasing the connection too
         // and not only the statement.
-        this.statement.getConnection().close();
+        Connection connection = this.statement.getConnection();
+
+        try {
+            // Returns the statement to the cache of its pooled connection
+            this.statement.close();
+        } finally {
+            connection.close();
+        }
     }
 
 }
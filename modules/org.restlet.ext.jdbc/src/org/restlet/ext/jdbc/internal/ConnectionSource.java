@@ -33,17 +33,28 @@
 
 package org.restlet.ext.jdbc.internal;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.ObjectPool;
 import org.restlet.ext.jdbc.JdbcClientHelper;
 
 /**
- * Pooling data source which remembers its connection properties and URI.
+ * Pooling data source which remembers its connection properties and URI. It
+ * also collects a few metrics about the usage of its connection pool.
  * 
  * @author Jerome Louvel
  */
 public class ConnectionSource extends PoolingDataSource {
+    /** The number of connections borrowed from the pool. */
+    private final AtomicLong borrowCount;
+
+    /** The cumulated time spent waiting for connections, in nanoseconds. */
+    private final AtomicLong borrowTime;
+
     /** The connection properties. */
     protected Properties properties;
 
@@ -59,9 +70,86 @@ public class ConnectionSource extends PoolingDataSource {
      *            The connection properties.
      */
     public ConnectionSource(String uri, Properties properties) {
-        super(JdbcClientHelper.createConnectionPool(uri, properties));
+        this(uri, properties, JdbcClientHelper.createConnectionPool(uri,
+                properties));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param uri
+     *            The connection URI.
+     * @param properties
+     *            The connection properties.
+     * @param pool
+     *            The pool of connections.
+     */
+    public ConnectionSource(String uri, Properties properties, ObjectPool pool) {
+        super(pool);
         this.uri = uri;
         this.properties = properties;
+        this.borrowCount = new AtomicLong();
+        this.borrowTime = new AtomicLong();
+    }
+
+    /**
+     * Closes the underlying pool of connections.
+     * 
+     * @throws Exception
+     */
+    public void close() throws Exception {
+        this._pool.close();
+    }
+
+    /**
+     * Returns the average time spent waiting for a connection, in
+     * milliseconds.
+     * 
+     * @return The average time spent waiting for a connection.
+     */
+    public double getAverageBorrowTime() {
+        long count = getBorrowCount();
+        return (count == 0) ? 0D : (this.borrowTime.get() / 1000000D) / count;
+    }
+
+    /**
+     * Returns the number of connections borrowed from the pool since its
+     * creation.
+     * 
+     * @return The number of connections borrowed from the pool.
+     */
+    public long getBorrowCount() {
+        return this.borrowCount.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+
+        try {
+            return super.getConnection();
+        } finally {
+            this.borrowTime.addAndGet(System.nanoTime() - start);
+            this.borrowCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of connections currently borrowed from the pool.
+     * 
+     * @return The number of connections currently borrowed from the pool.
+     */
+    public int getNumActive() {
+        return this._pool.getNumActive();
+    }
+
+    /**
+     * Returns the number of connections currently idle in the pool.
+     * 
+     * @return The number of connections currently idle in the pool.
+     */
+    public int getNumIdle() {
+        return this._pool.getNumIdle();
     }
 
     /**
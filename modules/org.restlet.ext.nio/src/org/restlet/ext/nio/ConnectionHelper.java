@@ -39,12 +39,23 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 import org.restlet.Application;
 import org.restlet.Connector;
 import org.restlet.Context;
 import org.restlet.Response;
+import org.restlet.engine.log.LoggingThreadFactory;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.connection.ConnectionPool;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
@@ -156,6 +167,24 @@ import org.restlet.routing.VirtualHost;
  * <td>0</td>
  * <td>Type of service to set in IP packets.</td>
  * </tr>
+ * <tr>
+ * <td>sslTaskQueued</td>
+ * <td>int</td>
+ * <td>256</td>
+ * <td>Maximum number of SSL/TLS handshake tasks that can be queued if there
+ * aren't any SSL task thread available. If the value is '-1', then an
+ * unbounded queue is used. When the queue is full, the task is deferred until
+ * a task thread is free, the connection staying suspended meanwhile, so that
+ * the selector thread is never blocked. Only used by HTTPS connectors.</td>
+ * </tr>
+ * <tr>
+ * <td>sslTaskThreads</td>
+ * <td>int</td>
+ * <td>Number of available processors</td>
+ * <td>Number of threads dedicated to the lengthy SSL/TLS handshake tasks such
+ * as key exchanges and certificate validations. If the value is '0', then
+ * those tasks are run by the worker service. Only used by HTTPS connectors.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
@@ -168,6 +197,9 @@ public abstract class ConnectionHelper<T extends Connector> extends
     /** The set of active connections. */
     private final List<Connection<T>> connections;
 
+    /** The service running the lengthy SSL/TLS handshake tasks. */
+    private volatile ThreadPoolExecutor sslTaskService;
+
     /**
      * Constructor.
      * 
@@ -180,6 +212,7 @@ public abstract class ConnectionHelper<T extends Connector> extends
         super(connector, clientSide);
         this.connections = new CopyOnWriteArrayList<Connection<T>>();
         this.connectionPool = null;
+        this.sslTaskService = null;
     }
 
     /**
@@ -319,6 +352,66 @@ public abstract class ConnectionHelper<T extends Connector> extends
     public abstract OutboundWay createOutboundWay(Connection<T> connection,
             int bufferSize);
 
+    /**
+     * Creates the service running the lengthy SSL/TLS handshake tasks, keeping
+     * them away from the worker service processing the calls. As tasks are
+     * submitted by the selector thread, they are never run by the calling
+     * thread. When the queue is full, they are deferred until a task thread is
+     * free, the related connections staying suspended meanwhile.
+     * 
+     * @return The SSL/TLS task service.
+     */
+    protected ThreadPoolExecutor createSslTaskService() {
+        int threads = getSslTaskThreads();
+        BlockingQueue<Runnable> queue = null;
+
+        if (getSslTaskQueued() < 0) {
+            queue = new LinkedBlockingQueue<Runnable>();
+        } else {
+            queue = new ArrayBlockingQueue<Runnable>(Math.max(1,
+                    getSslTaskQueued()));
+        }
+
+        // Tasks waiting for room in the queue, at most one per connection
+        final Queue<Runnable> deferredTasks = new ConcurrentLinkedQueue<Runnable>();
+
+        ThreadPoolExecutor result = new ThreadPoolExecutor(threads, threads,
+                getMaxThreadIdleTimeMs(), TimeUnit.MILLISECONDS, queue,
+                new LoggingThreadFactory(getLogger(), true)) {
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                Runnable deferredTask = deferredTasks.poll();
+
+                if (deferredTask != null) {
+                    execute(deferredTask);
+                }
+            }
+        };
+
+        result.allowCoreThreadTimeOut(true);
+        result.setRejectedExecutionHandler(new RejectedExecutionHandler() {
+            public void rejectedExecution(Runnable r,
+                    ThreadPoolExecutor executor) {
+                if (executor.isShutdown()) {
+                    getLogger().fine(
+                            "SSL task rejected as the service is shut down");
+                } else {
+                    deferredTasks.offer(r);
+
+                    // The queue may have been drained in the meantime
+                    if (executor.getQueue().remainingCapacity() > 0) {
+                        Runnable deferredTask = deferredTasks.poll();
+
+                        if (deferredTask != null) {
+                            executor.execute(deferredTask);
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
     @Override
     protected void doFinishStop() {
         super.doFinishStop();
@@ -326,12 +419,28 @@ public abstract class ConnectionHelper<T extends Connector> extends
         if (isPooledConnection()) {
             this.connectionPool = null;
         }
+
+        if (this.sslTaskService != null) {
+            try {
+                this.sslTaskService.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                getLogger().log(Level.FINE,
+                        "Interruption while shutting down the SSL task service",
+                        ex);
+            }
+
+            this.sslTaskService = null;
+        }
     }
 
     @Override
     protected void doGracefulStop() {
         super.doGracefulStop();
 
+        if (this.sslTaskService != null) {
+            this.sslTaskService.shutdown();
+        }
+
         // Gracefully close the open connections
         for (Connection<T> connection : getConnections()) {
             connection.close(true);
@@ -431,6 +540,41 @@ public abstract class ConnectionHelper<T extends Connector> extends
 
     }
 
+    /**
+     * Returns the maximum number of SSL/TLS handshake tasks that can be queued
+     * if there aren't any SSL task thread available.
+     * 
+     * @return The maximum number of SSL/TLS handshake tasks that can be
+     *         queued.
+     */
+    public int getSslTaskQueued() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "sslTaskQueued", "256"));
+    }
+
+    /**
+     * Returns the service running the lengthy SSL/TLS handshake tasks. If no
+     * dedicated service was started, the worker service is returned.
+     * 
+     * @return The service running the lengthy SSL/TLS handshake tasks.
+     */
+    public ExecutorService getSslTaskService() {
+        ExecutorService result = this.sslTaskService;
+        return (result != null) ? result : getWorkerService();
+    }
+
+    /**
+     * Returns the number of threads dedicated to the lengthy SSL/TLS handshake
+     * tasks. By default, it is the number of available processors.
+     * 
+     * @return The number of threads dedicated to the SSL/TLS handshake tasks.
+     */
+    public int getSslTaskThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "sslTaskThreads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+    }
+
     /**
      * Returns the type of service to set in IP packets.
      * 
@@ -528,4 +672,27 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
                 "socketReuseAddress", "true"));
     }
+
+    /**
+     * Callback invoked by SSL/TLS connections when a handshake is completed.
+     * Does nothing by default.
+     * 
+     * @param duration
+     *            The duration of the handshake in nanoseconds.
+     * @param resumed
+     *            True if a previous SSL/TLS session was resumed.
+     */
+    public void onSslHandshakeCompleted(long duration, boolean resumed) {
+    }
+
+    /**
+     * Starts the service running the lengthy SSL/TLS handshake tasks, unless
+     * the number of dedicated threads is '0'.
+     */
+    protected void startSslTaskService() {
+        if (getSslTaskThreads() > 0) {
+            this.sslTaskService = createSslTaskService();
+        }
+    }
+
 }
@@ -48,6 +48,7 @@ import org.restlet.engine.ssl.SslUtils;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.connection.SslConnection;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
+import org.restlet.ext.nio.internal.util.SslStatistics;
 import org.restlet.ext.nio.internal.way.HttpsClientInboundWay;
 import org.restlet.ext.nio.internal.way.HttpsClientOutboundWay;
 import org.restlet.ext.nio.internal.way.InboundWay;
@@ -73,7 +74,10 @@ import org.restlet.ext.nio.internal.way.OutboundWay;
  * </tr>
  * </table>
  * For the default SSL parameters see the Javadocs of the
- * {@link DefaultSslContextFactory} class.
+ * {@link DefaultSslContextFactory} class. The lengthy handshake tasks are run
+ * by a dedicated service, see the "sslTaskThreads" parameter of the
+ * {@link ConnectionHelper} class, and the handshake latency and session
+ * resumption ratio are available via {@link #getSslStatistics()}.
  * 
  * @author Jerome Louvel
  */
@@ -82,6 +86,9 @@ public class HttpsClientHelper extends ClientConnectionHelper {
     /** The SSL context. */
     private volatile SSLContext sslContext;
 
+    /** The SSL/TLS handshake statistics. */
+    private final SslStatistics sslStatistics;
+
     /**
      * Constructor.
      * 
@@ -91,6 +98,7 @@ public class HttpsClientHelper extends ClientConnectionHelper {
     public HttpsClientHelper(Client client) {
         super(client);
         getProtocols().add(Protocol.HTTPS);
+        this.sslStatistics = new SslStatistics();
     }
 
     @Override
@@ -132,6 +140,21 @@ public class HttpsClientHelper extends ClientConnectionHelper {
         return sslContext;
     }
 
+    /**
+     * Returns the SSL/TLS handshake statistics, such as the handshake latency
+     * and the ratio of resumed sessions.
+     * 
+     * @return The SSL/TLS handshake statistics.
+     */
+    public SslStatistics getSslStatistics() {
+        return sslStatistics;
+    }
+
+    @Override
+    public void onSslHandshakeCompleted(long duration, boolean resumed) {
+        getSslStatistics().record(duration, resumed);
+    }
+
     /**
      * Sets the SSL context.
      * 
@@ -146,6 +169,7 @@ public class HttpsClientHelper extends ClientConnectionHelper {
     public synchronized void start() throws Exception {
         SslContextFactory factory = SslUtils.getSslContextFactory(this);
         setSslContext(factory.createSslContext());
+        startSslTaskService();
         super.start();
     }
 
@@ -50,6 +50,7 @@ import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.connection.SslConnection;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
 import org.restlet.ext.nio.internal.request.HttpsInboundRequest;
+import org.restlet.ext.nio.internal.util.SslStatistics;
 import org.restlet.ext.nio.internal.way.HttpsServerInboundWay;
 import org.restlet.ext.nio.internal.way.HttpsServerOutboundWay;
 import org.restlet.ext.nio.internal.way.InboundWay;
@@ -75,7 +76,10 @@ import org.restlet.ext.nio.internal.way.OutboundWay;
  * </tr>
  * </table>
  * For the default SSL parameters see the Javadocs of the
- * {@link DefaultSslContextFactory} class.
+ * {@link DefaultSslContextFactory} class. The lengthy handshake tasks are run
+ * by a dedicated service, see the "sslTaskThreads" parameter of the
+ * {@link ConnectionHelper} class, and the handshake latency and session
+ * resumption ratio are available via {@link #getSslStatistics()}.
  * 
  * @author Jerome Louvel
  */
@@ -84,6 +88,9 @@ public class HttpsServerHelper extends HttpServerHelper {
     /** The SSL context. */
     private volatile SSLContext sslContext;
 
+    /** The SSL/TLS handshake statistics. */
+    private final SslStatistics sslStatistics;
+
     /**
      * Constructor.
      * 
@@ -92,6 +99,7 @@ public class HttpsServerHelper extends HttpServerHelper {
      */
     public HttpsServerHelper(Server server) {
         super(server, Protocol.HTTPS);
+        this.sslStatistics = new SslStatistics();
     }
 
     @Override
@@ -140,6 +148,21 @@ public class HttpsServerHelper extends HttpServerHelper {
         return sslContext;
     }
 
+    /**
+     * Returns the SSL/TLS handshake statistics, such as the handshake latency
+     * and the ratio of resumed sessions.
+     * 
+     * @return The SSL/TLS handshake statistics.
+     */
+    public SslStatistics getSslStatistics() {
+        return sslStatistics;
+    }
+
+    @Override
+    public void onSslHandshakeCompleted(long duration, boolean resumed) {
+        getSslStatistics().record(duration, resumed);
+    }
+
     /**
      * Sets the SSL context.
      * 
@@ -154,6 +177,7 @@ public class HttpsServerHelper extends HttpServerHelper {
     public synchronized void start() throws Exception {
         SslContextFactory factory = SslUtils.getSslContextFactory(this);
         setSslContext(factory.createSslContext());
+        startSslTaskService();
         super.start();
     }
 
@@ -69,6 +69,9 @@ import org.restlet.ext.nio.internal.state.IoState;
  */
 public class SslConnection<T extends Connector> extends Connection<T> {
 
+    /** Name of the session value marking sessions already handshaken. */
+    private static final String HANDSHAKE_MARKER = "org.restlet.ext.nio.handshakeCompleted";
+
     /** The peer address. */
     private volatile InetSocketAddress peerAddress;
 
@@ -81,6 +84,9 @@ public class SslConnection<T extends Connector> extends Connection<T> {
     /** Whether a handshake is in progress. */
     private volatile boolean isHandshaking;
 
+    /** The start time of the current handshake, in nanoseconds. */
+    private volatile long handshakeStartNanos;
+
     /**
      * Constructor.
      * 
@@ -294,6 +300,11 @@ public class SslConnection<T extends Connector> extends Connection<T> {
         }
 
         if (hs != HandshakeStatus.NOT_HANDSHAKING) {
+            if (!isHandshaking && (handshakeStartNanos == 0)) {
+                // Renegotiation requested by the peer
+                markHandshakeStart();
+            }
+
             isHandshaking = true;
 
             switch (hs) {
@@ -374,6 +385,7 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * @throws SSLException
      */
     public void initSslEngine() throws SSLException {
+        markHandshakeStart();
         getSslEngine().beginHandshake();
     }
 
@@ -386,13 +398,38 @@ public class SslConnection<T extends Connector> extends Connection<T> {
         return getSslHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING;
     }
 
+    /**
+     * Records the start time of a handshake.
+     */
+    private void markHandshakeStart() {
+        this.handshakeStartNanos = System.nanoTime();
+    }
+
     /**
      * Notifies that the SSL handshake is finished. Application data can now be
-     * exchanged.
+     * exchanged. The handshake duration is reported to the helper, along with
+     * the resumption of a previous session, detected when the session was
+     * already marked by a previous handshake.
      */
     private void onFinished() {
         isHandshaking = false;
 
+        if (handshakeStartNanos != 0) {
+            long duration = System.nanoTime() - handshakeStartNanos;
+            SSLSession sslSession = getSslSession();
+            boolean resumed = false;
+
+            if (sslSession != null) {
+                // Resumed sessions come from the session cache, along with
+                // the values bound by previous handshakes
+                resumed = (sslSession.getValue(HANDSHAKE_MARKER) != null);
+                sslSession.putValue(HANDSHAKE_MARKER, Boolean.TRUE);
+            }
+
+            handshakeStartNanos = 0;
+            getHelper().onSslHandshakeCompleted(duration, resumed);
+        }
+
         if (isClientSide()) {
             getInboundWay().setIoState(IoState.IDLE);
             getOutboundWay().setIoState(IoState.INTEREST);
@@ -406,7 +443,7 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * Runs the pending lengthy task.
      */
     private void onNeedTask() {
-        // Delegate lengthy tasks to the connector's worker
+        // Delegate lengthy tasks to the connector's SSL task
         // service before checking again
         final Runnable task = getSslEngine().getDelegatedTask();
 
@@ -416,7 +453,7 @@ public class SslConnection<T extends Connector> extends Connection<T> {
             getOutboundWay().setIoState(IoState.IDLE);
 
             // Runs the pending lengthy task.
-            getHelper().getWorkerService().execute(new Runnable() {
+            getHelper().getSslTaskService().execute(new Runnable() {
                 public void run() {
                     getLogger().log(Level.FINER, "Running delegated tasks...");
                     task.run();
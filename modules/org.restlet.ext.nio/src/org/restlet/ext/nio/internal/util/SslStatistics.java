@@ -0,0 +1,158 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics about the SSL/TLS handshakes of a connector, such as their latency
+ * and the ratio of resumed sessions. It is thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class SslStatistics {
+
+    /** The number of completed handshakes. */
+    private final AtomicLong handshakes;
+
+    /** The maximum duration of a handshake, in nanoseconds. */
+    private final AtomicLong maxDuration;
+
+    /** The number of handshakes that resumed a previous session. */
+    private final AtomicLong resumedHandshakes;
+
+    /** The cumulated duration of the handshakes, in nanoseconds. */
+    private final AtomicLong totalDuration;
+
+    /**
+     * Constructor.
+     */
+    public SslStatistics() {
+        this.handshakes = new AtomicLong();
+        this.maxDuration = new AtomicLong();
+        this.resumedHandshakes = new AtomicLong();
+        this.totalDuration = new AtomicLong();
+    }
+
+    /**
+     * Returns the average duration of a handshake in milliseconds.
+     * 
+     * @return The average duration of a handshake in milliseconds.
+     */
+    public double getAverageHandshakeTimeMs() {
+        long count = getHandshakeCount();
+        return (count == 0) ? 0D : (this.totalDuration.get() / 1000000D)
+                / count;
+    }
+
+    /**
+     * Returns the number of completed handshakes.
+     * 
+     * @return The number of completed handshakes.
+     */
+    public long getHandshakeCount() {
+        return this.handshakes.get();
+    }
+
+    /**
+     * Returns the maximum duration of a handshake in milliseconds.
+     * 
+     * @return The maximum duration of a handshake in milliseconds.
+     */
+    public double getMaxHandshakeTimeMs() {
+        return this.maxDuration.get() / 1000000D;
+    }
+
+    /**
+     * Returns the number of handshakes that resumed a previous session.
+     * 
+     * @return The number of handshakes that resumed a previous session.
+     */
+    public long getResumedCount() {
+        return this.resumedHandshakes.get();
+    }
+
+    /**
+     * Returns the ratio of handshakes that resumed a previous session, between
+     * 0 and 1.
+     * 
+     * @return The ratio of handshakes that resumed a previous session.
+     */
+    public double getResumptionRatio() {
+        long count = getHandshakeCount();
+        return (count == 0) ? 0D : (double) getResumedCount() / count;
+    }
+
+    /**
+     * Records a completed handshake.
+     * 
+     * @param duration
+     *            The duration of the handshake in nanoseconds.
+     * @param resumed
+     *            True if a previous session was resumed.
+     */
+    public void record(long duration, boolean resumed) {
+        this.handshakes.incrementAndGet();
+        this.totalDuration.addAndGet(duration);
+
+        if (resumed) {
+            this.resumedHandshakes.incrementAndGet();
+        }
+
+        long max = this.maxDuration.get();
+
+        while ((duration > max)
+                && !this.maxDuration.compareAndSet(max, duration)) {
+            max = this.maxDuration.get();
+        }
+    }
+
+    /**
+     * Resets all the statistics.
+     */
+    public void reset() {
+        this.handshakes.set(0);
+        this.maxDuration.set(0);
+        this.resumedHandshakes.set(0);
+        this.totalDuration.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return getHandshakeCount() + " handshakes, " + getResumedCount()
+                + " resumed, " + getAverageHandshakeTimeMs()
+                + " ms on average, " + getMaxHandshakeTimeMs() + " ms maximum";
+    }
+
+}
@@ -43,6 +43,7 @@ import org.restlet.engine.header.Header;
 import org.restlet.engine.header.HeaderReader;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.engine.io.ReadableSelectionChannel;
+import org.restlet.engine.util.IndexedSeries;
 import org.restlet.ext.nio.internal.buffer.Buffer;
 import org.restlet.ext.nio.internal.buffer.BufferState;
 import org.restlet.ext.nio.internal.channel.ReadableChunkedChannel;
@@ -255,7 +256,7 @@ public abstract class InboundWay extends Way {
 
                 if (header != null) {
                     if (getHeaders() == null) {
-                        setHeaders(new Series<Header>(Header.class));
+                        setHeaders(new IndexedSeries<Header>(Header.class));
                     }
 
                     getHeaders().add(header);
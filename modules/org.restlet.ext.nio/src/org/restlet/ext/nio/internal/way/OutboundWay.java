@@ -50,6 +50,7 @@ import org.restlet.engine.header.Header;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.engine.io.BlockableChannel;
+import org.restlet.engine.util.IndexedSeries;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.ext.nio.internal.buffer.Buffer;
 import org.restlet.ext.nio.internal.channel.ReadableChunkingChannel;
@@ -560,7 +561,7 @@ public abstract class OutboundWay extends Way {
 
         case HEADERS:
             if (getHeaders() == null) {
-                setHeaders(new Series<Header>(Header.class));
+                setHeaders(new IndexedSeries<Header>(Header.class));
                 setHeaderIndex(0);
                 addHeaders(getHeaders());
             }
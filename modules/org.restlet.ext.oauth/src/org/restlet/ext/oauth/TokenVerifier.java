@@ -47,10 +47,12 @@ import org.restlet.data.Form;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Reference;
+import org.restlet.data.Status;
 import org.restlet.ext.json.JsonRepresentation;
 import org.restlet.ext.oauth.internal.Scopes;
 import org.restlet.representation.Representation;
 import org.restlet.resource.ClientResource;
+import org.restlet.resource.ResourceException;
 import org.restlet.security.User;
 import org.restlet.security.Verifier;
 
@@ -59,6 +61,14 @@ import org.restlet.security.Verifier;
  * ChallengeAuthenticator. "Bearer" and "MAC" challenge schemes are may
  * supported.
  * 
+ * Each verification calls the token endpoint of the authorization server.
+ * Wrap it with a {@link org.restlet.security.CachingVerifier} to reuse the
+ * results of previous verifications of the same Bearer token. When the
+ * authorization server can't be reached or replies with an unexpected
+ * document, a {@link ResourceException} with a
+ * {@link Status#SERVER_ERROR_SERVICE_UNAVAILABLE} status is thrown instead of
+ * rejecting the token, so that the failure isn't cached.
+ * 
  * @author Shotaro Uchida <fantom@xmaker.mx>
  * @see <a href="http://tools.ietf.org/html/draft-ietf-oauth-v2-bearer-22">
  *      Bearer Token Usage</a>
@@ -138,7 +148,8 @@ public class TokenVerifier implements Verifier {
             jsonResponse = jsonRepresentation.getJsonObject();
         } catch (Exception ex) {
             logger.log(Level.SEVERE, null, ex);
-            return RESULT_INVALID;
+            throw new ResourceException(
+                    Status.SERVER_ERROR_SERVICE_UNAVAILABLE, ex);
         }
 
         if (jsonResponse.has(OAuthServerResource.ERROR)) {
@@ -162,7 +173,9 @@ public class TokenVerifier implements Verifier {
             clientInfo.setRoles(Scopes.toRoles(jsonResponse
                     .getString(OAuthServerResource.SCOPE)));
         } catch (JSONException ex) {
-            return RESULT_INVALID;
+            logger.log(Level.SEVERE, null, ex);
+            throw new ResourceException(
+                    Status.SERVER_ERROR_SERVICE_UNAVAILABLE, ex);
         }
 
         return RESULT_VALID;
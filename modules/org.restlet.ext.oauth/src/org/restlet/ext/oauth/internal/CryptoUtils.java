@@ -36,8 +36,8 @@ package org.restlet.ext.oauth.internal;
 import java.security.GeneralSecurityException;
 
 import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
 
+import org.restlet.engine.security.CryptoPools;
 import org.restlet.engine.util.Base64;
 import org.restlet.ext.crypto.DigestUtils;
 
@@ -49,26 +49,6 @@ import org.restlet.ext.crypto.DigestUtils;
  */
 public final class CryptoUtils {
 
-    /**
-     * Creates a cipher for a given algorithm and secret.
-     * 
-     * @param algorithm
-     *            The cryptographic algorithm.
-     * @param secretKey
-     *            The cryptographic secret.
-     * @param mode
-     *            The cipher mode, either {@link Cipher#ENCRYPT_MODE} or
-     *            {@link Cipher#DECRYPT_MODE}.
-     * @return The new cipher.
-     * @throws GeneralSecurityException
-     */
-    private static Cipher createCipher(String algorithm, byte[] secretKey,
-            int mode) throws GeneralSecurityException {
-        Cipher cipher = Cipher.getInstance(algorithm);
-        cipher.init(mode, new SecretKeySpec(secretKey, algorithm));
-        return cipher;
-    }
-
     /**
      * Decrypts a bytes array.
      * 
@@ -106,7 +86,7 @@ public final class CryptoUtils {
     }
 
     /**
-     * Does final processing.
+     * Does final processing with a pooled cipher.
      * 
      * @param algo
      *            The cryptographic algorithm.
@@ -122,7 +102,7 @@ public final class CryptoUtils {
      */
     private static byte[] doFinal(String algo, byte[] secretKey, int mode,
             byte[] what) throws GeneralSecurityException {
-        return createCipher(algo, secretKey, mode).doFinal(what);
+        return CryptoPools.cipher(algo, secretKey, mode, what);
     }
 
     /**
@@ -0,0 +1,564 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.oauth.internal.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.restlet.ext.oauth.OAuthException;
+import org.restlet.ext.oauth.internal.AuthSession;
+import org.restlet.ext.oauth.internal.Client;
+import org.restlet.ext.oauth.internal.Token;
+
+/**
+ * Memory implementation of TokenManager interface that evicts the tokens and
+ * the sessions once they can't be used anymore. A token is evicted when both
+ * its access token and its refresh token are expired. The evictions are
+ * scheduled in a hierarchical timing wheel and processed as the manager is
+ * used, so no scan of the stored tokens is ever needed. The wheel only holds
+ * the access tokens, so revoked or refreshed tokens aren't retained until their
+ * scheduled eviction, which is then skipped.<br>
+ * <br>
+ * When a log file is given, the tokens are also persisted in an append-only log
+ * so that they survive a restart. The log is replayed and compacted when the
+ * manager is created, and compacted again when it mostly contains obsolete
+ * records. The records are buffered while the store is updated, then written
+ * and flushed outside of the manager's lock, concurrent updates being written
+ * together. Access to the log file should be restricted as it contains the
+ * tokens in clear.
+ * 
+ * @author Shotaro Uchida <fantom@xmaker.mx>
+ */
+public class ExpiringTokenManager extends MemoryTokenManager {
+
+    public static final int DEFAULT_REFRESH_EXPIRE_PERIOD = 14 * 24 * 3600;
+
+    /** Duration of a tick of the timing wheels, in milliseconds. */
+    private static final long TICK_DURATION = 1000L;
+
+    /** Record adding a token to the log. */
+    private static final byte RECORD_ADD = 1;
+
+    /** Record removing a token from the log. */
+    private static final byte RECORD_REMOVE = 2;
+
+    private static final Logger logger = Logger
+            .getLogger(ExpiringTokenManager.class.getName());
+
+    /** The log file, or null. */
+    private final File logFile;
+
+    /** Lock serializing the writes to the log file, taken before this one. */
+    private final Object logLock = new Object();
+
+    /** The log output stream, or null. */
+    private DataOutputStream logOutput;
+
+    /** The records not written to the log output stream yet. */
+    private final ByteArrayOutputStream pendingRecords;
+
+    /** The stream writing to the pending records. */
+    private final DataOutputStream pendingOutput;
+
+    /** The number of records in the log. */
+    private int logRecords;
+
+    /** The next time the timing wheels need to be advanced. */
+    private volatile long nextExpiration;
+
+    private volatile int refreshExpirePeriod = DEFAULT_REFRESH_EXPIRE_PERIOD;
+
+    /** The timing wheel evicting the sessions. */
+    private final TimingWheel<String> sessionWheel;
+
+    /** The timing wheel evicting the tokens, by access token. */
+    private final TimingWheel<String> tokenWheel;
+
+    /**
+     * Constructor without persistence.
+     */
+    public ExpiringTokenManager() {
+        long now = System.currentTimeMillis();
+        this.logFile = null;
+        this.pendingRecords = new ByteArrayOutputStream();
+        this.pendingOutput = new DataOutputStream(this.pendingRecords);
+        this.nextExpiration = now + TICK_DURATION;
+        this.sessionWheel = new TimingWheel<String>(TICK_DURATION, 6, 4, now);
+        this.tokenWheel = new TimingWheel<String>(TICK_DURATION, 6, 4, now);
+    }
+
+    /**
+     * Constructor persisting the tokens in a log file. The tokens previously
+     * logged are restored.
+     * 
+     * @param logFile
+     *            the log file.
+     * @throws IOException
+     */
+    public ExpiringTokenManager(File logFile) throws IOException {
+        long now = System.currentTimeMillis();
+        this.logFile = logFile;
+        this.pendingRecords = new ByteArrayOutputStream();
+        this.pendingOutput = new DataOutputStream(this.pendingRecords);
+        this.nextExpiration = now + TICK_DURATION;
+        this.sessionWheel = new TimingWheel<String>(TICK_DURATION, 6, 4, now);
+        this.tokenWheel = new TimingWheel<String>(TICK_DURATION, 6, 4, now);
+
+        if (logFile.exists()) {
+            replay();
+        }
+
+        compact();
+    }
+
+    @Override
+    protected void addToken(MemoryToken token) {
+        synchronized (this) {
+            super.addToken(token);
+
+            if (logOutput != null) {
+                try {
+                    pendingOutput.writeByte(RECORD_ADD);
+                    writeToken(pendingOutput, token);
+                    logRecords++;
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Unable to log the token", e);
+                }
+            }
+        }
+
+        tokenWheel.schedule(token.getAccessToken(), getEvictionTime(token));
+        flushLogIfUnlocked();
+    }
+
+    /**
+     * Closes the log file, if any, after writing the pending records.
+     * 
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        synchronized (logLock) {
+            flushLog();
+
+            synchronized (this) {
+                if (logOutput != null) {
+                    logOutput.close();
+                    logOutput = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites the log file with the stored tokens only. Does nothing without
+     * a log file.
+     * 
+     * @throws IOException
+     */
+    public void compact() throws IOException {
+        if (logFile == null) {
+            return;
+        }
+
+        synchronized (logLock) {
+            synchronized (this) {
+                compactLog();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the log file with the stored tokens only, discarding the
+     * pending records. Both locks must be held.
+     * 
+     * @throws IOException
+     */
+    private void compactLog() throws IOException {
+        if (logOutput != null) {
+            logOutput.close();
+            logOutput = null;
+        }
+
+        pendingRecords.reset();
+        File tempFile = new File(logFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tempFile)));
+        int records = 0;
+
+        try {
+            for (MemoryToken token : getTokens()) {
+                out.writeByte(RECORD_ADD);
+                writeToken(out, token);
+                records++;
+            }
+        } finally {
+            out.close();
+        }
+
+        if (logFile.exists() && !logFile.delete()) {
+            throw new IOException("Unable to replace the log file " + logFile);
+        }
+
+        if (!tempFile.renameTo(logFile)) {
+            throw new IOException("Unable to replace the log file " + logFile);
+        }
+
+        logRecords = records;
+        logOutput = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(logFile, true)));
+    }
+
+    /**
+     * Evicts the tokens and the sessions that expired.
+     */
+    public void expire() {
+        long now = System.currentTimeMillis();
+        nextExpiration = now + TICK_DURATION;
+
+        for (String accessToken : tokenWheel.advance(now)) {
+            MemoryToken token = findTokenByAccessToken(accessToken);
+
+            // Skip the tokens already revoked or refreshed
+            if (token != null) {
+                long evictionTime = getEvictionTime(token);
+
+                if (evictionTime <= now) {
+                    removeToken(token);
+                } else {
+                    // The refresh period was extended
+                    tokenWheel.schedule(accessToken, evictionTime);
+                }
+            }
+        }
+
+        for (String code : sessionWheel.advance(now)) {
+            removeSession(code);
+        }
+
+        synchronized (logLock) {
+            synchronized (this) {
+                if ((logOutput != null) && (logRecords > 1024)
+                        && (logRecords > 2 * getTokens().size())) {
+                    try {
+                        compactLog();
+                        return;
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, "Unable to compact the log",
+                                e);
+                    }
+                }
+            }
+
+            flushLog();
+        }
+    }
+
+    /**
+     * Writes the pending records to the log file and flushes it. The log lock
+     * must be held, but not the manager's one.
+     */
+    private void flushLog() {
+        byte[] records;
+        DataOutputStream out;
+
+        synchronized (this) {
+            if ((logOutput == null) || (pendingRecords.size() == 0)) {
+                return;
+            }
+
+            records = pendingRecords.toByteArray();
+            pendingRecords.reset();
+            out = logOutput;
+        }
+
+        try {
+            out.write(records);
+            out.flush();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to write the log", e);
+        }
+    }
+
+    /**
+     * Writes the pending records to the log file unless the current thread
+     * holds the manager's lock, in which case the enclosing operation writes
+     * them once it released the lock.
+     */
+    private void flushLogIfUnlocked() {
+        if (!Thread.holdsLock(this)) {
+            synchronized (logLock) {
+                flushLog();
+            }
+        }
+    }
+
+    /**
+     * Advances the timing wheels if at least one tick elapsed.
+     */
+    private void expireIfNeeded() {
+        if (System.currentTimeMillis() >= nextExpiration) {
+            expire();
+        }
+    }
+
+    @Override
+    public Token generateToken(Client client, String username, String[] scope)
+            throws OAuthException {
+        expireIfNeeded();
+        return super.generateToken(client, username, scope);
+    }
+
+    /**
+     * Returns the time a token is evicted, once both its access token and its
+     * refresh token are expired.
+     * 
+     * @param token
+     *            the token.
+     * @return the eviction time in milliseconds.
+     */
+    private long getEvictionTime(MemoryToken token) {
+        return token.getTimestamp()
+                + ((long) token.getExpirePeriod() + getRefreshExpirePeriod() + 1)
+                * 1000L;
+    }
+
+    /**
+     * @return the period in seconds during which a token can be refreshed
+     *         after its access token expired
+     */
+    public int getRefreshExpirePeriod() {
+        return refreshExpirePeriod;
+    }
+
+    /**
+     * Reads a nullable string.
+     * 
+     * @param in
+     *            the input stream.
+     * @return the string or null.
+     * @throws IOException
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public Token refreshToken(Client client, String refreshToken, String[] scope)
+            throws OAuthException {
+        expireIfNeeded();
+
+        try {
+            return super.refreshToken(client, refreshToken, scope);
+        } finally {
+            // The token was replaced while holding the lock
+            flushLogIfUnlocked();
+        }
+    }
+
+    @Override
+    protected boolean removeToken(MemoryToken token) {
+        boolean result;
+
+        synchronized (this) {
+            result = super.removeToken(token);
+
+            if (result && (logOutput != null)) {
+                try {
+                    pendingOutput.writeByte(RECORD_REMOVE);
+                    pendingOutput.writeUTF(token.getAccessToken());
+                    logRecords++;
+                } catch (IOException e) {
+                    logger.log(Level.WARNING,
+                            "Unable to log the token removal", e);
+                }
+            }
+        }
+
+        flushLogIfUnlocked();
+        return result;
+    }
+
+    /**
+     * Restores the tokens from the log file. A truncated last record is
+     * ignored.
+     * 
+     * @throws IOException
+     */
+    private void replay() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(logFile)));
+        long now = System.currentTimeMillis();
+
+        try {
+            while (true) {
+                byte record = in.readByte();
+
+                if (record == RECORD_ADD) {
+                    MemoryToken token = readToken(in);
+
+                    if (getEvictionTime(token) > now) {
+                        super.addToken(token);
+                        tokenWheel.schedule(token.getAccessToken(),
+                                getEvictionTime(token));
+                    }
+                } else if (record == RECORD_REMOVE) {
+                    MemoryToken token = findTokenByAccessToken(in.readUTF());
+
+                    if (token != null) {
+                        super.removeToken(token);
+                    }
+                } else {
+                    throw new IOException("Corrupted log file " + logFile);
+                }
+            }
+        } catch (EOFException e) {
+            // End of the log reached
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a token record.
+     * 
+     * @param in
+     *            the input stream.
+     * @return the token.
+     * @throws IOException
+     */
+    private static MemoryToken readToken(DataInputStream in)
+            throws IOException {
+        MemoryToken result = new MemoryToken(in.readLong());
+        result.setAccessToken(in.readUTF());
+        result.setRefreshToken(in.readUTF());
+        result.setTokenType(readString(in));
+        result.setClientId(in.readUTF());
+        result.setUsername(readString(in));
+        result.setExpirePeriod(in.readInt());
+        int scopes = in.readInt();
+
+        if (scopes >= 0) {
+            String[] scope = new String[scopes];
+
+            for (int i = 0; i < scopes; i++) {
+                scope[i] = in.readUTF();
+            }
+
+            result.setScope(scope);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param refreshExpirePeriod
+     *            the period in seconds during which a token can be refreshed
+     *            after its access token expired
+     */
+    public void setRefreshExpirePeriod(int refreshExpirePeriod) {
+        this.refreshExpirePeriod = refreshExpirePeriod;
+    }
+
+    @Override
+    public String storeSession(AuthSession session) throws OAuthException {
+        expireIfNeeded();
+        String result = super.storeSession(session);
+        sessionWheel.schedule(result, System.currentTimeMillis()
+                + session.getSessionTimeout() * 1000L);
+        return result;
+    }
+
+    @Override
+    public Token validateToken(String accessToken) throws OAuthException {
+        expireIfNeeded();
+        return super.validateToken(accessToken);
+    }
+
+    /**
+     * Writes a nullable string.
+     * 
+     * @param out
+     *            the output stream.
+     * @param value
+     *            the string or null.
+     * @throws IOException
+     */
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        out.writeBoolean(value != null);
+
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Writes a token record.
+     * 
+     * @param out
+     *            the output stream.
+     * @param token
+     *            the token.
+     * @throws IOException
+     */
+    private static void writeToken(DataOutputStream out, MemoryToken token)
+            throws IOException {
+        out.writeLong(token.getTimestamp());
+        out.writeUTF(token.getAccessToken());
+        out.writeUTF(token.getRefreshToken());
+        writeString(out, token.getTokenType());
+        out.writeUTF(token.getClientId());
+        writeString(out, token.getUsername());
+        out.writeInt(token.getExpirePeriod());
+        String[] scope = token.getScope();
+        out.writeInt((scope == null) ? -1 : scope.length);
+
+        if (scope != null) {
+            for (String value : scope) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+}
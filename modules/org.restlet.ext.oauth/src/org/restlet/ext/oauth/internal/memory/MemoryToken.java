@@ -59,7 +59,17 @@ public class MemoryToken implements ServerToken {
     private String username;
 
     protected MemoryToken() {
-        timestamp = System.currentTimeMillis();
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor used to restore a previously issued token.
+     * 
+     * @param timestamp
+     *            the issue time in milliseconds.
+     */
+    protected MemoryToken(long timestamp) {
+        this.timestamp = timestamp;
     }
 
     /**
@@ -77,6 +87,13 @@ public class MemoryToken implements ServerToken {
         this.accessToken = accessToken;
     }
 
+    /**
+     * @return the issue time in milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
     /**
      * @return the tokenType
      */
@@ -35,6 +35,7 @@ package org.restlet.ext.oauth.internal.memory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import org.restlet.ext.oauth.OAuthError;
@@ -46,7 +47,9 @@ import org.restlet.ext.oauth.internal.Client;
 import org.restlet.ext.oauth.internal.Token;
 
 /**
- * Memory implementation of TokenManager interface.
+ * Memory implementation of TokenManager interface. Tokens are indexed by access
+ * token, by refresh token and by owner (client and username), so that
+ * validating, refreshing and finding a token are constant time operations.
  * 
  * @author Shotaro Uchida <fantom@xmaker.mx>
  */
@@ -54,6 +57,10 @@ public class MemoryTokenManager extends AbstractTokenManager {
 
     private final Map<String, MemoryToken> tokens = new ConcurrentHashMap<String, MemoryToken>();
 
+    private final Map<String, MemoryToken> refreshTokens = new ConcurrentHashMap<String, MemoryToken>();
+
+    private final Map<String, MemoryToken> ownerTokens = new ConcurrentHashMap<String, MemoryToken>();
+
     private final Map<String, AuthSession> sessions = new ConcurrentHashMap<String, AuthSession>();
 
     public Token generateToken(Client client, String username, String[] scope)
@@ -67,10 +74,80 @@ public class MemoryTokenManager extends AbstractTokenManager {
         token.setTokenType(OAuthResourceDefs.TOKEN_TYPE_BEARER);
         token.setAccessToken(generateRawToken());
         token.setRefreshToken(generateRawToken());
-        tokens.put(token.getAccessToken(), token);
+        addToken(token);
         return token;
     }
 
+    /**
+     * Returns the key of the owner index.
+     * 
+     * @param clientId
+     *            the client that bound to token.
+     * @param username
+     *            the username that bound to token, or null.
+     * @return the key of the owner index.
+     */
+    private static String getOwnerKey(String clientId, String username) {
+        // The client identifier can't contain a line feed
+        return (username == null) ? clientId : clientId + '\n' + username;
+    }
+
+    /**
+     * Adds a token to the store, replacing the one previously issued for the
+     * same client and username.
+     * 
+     * @param token
+     *            the token to add.
+     */
+    protected synchronized void addToken(MemoryToken token) {
+        MemoryToken previous = ownerTokens.get(getOwnerKey(
+                token.getClientId(), token.getUsername()));
+
+        if (previous != null) {
+            removeToken(previous);
+        }
+
+        tokens.put(token.getAccessToken(), token);
+        refreshTokens.put(token.getRefreshToken(), token);
+        ownerTokens.put(getOwnerKey(token.getClientId(), token.getUsername()),
+                token);
+    }
+
+    /**
+     * Returns the stored tokens.
+     * 
+     * @return the stored tokens.
+     */
+    protected Collection<MemoryToken> getTokens() {
+        return tokens.values();
+    }
+
+    /**
+     * Removes a token from the store.
+     * 
+     * @param token
+     *            the token to remove.
+     * @return true if the token was stored.
+     */
+    protected synchronized boolean removeToken(MemoryToken token) {
+        boolean result = tokens.remove(token.getAccessToken()) != null;
+
+        if (result) {
+            if (refreshTokens.get(token.getRefreshToken()) == token) {
+                refreshTokens.remove(token.getRefreshToken());
+            }
+
+            String ownerKey = getOwnerKey(token.getClientId(),
+                    token.getUsername());
+
+            if (ownerTokens.get(ownerKey) == token) {
+                ownerTokens.remove(ownerKey);
+            }
+        }
+
+        return result;
+    }
+
     public Token refreshToken(Client client, String refreshToken, String[] scope)
             throws OAuthException {
         MemoryToken token = findTokenByRefreshToken(refreshToken);
@@ -119,8 +196,8 @@ public class MemoryTokenManager extends AbstractTokenManager {
         }
 
         synchronized (this) {
-            if (tokens.remove(token.getAccessToken()) != null) {
-                tokens.put(newToken.getAccessToken(), newToken);
+            if (removeToken(token)) {
+                addToken(newToken);
                 return newToken;
             }
         }
@@ -134,8 +211,19 @@ public class MemoryTokenManager extends AbstractTokenManager {
         return code;
     }
 
+    /**
+     * Removes a stored session.
+     * 
+     * @param code
+     *            the code of the session.
+     * @return the removed session or null.
+     */
+    protected AuthSession removeSession(String code) {
+        return sessions.remove(code);
+    }
+
     public AuthSession restoreSession(String code) throws OAuthException {
-        AuthSession session = sessions.remove(code);
+        AuthSession session = removeSession(code);
         if (session == null) {
             throw new OAuthException(OAuthError.invalid_grant, "Invalid code.",
                     null);
@@ -157,23 +245,15 @@ public class MemoryTokenManager extends AbstractTokenManager {
     }
 
     public Token findToken(Client client, String username) {
-        for (MemoryToken token : tokens.values()) {
-            if (token.getClientId().equals(client.getClientId())
-                    && ((username == null && token.getUsername() == null) || (username != null && username
-                            .equals(token.getUsername())))) {
-                return token;
-            }
-        }
-        return null;
+        return ownerTokens.get(getOwnerKey(client.getClientId(), username));
+    }
+
+    protected MemoryToken findTokenByAccessToken(String accessToken) {
+        return (accessToken == null) ? null : tokens.get(accessToken);
     }
 
     protected MemoryToken findTokenByRefreshToken(String refreshToken) {
-        for (MemoryToken token : tokens.values()) {
-            if (token.getRefreshToken().equals(refreshToken)) {
-                return token;
-            }
-        }
-        return null;
+        return (refreshToken == null) ? null : refreshTokens.get(refreshToken);
     }
 
     public Token[] findTokens(String username) {
@@ -199,21 +279,22 @@ public class MemoryTokenManager extends AbstractTokenManager {
     }
 
     public void revokeToken(Client client, String username) {
-        Token token = findToken(client, username);
+        MemoryToken token = ownerTokens.get(getOwnerKey(client.getClientId(),
+                username));
         if (token != null) {
-            tokens.remove(token.getAccessToken());
+            removeToken(token);
         }
     }
 
     public void revokeAllTokens(String username) {
         for (Token token : findTokens(username)) {
-            tokens.remove(token.getAccessToken());
+            removeToken((MemoryToken) token);
         }
     }
 
     public void revokeAllTokens(Client client) {
         for (Token token : findTokens(client)) {
-            tokens.remove(token.getAccessToken());
+            removeToken((MemoryToken) token);
         }
     }
 }
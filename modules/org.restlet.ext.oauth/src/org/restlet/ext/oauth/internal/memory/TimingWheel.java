@@ -0,0 +1,246 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.oauth.internal.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Scheduling an element and expiring it are constant
+ * time operations, whatever the number of scheduled elements. Each level has
+ * the same number of slots, a slot of a level covering a whole turn of the
+ * level below. Elements scheduled far in the future are cascaded to the lower
+ * levels when their slot is reached. Elements can't be cancelled, the caller is
+ * expected to ignore the expired elements that are no longer relevant.
+ * 
+ * @author Shotaro Uchida <fantom@xmaker.mx>
+ * 
+ * @param <E>
+ *            The type of the scheduled elements.
+ */
+final class TimingWheel<E> {
+
+    /**
+     * Element scheduled with its expiration tick.
+     */
+    private static final class Entry<E> {
+
+        private final E element;
+
+        private final long tick;
+
+        private Entry(E element, long tick) {
+            this.element = element;
+            this.tick = tick;
+        }
+    }
+
+    /** The number of scheduled elements. */
+    private int count;
+
+    /** The current tick, all the previous ticks being expired. */
+    private long currentTick;
+
+    /** The slots, by level. */
+    private final List<List<Entry<E>>> slots;
+
+    /** The number of levels. */
+    private final int levels;
+
+    /** The duration of a tick, in milliseconds. */
+    private final long tickDuration;
+
+    /** The number of bits of the slot index, in each level. */
+    private final int wheelBits;
+
+    /**
+     * Constructor.
+     * 
+     * @param tickDuration
+     *            The duration of a tick, in milliseconds.
+     * @param wheelBits
+     *            The number of bits of the slot index, giving 2^wheelBits
+     *            slots per level.
+     * @param levels
+     *            The number of levels.
+     * @param now
+     *            The current time, in milliseconds.
+     */
+    TimingWheel(long tickDuration, int wheelBits, int levels, long now) {
+        this.tickDuration = tickDuration;
+        this.wheelBits = wheelBits;
+        this.levels = levels;
+        this.currentTick = now / tickDuration;
+        this.slots = new ArrayList<List<Entry<E>>>(levels << wheelBits);
+
+        for (int i = 0; i < (levels << wheelBits); i++) {
+            this.slots.add(null);
+        }
+    }
+
+    /**
+     * Advances the wheel up to the given time and returns the expired
+     * elements.
+     * 
+     * @param now
+     *            The current time, in milliseconds.
+     * @return The expired elements.
+     */
+    synchronized List<E> advance(long now) {
+        List<E> result = new ArrayList<E>();
+        long targetTick = now / this.tickDuration;
+
+        while (this.currentTick < targetTick) {
+            if (this.count == 0) {
+                // Nothing to expire, jump directly to the target tick
+                this.currentTick = targetTick;
+            } else {
+                this.currentTick++;
+
+                // Cascade the upper levels whose slot was reached, from the
+                // highest one so that entries land in slots not yet taken
+                int level = 1;
+
+                while ((level < this.levels)
+                        && ((this.currentTick & ((1L << (level * this.wheelBits)) - 1)) == 0)) {
+                    level++;
+                }
+
+                for (level--; level > 0; level--) {
+                    for (Entry<E> entry : take(level, this.currentTick)) {
+                        this.count--;
+                        add(entry, result);
+                    }
+                }
+
+                for (Entry<E> entry : take(0, this.currentTick)) {
+                    this.count--;
+                    result.add(entry.element);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds an entry to the slot matching its expiration tick, or to the
+     * expired elements if its tick is already reached.
+     * 
+     * @param entry
+     *            The entry to add.
+     * @param expired
+     *            The list of expired elements.
+     */
+    private void add(Entry<E> entry, List<E> expired) {
+        long delta = entry.tick - this.currentTick;
+
+        if (delta <= 0) {
+            expired.add(entry.element);
+        } else {
+            int level = 0;
+
+            while ((level < this.levels - 1)
+                    && (delta >= (1L << ((level + 1) * this.wheelBits)))) {
+                level++;
+            }
+
+            // Beyond the last level, the entry will be cascaded again
+            long tick = Math.min(entry.tick, this.currentTick
+                    + (1L << (this.levels * this.wheelBits)) - 1);
+            int index = (level << this.wheelBits)
+                    + (int) ((tick >>> (level * this.wheelBits)) & ((1 << this.wheelBits) - 1));
+            List<Entry<E>> slot = this.slots.get(index);
+
+            if (slot == null) {
+                slot = new ArrayList<Entry<E>>();
+                this.slots.set(index, slot);
+            }
+
+            slot.add(entry);
+            this.count++;
+        }
+    }
+
+    /**
+     * Returns the number of scheduled elements.
+     * 
+     * @return The number of scheduled elements.
+     */
+    synchronized int size() {
+        return this.count;
+    }
+
+    /**
+     * Schedules an element. If the expiration time is already reached, the
+     * element expires at the next tick.
+     * 
+     * @param element
+     *            The element to schedule.
+     * @param expirationTime
+     *            The expiration time, in milliseconds.
+     */
+    synchronized void schedule(E element, long expirationTime) {
+        // Round up so that the element never expires too early
+        long tick = (expirationTime + this.tickDuration - 1)
+                / this.tickDuration;
+        List<E> expired = new ArrayList<E>(0);
+        add(new Entry<E>(element, Math.max(tick, this.currentTick + 1)),
+                expired);
+    }
+
+    /**
+     * Removes and returns the entries of a slot.
+     * 
+     * @param level
+     *            The level of the slot.
+     * @param tick
+     *            The tick of the slot.
+     * @return The entries of the slot.
+     */
+    private List<Entry<E>> take(int level, long tick) {
+        int index = (level << this.wheelBits)
+                + (int) ((tick >>> (level * this.wheelBits)) & ((1 << this.wheelBits) - 1));
+        List<Entry<E>> result = this.slots.get(index);
+
+        if (result == null) {
+            result = new ArrayList<Entry<E>>(0);
+        } else {
+            this.slots.set(index, null);
+        }
+
+        return result;
+    }
+
+}
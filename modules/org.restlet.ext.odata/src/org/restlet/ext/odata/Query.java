@@ -33,6 +33,7 @@
 
 package org.restlet.ext.odata;
 
+import java.io.BufferedReader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -49,10 +50,11 @@ import org.restlet.ext.atom.Link;
 import org.restlet.ext.atom.Relation;
 import org.restlet.ext.odata.internal.EntryContentHandler;
 import org.restlet.ext.odata.internal.FeedContentHandler;
+import org.restlet.ext.odata.internal.StreamingEntryIterator;
 import org.restlet.ext.odata.internal.edm.EntityType;
 import org.restlet.ext.odata.internal.edm.Metadata;
 import org.restlet.representation.Representation;
-import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.ReaderRepresentation;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 import org.restlet.routing.Template;
@@ -388,11 +390,25 @@ public class Query<T> implements Iterable<T> {
                     break;
                 case TYPE_UNKNOWN:
                     // Guess the type of query based on the returned
-                    // representation
-                    Representation rep = new StringRepresentation(
-                            result.getText());
-                    String string = rep.getText().substring(0,
-                            Math.min(100, rep.getText().length()));
+                    // representation, peeking at its beginning without
+                    // buffering it
+                    BufferedReader reader = new BufferedReader(
+                            result.getReader());
+                    char[] start = new char[100];
+                    reader.mark(start.length);
+                    int length = 0;
+                    int read = 0;
+                    while ((length < start.length) && (read != -1)) {
+                        read = reader.read(start, length, start.length
+                                - length);
+                        if (read > 0) {
+                            length += read;
+                        }
+                    }
+                    reader.reset();
+                    String string = new String(start, 0, length);
+                    Representation rep = new ReaderRepresentation(reader,
+                            result.getMediaType());
                     if (string.contains("<feed")) {
                         feedContentHandler = new FeedContentHandler<T>(
                                 entityClass, entityType, metadata, getLogger());
@@ -765,6 +781,51 @@ public class Query<T> implements Iterable<T> {
         return addParameter("$skiptoken", token);
     }
 
+    /**
+     * Returns an iterator streaming the entities of the target entity set.
+     * Unlike {@link #iterator()}, entities are returned as soon as they are
+     * parsed and aren't retained by the query, while the next page is
+     * prefetched when server-side paging is used. The returned iterator also
+     * implements {@link java.io.Closeable} in order to stop the background
+     * parsing when the iteration ends early.
+     * 
+     * @return An iterator streaming the entities.
+     * @see #streamingIterator(int)
+     */
+    public Iterator<T> streamingIterator() {
+        return streamingIterator(256);
+    }
+
+    /**
+     * Returns an iterator streaming the entities of the target entity set.
+     * Unlike {@link #iterator()}, entities are returned as soon as they are
+     * parsed and aren't retained by the query, while the next page is
+     * prefetched when server-side paging is used. The returned iterator also
+     * implements {@link java.io.Closeable} in order to stop the background
+     * parsing when the iteration ends early. Single entity targets are
+     * iterated as with {@link #iterator()}.
+     * 
+     * @param capacity
+     *            The maximum number of entities parsed in advance.
+     * @return An iterator streaming the entities or null if the query can't
+     *         be executed.
+     */
+    public Iterator<T> streamingIterator(int capacity) {
+        String targetUri = createTargetUri();
+
+        if (guessType(targetUri) == TYPE_ENTITY) {
+            return iterator();
+        } else if (service.getMetadata() == null) {
+            getLogger().warning(
+                    "Can't execute the query without the service's metadata.");
+            return null;
+        }
+
+        return new StreamingEntryIterator<T>(this.service, new Reference(
+                targetUri), this.entityClass, this.entityType,
+                (Metadata) service.getMetadata(), capacity, getLogger());
+    }
+
     /**
      * Creates a new Query<T> with the $top option set in the URI generated by
      * the returned query.
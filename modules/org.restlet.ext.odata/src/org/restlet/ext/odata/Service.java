@@ -40,6 +40,9 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -121,6 +124,9 @@ public class Service {
     /** The credentials used to authenticate requests. */
     private ChallengeResponse credentials;
 
+    /** The executor service running the background tasks. */
+    private volatile ExecutorService executorService;
+
     /** The latest request sent to the service. */
     private Request latestRequest;
 
@@ -429,6 +435,47 @@ public class Service {
         return credentials;
     }
 
+    /**
+     * Returns the executor service running the background tasks, such as the
+     * parsing of the entities returned by {@link Query#streamingIterator()}.
+     * If none was set, the executor service of the client connector's context
+     * is used if available. Otherwise, a pool of daemon threads owned by this
+     * service is created. Note that each streaming iterator occupies a thread
+     * of the executor until it is exhausted or closed.
+     * 
+     * @return The executor service running the background tasks.
+     */
+    public ExecutorService getExecutorService() {
+        ExecutorService result = this.executorService;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.executorService;
+
+                if ((result == null) && (this.clientConnector != null)
+                        && (this.clientConnector.getContext() != null)) {
+                    result = this.clientConnector.getContext()
+                            .getExecutorService();
+                }
+
+                if (result == null) {
+                    result = Executors
+                            .newCachedThreadPool(new ThreadFactory() {
+                                public Thread newThread(Runnable runnable) {
+                                    Thread thread = new Thread(runnable,
+                                            "restlet-odata-service");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+                    this.executorService = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the latest request sent to the service.
      * 
@@ -987,6 +1034,16 @@ public class Service {
         this.credentials = credentials;
     }
 
+    /**
+     * Sets the executor service running the background tasks.
+     * 
+     * @param executorService
+     *            The executor service running the background tasks.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
     /**
      * Sets the latest request sent to the service.
      * 
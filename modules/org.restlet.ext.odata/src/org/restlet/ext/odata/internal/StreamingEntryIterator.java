@@ -0,0 +1,347 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.odata.internal;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.ext.atom.Entry;
+import org.restlet.ext.atom.Feed;
+import org.restlet.ext.atom.Link;
+import org.restlet.ext.atom.Relation;
+import org.restlet.ext.odata.Service;
+import org.restlet.ext.odata.internal.edm.EntityType;
+import org.restlet.ext.odata.internal.edm.Metadata;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.ResourceException;
+
+/**
+ * Iterator that streams the entities of an entity set. A background task,
+ * running on the executor service of the {@link Service}, SAX-parses the Atom
+ * feed and hands over each entity as soon as its entry is closed, through a
+ * bounded queue. Parsed entries aren't retained, so memory usage is bounded by
+ * the capacity of the queue whatever the size of the entity set.<br>
+ * <br>
+ * Server-side paging is transparently supported: as soon as a page has been
+ * parsed, the next one is requested while the remaining entities of the
+ * current page are still consumed.<br>
+ * <br>
+ * A page that can't be retrieved or parsed ends the stream: once the entities
+ * parsed before the failure have been consumed, the {@link #hasNext()} and
+ * {@link #next()} methods throw a {@link ResourceException}. The same goes if
+ * the consuming thread is interrupted while waiting, in which case the
+ * background task is cancelled and the interrupt status is restored.<br>
+ * <br>
+ * Iterating until the end releases the background task. Callers stopping
+ * earlier should invoke {@link #close()}. Otherwise, the background task gives
+ * up once the queue stayed full for {@link #ABANDON_TIMEOUT} seconds, and the
+ * iterator then fails after returning the pending entities.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The type of the streamed entities.
+ */
+public class StreamingEntryIterator<T> implements Iterator<T>, Closeable {
+
+    /** Failure handed over to the consumer. */
+    private static final class Failure {
+
+        /** The exception to throw to the consumer. */
+        private final ResourceException exception;
+
+        /**
+         * Constructor.
+         * 
+         * @param exception
+         *            The exception to throw to the consumer.
+         */
+        private Failure(ResourceException exception) {
+            this.exception = exception;
+        }
+    }
+
+    /** Feed handler pushing each parsed entity to the queue. */
+    private class StreamingHandler extends FeedContentHandler<T> {
+
+        /** The feed being parsed. */
+        private Feed feed;
+
+        public StreamingHandler() {
+            super(entityClass, entityType, metadata, logger);
+        }
+
+        @Override
+        public void endEntry(Entry entry) {
+            if (closed) {
+                throw new CancellationException("The stream has been closed");
+            }
+
+            super.endEntry(entry);
+
+            // Don't retain the parsed entries
+            this.feed.getEntries().clear();
+
+            for (T entity : getEntities()) {
+                if (!put(entity)) {
+                    throw new CancellationException(
+                            "The stream has been closed");
+                }
+            }
+
+            getEntities().clear();
+        }
+
+        @Override
+        public void startFeed(Feed feed) {
+            super.startFeed(feed);
+            this.feed = feed;
+        }
+    }
+
+    /**
+     * The number of seconds the background task waits for the consumer while
+     * the queue is full before giving up.
+     */
+    public static final int ABANDON_TIMEOUT = 60;
+
+    /** Marks the end of the stream. */
+    private static final Object END = new Object();
+
+    /** Indicates if the iterator has been closed or abandoned. */
+    private volatile boolean closed;
+
+    /** The class of the streamed entities. */
+    private final Class<?> entityClass;
+
+    /** The entity type of the streamed entities. */
+    private final EntityType entityType;
+
+    /** The logger. */
+    private final Logger logger;
+
+    /** The metadata of the service. */
+    private final Metadata metadata;
+
+    /** The next element, END, a failure or null if not fetched yet. */
+    private Object next;
+
+    /** The queue of parsed entities. */
+    private final BlockingQueue<Object> queue;
+
+    /** The underlying service. */
+    private final Service service;
+
+    /** The background parsing task. */
+    private final Future<?> task;
+
+    /**
+     * Constructor. Starts the background parsing.
+     * 
+     * @param service
+     *            The underlying service.
+     * @param firstPage
+     *            The reference of the first page.
+     * @param entityClass
+     *            The class of the streamed entities.
+     * @param entityType
+     *            The entity type of the streamed entities.
+     * @param metadata
+     *            The metadata of the service.
+     * @param capacity
+     *            The maximum number of entities parsed in advance.
+     * @param logger
+     *            The logger.
+     */
+    public StreamingEntryIterator(Service service, final Reference firstPage,
+            Class<?> entityClass, EntityType entityType, Metadata metadata,
+            int capacity, Logger logger) {
+        this.service = service;
+        this.entityClass = entityClass;
+        this.entityType = entityType;
+        this.logger = logger;
+        this.metadata = metadata;
+        this.queue = new ArrayBlockingQueue<Object>(capacity);
+        this.task = service.getExecutorService().submit(new Runnable() {
+            public void run() {
+                parse(firstPage);
+            }
+        });
+    }
+
+    /**
+     * Stops the background parsing and releases the pending entities.
+     */
+    public void close() {
+        this.closed = true;
+        this.task.cancel(true);
+        this.queue.clear();
+        this.next = END;
+    }
+
+    /**
+     * Indicates if more entities are available, waiting for the background
+     * parsing if needed.
+     * 
+     * @return True if more entities are available.
+     * @throws ResourceException
+     *             If a page couldn't be retrieved or parsed, or if the thread
+     *             was interrupted while waiting.
+     */
+    public boolean hasNext() {
+        try {
+            while (this.next == null) {
+                this.next = this.queue.poll(1, TimeUnit.SECONDS);
+
+                if ((this.next == null) && this.closed) {
+                    // The background task gave up waiting for the consumer
+                    this.next = new Failure(new ResourceException(
+                            new IllegalStateException(
+                                    "The stream was abandoned after "
+                                            + ABANDON_TIMEOUT
+                                            + " seconds without consumption")));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Don't report an interruption as the end of the stream
+            Thread.currentThread().interrupt();
+            close();
+            this.next = new Failure(new ResourceException(e));
+        }
+
+        if (this.next instanceof Failure) {
+            throw ((Failure) this.next).exception;
+        }
+
+        return this.next != END;
+    }
+
+    /**
+     * Returns the next entity.
+     * 
+     * @return The next entity.
+     * @throws ResourceException
+     *             If a page couldn't be retrieved or parsed.
+     */
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        T result = (T) this.next;
+        this.next = null;
+        return result;
+    }
+
+    /**
+     * Parses the successive pages, starting from the given one.
+     * 
+     * @param page
+     *            The reference of the first page.
+     */
+    private void parse(Reference page) {
+        Object last = END;
+
+        try {
+            while ((page != null) && !this.closed) {
+                ClientResource resource = this.service.createResource(page);
+                Representation result = resource
+                        .get(MediaType.APPLICATION_ATOM);
+                page = null;
+
+                if (!resource.getStatus().isSuccess()) {
+                    throw new ResourceException(resource.getStatus());
+                }
+
+                if (result != null) {
+                    Feed feed = new Feed(result, new StreamingHandler());
+
+                    for (Link link : feed.getLinks()) {
+                        if (Relation.NEXT.equals(link.getRel())) {
+                            page = link.getHref();
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (ResourceException e) {
+            last = new Failure(e);
+        } catch (Throwable t) {
+            last = new Failure(new ResourceException(t));
+        }
+
+        if (!this.closed) {
+            put(last);
+        }
+    }
+
+    /**
+     * Hands over an element to the consumer, waiting while the queue is full
+     * unless the iterator is closed. Gives up and marks the iterator as
+     * closed if the queue stays full for {@link #ABANDON_TIMEOUT} seconds.
+     * 
+     * @param element
+     *            The element to hand over.
+     * @return True if the element was handed over.
+     */
+    private boolean put(Object element) {
+        try {
+            for (int i = 0; (i < ABANDON_TIMEOUT) && !this.closed; i++) {
+                if (this.queue.offer(element, 1, TimeUnit.SECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed by the consumer
+        }
+
+        this.closed = true;
+        return false;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+}
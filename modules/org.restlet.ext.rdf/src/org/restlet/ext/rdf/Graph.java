@@ -33,19 +33,41 @@
 
 package org.restlet.ext.rdf;
 
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
+import org.restlet.ext.rdf.internal.GraphIndex;
 import org.restlet.representation.Representation;
 
 /**
  * Graph composed of links. This also called a set of RDF statements or a RDF
- * model.
+ * model.<br>
+ * <br>
+ * Links are kept in an in-memory index where source, type and target nodes are
+ * dictionary encoded, allowing constant time duplicate detection and pattern
+ * lookups via {@link #getLinks(Object, Reference, Object)}. Two links are
+ * considered identical when their source, type and target match, references
+ * being compared by URI, literals by value, datatype and language and graphs
+ * or links by identity. A link shouldn't be modified while it belongs to a
+ * graph.<br>
+ * <br>
+ * Updates are serialized while reads never block. Iterators reflect the links
+ * present when they were created and never throw
+ * {@link java.util.ConcurrentModificationException}, so a graph can be read
+ * while it is loaded by a single writer.
  * 
  * @author Jerome Louvel
  */
-public class Graph extends CopyOnWriteArraySet<Link> {
+public class Graph extends AbstractSet<Link> implements Serializable {
 
     /** The serialization unique identifier. */
     private static final long serialVersionUID = 1L;
@@ -53,6 +75,9 @@ public class Graph extends CopyOnWriteArraySet<Link> {
     /** The default link that is used to complete new links. */
     private Link defaultLink;
 
+    /** The index of links. */
+    private transient volatile GraphIndex index;
+
     /**
      * Default constructor.
      */
@@ -68,6 +93,20 @@ public class Graph extends CopyOnWriteArraySet<Link> {
      */
     public Graph(Link defaultLink) {
         this.defaultLink = defaultLink;
+        this.index = new GraphIndex();
+    }
+
+    /**
+     * Adds a link unless a link with the same source, type and target is
+     * already present.
+     * 
+     * @param link
+     *            The link to add.
+     * @return True if the link was added.
+     */
+    @Override
+    public synchronized boolean add(Link link) {
+        return this.index.add(link);
     }
 
     /**
@@ -309,6 +348,34 @@ public class Graph extends CopyOnWriteArraySet<Link> {
                 new Reference(targetRef));
     }
 
+    /**
+     * Adds a collection of links, holding the writer lock only once.
+     * 
+     * @param links
+     *            The links to add.
+     * @return True if at least one link was added.
+     */
+    @Override
+    public synchronized boolean addAll(Collection<? extends Link> links) {
+        boolean result = false;
+
+        for (Link link : links) {
+            result |= this.index.add(link);
+        }
+
+        return result;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.index = new GraphIndex();
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return (object instanceof Link) && this.index.contains((Link) object);
+    }
+
     /**
      * Returns the default link that is used to complete new links.
      * 
@@ -318,6 +385,23 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         return defaultLink;
     }
 
+    /**
+     * Returns the links matching a pattern, in insertion order. Null
+     * parameters act as wildcards. Only the links sharing the most selective
+     * of the given nodes are scanned.
+     * 
+     * @param source
+     *            The source node (reference, graph or link) or null.
+     * @param typeRef
+     *            The type reference or null.
+     * @param target
+     *            The target node (reference, literal, graph or link) or null.
+     * @return The matching links.
+     */
+    public List<Link> getLinks(Object source, Reference typeRef, Object target) {
+        return this.index.getLinks(source, typeRef, target);
+    }
+
     /**
      * Returns a representation in the RDF/n3 format.
      * 
@@ -444,6 +528,106 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         return result;
     }
 
+    @Override
+    public int hashCode() {
+        int result = 0;
+
+        for (Link link : this) {
+            result += GraphIndex.getKey(link.getSource()).hashCode()
+                    ^ GraphIndex.getKey(link.getTypeRef()).hashCode()
+                    ^ GraphIndex.getKey(link.getTarget()).hashCode();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the links present at creation time. Removal
+     * through the iterator is supported.
+     * 
+     * @return An iterator over the links.
+     */
+    @Override
+    public Iterator<Link> iterator() {
+        final GraphIndex snapshot = this.index;
+        final int slotCount = snapshot.getSlotCount();
+
+        return new Iterator<Link>() {
+            private Link last;
+
+            private Link next;
+
+            private int slot;
+
+            public boolean hasNext() {
+                while ((this.next == null) && (this.slot < slotCount)) {
+                    this.next = snapshot.get(this.slot++);
+                }
+
+                return this.next != null;
+            }
+
+            public Link next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                this.last = this.next;
+                this.next = null;
+                return this.last;
+            }
+
+            public void remove() {
+                if (this.last == null) {
+                    throw new IllegalStateException();
+                }
+
+                Graph.this.remove(this.last);
+                this.last = null;
+            }
+        };
+    }
+
+    /**
+     * Restores the links after deserialization.
+     * 
+     * @param in
+     *            The input stream.
+     */
+    private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        this.index = new GraphIndex();
+
+        for (int i = in.readInt(); i > 0; i--) {
+            this.index.add((Link) in.readObject());
+        }
+    }
+
+    /**
+     * Removes the link with the same source, type and target as the given one.
+     * The index is compacted once more than half of its slots are free.
+     * 
+     * @param object
+     *            The link to remove.
+     * @return True if a link was removed.
+     */
+    @Override
+    public synchronized boolean remove(Object object) {
+        boolean result = (object instanceof Link)
+                && this.index.remove((Link) object);
+
+        if (result) {
+            int free = this.index.getSlotCount() - this.index.getLinkCount();
+
+            if ((free > 64) && (free > this.index.getLinkCount())) {
+                this.index = this.index.compact();
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Sets the default link that is used to complete new links.
      * 
@@ -454,4 +638,25 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         this.defaultLink = defaultLink;
     }
 
+    @Override
+    public int size() {
+        return this.index.getLinkCount();
+    }
+
+    /**
+     * Writes the links for serialization.
+     * 
+     * @param out
+     *            The output stream.
+     */
+    private synchronized void writeObject(ObjectOutputStream out)
+            throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+
+        for (Link link : this) {
+            out.writeObject(link);
+        }
+    }
+
 }
@@ -55,7 +55,14 @@ import org.restlet.representation.WriterRepresentation;
  * Generic RDF representation. Provides support for the Resource Description
  * Framework (RDF) Semantic Web standard. It supports major RDF serialization
  * formats (n3, Turtle, N-Triples and RDF/XML) and is able to both serialize and
- * deserialize a {@link Graph}.
+ * deserialize a {@link Graph}.<br>
+ * <br>
+ * When wrapping another RDF representation without having materialized its
+ * graph, writing streams the links detected by the reader of the source syntax
+ * directly to the writer of the target syntax. Memory usage is then bounded by
+ * the reader and writer buffers, and as the writer is only invoked when the
+ * output is consumed, a slow consumer naturally slows down the parsing. Note
+ * that the wrapped representation can only be streamed once.
  * 
  * @author Jerome Louvel
  */
@@ -106,7 +113,22 @@ public class RdfRepresentation extends WriterRepresentation {
      */
     public RdfRepresentation(Representation rdfRepresentation)
             throws IOException {
-        super(rdfRepresentation.getMediaType());
+        this(rdfRepresentation, rdfRepresentation.getMediaType());
+    }
+
+    /**
+     * Constructor that converts a given RDF representation into another RDF
+     * syntax. The links are streamed from the source reader to the target
+     * writer, without building a graph.
+     * 
+     * @param rdfRepresentation
+     *            The RDF representation to convert.
+     * @param mediaType
+     *            The target media type.
+     */
+    public RdfRepresentation(Representation rdfRepresentation,
+            MediaType mediaType) {
+        super(mediaType);
         this.rdfRepresentation = rdfRepresentation;
     }
 
@@ -271,64 +293,73 @@ public class RdfRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Writes the
+     * Writes the graph of links to the given graph handler. If the graph
+     * hasn't been materialized, the links of the inner RDF representation are
+     * streamed instead.
      * 
      * @param graphHandler
+     *            The graph handler.
      * @throws IOException
      */
     public void write(GraphHandler graphHandler) throws IOException {
-        try {
-            if (graph != null) {
-                discoverNamespaces(graph, graphHandler);
-                graphHandler.startGraph();
+        if ((graph == null) && (rdfRepresentation != null)) {
+            graphHandler.startGraph();
+            parse(graphHandler);
+            graphHandler.endGraph();
+        } else {
+            try {
+                if (graph != null) {
+                    discoverNamespaces(graph, graphHandler);
+                    graphHandler.startGraph();
 
-                for (Link link : graph) {
-                    if (link.hasReferenceSource()) {
-                        if (link.hasReferenceTarget()) {
-                            graphHandler.link(link.getSourceAsReference(),
-                                    link.getTypeRef(),
-                                    link.getTargetAsReference());
-                        } else if (link.hasLiteralTarget()) {
-                            graphHandler.link(link.getSourceAsReference(),
-                                    link.getTypeRef(),
-                                    link.getTargetAsLiteral());
-                        } else if (link.hasLinkTarget()) {
-                            Context.getCurrentLogger()
-                                    .warning(
-                                            "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
-                        } else {
-                            Context.getCurrentLogger()
-                                    .warning(
-                                            "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
-                        }
-                    } else if (link.hasGraphSource()) {
-                        if (link.hasReferenceTarget()) {
-                            graphHandler.link(link.getSourceAsGraph(),
-                                    link.getTypeRef(),
-                                    link.getTargetAsReference());
-                        } else if (link.hasLiteralTarget()) {
-                            graphHandler.link(link.getSourceAsGraph(),
-                                    link.getTypeRef(),
-                                    link.getTargetAsLiteral());
-                        } else if (link.hasLinkTarget()) {
-                            Context.getCurrentLogger()
-                                    .warning(
-                                            "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
-                        } else {
-                            Context.getCurrentLogger()
-                                    .warning(
-                                            "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
+                    for (Link link : graph) {
+                        if (link.hasReferenceSource()) {
+                            if (link.hasReferenceTarget()) {
+                                graphHandler.link(link.getSourceAsReference(),
+                                        link.getTypeRef(),
+                                        link.getTargetAsReference());
+                            } else if (link.hasLiteralTarget()) {
+                                graphHandler.link(link.getSourceAsReference(),
+                                        link.getTypeRef(),
+                                        link.getTargetAsLiteral());
+                            } else if (link.hasLinkTarget()) {
+                                Context.getCurrentLogger()
+                                        .warning(
+                                                "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
+                            } else {
+                                Context.getCurrentLogger()
+                                        .warning(
+                                                "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
+                            }
+                        } else if (link.hasGraphSource()) {
+                            if (link.hasReferenceTarget()) {
+                                graphHandler.link(link.getSourceAsGraph(),
+                                        link.getTypeRef(),
+                                        link.getTargetAsReference());
+                            } else if (link.hasLiteralTarget()) {
+                                graphHandler.link(link.getSourceAsGraph(),
+                                        link.getTypeRef(),
+                                        link.getTargetAsLiteral());
+                            } else if (link.hasLinkTarget()) {
+                                Context.getCurrentLogger()
+                                        .warning(
+                                                "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
+                            } else {
+                                Context.getCurrentLogger()
+                                        .warning(
+                                                "Cannot write the representation of a statement due to the fact that the object is neither a Reference nor a literal.");
+                            }
                         }
                     }
-                }
 
-                graphHandler.endGraph();
+                    graphHandler.endGraph();
+                }
+            } catch (Exception e) {
+                Context.getCurrentLogger()
+                        .log(Level.WARNING,
+                                "Cannot write the RDF graph due to an unexpected exception",
+                                e);
             }
-        } catch (Exception e) {
-            Context.getCurrentLogger()
-                    .log(Level.WARNING,
-                            "Cannot write the RDF graph due to an unexpected exception",
-                            e);
         }
     }
 
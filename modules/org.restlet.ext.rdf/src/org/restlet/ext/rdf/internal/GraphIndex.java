@@ -0,0 +1,611 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.rdf.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.restlet.data.Reference;
+import org.restlet.engine.util.SystemUtils;
+import org.restlet.ext.rdf.Link;
+import org.restlet.ext.rdf.Literal;
+
+/**
+ * In-memory index of the links of a graph. Source, type and target terms are
+ * dictionary encoded as integers, each link being stored as a triple of term
+ * identifiers in a primitive array. For each term, the slots of the links using
+ * it as source, type or target are recorded in growable integer arrays, so that
+ * pattern lookups only scan the shortest of the matching lists.<br>
+ * <br>
+ * References are matched on their URI string and literals on their value,
+ * datatype and language, other nodes (graphs and links) are matched by
+ * identity.<br>
+ * <br>
+ * This index supports a single writer and concurrent readers. Writers must be
+ * serialized by the caller. Readers never lock and see a weakly consistent
+ * view: a link is visible once fully indexed and removed links are left as
+ * tombstones until the index is compacted by its owner.
+ * 
+ * @author Jerome Louvel
+ */
+public class GraphIndex {
+
+    /**
+     * Growable list of link slots, published to readers by its volatile size.
+     */
+    private static final class Postings {
+
+        /** The link slots. */
+        private volatile int[] slots = new int[4];
+
+        /** The number of slots used. */
+        private volatile int size;
+
+        /**
+         * Appends a slot.
+         * 
+         * @param slot
+         *            The slot to append.
+         */
+        private void add(int slot) {
+            int[] array = this.slots;
+
+            if (this.size == array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+                this.slots = array;
+            }
+
+            array[this.size] = slot;
+            this.size = this.size + 1;
+        }
+    }
+
+    /** Identity key wrapping graphs and links used as nodes. */
+    private static final class IdentityKey {
+
+        /** The wrapped node. */
+        private final Object node;
+
+        private IdentityKey(Object node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof IdentityKey)
+                    && (((IdentityKey) other).node == this.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.node);
+        }
+    }
+
+    /** Value key of a literal. */
+    private static final class LiteralKey {
+
+        /** The datatype URI. */
+        private final String datatype;
+
+        /** The language tag. */
+        private final String language;
+
+        /** The value. */
+        private final String value;
+
+        private LiteralKey(Literal literal) {
+            this.value = literal.getValue();
+            this.datatype = (literal.getDatatypeRef() == null) ? null : literal
+                    .getDatatypeRef().toString();
+            this.language = (literal.getLanguage() == null) ? null : literal
+                    .getLanguage().getName();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            boolean result = (other instanceof LiteralKey);
+
+            if (result) {
+                LiteralKey key = (LiteralKey) other;
+                result = same(this.value, key.value)
+                        && same(this.datatype, key.datatype)
+                        && same(this.language, key.language);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return SystemUtils.hashCode(this.value, this.datatype,
+                    this.language);
+        }
+
+        private boolean same(String first, String second) {
+            return (first == null) ? (second == null) : first.equals(second);
+        }
+    }
+
+    /** The key of null nodes. */
+    private static final Object NULL_KEY = new Object();
+
+    /** The key of references without URI. */
+    private static final Object NULL_REF_KEY = new Object();
+
+    /** Offset of the source term inside a triple. */
+    private static final int SOURCE = 0;
+
+    /** Offset of the target term inside a triple. */
+    private static final int TARGET = 2;
+
+    /** Offset of the type term inside a triple. */
+    private static final int TYPE = 1;
+
+    /**
+     * Returns the dictionary key of a node. References are keyed by their URI
+     * string, literals by their value, datatype and language and other nodes
+     * by identity.
+     * 
+     * @param node
+     *            The node.
+     * @return The dictionary key.
+     */
+    public static Object getKey(Object node) {
+        Object result;
+
+        if (node == null) {
+            result = NULL_KEY;
+        } else if (node instanceof Reference) {
+            result = node.toString();
+
+            if (result == null) {
+                result = NULL_REF_KEY;
+            }
+        } else if (node instanceof Literal) {
+            result = new LiteralKey((Literal) node);
+        } else {
+            result = new IdentityKey(node);
+        }
+
+        return result;
+    }
+
+    /** The number of live links. */
+    private volatile int linkCount;
+
+    /** The links, indexed by slot. Removed links are null. */
+    private volatile Link[] links;
+
+    /** The number of slots used. */
+    private volatile int slotCount;
+
+    /** The postings of each term, indexed by position then term identifier. */
+    private volatile Postings[][] postings;
+
+    /** The number of terms in the dictionary. Only used by the writer. */
+    private int termCount;
+
+    /** The dictionary of terms. */
+    private final ConcurrentHashMap<Object, Integer> terms;
+
+    /** The term identifiers of each link, three per slot. */
+    private volatile int[] triples;
+
+    /**
+     * Constructor.
+     */
+    public GraphIndex() {
+        this(new ConcurrentHashMap<Object, Integer>(), 0);
+    }
+
+    /**
+     * Constructor sharing an existing dictionary.
+     * 
+     * @param terms
+     *            The dictionary of terms.
+     * @param termCount
+     *            The number of terms in the dictionary.
+     */
+    private GraphIndex(ConcurrentHashMap<Object, Integer> terms, int termCount) {
+        this.terms = terms;
+        this.termCount = termCount;
+        this.links = new Link[16];
+        this.triples = new int[48];
+        this.postings = new Postings[3][Math.max(16, termCount)];
+    }
+
+    /**
+     * Adds a link if no link with the same source, type and target is already
+     * indexed. Must only be called by the single writer.
+     * 
+     * @param link
+     *            The link to add.
+     * @return True if the link was added.
+     */
+    public boolean add(Link link) {
+        int source = intern(getKey(link.getSource()));
+        int type = intern(getKey(link.getTypeRef()));
+        int target = intern(getKey(link.getTarget()));
+        boolean result = (indexOf(source, type, target) == -1);
+
+        if (result) {
+            append(link, source, type, target);
+        }
+
+        return result;
+    }
+
+    /**
+     * Appends a link to the index, then publishes it to readers.
+     * 
+     * @param link
+     *            The link to append.
+     * @param source
+     *            The source term identifier.
+     * @param type
+     *            The type term identifier.
+     * @param target
+     *            The target term identifier.
+     */
+    private void append(Link link, int source, int type, int target) {
+        int slot = this.slotCount;
+        Link[] linkArray = this.links;
+        int[] tripleArray = this.triples;
+
+        if (slot == linkArray.length) {
+            linkArray = Arrays.copyOf(linkArray, slot * 2);
+            tripleArray = Arrays.copyOf(tripleArray, slot * 6);
+            this.links = linkArray;
+            this.triples = tripleArray;
+        }
+
+        linkArray[slot] = link;
+        tripleArray[slot * 3 + SOURCE] = source;
+        tripleArray[slot * 3 + TYPE] = type;
+        tripleArray[slot * 3 + TARGET] = target;
+        getPostings(SOURCE, source).add(slot);
+        getPostings(TYPE, type).add(slot);
+        getPostings(TARGET, target).add(slot);
+        this.linkCount = this.linkCount + 1;
+        this.slotCount = slot + 1;
+    }
+
+    /**
+     * Returns a compacted copy of this index, without tombstones and sharing
+     * the same dictionary. Must only be called by the single writer.
+     * 
+     * @return A compacted copy of this index.
+     */
+    public GraphIndex compact() {
+        GraphIndex result = new GraphIndex(this.terms, this.termCount);
+        Link[] linkArray = this.links;
+        int[] tripleArray = this.triples;
+
+        for (int i = 0; i < this.slotCount; i++) {
+            if (linkArray[i] != null) {
+                result.append(linkArray[i], tripleArray[i * 3 + SOURCE],
+                        tripleArray[i * 3 + TYPE], tripleArray[i * 3 + TARGET]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if a link with the same source, type and target is indexed.
+     * 
+     * @param link
+     *            The link to look up.
+     * @return True if a matching link is indexed.
+     */
+    public boolean contains(Link link) {
+        return indexOf(link) != -1;
+    }
+
+    /**
+     * Returns the link stored in a given slot.
+     * 
+     * @param slot
+     *            The slot.
+     * @return The link or null if it was removed.
+     */
+    public Link get(int slot) {
+        return this.links[slot];
+    }
+
+    /**
+     * Returns the identifier of a term if it is in the dictionary.
+     * 
+     * @param key
+     *            The term key.
+     * @return The term identifier or -1.
+     */
+    private int getId(Object key) {
+        Integer result = this.terms.get(key);
+        return (result == null) ? -1 : result.intValue();
+    }
+
+    /**
+     * Returns the number of live links.
+     * 
+     * @return The number of live links.
+     */
+    public int getLinkCount() {
+        return this.linkCount;
+    }
+
+    /**
+     * Returns the links matching a pattern. Null nodes act as wildcards.
+     * 
+     * @param source
+     *            The source node or null.
+     * @param typeRef
+     *            The type reference or null.
+     * @param target
+     *            The target node or null.
+     * @return The matching links, in insertion order.
+     */
+    public List<Link> getLinks(Object source, Reference typeRef, Object target) {
+        int[] pattern = new int[] { -1, -1, -1 };
+        Object[] nodes = new Object[] { source, typeRef, target };
+        Postings shortest = null;
+        List<Link> result = new ArrayList<Link>();
+
+        for (int i = 0; i < 3; i++) {
+            if (nodes[i] != null) {
+                pattern[i] = getId(getKey(nodes[i]));
+                Postings list = (pattern[i] == -1) ? null : lookupPostings(i,
+                        pattern[i]);
+
+                if (list == null) {
+                    return result;
+                } else if ((shortest == null) || (list.size < shortest.size)) {
+                    shortest = list;
+                }
+            }
+        }
+
+        if (shortest == null) {
+            int count = this.slotCount;
+            Link[] linkArray = this.links;
+
+            for (int i = 0; i < count; i++) {
+                if (linkArray[i] != null) {
+                    result.add(linkArray[i]);
+                }
+            }
+        } else {
+            int count = shortest.size;
+            int[] slots = shortest.slots;
+            Link[] linkArray = this.links;
+            int[] tripleArray = this.triples;
+
+            for (int i = 0; i < count; i++) {
+                int slot = slots[i];
+
+                if ((linkArray[slot] != null)
+                        && matches(tripleArray, slot, pattern)) {
+                    result.add(linkArray[slot]);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the postings of a term at a given position, creating it if
+     * needed. Must only be called by the single writer.
+     * 
+     * @param position
+     *            The position inside the triple.
+     * @param id
+     *            The term identifier.
+     * @return The postings.
+     */
+    private Postings getPostings(int position, int id) {
+        Postings[] array = this.postings[position];
+        Postings result = array[id];
+
+        if (result == null) {
+            result = new Postings();
+            array[id] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of slots used, including tombstones.
+     * 
+     * @return The number of slots used.
+     */
+    public int getSlotCount() {
+        return this.slotCount;
+    }
+
+    /**
+     * Returns the slot of an indexed link with the same source, type and
+     * target.
+     * 
+     * @param link
+     *            The link to look up.
+     * @return The slot or -1.
+     */
+    private int indexOf(Link link) {
+        int source = getId(getKey(link.getSource()));
+        int type = getId(getKey(link.getTypeRef()));
+        int target = getId(getKey(link.getTarget()));
+
+        if ((source == -1) || (type == -1) || (target == -1)) {
+            return -1;
+        }
+
+        return indexOf(source, type, target);
+    }
+
+    /**
+     * Returns the slot of the live link with the given terms, scanning the
+     * shortest of the matching postings.
+     * 
+     * @param source
+     *            The source term identifier.
+     * @param type
+     *            The type term identifier.
+     * @param target
+     *            The target term identifier.
+     * @return The slot or -1.
+     */
+    private int indexOf(int source, int type, int target) {
+        int[] pattern = new int[] { source, type, target };
+        Postings shortest = null;
+
+        for (int i = 0; i < 3; i++) {
+            Postings list = lookupPostings(i, pattern[i]);
+
+            if (list == null) {
+                return -1;
+            } else if ((shortest == null) || (list.size < shortest.size)) {
+                shortest = list;
+            }
+        }
+
+        int count = shortest.size;
+        int[] slots = shortest.slots;
+        Link[] linkArray = this.links;
+        int[] tripleArray = this.triples;
+
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+
+            if ((linkArray[slot] != null)
+                    && matches(tripleArray, slot, pattern)) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the identifier of a term, adding it to the dictionary if needed.
+     * Must only be called by the single writer.
+     * 
+     * @param key
+     *            The term key.
+     * @return The term identifier.
+     */
+    private int intern(Object key) {
+        int result = getId(key);
+
+        if (result == -1) {
+            result = this.termCount++;
+            Postings[][] current = this.postings;
+
+            if (result == current[0].length) {
+                Postings[][] grown = new Postings[3][];
+
+                for (int i = 0; i < 3; i++) {
+                    grown[i] = Arrays.copyOf(current[i], result * 2);
+                }
+
+                this.postings = grown;
+            }
+
+            this.terms.put(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the postings of a term at a given position without creating it.
+     * 
+     * @param position
+     *            The position inside the triple.
+     * @param id
+     *            The term identifier.
+     * @return The postings or null.
+     */
+    private Postings lookupPostings(int position, int id) {
+        Postings[] array = this.postings[position];
+        return (id < array.length) ? array[id] : null;
+    }
+
+    /**
+     * Indicates if the triple stored in a slot matches a pattern.
+     * 
+     * @param tripleArray
+     *            The triples array.
+     * @param slot
+     *            The slot.
+     * @param pattern
+     *            The term identifiers, -1 acting as a wildcard.
+     * @return True if the triple matches.
+     */
+    private boolean matches(int[] tripleArray, int slot, int[] pattern) {
+        for (int i = 0; i < 3; i++) {
+            if ((pattern[i] != -1) && (tripleArray[slot * 3 + i] != pattern[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the link with the same source, type and target as the given one.
+     * The slot is left as a tombstone. Must only be called by the single
+     * writer.
+     * 
+     * @param link
+     *            The link to remove.
+     * @return True if a link was removed.
+     */
+    public boolean remove(Link link) {
+        int slot = indexOf(link);
+        boolean result = (slot != -1);
+
+        if (result) {
+            this.links[slot] = null;
+            this.linkCount = this.linkCount - 1;
+        }
+
+        return result;
+    }
+
+}
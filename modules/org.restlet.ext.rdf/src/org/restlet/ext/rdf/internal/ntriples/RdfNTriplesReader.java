@@ -59,6 +59,13 @@ public class RdfNTriplesReader extends RdfReader {
     /** The reading buffer. */
     private final char[] buffer;
 
+    /**
+     * Indicates if the second part of the buffer is the last one filled. When
+     * stepping back then forward across a part boundary, the next part must
+     * not be filled again.
+     */
+    private boolean lastFilledSecond;
+
     /** Size of the reading buffer. */
     private final int BUFFER_SIZE = 4096;
 
@@ -93,6 +100,7 @@ public class RdfNTriplesReader extends RdfReader {
         this.buffer[BUFFER_SIZE] = this.buffer[2 * BUFFER_SIZE + 1] = EOF;
         this.scoutIndex = 2 * BUFFER_SIZE;
         this.startTokenIndex = 0;
+        this.lastFilledSecond = true;
 
         this.br = new BufferedReader(getRdfRepresentation().getReader(),
                 IoUtils.BUFFER_SIZE);
@@ -153,37 +161,16 @@ public class RdfNTriplesReader extends RdfReader {
      */
     protected String getCurrentToken() {
         StringBuilder builder = new StringBuilder();
-        if (startTokenIndex <= scoutIndex) {
-            if (scoutIndex <= BUFFER_SIZE) {
-                for (int i = startTokenIndex; i < scoutIndex; i++) {
-                    builder.append(buffer[i]);
-                }
-            } else {
-                for (int i = startTokenIndex; i < BUFFER_SIZE; i++) {
-                    builder.append(buffer[i]);
-                }
-                for (int i = BUFFER_SIZE + 1; i < scoutIndex; i++) {
-                    builder.append(buffer[i]);
-                }
-            }
-        } else {
-            if (startTokenIndex <= BUFFER_SIZE) {
-                for (int i = startTokenIndex; i < BUFFER_SIZE; i++) {
-                    builder.append(buffer[i]);
-                }
-                for (int i = BUFFER_SIZE + 1; i < (2 * BUFFER_SIZE + 1); i++) {
-                    builder.append(buffer[i]);
-                }
-                for (int i = 0; i < scoutIndex; i++) {
-                    builder.append(buffer[i]);
-                }
+        int i = startTokenIndex;
+        while (i != scoutIndex) {
+            if (i == (2 * BUFFER_SIZE + 1)) {
+                // Wrap to the first part of the buffer.
+                i = 0;
             } else {
-                for (int i = startTokenIndex; i < (2 * BUFFER_SIZE + 1); i++) {
-                    builder.append(buffer[i]);
-                }
-                for (int i = 0; i < scoutIndex; i++) {
+                if (i != BUFFER_SIZE) {
                     builder.append(buffer[i]);
                 }
+                i++;
             }
         }
         // the current token is consumed.
@@ -406,6 +393,34 @@ public class RdfNTriplesReader extends RdfReader {
         return builder.toString();
     }
 
+    /**
+     * Fills a part of the buffer, blocking until it is full or the end of the
+     * stream is reached.
+     * 
+     * @param offset
+     *            The start index of the part to fill.
+     * @return The number of characters read, or -1 at the end of the stream.
+     * @throws IOException
+     */
+    private int fill(int offset) throws IOException {
+        int result = this.br.read(buffer, offset, BUFFER_SIZE);
+
+        if (result > 0) {
+            int len = 0;
+
+            while ((result < BUFFER_SIZE) && (len != -1)) {
+                len = this.br.read(buffer, offset + result, BUFFER_SIZE
+                        - result);
+
+                if (len > 0) {
+                    result += len;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Read a new character.
      * 
@@ -415,11 +430,19 @@ public class RdfNTriplesReader extends RdfReader {
     protected int step() throws IOException {
         scoutIndex++;
         if (buffer[scoutIndex] == EOF) {
-            if (scoutIndex == BUFFER_SIZE) {
+            if ((scoutIndex == BUFFER_SIZE) && lastFilledSecond) {
+                // Stepping forward again into the already filled part.
+                scoutIndex++;
+            } else if ((scoutIndex == (2 * BUFFER_SIZE + 1))
+                    && !lastFilledSecond) {
+                // Stepping forward again into the already filled part.
+                scoutIndex = 0;
+            } else if (scoutIndex == BUFFER_SIZE) {
                 // Reached the end of the first part of the buffer, read into
                 // the second one.
                 scoutIndex++;
-                int len = this.br.read(buffer, 0, BUFFER_SIZE);
+                lastFilledSecond = true;
+                int len = fill(BUFFER_SIZE + 1);
                 if (len == -1) {
                     // End of the stream reached
                     buffer[scoutIndex] = EOF;
@@ -430,7 +453,8 @@ public class RdfNTriplesReader extends RdfReader {
                 scoutIndex = 0;
                 // Reached the end of the second part of the buffer, read into
                 // the first one.
-                int len = this.br.read(buffer, 0, BUFFER_SIZE);
+                lastFilledSecond = false;
+                int len = fill(0);
                 if (len == -1) {
                     // End of the stream reached
                     buffer[scoutIndex] = EOF;
@@ -473,9 +497,15 @@ public class RdfNTriplesReader extends RdfReader {
      *            The number of steps to go back.
      */
     protected void stepBack(int n) {
-        scoutIndex -= n;
-        if (scoutIndex < 0) {
-            scoutIndex = BUFFER_SIZE * 2 + 1 - scoutIndex;
+        for (int i = 0; i < n; i++) {
+            scoutIndex--;
+
+            // Skip the upper index marker of each part.
+            if (scoutIndex < 0) {
+                scoutIndex = BUFFER_SIZE * 2;
+            } else if (scoutIndex == BUFFER_SIZE) {
+                scoutIndex--;
+            }
         }
     }
 
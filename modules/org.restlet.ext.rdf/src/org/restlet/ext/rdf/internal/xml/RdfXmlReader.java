@@ -77,6 +77,9 @@ public class RdfXmlReader extends RdfReader {
             saxRepresentation.setLocationRef(getRdfRepresentation().getLocationRef());
         }
 
+        // RDF/XML relies on namespaces to identify properties.
+        saxRepresentation.setNamespaceAware(true);
+
         saxRepresentation.parse(new ContentReader(saxRepresentation,
                 getGraphHandler()));
     }
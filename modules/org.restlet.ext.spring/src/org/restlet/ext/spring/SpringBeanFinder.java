@@ -38,6 +38,7 @@ import org.restlet.resource.ServerResource;
 import org.restlet.routing.Router;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
@@ -49,6 +50,12 @@ import org.springframework.context.ApplicationContextAware;
  * the bean will be looked up first in the application context and then in the
  * bean factory.
  * 
+ * If the "precompiled" property is set, the bean definition is compiled on the
+ * first request into a {@link SpringPrototypeFactory} that creates the next
+ * resources without going through the bean factory. This only applies to
+ * simple prototype definitions, see the {@link SpringPrototypeFactory} class
+ * for the restrictions. Other beans are still obtained from the bean factory.
+ * 
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -67,6 +74,15 @@ public class SpringBeanFinder extends SpringFinder implements BeanFactoryAware,
     /** The bean name. */
     private volatile String beanName;
 
+    /** Indicates if the bean definition should be compiled. */
+    private volatile boolean precompiled;
+
+    /** The compiled factory, if any. */
+    private volatile SpringPrototypeFactory prototypeFactory;
+
+    /** Indicates if the compilation of the bean definition was attempted. */
+    private volatile boolean prototypeFactoryResolved;
+
     /** The associated router. */
     private volatile Router router;
 
@@ -93,9 +109,34 @@ public class SpringBeanFinder extends SpringFinder implements BeanFactoryAware,
         setBeanName(beanName);
     }
 
+    /**
+     * Compiles the bean definition into a prototype factory, if the bean
+     * factory that defines the bean allows it.
+     * 
+     * @return The compiled factory or null.
+     */
+    private SpringPrototypeFactory compileBean() {
+        ConfigurableListableBeanFactory source = null;
+
+        if (getApplicationContext() != null
+                && getApplicationContext().containsBean(getBeanName())) {
+            if (getApplicationContext().getAutowireCapableBeanFactory() instanceof ConfigurableListableBeanFactory) {
+                source = (ConfigurableListableBeanFactory) getApplicationContext()
+                        .getAutowireCapableBeanFactory();
+            }
+        } else if (getBeanFactory() instanceof ConfigurableListableBeanFactory
+                && getBeanFactory().containsBean(getBeanName())) {
+            source = (ConfigurableListableBeanFactory) getBeanFactory();
+        }
+
+        return (source == null) ? null : SpringPrototypeFactory.compile(
+                source, getBeanName());
+    }
+
     @Override
     public ServerResource create() {
-        final Object resource = findBean();
+        final Object resource = (getPrototypeFactory() == null) ? findBean()
+                : getPrototypeFactory().create();
 
         if (!(resource instanceof ServerResource)) {
             throw new ClassCastException(getBeanName()
@@ -155,6 +196,25 @@ public class SpringBeanFinder extends SpringFinder implements BeanFactoryAware,
                 .getContext();
     }
 
+    /**
+     * Returns the compiled factory of the bean if the "precompiled" property
+     * is set and the bean definition could be compiled.
+     * 
+     * @return The compiled factory or null.
+     */
+    public SpringPrototypeFactory getPrototypeFactory() {
+        if (isPrecompiled() && !this.prototypeFactoryResolved) {
+            synchronized (this) {
+                if (!this.prototypeFactoryResolved) {
+                    this.prototypeFactory = compileBean();
+                    this.prototypeFactoryResolved = true;
+                }
+            }
+        }
+
+        return isPrecompiled() ? this.prototypeFactory : null;
+    }
+
     /**
      * Returns the associated router.
      * 
@@ -164,6 +224,16 @@ public class SpringBeanFinder extends SpringFinder implements BeanFactoryAware,
         return router;
     }
 
+    /**
+     * Indicates if the bean definition should be compiled into a
+     * {@link SpringPrototypeFactory} on the first request. Default is false.
+     * 
+     * @return True if the bean definition should be compiled.
+     */
+    public boolean isPrecompiled() {
+        return this.precompiled;
+    }
+
     /**
      * Sets the parent application context
      * 
@@ -194,6 +264,17 @@ public class SpringBeanFinder extends SpringFinder implements BeanFactoryAware,
         this.beanName = beanName;
     }
 
+    /**
+     * Indicates if the bean definition should be compiled into a
+     * {@link SpringPrototypeFactory} on the first request.
+     * 
+     * @param precompiled
+     *            True if the bean definition should be compiled.
+     */
+    public void setPrecompiled(boolean precompiled) {
+        this.precompiled = precompiled;
+    }
+
     /**
      * Sets the associated router.
      * 
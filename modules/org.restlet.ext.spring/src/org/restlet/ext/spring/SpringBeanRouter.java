@@ -83,6 +83,11 @@ import org.springframework.context.ApplicationContextAware;
  * created for each request. Restlets may be singletons (this class will only
  * ever load one instance for each).
  * 
+ * Set the "precompiled" property to let the finders compile the resource bean
+ * definitions on the first request, so that the next resources are created
+ * without going through the bean factory. See {@link SpringPrototypeFactory}
+ * for the supported definitions.
+ * 
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -102,6 +107,9 @@ public class SpringBeanRouter extends Router implements
     /** If beans should be searched for higher up in the BeanFactory hierarchy. */
     private volatile boolean findingInAncestors = true;
 
+    /** If the resource bean definitions should be compiled. */
+    private volatile boolean precompiled;
+
     /**
      * Constructor.
      */
@@ -196,7 +204,10 @@ public class SpringBeanRouter extends Router implements
      * @see #attachResource
      */
     protected Finder createFinder(BeanFactory beanFactory, String beanName) {
-        return new SpringBeanFinder(this, beanFactory, beanName);
+        SpringBeanFinder result = new SpringBeanFinder(this, beanFactory,
+                beanName);
+        result.setPrecompiled(isPrecompiled());
+        return result;
     }
 
     /**
@@ -249,6 +260,18 @@ public class SpringBeanRouter extends Router implements
         return this.findingInAncestors;
     }
 
+    /**
+     * Returns true if the definitions of the resource beans should be compiled
+     * by their finders. Default is false.
+     * 
+     * @return True if the definitions of the resource beans should be
+     *         compiled.
+     * @see SpringBeanFinder#isPrecompiled()
+     */
+    public boolean isPrecompiled() {
+        return this.precompiled;
+    }
+
     /**
      * Attaches all {@link ServerResource} and {@link Restlet} beans found in
      * the surrounding bean factory for which {@link #resolveUri} finds a usable
@@ -351,4 +374,17 @@ public class SpringBeanRouter extends Router implements
         this.findingInAncestors = findingInAncestors;
     }
 
+    /**
+     * Indicates if the definitions of the resource beans should be compiled by
+     * their finders. It must be set before the bean factory is post-processed.
+     * 
+     * @param precompiled
+     *            True if the definitions of the resource beans should be
+     *            compiled.
+     * @see SpringBeanFinder#setPrecompiled(boolean)
+     */
+    public void setPrecompiled(boolean precompiled) {
+        this.precompiled = precompiled;
+    }
+
 }
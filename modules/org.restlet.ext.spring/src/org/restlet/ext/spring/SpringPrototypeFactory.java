@@ -0,0 +1,350 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.spring;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.Aware;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Lightweight factory of prototype beans, compiled once from a Spring bean
+ * definition. It caches the bean constructor and the property values of the
+ * definition, resolving references to singleton beans only once, so that each
+ * new instance only requires a constructor call and the injection of the
+ * configured properties.<br>
+ * <br>
+ * Only simple definitions can be compiled: prototype beans created with their
+ * default constructor, without autowiring other than by name, method
+ * injection, lifecycle methods or callbacks, and whose property values are
+ * literals or references to other beans. The bean post-processors of the bean
+ * factory can't be applied either, so definitions are only compiled when the
+ * bean factory has no other post-processors than the infrastructure ones
+ * registered by the application contexts, which only deal with the callback
+ * interfaces. This excludes for example annotation-driven injection. For other
+ * definitions, {@link #compile(ConfigurableListableBeanFactory, String)}
+ * returns null and the bean should be obtained from the bean factory.<br>
+ * <br>
+ * Concurrency note: instances of this class are immutable and can be used by
+ * several threads at the same time.
+ * 
+ * @author Jerome Louvel
+ */
+public class SpringPrototypeFactory {
+
+    /**
+     * The class names of the bean post-processors registered by the
+     * application contexts, which only apply to the Aware beans or to the
+     * singleton beans.
+     */
+    private static final Set<String> INFRASTRUCTURE_POST_PROCESSORS = new HashSet<String>(
+            Arrays.asList(
+                    "org.springframework.context.annotation.ConfigurationClassPostProcessor$ImportAwareBeanPostProcessor",
+                    "org.springframework.context.support.AbstractApplicationContext$ApplicationListenerDetector",
+                    "org.springframework.context.support.AbstractApplicationContext$BeanPostProcessorChecker",
+                    "org.springframework.context.support.ApplicationContextAwareProcessor",
+                    "org.springframework.context.support.ApplicationListenerDetector",
+                    "org.springframework.context.support.PostProcessorRegistrationDelegate$BeanPostProcessorChecker",
+                    "org.springframework.context.weaving.LoadTimeWeaverAwareProcessor",
+                    "org.springframework.web.context.support.ServletContextAwareProcessor"));
+
+    /**
+     * Compiles the definition of a prototype bean into a factory.
+     * 
+     * @param beanFactory
+     *            The bean factory defining the bean.
+     * @param beanName
+     *            The bean name.
+     * @return The compiled factory or null if the bean definition can't be
+     *         compiled.
+     */
+    public static SpringPrototypeFactory compile(
+            ConfigurableListableBeanFactory beanFactory, String beanName) {
+        if (hasPostProcessors(beanFactory)) {
+            return null;
+        }
+
+        BeanDefinition definition = beanFactory
+                .getMergedBeanDefinition(beanName);
+
+        if (!(definition instanceof AbstractBeanDefinition)
+                || !definition.isPrototype() || definition.isAbstract()
+                || (definition.getFactoryBeanName() != null)
+                || (definition.getFactoryMethodName() != null)
+                || !definition.getConstructorArgumentValues().isEmpty()
+                || ((definition.getDependsOn() != null) && (definition
+                        .getDependsOn().length > 0))) {
+            return null;
+        }
+
+        AbstractBeanDefinition abd = (AbstractBeanDefinition) definition;
+
+        if (!abd.getMethodOverrides().isEmpty()
+                || ((abd.getAutowireMode() != AbstractBeanDefinition.AUTOWIRE_NO) && (abd
+                        .getAutowireMode() != AbstractBeanDefinition.AUTOWIRE_BY_NAME))
+                || (abd.getInitMethodName() != null)
+                || (abd.getDestroyMethodName() != null)) {
+            return null;
+        }
+
+        Class<?> beanClass = beanFactory.getType(beanName);
+
+        if ((beanClass == null) || Modifier.isAbstract(beanClass.getModifiers())
+                || Aware.class.isAssignableFrom(beanClass)
+                || InitializingBean.class.isAssignableFrom(beanClass)
+                || DisposableBean.class.isAssignableFrom(beanClass)) {
+            return null;
+        }
+
+        Constructor<?> constructor;
+
+        try {
+            constructor = beanClass.getDeclaredConstructor();
+            ReflectionUtils.makeAccessible(constructor);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+
+        List<PropertyValue> propertyValues = new ArrayList<PropertyValue>();
+
+        for (PropertyValue propertyValue : definition.getPropertyValues()
+                .getPropertyValues()) {
+            Object value = propertyValue.getValue();
+
+            if (value instanceof RuntimeBeanReference) {
+                String refName = ((RuntimeBeanReference) value).getBeanName();
+
+                if (((RuntimeBeanReference) value).isToParent()) {
+                    return null;
+                } else if (beanFactory.isSingleton(refName)) {
+                    // Singletons can be resolved once for all
+                    value = beanFactory.getBean(refName);
+                }
+            } else if (value instanceof TypedStringValue) {
+                TypedStringValue typedValue = (TypedStringValue) value;
+
+                if ((typedValue.getTargetTypeName() != null)
+                        || typedValue.isDynamic()
+                        || (typedValue.getValue() == null)
+                        || typedValue.getValue().contains("#{")) {
+                    return null;
+                }
+
+                value = typedValue.getValue();
+            } else if (value instanceof String) {
+                if (((String) value).contains("#{")) {
+                    return null;
+                }
+            } else if (!(value instanceof Number)
+                    && !(value instanceof Boolean)
+                    && !(value instanceof Character)
+                    && !(value instanceof Enum<?>)
+                    && !(value instanceof Class<?>)) {
+                // Inner beans, managed collections, etc.
+                return null;
+            }
+
+            propertyValues.add(new PropertyValue(propertyValue.getName(),
+                    value));
+        }
+
+        if (abd.getAutowireMode() == AbstractBeanDefinition.AUTOWIRE_BY_NAME) {
+            // Resolve the autowired properties once, like Spring does for
+            // each new bean
+            for (PropertyDescriptor descriptor : new BeanWrapperImpl(beanClass)
+                    .getPropertyDescriptors()) {
+                String name = descriptor.getName();
+
+                if ((descriptor.getWriteMethod() != null)
+                        && !BeanUtils.isSimpleProperty(descriptor
+                                .getPropertyType())
+                        && !definition.getPropertyValues().contains(name)
+                        && beanFactory.containsBean(name)) {
+                    propertyValues.add(new PropertyValue(name, beanFactory
+                            .isSingleton(name) ? beanFactory.getBean(name)
+                            : new RuntimeBeanReference(name)));
+                }
+            }
+        }
+
+        return new SpringPrototypeFactory(beanFactory, beanName, constructor,
+                propertyValues);
+    }
+
+    /**
+     * Indicates if the bean factory has bean post-processors that could
+     * modify the beans, other than the infrastructure ones.
+     * 
+     * @param beanFactory
+     *            The bean factory.
+     * @return True if the bean factory has bean post-processors that can't be
+     *         skipped.
+     */
+    private static boolean hasPostProcessors(
+            ConfigurableListableBeanFactory beanFactory) {
+        if (!(beanFactory instanceof AbstractBeanFactory)) {
+            return beanFactory.getBeanPostProcessorCount() > 0;
+        }
+
+        for (BeanPostProcessor postProcessor : ((AbstractBeanFactory) beanFactory)
+                .getBeanPostProcessors()) {
+            if ((postProcessor instanceof InstantiationAwareBeanPostProcessor)
+                    || !INFRASTRUCTURE_POST_PROCESSORS.contains(postProcessor
+                            .getClass().getName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /** The bean factory defining the bean. */
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    /** The bean name. */
+    private final String beanName;
+
+    /** The default constructor of the bean class. */
+    private final Constructor<?> constructor;
+
+    /** Indicates if some property values must be resolved for each bean. */
+    private final boolean dynamic;
+
+    /** The property values, resolved when possible. */
+    private final List<PropertyValue> propertyValues;
+
+    /**
+     * Constructor.
+     * 
+     * @param beanFactory
+     *            The bean factory defining the bean.
+     * @param beanName
+     *            The bean name.
+     * @param constructor
+     *            The default constructor of the bean class.
+     * @param propertyValues
+     *            The property values, resolved when possible.
+     */
+    private SpringPrototypeFactory(ConfigurableListableBeanFactory beanFactory,
+            String beanName, Constructor<?> constructor,
+            List<PropertyValue> propertyValues) {
+        this.beanFactory = beanFactory;
+        this.beanName = beanName;
+        this.constructor = constructor;
+        this.propertyValues = propertyValues;
+        boolean dynamic = false;
+
+        for (PropertyValue propertyValue : propertyValues) {
+            dynamic |= (propertyValue.getValue() instanceof RuntimeBeanReference);
+        }
+
+        this.dynamic = dynamic;
+    }
+
+    /**
+     * Creates a new instance of the bean and injects its properties.
+     * 
+     * @return The new bean.
+     * @throws BeansException
+     */
+    public Object create() throws BeansException {
+        Object result;
+
+        try {
+            result = this.constructor.newInstance();
+        } catch (Exception e) {
+            throw new BeanCreationException(this.beanName,
+                    "Instantiation of bean failed", e);
+        }
+
+        if (!this.propertyValues.isEmpty()) {
+            MutablePropertyValues values = new MutablePropertyValues();
+
+            for (PropertyValue propertyValue : this.propertyValues) {
+                if (this.dynamic
+                        && (propertyValue.getValue() instanceof RuntimeBeanReference)) {
+                    // References to non singleton beans
+                    values.addPropertyValue(propertyValue.getName(),
+                            this.beanFactory
+                                    .getBean(((RuntimeBeanReference) propertyValue
+                                            .getValue()).getBeanName()));
+                } else {
+                    values.addPropertyValue(propertyValue.getName(),
+                            propertyValue.getValue());
+                }
+            }
+
+            BeanWrapperImpl wrapper = new BeanWrapperImpl(result);
+            wrapper.setConversionService(this.beanFactory
+                    .getConversionService());
+            this.beanFactory.copyRegisteredEditorsTo(wrapper);
+            wrapper.setPropertyValues(values);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the bean name.
+     * 
+     * @return The bean name.
+     */
+    public String getBeanName() {
+        return this.beanName;
+    }
+
+}
@@ -33,10 +33,15 @@
 
 package org.restlet.ext.swagger;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
 
 import javax.ws.rs.Path;
 
@@ -44,16 +49,23 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Status;
+import org.restlet.engine.util.CachedEntity;
 import org.restlet.ext.jackson.JacksonRepresentation;
 import org.restlet.ext.jaxrs.JaxRsRestlet;
 import org.restlet.ext.swagger.internal.SwaggerRestletIterable;
+import org.restlet.representation.Representation;
 
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.core.Documentation;
 import com.wordnik.swagger.core.DocumentationEndPoint;
 
 /**
- * Restlet that supports Swagger documentation. Relies on JAX-RS extension.
+ * Restlet that supports Swagger documentation. Relies on JAX-RS extension.<br>
+ * <br>
+ * The serialized documentations are cached with an entity tag, so conditional
+ * requests are answered without introspecting the JAX-RS classes again. A
+ * cached documentation is built again when the crawled Restlets, their root
+ * resource classes or the properties of this Restlet change.
  * 
  * @author Grzegorz Godlewski
  */
@@ -62,6 +74,9 @@ public class SwaggerRestlet extends Restlet {
     /** The Restlet base path. */
     private String basePath;
 
+    /** The cached documentations, by resource path. */
+    private final ConcurrentMap<String, CachedEntity> documentations = new ConcurrentHashMap<String, CachedEntity>();
+
     /** The Restlet base path. */
     private Restlet inboundRoot;
 
@@ -98,20 +113,16 @@ public class SwaggerRestlet extends Restlet {
         return null;
     }
 
-    public Restlet getInboundRoot() {
-        return inboundRoot;
-    }
-
-    @Override
-    public void handle(Request request, Response response) {
-        super.handle(request, response);
-
-        String baseRef = request.getResourceRef().getBaseRef()
-                .toString(false, false);
-        String resourcePath = request.getResourceRef().toString(false, false)
-                .substring(baseRef.length());
-
-        if (resourcePath.isEmpty() || resourcePath.equals("/")) {
+    /**
+     * Returns the documentation of the given resource path, or the list of the
+     * documented end points if the path is empty.
+     * 
+     * @param resourcePath
+     *            The resource path, without leading slash.
+     * @return The documentation or null if the resource path isn't documented.
+     */
+    private Documentation getDocumentation(String resourcePath) {
+        if (resourcePath.isEmpty()) {
             Documentation documentation = new Documentation();
             documentation.setApiVersion(version);
             documentation.setSwaggerVersion(swaggerVersion);
@@ -131,42 +142,118 @@ public class SwaggerRestlet extends Restlet {
                 }
             }
 
-            response.setEntity(new JacksonRepresentation<Documentation>(
-                    documentation));
-            return;
-        } else {
-            if (resourcePath.startsWith("/")) {
-                resourcePath = resourcePath.substring(1);
+            return documentation;
+        }
+
+        SwaggerRestletIterable crawler = new SwaggerRestletIterable(inboundRoot);
+        for (Restlet restlet : crawler) {
+            if (restlet instanceof JaxRsRestlet) {
+                JaxRsRestlet jaxRsRestlet = (JaxRsRestlet) restlet;
+
+                Class<?> clazz = findJaxRsClass(jaxRsRestlet, resourcePath);
+
+                if (clazz != null) {
+                    SwaggerJaxRsResourceGenerator generator = new SwaggerJaxRsResourceGenerator();
+
+                    generator.setup(clazz, crawler.getCurrentPath());
+                    Documentation documentation = generator.parse();
+
+                    documentation.setApiVersion(version);
+                    documentation.setSwaggerVersion(swaggerVersion);
+                    documentation.setBasePath(basePath);
+                    documentation.setResourcePath(resourcePath);
+                    return documentation;
+                }
             }
+        }
 
-            SwaggerRestletIterable crawler = new SwaggerRestletIterable(
-                    inboundRoot);
-            for (Restlet restlet : crawler) {
-                if (restlet instanceof JaxRsRestlet) {
-                    JaxRsRestlet jaxRsRestlet = (JaxRsRestlet) restlet;
+        return null;
+    }
 
-                    Class<?> clazz = findJaxRsClass(jaxRsRestlet, resourcePath);
+    /**
+     * Returns the state that the documentations depend on: the properties of
+     * this Restlet, the crawled Restlets with their paths, and the root
+     * resource classes of the JAX-RS Restlets.
+     * 
+     * @return The state that the documentations depend on.
+     */
+    private List<Object> getDocumentedState() {
+        List<Object> result = new ArrayList<Object>();
+        result.add(basePath);
+        result.add(jsonPath);
+        result.add(swaggerVersion);
+        result.add(version);
+
+        SwaggerRestletIterable crawler = new SwaggerRestletIterable(inboundRoot);
+        for (Restlet restlet : crawler) {
+            result.add(restlet);
+            result.add(crawler.getCurrentPath());
+
+            if (restlet instanceof JaxRsRestlet) {
+                // Copy the classes as the set can be modified afterwards
+                result.add(new HashSet<Class<?>>(((JaxRsRestlet) restlet)
+                        .getRootResourceClasses()));
+            }
+        }
 
-                    if (clazz != null) {
-                        SwaggerJaxRsResourceGenerator generator = new SwaggerJaxRsResourceGenerator();
+        return result;
+    }
 
-                        generator.setup(clazz, crawler.getCurrentPath());
-                        Documentation documentation = generator.parse();
+    public Restlet getInboundRoot() {
+        return inboundRoot;
+    }
 
-                        documentation.setApiVersion(version);
-                        documentation.setSwaggerVersion(swaggerVersion);
-                        documentation.setBasePath(basePath);
-                        documentation.setResourcePath(resourcePath);
+    @Override
+    public void handle(Request request, Response response) {
+        super.handle(request, response);
 
-                        response.setEntity(new JacksonRepresentation<Documentation>(
-                                documentation));
-                        return;
-                    }
-                }
+        String baseRef = request.getResourceRef().getBaseRef()
+                .toString(false, false);
+        String resourcePath = request.getResourceRef().toString(false, false)
+                .substring(baseRef.length());
+
+        if (resourcePath.startsWith("/")) {
+            resourcePath = resourcePath.substring(1);
+        }
+
+        List<Object> state = getDocumentedState();
+        CachedEntity cached = this.documentations.get(resourcePath);
+
+        if ((cached == null) || !cached.isUpToDate(state)) {
+            Documentation documentation = getDocumentation(resourcePath);
+
+            if (documentation == null) {
+                response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+                return;
+            }
+
+            Representation representation = new JacksonRepresentation<Documentation>(
+                    documentation);
+
+            try {
+                cached = new CachedEntity(state, representation);
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING,
+                        "Unable to cache the Swagger documentation", e);
+                response.setEntity(new JacksonRepresentation<Documentation>(
+                        documentation));
+                return;
             }
+
+            // Only documented paths are cached, so the cache is bounded.
+            this.documentations.put(resourcePath, cached);
         }
 
-        response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+        Representation entity = cached.toRepresentation();
+        response.setEntity(entity);
+
+        // Answer conditional requests
+        Status status = request.getConditions().getStatus(
+                request.getMethod(), entity);
+
+        if (status != null) {
+            response.setStatus(status);
+        }
     }
 
     /**
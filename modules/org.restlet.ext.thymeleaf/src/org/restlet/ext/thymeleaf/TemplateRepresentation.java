@@ -64,6 +64,9 @@ import org.thymeleaf.util.Validate;
  */
 public class TemplateRepresentation extends WriterRepresentation {
 
+    /** The default template engine, lazily created. */
+    private static volatile TemplateEngine defaultEngine;
+
     /**
      * Context that leverages an instance of {@link Resolver}.
      * 
@@ -139,6 +142,37 @@ public class TemplateRepresentation extends WriterRepresentation {
         return engine;
     }
 
+    /**
+     * Returns the template engine of the current application's
+     * {@link TemplateService} if available, otherwise a default engine shared
+     * by all representations and created by calling
+     * {@link #createTemplateEngine()}.
+     * 
+     * @return The template engine to use by default.
+     */
+    public static TemplateEngine getTemplateEngine() {
+        TemplateService templateService = TemplateService.getCurrent();
+
+        if (templateService != null) {
+            return templateService.getEngine();
+        }
+
+        TemplateEngine result = defaultEngine;
+
+        if (result == null) {
+            synchronized (TemplateRepresentation.class) {
+                result = defaultEngine;
+
+                if (result == null) {
+                    result = createTemplateEngine();
+                    defaultEngine = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns a new instance of {@link ITemplateResolver} with default
      * configuration (XHTML template model, templates located inside
@@ -188,7 +222,7 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(String templateName, Locale locale,
             Map<String, Object> dataModel, MediaType mediaType) {
-        this(templateName, createTemplateEngine(), locale, mediaType);
+        this(templateName, getTemplateEngine(), locale, dataModel, mediaType);
     }
 
     /**
@@ -265,7 +299,7 @@ public class TemplateRepresentation extends WriterRepresentation {
     public TemplateRepresentation(
             TemplateRepresentation templateRepresentation, Locale locale,
             MediaType mediaType) throws IOException {
-        this(templateRepresentation, createTemplateEngine(), locale, mediaType);
+        this(templateRepresentation, getTemplateEngine(), locale, mediaType);
     }
 
     /**
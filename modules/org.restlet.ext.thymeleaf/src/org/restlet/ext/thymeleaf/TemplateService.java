@@ -0,0 +1,161 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+package org.restlet.ext.thymeleaf;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.restlet.Application;
+import org.restlet.service.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateProcessingParameters;
+import org.thymeleaf.context.Context;
+
+/**
+ * Application service sharing a single Thymeleaf template engine between the
+ * template filters, converters and representations of an application. Parsed
+ * templates are cached by the engine according to the settings of its template
+ * resolvers. A list of template names can also be parsed in advance when the
+ * application starts.<br>
+ * <br>
+ * In order to use it, you need to add an instance to the services of your
+ * application:
+ * 
+ * <pre>
+ * getServices().add(new TemplateService(engine));
+ * </pre>
+ * 
+ * @author Jerome Louvel
+ */
+public class TemplateService extends Service {
+
+    /**
+     * Returns the template service of the current application if available.
+     * 
+     * @return The template service of the current application or null.
+     */
+    public static TemplateService getCurrent() {
+        Application application = Application.getCurrent();
+        return (application == null) ? null : application.getServices().get(
+                TemplateService.class);
+    }
+
+    /** The Thymeleaf template engine. */
+    private volatile TemplateEngine engine;
+
+    /** The names of the templates to parse when the service starts. */
+    private final List<String> preloadedTemplates;
+
+    /**
+     * Constructor. Uses a default template engine created by
+     * {@link TemplateRepresentation#createTemplateEngine()}.
+     */
+    public TemplateService() {
+        this(TemplateRepresentation.createTemplateEngine());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param engine
+     *            The Thymeleaf template engine.
+     */
+    public TemplateService(TemplateEngine engine) {
+        this.engine = engine;
+        this.preloadedTemplates = new CopyOnWriteArrayList<String>();
+    }
+
+    /**
+     * Returns the Thymeleaf template engine.
+     * 
+     * @return The Thymeleaf template engine.
+     */
+    public TemplateEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Returns the modifiable list of template names to parse when the service
+     * starts.
+     * 
+     * @return The list of template names to parse when the service starts.
+     */
+    public List<String> getPreloadedTemplates() {
+        return this.preloadedTemplates;
+    }
+
+    /**
+     * Sets the Thymeleaf template engine.
+     * 
+     * @param engine
+     *            The Thymeleaf template engine.
+     */
+    public void setEngine(TemplateEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Starts the service, initializes the engine and parses the preloaded
+     * templates into the engine's cache.
+     */
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+
+        if (isStarted()) {
+            TemplateEngine templateEngine = getEngine();
+            templateEngine.initialize();
+
+            for (String templateName : getPreloadedTemplates()) {
+                templateEngine.getTemplateRepository().getTemplate(
+                        new TemplateProcessingParameters(templateEngine
+                                .getConfiguration(), templateName,
+                                new Context(Locale.getDefault())));
+            }
+        }
+    }
+
+    /**
+     * Stops the service and clears the engine's cache of templates.
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+
+        if (getEngine().isInitialized()) {
+            getEngine().clearTemplateCache();
+        }
+    }
+
+}
@@ -139,9 +139,20 @@ public class TemplateFilter extends Filter {
                 && response.getEntity().getEncodings().contains(
                         Encoding.VELOCITY)) {
             try {
-                final TemplateRepresentation representation = new TemplateRepresentation(
-                        response.getEntity(), response.getEntity()
-                                .getMediaType());
+                TemplateService templateService = TemplateService
+                        .getCurrent();
+                final TemplateRepresentation representation;
+
+                if (templateService == null) {
+                    representation = new TemplateRepresentation(
+                            response.getEntity(), response.getEntity()
+                                    .getMediaType());
+                } else {
+                    // Reuse the compiled template if possible
+                    representation = new TemplateRepresentation(
+                            templateService.getTemplate(response.getEntity()),
+                            response.getEntity().getMediaType());
+                }
 
                 if ((this.mapDataModel == null)
                         && (this.resolverDataModel == null)) {
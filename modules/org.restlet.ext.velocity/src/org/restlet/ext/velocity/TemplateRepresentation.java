@@ -45,6 +45,7 @@ import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.RuntimeSingleton;
 import org.restlet.Context;
 import org.restlet.Request;
@@ -141,6 +142,54 @@ public class TemplateRepresentation extends WriterRepresentation {
 
     }
 
+    /**
+     * Compiles a Velocity template provided via a representation, using the
+     * Velocity singleton.
+     * 
+     * @param templateRepresentation
+     *            The representation to 'decode'.
+     * @return The compiled template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public static Template getTemplate(Representation templateRepresentation)
+            throws ResourceNotFoundException, ParseErrorException, IOException {
+        return getTemplate(templateRepresentation,
+                RuntimeSingleton.getRuntimeServices());
+    }
+
+    /**
+     * Compiles a Velocity template provided via a representation.
+     * 
+     * @param templateRepresentation
+     *            The representation to 'decode'.
+     * @param runtimeServices
+     *            The runtime services of the Velocity engine to use.
+     * @return The compiled template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public static Template getTemplate(Representation templateRepresentation,
+            RuntimeServices runtimeServices) throws ResourceNotFoundException,
+            ParseErrorException, IOException {
+        Template result = new Template();
+
+        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
+                .getCharacterSet() : CharacterSet.DEFAULT;
+        result.setEncoding(charSet.getName());
+        result.setLastModified((templateRepresentation.getModificationDate() == null) ? new Date()
+                .getTime() : templateRepresentation.getModificationDate()
+                .getTime());
+        result.setName("org.restlet.resource.representation");
+        result.setRuntimeServices(runtimeServices);
+        result.setResourceLoader(new RepresentationResourceLoader(
+                templateRepresentation));
+        result.process();
+        return result;
+    }
+
     /** The template's data model. */
     private volatile org.apache.velocity.context.Context context;
 
@@ -153,6 +202,9 @@ public class TemplateRepresentation extends WriterRepresentation {
     /** The template name. */
     private volatile String templateName;
 
+    /** The template service providing the engine or null. */
+    private volatile TemplateService templateService;
+
     /**
      * Constructor based on a Velocity 'encoded' representation.
      * 
@@ -172,22 +224,7 @@ public class TemplateRepresentation extends WriterRepresentation {
         super(mediaType);
         setDataModel(dataModel);
         this.engine = null;
-        this.template = new Template();
-
-        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
-                .getCharacterSet() : CharacterSet.DEFAULT;
-        this.template.setEncoding(charSet.getName());
-
-        if (templateRepresentation.getModificationDate() != null) {
-            this.template.setLastModified(templateRepresentation
-                    .getModificationDate().getTime());
-        }
-
-        this.template.setName("org.restlet.resource.representation");
-        this.template.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
-        this.template.setResourceLoader(new RepresentationResourceLoader(
-                templateRepresentation));
-        this.template.process();
+        this.template = getTemplate(templateRepresentation);
         this.templateName = null;
     }
 
@@ -207,24 +244,13 @@ public class TemplateRepresentation extends WriterRepresentation {
             ParseErrorException, IOException {
         super(mediaType);
         this.engine = null;
-        this.template = new Template();
-
-        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
-                .getCharacterSet() : CharacterSet.DEFAULT;
-        this.template.setEncoding(charSet.getName());
-        this.template.setLastModified((templateRepresentation
-                .getModificationDate() == null) ? new Date().getTime()
-                : templateRepresentation.getModificationDate().getTime());
-        this.template.setName("org.restlet.resource.representation");
-        this.template.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
-        this.template.setResourceLoader(new RepresentationResourceLoader(
-                templateRepresentation));
-        this.template.process();
+        this.template = getTemplate(templateRepresentation);
         this.templateName = null;
     }
 
     /**
-     * Constructor.
+     * Constructor. Uses the Velocity engine of the current application's
+     * {@link TemplateService} if available, otherwise a new engine.
      * 
      * @param templateName
      *            The Velocity template's name. The actual template is retrieved
@@ -236,11 +262,42 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(String templateName,
             Map<String, Object> dataModel, MediaType mediaType) {
+        this(templateName, null, dataModel, mediaType);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param templateName
+     *            The Velocity template's name. The actual template is retrieved
+     *            using the Velocity configuration.
+     * @param engine
+     *            The Velocity engine or null to use the one of the current
+     *            application's {@link TemplateService} or a new engine.
+     * @param dataModel
+     *            The Velocity template's data model.
+     * @param mediaType
+     *            The representation's media type.
+     */
+    public TemplateRepresentation(String templateName, VelocityEngine engine,
+            Map<String, Object> dataModel, MediaType mediaType) {
         super(mediaType);
 
         try {
             setDataModel(dataModel);
-            this.engine = new VelocityEngine();
+
+            if (engine != null) {
+                this.engine = engine;
+            } else {
+                this.templateService = TemplateService.getCurrent();
+
+                if (this.templateService == null) {
+                    this.engine = new VelocityEngine();
+                } else {
+                    this.engine = this.templateService.getEngine();
+                }
+            }
+
             this.template = null;
             this.templateName = templateName;
         } catch (Exception e) {
@@ -322,8 +379,15 @@ public class TemplateRepresentation extends WriterRepresentation {
         if (this.template == null) {
             if (this.templateName != null) {
                 try {
-                    getEngine().init();
-                    this.template = getEngine().getTemplate(this.templateName);
+                    if (this.templateService == null) {
+                        getEngine().init();
+                        this.template = getEngine().getTemplate(
+                                this.templateName);
+                    } else {
+                        // The shared engine is only initialized once
+                        this.template = this.templateService
+                                .getTemplate(this.templateName);
+                    }
                 } catch (Exception e) {
                     final Context context = Context.getCurrent();
 
@@ -0,0 +1,299 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+package org.restlet.ext.velocity;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.restlet.Application;
+import org.restlet.representation.Representation;
+import org.restlet.service.Service;
+
+/**
+ * Application service sharing a single Velocity engine between the template
+ * filters and representations of an application. The engine is initialized
+ * once, templates loaded by name are cached according to its resource loader
+ * settings, while templates provided as representations are compiled with the
+ * same engine, cached by this service and invalidated when the modification
+ * date of their source changes.
+ * A list of template names can also be compiled in advance when the
+ * application starts.<br>
+ * <br>
+ * In order to use it, you need to add an instance to the services of your
+ * application:
+ * 
+ * <pre>
+ * getServices().add(new TemplateService(engine));
+ * </pre>
+ * 
+ * @author Jerome Louvel
+ */
+public class TemplateService extends Service {
+
+    /**
+     * Compiled template along with the modification date of its source.
+     */
+    private static class CachedTemplate {
+        /** The modification date of the template source. */
+        private final Date modificationDate;
+
+        /** The compiled template. */
+        private final Template template;
+
+        /**
+         * Constructor.
+         * 
+         * @param template
+         *            The compiled template.
+         * @param modificationDate
+         *            The modification date of the template source.
+         */
+        public CachedTemplate(Template template, Date modificationDate) {
+            this.template = template;
+            this.modificationDate = modificationDate;
+        }
+    }
+
+    /**
+     * Returns the template service of the current application if available.
+     * 
+     * @return The template service of the current application or null.
+     */
+    public static TemplateService getCurrent() {
+        Application application = Application.getCurrent();
+        return (application == null) ? null : application.getServices().get(
+                TemplateService.class);
+    }
+
+    /** The Velocity engine. */
+    private volatile VelocityEngine engine;
+
+    /** Indicates if the Velocity engine was initialized. */
+    private volatile boolean engineInitialized;
+
+    /** The names of the templates to compile when the service starts. */
+    private final List<String> preloadedTemplates;
+
+    /** The runtime services of the Velocity engine. */
+    private volatile RuntimeServices runtimeServices;
+
+    /** The templates provided as representations, by location URI. */
+    private final ConcurrentMap<String, CachedTemplate> templates;
+
+    /**
+     * Constructor. Uses a default Velocity engine.
+     */
+    public TemplateService() {
+        this(new VelocityEngine());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param engine
+     *            The Velocity engine, initialized or not.
+     */
+    public TemplateService(VelocityEngine engine) {
+        this.engine = engine;
+        this.preloadedTemplates = new CopyOnWriteArrayList<String>();
+        this.templates = new ConcurrentHashMap<String, CachedTemplate>();
+    }
+
+    /**
+     * Returns the Velocity engine.
+     * 
+     * @return The Velocity engine.
+     */
+    public VelocityEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Returns the modifiable list of template names to compile when the
+     * service starts.
+     * 
+     * @return The list of template names to compile when the service starts.
+     */
+    public List<String> getPreloadedTemplates() {
+        return this.preloadedTemplates;
+    }
+
+    /**
+     * Returns the runtime services of the Velocity engine, initializing the
+     * engine if needed. They are required to compile templates that are not
+     * loaded by the engine itself.
+     * 
+     * @return The runtime services of the Velocity engine.
+     */
+    private RuntimeServices getRuntimeServices() {
+        RuntimeServices result = this.runtimeServices;
+
+        if (result == null) {
+            initEngine();
+
+            try {
+                // The engine doesn't expose its runtime instance
+                Field field = VelocityEngine.class.getDeclaredField("ri");
+                field.setAccessible(true);
+                result = (RuntimeServices) field.get(getEngine());
+            } catch (Exception e) {
+                throw new IllegalStateException(
+                        "Unable to access the runtime services of the Velocity engine",
+                        e);
+            }
+
+            this.runtimeServices = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a compiled template provided as a representation. The template
+     * is only cached if the representation has both a location reference and a
+     * modification date. In this case, the template is compiled again each
+     * time the modification date changes. When the cached template is reused,
+     * the representation is released without being read.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The compiled template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public Template getTemplate(Representation templateRepresentation)
+            throws ResourceNotFoundException, ParseErrorException, IOException {
+        Template result = null;
+        Date modificationDate = templateRepresentation.getModificationDate();
+        String key = (templateRepresentation.getLocationRef() == null) ? null
+                : templateRepresentation.getLocationRef().toString();
+
+        if ((key == null) || (modificationDate == null)) {
+            result = TemplateRepresentation.getTemplate(templateRepresentation,
+                    getRuntimeServices());
+        } else {
+            CachedTemplate cached = this.templates.get(key);
+
+            if ((cached != null)
+                    && cached.modificationDate.equals(modificationDate)) {
+                result = cached.template;
+                templateRepresentation.release();
+            } else {
+                result = TemplateRepresentation.getTemplate(
+                        templateRepresentation, getRuntimeServices());
+                this.templates.put(key, new CachedTemplate(result,
+                        modificationDate));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a compiled template from its name, initializing the engine if
+     * needed.
+     * 
+     * @param templateName
+     *            The template name.
+     * @return The compiled template.
+     * @throws Exception
+     */
+    public Template getTemplate(String templateName) throws Exception {
+        initEngine();
+        return getEngine().getTemplate(templateName);
+    }
+
+    /**
+     * Initializes the Velocity engine unless it was already done by this
+     * service. As the initialization of the engine is synchronized, it isn't
+     * called again for each template.
+     */
+    private void initEngine() {
+        if (!this.engineInitialized) {
+            // Does nothing if the engine is already initialized
+            getEngine().init();
+            this.engineInitialized = true;
+        }
+    }
+
+    /**
+     * Sets the Velocity engine.
+     * 
+     * @param engine
+     *            The Velocity engine, initialized or not.
+     */
+    public void setEngine(VelocityEngine engine) {
+        this.engine = engine;
+        this.engineInitialized = false;
+        this.runtimeServices = null;
+        this.templates.clear();
+    }
+
+    /**
+     * Starts the service, initializes the engine and compiles the preloaded
+     * templates.
+     */
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+
+        if (isStarted()) {
+            initEngine();
+
+            for (String templateName : getPreloadedTemplates()) {
+                getTemplate(templateName);
+            }
+        }
+    }
+
+    /**
+     * Stops the service and clears the cache of templates.
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+        this.templates.clear();
+    }
+
+}
@@ -33,6 +33,7 @@
 
 package org.restlet.ext.wadl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -49,7 +50,10 @@ import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.engine.Engine;
+import org.restlet.engine.util.CachedEntity;
+import org.restlet.engine.util.LruCache;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Directory;
@@ -99,6 +103,17 @@ import org.restlet.routing.VirtualHost;
  * href="http://github.com/mnot/wadl_stylesheets/">XSLT stylesheet</a> bundled
  * which relies on EXSLT features.<br>
  * <br>
+ * As introspecting the application and applying the XSLT stylesheet is costly,
+ * the serialized descriptions can be cached by variant and base reference,
+ * along with an entity tag, by calling {@link #setDescriptionCaching(boolean)}.
+ * A cached description is built again when the routes, the name or the
+ * description of the application change. As the cache ignores the other
+ * properties of the requests, it must stay disabled when
+ * {@link #getApplicationInfo(Request, Response)} is overridden to return
+ * request-specific descriptions. Requests whose "If-None-Match" condition
+ * matches the entity tag of a cached description are answered with a 304 (Not
+ * Modified) status.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables. <br>
@@ -107,6 +122,12 @@ import org.restlet.routing.VirtualHost;
  */
 public class WadlApplication extends Application {
 
+    /**
+     * The maximum number of cached descriptions. As the base reference comes
+     * from the requests, the least recently used descriptions are evicted.
+     */
+    private static final int MAX_CACHED_DESCRIPTIONS = 32;
+
     /**
      * Indicates if the application should be automatically described via WADL
      * when an OPTIONS request handles a "*" target URI.
@@ -116,6 +137,12 @@ public class WadlApplication extends Application {
     /** The WADL base reference. */
     private volatile Reference baseRef;
 
+    /** Indicates if the serialized descriptions are cached. */
+    private volatile boolean descriptionCaching;
+
+    /** The cached descriptions, by variant and base reference. */
+    private final LruCache<String, CachedEntity> descriptions;
+
     /** The router to {@link ServerResource} classes. */
     private volatile Router router;
 
@@ -142,6 +169,9 @@ public class WadlApplication extends Application {
     public WadlApplication(Context context) {
         super(context);
         this.autoDescribing = true;
+        this.descriptionCaching = false;
+        this.descriptions = new LruCache<String, CachedEntity>(
+                MAX_CACHED_DESCRIPTIONS);
     }
 
     /**
@@ -162,6 +192,9 @@ public class WadlApplication extends Application {
     public WadlApplication(Context context, Representation wadl) {
         super(context);
         this.autoDescribing = false;
+        this.descriptionCaching = false;
+        this.descriptions = new LruCache<String, CachedEntity>(
+                MAX_CACHED_DESCRIPTIONS);
 
         try {
             // Instantiates a WadlRepresentation of the WADL document
@@ -253,6 +286,37 @@ public class WadlApplication extends Application {
         }
     }
 
+    /**
+     * Adds the routes and Restlets reachable from the given Restlet to the
+     * given state.
+     * 
+     * @param restlet
+     *            The Restlet to inspect.
+     * @param state
+     *            The state to complete.
+     */
+    private void addDescribedState(Restlet restlet, List<Object> state) {
+        state.add(restlet);
+
+        if (restlet instanceof Router) {
+            Router router = (Router) restlet;
+
+            for (Route route : router.getRoutes()) {
+                addDescribedState(route, state);
+            }
+
+            if (router.getDefaultRoute() != null) {
+                addDescribedState(router.getDefaultRoute(), state);
+            }
+        } else if (restlet instanceof Filter) {
+            if (restlet instanceof TemplateRoute) {
+                state.add(((TemplateRoute) restlet).getTemplate().getPattern());
+            }
+
+            addDescribedState(((Filter) restlet).getNext(), state);
+        }
+    }
+
     /**
      * Attaches a resource, as specified in a WADL document, to a specified
      * router, then recursively attaches its child resources.
@@ -462,6 +526,22 @@ public class WadlApplication extends Application {
         return this.baseRef;
     }
 
+    /**
+     * Returns the state of the application that its description depends on:
+     * the name, the description, and the routes and Restlets reachable from
+     * the inbound root.
+     * 
+     * @return The state of the application.
+     */
+    private List<Object> getDescribedState() {
+        List<Object> result = new ArrayList<Object>();
+        result.add(getName());
+        result.add(getDescription());
+        addDescribedState(getRouter(), result);
+        addDescribedState(getInboundRoot(), result);
+        return result;
+    }
+
     /**
      * Returns the next router available.
      * 
@@ -769,11 +849,26 @@ public class WadlApplication extends Application {
             response.setEntity(wadlRepresent(request, response));
 
             if (response.isEntityAvailable()) {
-                response.setStatus(Status.SUCCESS_OK);
+                if (isNotModified(request, response.getEntity())) {
+                    // The entity headers are kept, the entity isn't sent
+                    response.setStatus(Status.REDIRECTION_NOT_MODIFIED);
+                } else {
+                    response.setStatus(Status.SUCCESS_OK);
+                }
             }
         }
     }
 
+    /**
+     * Indicates if the serialized descriptions are cached. Default value is
+     * false.
+     * 
+     * @return True if the serialized descriptions are cached.
+     */
+    public boolean isDescriptionCaching() {
+        return descriptionCaching;
+    }
+
     /**
      * Indicates if the application should be automatically described via WADL
      * when an OPTIONS request handles a "*" target URI.
@@ -785,6 +880,30 @@ public class WadlApplication extends Application {
         return autoDescribing;
     }
 
+    /**
+     * Indicates if a description matches the "If-None-Match" condition of a
+     * request.
+     * 
+     * @param request
+     *            The current request.
+     * @param description
+     *            The description.
+     * @return True if the client already has the description.
+     */
+    private boolean isNotModified(Request request, Representation description) {
+        Tag tag = description.getTag();
+
+        if (tag != null) {
+            for (Tag noneMatch : request.getConditions().getNoneMatch()) {
+                if (Tag.ALL.equals(noneMatch) || noneMatch.equals(tag, false)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Indicates if the application should be automatically described via WADL
      * when an OPTIONS request handles a "*" target URI.
@@ -797,6 +916,23 @@ public class WadlApplication extends Application {
         this.autoDescribing = autoDescribed;
     }
 
+    /**
+     * Indicates if the serialized descriptions are cached. The caching must
+     * stay disabled when {@link #getApplicationInfo(Request, Response)}
+     * depends on the request beyond its base reference and preferred media
+     * type. Disabling the caching also clears the cached descriptions.
+     * 
+     * @param descriptionCaching
+     *            True if the serialized descriptions are cached.
+     */
+    public void setDescriptionCaching(boolean descriptionCaching) {
+        this.descriptionCaching = descriptionCaching;
+
+        if (!descriptionCaching) {
+            this.descriptions.clear();
+        }
+    }
+
     /**
      * Sets the WADL base reference.
      * 
@@ -817,8 +953,36 @@ public class WadlApplication extends Application {
      * @return The WADL description.
      */
     protected Representation wadlRepresent(Request request, Response response) {
-        return wadlRepresent(getPreferredWadlVariant(request), request,
-                response);
+        Variant variant = getPreferredWadlVariant(request);
+
+        if (!isDescriptionCaching() || (variant == null)) {
+            return wadlRepresent(variant, request, response);
+        }
+
+        String key = variant.getMediaType() + " "
+                + request.getResourceRef().getBaseRef();
+        List<Object> state = getDescribedState();
+        CachedEntity cached = this.descriptions.get(key);
+
+        if ((cached == null) || !cached.isUpToDate(state)) {
+            Representation result = wadlRepresent(variant, request, response);
+
+            if (result == null) {
+                return null;
+            }
+
+            try {
+                cached = new CachedEntity(state, result);
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING,
+                        "Unable to cache the WADL description", e);
+                return wadlRepresent(variant, request, response);
+            }
+
+            this.descriptions.put(key, cached);
+        }
+
+        return cached.toRepresentation();
     }
 
     /**
@@ -37,6 +37,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
 
+import javax.xml.parsers.DocumentBuilder;
+
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
 import org.restlet.engine.Edition;
@@ -77,7 +79,13 @@ public class DomRepresentation extends XmlRepresentation {
      */
     public DomRepresentation(MediaType mediaType) throws IOException {
         super(mediaType);
-        this.document = getDocumentBuilder().newDocument();
+        DocumentBuilder builder = getDocumentBuilder();
+
+        try {
+            this.document = builder.newDocument();
+        } finally {
+            releaseDocumentBuilder(builder);
+        }
     }
 
     /**
@@ -116,9 +124,13 @@ public class DomRepresentation extends XmlRepresentation {
      */
     protected javax.xml.transform.Transformer createTransformer()
             throws IOException {
+        TemplatesCache cache = TemplatesCache.getInstance();
+        javax.xml.transform.sax.SAXTransformerFactory factory = cache
+                .borrowFactory();
+
         try {
-            javax.xml.transform.Transformer transformer = javax.xml.transform.TransformerFactory
-                    .newInstance().newTransformer();
+            javax.xml.transform.Transformer transformer = factory
+                    .newTransformer();
             transformer.setOutputProperty(
                     javax.xml.transform.OutputKeys.METHOD, "xml");
             transformer.setOutputProperty(
@@ -155,6 +167,8 @@ public class DomRepresentation extends XmlRepresentation {
         } catch (javax.xml.transform.TransformerConfigurationException tce) {
             throw new IOException("Couldn't write the XML representation: "
                     + tce.getMessage());
+        } finally {
+            cache.release(factory);
         }
     }
 
@@ -168,17 +182,19 @@ public class DomRepresentation extends XmlRepresentation {
     @Override
     public Document getDocument() throws IOException {
         if (this.document == null) {
-            if (this.xmlRepresentation != null) {
-                try {
-                    this.document = getDocumentBuilder()
-                            .parse(getInputSource());
-                } catch (SAXException se) {
-                    throw new IOException(
-                            "Couldn't read the XML representation. "
-                                    + se.getMessage());
+            DocumentBuilder builder = getDocumentBuilder();
+
+            try {
+                if (this.xmlRepresentation != null) {
+                    this.document = builder.parse(getInputSource());
+                } else {
+                    this.document = builder.newDocument();
                 }
-            } else {
-                this.document = getDocumentBuilder().newDocument();
+            } catch (SAXException se) {
+                throw new IOException("Couldn't read the XML representation. "
+                        + se.getMessage());
+            } finally {
+                releaseDocumentBuilder(builder);
             }
         }
 
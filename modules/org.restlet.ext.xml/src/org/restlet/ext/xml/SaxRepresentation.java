@@ -36,22 +36,24 @@ package org.restlet.ext.xml;
 import java.io.IOException;
 import java.io.Writer;
 
-import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Result;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXSource;
 
 import org.restlet.data.MediaType;
+import org.restlet.ext.xml.internal.XmlPools;
 import org.restlet.representation.Representation;
 import org.w3c.dom.Document;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
 /**
@@ -166,12 +168,64 @@ public class SaxRepresentation extends XmlRepresentation {
         this.xmlRepresentation = xmlRepresentation;
     }
 
+    /**
+     * Creates a SAX source reading the source XML representation.
+     * 
+     * @param xmlReader
+     *            The XML reader to use.
+     * @return The SAX source.
+     * @throws IOException
+     */
+    private SAXSource createSaxSource(XMLReader xmlReader) throws IOException {
+        SAXSource result = new SAXSource(xmlReader, new InputSource(
+                this.xmlRepresentation.getReader()));
+
+        if (this.xmlRepresentation.getLocationRef() != null) {
+            result.setSystemId(this.xmlRepresentation.getLocationRef()
+                    .getTargetRef().toString());
+        }
+
+        return result;
+    }
+
     @Override
     public InputSource getInputSource() throws IOException {
         return (getSaxSource() == null) ? null : getSaxSource()
                 .getInputSource();
     }
 
+    /**
+     * Returns the combination of {@link XmlPools} features used to configure
+     * the SAX parsers.
+     * 
+     * @return The combination of SAX parser features.
+     */
+    private int getParserFeatures() {
+        int result = 0;
+
+        if (isExpandingEntityRefs()) {
+            result |= XmlPools.EXPANDING_ENTITY_REFS;
+        }
+
+        if (isNamespaceAware()) {
+            result |= XmlPools.NAMESPACE_AWARE;
+        }
+
+        if (isSecureProcessing()) {
+            result |= XmlPools.SECURE_PROCESSING;
+        }
+
+        if (isValidatingDtd()) {
+            result |= XmlPools.VALIDATING_DTD;
+        }
+
+        if (isXIncludeAware()) {
+            result |= XmlPools.XINCLUDE_AWARE;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the SAX source that can be parsed by the
      * {@link #parse(ContentHandler)} method or used for an XSLT transformation.
@@ -182,42 +236,31 @@ public class SaxRepresentation extends XmlRepresentation {
             if (xmlRepresentation instanceof XmlRepresentation) {
                 this.source = ((XmlRepresentation) xmlRepresentation)
                         .getSaxSource();
+
+                if (xmlRepresentation.getLocationRef() != null) {
+                    this.source.setSystemId(xmlRepresentation.getLocationRef()
+                            .getTargetRef().toString());
+                }
             } else {
                 try {
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
-                    spf.setNamespaceAware(isNamespaceAware());
-
-                    // Keep before the external entity preferences
-                    spf.setValidating(isValidatingDtd());
-
+                    // The SAX source is handed out to the caller and may be
+                    // used at any time, so its parser isn't taken from the
+                    // pool
+                    SAXParserFactory spf = XmlPools
+                            .createSaxParserFactory(getParserFeatures());
                     javax.xml.validation.Schema xsd = getSchema();
 
                     if (xsd != null) {
                         spf.setSchema(xsd);
                     }
 
-                    spf.setXIncludeAware(isXIncludeAware());
-                    spf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
-                            isSecureProcessing());
-                    spf.setFeature(
-                            "http://xml.org/sax/features/external-general-entities",
-                            isExpandingEntityRefs());
-                    spf.setFeature(
-                            "http://xml.org/sax/features/external-parameter-entities",
-                            isExpandingEntityRefs());
-                    XMLReader xmlReader = spf.newSAXParser().getXMLReader();
-                    this.source = new SAXSource(xmlReader, new InputSource(
-                            xmlRepresentation.getReader()));
+                    this.source = createSaxSource(spf.newSAXParser()
+                            .getXMLReader());
                 } catch (Exception e) {
                     throw new IOException(
                             "Unable to create customized SAX source", e);
                 }
             }
-
-            if (xmlRepresentation.getLocationRef() != null) {
-                this.source.setSystemId(xmlRepresentation.getLocationRef()
-                        .getTargetRef().toString());
-            }
         }
 
         return this.source;
@@ -233,17 +276,42 @@ public class SaxRepresentation extends XmlRepresentation {
     }
 
     /**
-     * Parses the source and sends SAX events to a content handler.
+     * Parses the source and sends SAX events to a content handler. The SAX
+     * parser and the identity transformer used are taken from shared pools.
      * 
      * @param contentHandler
      *            The SAX content handler to use for parsing.
      */
     public void parse(ContentHandler contentHandler) throws IOException {
         if (contentHandler != null) {
+            int features = getParserFeatures();
+            SAXParser parser = null;
+            javax.xml.transform.Transformer transformer = null;
+
             try {
+                SAXSource saxSource;
+
+                if ((this.source == null)
+                        && (this.xmlRepresentation != null)
+                        && !(this.xmlRepresentation instanceof XmlRepresentation)
+                        && (getSchema() == null)) {
+                    // The source is only read once, so the parser can be
+                    // checked in as soon as the parsing is done
+                    parser = XmlPools.checkoutSaxParser(features);
+                    saxSource = createSaxSource(parser.getXMLReader());
+                } else {
+                    saxSource = getSaxSource();
+                }
+
                 Result result = new SAXResult(contentHandler);
-                TransformerFactory.newInstance().newTransformer()
-                        .transform(getSaxSource(), result);
+                transformer = XmlPools.checkoutTransformer();
+                transformer.transform(saxSource, result);
+            } catch (ParserConfigurationException pce) {
+                throw new IOException("Unable to create customized SAX source",
+                        pce);
+            } catch (SAXException se) {
+                throw new IOException("Unable to create customized SAX source",
+                        se);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException(
                         "Couldn't parse the source representation: "
@@ -256,6 +324,12 @@ public class SaxRepresentation extends XmlRepresentation {
                 throw new IOException(
                         "Couldn't parse the source representation: "
                                 + tfce.getMessage(), tfce);
+            } finally {
+                XmlPools.checkin(transformer);
+
+                if (parser != null) {
+                    XmlPools.checkin(features, parser);
+                }
             }
         } else {
             throw new IOException(
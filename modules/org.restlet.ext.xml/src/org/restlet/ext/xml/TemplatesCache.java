@@ -0,0 +1,419 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+package org.restlet.ext.xml;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.restlet.engine.util.LruCache;
+import org.restlet.representation.Representation;
+
+/**
+ * Cache of compiled XSLT transform sheets. Compiled {@link Templates} are
+ * thread-safe and can be shared by all the transformations using the same
+ * transform sheet, leaving only the creation of a new JAXP transformer for
+ * each call.<br>
+ * <br>
+ * Transform sheets are keyed by their location reference and by the URI
+ * resolver used to compile them, as it can change the included or imported
+ * sheets. They are compiled again when their tag, or otherwise their
+ * modification date, changes. Sheets without location reference or without
+ * any of those metadata are compiled each time. Note that changes to the sheets
+ * included or imported by a cached sheet are not detected.<br>
+ * <br>
+ * The number of compiled sheets is bounded, the least recently used ones being
+ * evicted along with the URI resolvers they were compiled with.<br>
+ * <br>
+ * The cache also keeps a bounded pool of idle SAX transformer factories, as
+ * looking up the JAXP implementation is costly and factories aren't
+ * thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class TemplatesCache {
+
+    /**
+     * Compiled transform sheet along with the validator of its source.
+     */
+    private static class CachedTemplates {
+        /** The compiled transform sheet. */
+        private final Templates templates;
+
+        /** The tag or modification date of the transform sheet. */
+        private final String validator;
+
+        /**
+         * Constructor.
+         * 
+         * @param templates
+         *            The compiled transform sheet.
+         * @param validator
+         *            The tag or modification date of the transform sheet.
+         */
+        public CachedTemplates(Templates templates, String validator) {
+            this.templates = templates;
+            this.validator = validator;
+        }
+    }
+
+    /**
+     * Key of a compiled transform sheet.
+     */
+    private static class TemplatesKey {
+        /** The location URI of the transform sheet. */
+        private final String uri;
+
+        /** The optional URI resolver. */
+        private final URIResolver uriResolver;
+
+        /**
+         * Constructor.
+         * 
+         * @param uri
+         *            The location URI of the transform sheet.
+         * @param uriResolver
+         *            The optional URI resolver.
+         */
+        public TemplatesKey(String uri, URIResolver uriResolver) {
+            this.uri = uri;
+            this.uriResolver = uriResolver;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TemplatesKey)) {
+                return false;
+            }
+
+            TemplatesKey key = (TemplatesKey) obj;
+            return this.uri.equals(key.uri)
+                    && ((this.uriResolver == null) ? key.uriResolver == null
+                            : this.uriResolver.equals(key.uriResolver));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.uri.hashCode() * 31
+                    + ((this.uriResolver == null) ? 0 : this.uriResolver
+                            .hashCode());
+        }
+    }
+
+    /** The default maximum number of idle transformer factories. */
+    public static final int DEFAULT_MAX_IDLE_FACTORIES = Math.max(8,
+            2 * Runtime.getRuntime().availableProcessors());
+
+    /** The default maximum number of compiled transform sheets. */
+    public static final int DEFAULT_MAX_TEMPLATES = 256;
+
+    /** The default instance shared by the XML extension. */
+    private static final TemplatesCache instance = new TemplatesCache();
+
+    /**
+     * Returns the default instance shared by the XML extension.
+     * 
+     * @return The default instance shared by the XML extension.
+     */
+    public static TemplatesCache getInstance() {
+        return instance;
+    }
+
+    /** The time spent compiling transform sheets, in nanoseconds. */
+    private final AtomicLong compileTime;
+
+    /** The pool of idle SAX transformer factories. */
+    private final Queue<SAXTransformerFactory> factories;
+
+    /** The number of transform sheets found in the cache. */
+    private final AtomicLong hitCount;
+
+    /** The number of transform sheets compiled. */
+    private final AtomicLong missCount;
+
+    /** The compiled transform sheets, by location URI and URI resolver. */
+    private final LruCache<TemplatesKey, CachedTemplates> templates;
+
+    /**
+     * Constructor. Keeps up to {@link #DEFAULT_MAX_IDLE_FACTORIES} idle
+     * transformer factories and {@link #DEFAULT_MAX_TEMPLATES} compiled
+     * transform sheets.
+     */
+    public TemplatesCache() {
+        this(DEFAULT_MAX_IDLE_FACTORIES);
+    }
+
+    /**
+     * Constructor. Keeps up to {@link #DEFAULT_MAX_TEMPLATES} compiled
+     * transform sheets.
+     * 
+     * @param maxIdleFactories
+     *            The maximum number of idle transformer factories kept in the
+     *            pool.
+     */
+    public TemplatesCache(int maxIdleFactories) {
+        this(maxIdleFactories, DEFAULT_MAX_TEMPLATES);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxIdleFactories
+     *            The maximum number of idle transformer factories kept in the
+     *            pool.
+     * @param maxTemplates
+     *            The maximum number of compiled transform sheets kept in the
+     *            cache.
+     */
+    public TemplatesCache(int maxIdleFactories, int maxTemplates) {
+        this.compileTime = new AtomicLong();
+        this.factories = new ArrayBlockingQueue<SAXTransformerFactory>(
+                maxIdleFactories);
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.templates = new LruCache<TemplatesKey, CachedTemplates>(
+                maxTemplates);
+    }
+
+    /**
+     * Borrows a SAX transformer factory from the pool, or creates a new one.
+     * The factory must be returned with {@link #release(SAXTransformerFactory)}
+     * after use.
+     * 
+     * @return A SAX transformer factory.
+     */
+    public SAXTransformerFactory borrowFactory() {
+        SAXTransformerFactory result = this.factories.poll();
+
+        if (result == null) {
+            result = (SAXTransformerFactory) TransformerFactory.newInstance();
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes all the compiled transform sheets and resets the metrics.
+     */
+    public void clear() {
+        this.templates.clear();
+        this.compileTime.set(0);
+        this.hitCount.set(0);
+        this.missCount.set(0);
+    }
+
+    /**
+     * Compiles a transform sheet, using a pooled transformer factory.
+     * 
+     * @param transformSheet
+     *            The transform sheet to compile.
+     * @param uriResolver
+     *            The optional URI resolver.
+     * @return The compiled transform sheet.
+     * @throws IOException
+     */
+    public Templates compile(Representation transformSheet,
+            URIResolver uriResolver) throws IOException {
+        long start = System.nanoTime();
+        SAXTransformerFactory factory = borrowFactory();
+
+        try {
+            // Prepare the XSLT transformer documents
+            StreamSource transformSource = new StreamSource(
+                    transformSheet.getStream());
+
+            if (transformSheet.getLocationRef() != null) {
+                transformSource.setSystemId(transformSheet.getLocationRef()
+                        .getTargetRef().toString());
+            }
+
+            // Set the URI resolver
+            if (uriResolver != null) {
+                factory.setURIResolver(uriResolver);
+            }
+
+            return factory.newTemplates(transformSource);
+        } catch (TransformerConfigurationException tce) {
+            throw new IOException("Transformer configuration exception. "
+                    + tce.getMessage());
+        } finally {
+            release(factory);
+            this.missCount.incrementAndGet();
+            this.compileTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the time spent compiling transform sheets, in milliseconds.
+     * 
+     * @return The time spent compiling transform sheets.
+     */
+    public long getCompileTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.compileTime.get());
+    }
+
+    /**
+     * Returns the number of transform sheets found in the cache.
+     * 
+     * @return The number of transform sheets found in the cache.
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the maximum number of compiled transform sheets kept in the
+     * cache.
+     * 
+     * @return The maximum number of compiled transform sheets.
+     */
+    public int getMaxTemplates() {
+        return this.templates.getMaxSize();
+    }
+
+    /**
+     * Returns the number of transform sheets that had to be compiled.
+     * 
+     * @return The number of transform sheets that had to be compiled.
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * Returns an estimation of the compilation time saved by the cache, in
+     * milliseconds, based on the average compilation time.
+     * 
+     * @return The estimated compilation time saved by the cache.
+     */
+    public long getSavedTime() {
+        long misses = getMissCount();
+        return (misses == 0) ? 0L : (getHitCount() * getCompileTime())
+                / misses;
+    }
+
+    /**
+     * Returns the compiled version of a transform sheet, from the cache if it
+     * is still valid, otherwise by compiling it.
+     * 
+     * @param transformSheet
+     *            The transform sheet.
+     * @param uriResolver
+     *            The optional URI resolver.
+     * @return The compiled transform sheet.
+     * @throws IOException
+     */
+    public Templates getTemplates(Representation transformSheet,
+            URIResolver uriResolver) throws IOException {
+        Templates result = null;
+        String validator = getValidator(transformSheet);
+        TemplatesKey key = (transformSheet.getLocationRef() == null) ? null
+                : new TemplatesKey(transformSheet.getLocationRef()
+                        .getTargetRef().toString(), uriResolver);
+
+        if ((key == null) || (validator == null)) {
+            result = compile(transformSheet, uriResolver);
+        } else {
+            CachedTemplates cached = this.templates.get(key);
+
+            if ((cached != null) && cached.validator.equals(validator)) {
+                this.hitCount.incrementAndGet();
+                result = cached.templates;
+            } else {
+                result = compile(transformSheet, uriResolver);
+                this.templates.put(key, new CachedTemplates(result, validator));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the validator of a transform sheet, based on its tag or
+     * otherwise on its modification date.
+     * 
+     * @param transformSheet
+     *            The transform sheet.
+     * @return The validator or null if not available.
+     */
+    private String getValidator(Representation transformSheet) {
+        String result = null;
+
+        if (transformSheet.getTag() != null) {
+            result = transformSheet.getTag().format();
+        } else if (transformSheet.getModificationDate() != null) {
+            result = Long.toString(transformSheet.getModificationDate()
+                    .getTime());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a SAX transformer factory to the pool. It is discarded if the
+     * pool is already full.
+     * 
+     * @param factory
+     *            The factory to return.
+     */
+    public void release(SAXTransformerFactory factory) {
+        // Don't keep the resolver of the previous user
+        factory.setURIResolver(null);
+        this.factories.offer(factory);
+    }
+
+    /**
+     * Removes a compiled transform sheet from the cache, whatever the URI
+     * resolver used to compile it.
+     * 
+     * @param uri
+     *            The location URI of the transform sheet.
+     */
+    public void remove(String uri) {
+        for (TemplatesKey key : this.templates.keySet()) {
+            if (key.uri.equals(uri)) {
+                this.templates.remove(key);
+            }
+        }
+    }
+
+}
@@ -45,7 +45,6 @@ import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.URIResolver;
 import javax.xml.transform.sax.SAXResult;
@@ -53,7 +52,6 @@ import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.sax.SAXTransformerFactory;
 import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 import org.restlet.Context;
 import org.restlet.ext.xml.internal.AbstractXmlReader;
@@ -286,17 +284,6 @@ public class TransformRepresentation extends WriterRepresentation {
         return toSaxSource(getSourceRepresentation());
     }
 
-    /**
-     * Returns the default SAX transformer factory.
-     * 
-     * @return The default SAX transformer factory.
-     */
-    private SAXTransformerFactory getSaxTransformerFactory() {
-        SAXTransformerFactory result = (SAXTransformerFactory) TransformerFactory
-                .newInstance();
-        return result;
-    }
-
     /**
      * Returns the source representation to transform.
      * 
@@ -307,42 +294,17 @@ public class TransformRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Returns the templates to be used and reused. If no one exists, it creates
-     * a new one based on the transformSheet representation and on the URI
-     * resolver.
+     * Returns the templates to be used and reused. If no one exists, it gets
+     * one from the shared {@link TemplatesCache}, compiling the transformSheet
+     * representation with the URI resolver when needed.
      * 
      * @return The templates to be used and reused.
      */
     public Templates getTemplates() throws IOException {
         if (this.templates == null) {
             if (getTransformSheet() != null) {
-                try {
-                    // Prepare the XSLT transformer documents
-                    final StreamSource transformSource = new StreamSource(
-                            getTransformSheet().getStream());
-
-                    if (getTransformSheet().getLocationRef() != null) {
-                        transformSource.setSystemId(getTransformSheet()
-                                .getLocationRef().getTargetRef().toString());
-                    }
-
-                    // Create the transformer factory
-                    final TransformerFactory transformerFactory = TransformerFactory
-                            .newInstance();
-
-                    // Set the URI resolver
-                    if (getUriResolver() != null) {
-                        transformerFactory.setURIResolver(getUriResolver());
-                    }
-
-                    // Create a new transformer
-                    this.templates = transformerFactory
-                            .newTemplates(transformSource);
-                } catch (TransformerConfigurationException tce) {
-                    throw new IOException(
-                            "Transformer configuration exception. "
-                                    + tce.getMessage());
-                }
+                this.templates = TemplatesCache.getInstance().getTemplates(
+                        getTransformSheet(), getUriResolver());
             }
         }
 
@@ -404,12 +366,16 @@ public class TransformRepresentation extends WriterRepresentation {
         Templates templates = getTemplates();
 
         if (templates != null) {
+            SAXTransformerFactory factory = TemplatesCache.getInstance()
+                    .borrowFactory();
+
             try {
-                result = getSaxTransformerFactory().newTransformerHandler(
-                        templates);
+                result = factory.newTransformerHandler(templates);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException("Transformer configuration exception. "
                         + tce.getMessage());
+            } finally {
+                TemplatesCache.getInstance().release(factory);
             }
         }
 
@@ -445,11 +411,16 @@ public class TransformRepresentation extends WriterRepresentation {
         final Templates templates = getTemplates();
 
         if (templates != null) {
+            SAXTransformerFactory factory = TemplatesCache.getInstance()
+                    .borrowFactory();
+
             try {
-                result = getSaxTransformerFactory().newXMLFilter(templates);
+                result = factory.newXMLFilter(templates);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException("Transformer configuration exception. "
                         + tce.getMessage());
+            } finally {
+                TemplatesCache.getInstance().release(factory);
             }
         }
 
@@ -563,14 +534,16 @@ public class TransformRepresentation extends WriterRepresentation {
      * @throws IOException
      */
     public void transform(Source source, Result result) throws IOException {
-        if (getTransformer() == null) {
+        Transformer transformer = getTransformer();
+
+        if (transformer == null) {
             Context.getCurrentLogger()
                     .warning(
                             "Unable to apply the transformation. No transformer found!");
         } else {
             try {
                 // Generates the result of the transformation
-                getTransformer().transform(source, result);
+                transformer.transform(source, result);
             } catch (TransformerException te) {
                 throw new IOException("Transformer exception. "
                         + te.getMessage());
@@ -47,10 +47,10 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathFactory;
 
 import org.restlet.Context;
 import org.restlet.data.MediaType;
+import org.restlet.ext.xml.internal.XmlPools;
 import org.restlet.representation.Representation;
 import org.restlet.representation.WriterRepresentation;
 import org.w3c.dom.Document;
@@ -363,11 +363,20 @@ public abstract class XmlRepresentation extends WriterRepresentation
      * @return The DOM document.
      */
     protected Document getDocument() throws Exception {
-        return getDocumentBuilder().parse(getInputSource());
+        DocumentBuilder builder = getDocumentBuilder();
+
+        try {
+            return builder.parse(getInputSource());
+        } finally {
+            releaseDocumentBuilder(builder);
+        }
     }
 
     /**
-     * Returns a document builder properly configured.
+     * Returns a document builder properly configured. Unless a schema is set,
+     * it is taken from a shared pool and should be given back with
+     * {@link #releaseDocumentBuilder(DocumentBuilder)} once the parsing is
+     * done.
      * 
      * @return A document builder properly configured.
      */
@@ -375,30 +384,21 @@ public abstract class XmlRepresentation extends WriterRepresentation
         DocumentBuilder result = null;
 
         try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(isNamespaceAware());
-            dbf.setValidating(isValidatingDtd());
-            dbf.setCoalescing(isCoalescing());
-            dbf.setExpandEntityReferences(isExpandingEntityRefs());
-            dbf.setIgnoringComments(isIgnoringComments());
-            dbf.setIgnoringElementContentWhitespace(isIgnoringExtraWhitespaces());
-
-            try {
-                dbf.setXIncludeAware(isXIncludeAware());
-            } catch (UnsupportedOperationException uoe) {
-                Context.getCurrentLogger().log(Level.FINE,
-                        "The JAXP parser doesn't support XInclude.", uoe);
-            }
-
             // [ifndef android]
             javax.xml.validation.Schema xsd = getSchema();
 
             if (xsd != null) {
+                DocumentBuilderFactory dbf = XmlPools
+                        .createDocumentBuilderFactory(getDocumentBuilderFeatures());
                 dbf.setSchema(xsd);
+                result = dbf.newDocumentBuilder();
             }
             // [enddef]
 
-            result = dbf.newDocumentBuilder();
+            if (result == null) {
+                result = XmlPools.checkoutDocumentBuilder(getDocumentBuilderFeatures());
+            }
+
             result.setEntityResolver(getEntityResolver());
             result.setErrorHandler(getErrorHandler());
         } catch (ParserConfigurationException pce) {
@@ -409,6 +409,46 @@ public abstract class XmlRepresentation extends WriterRepresentation
         return result;
     }
 
+    /**
+     * Returns the combination of {@link XmlPools} features used to configure
+     * the document builders.
+     * 
+     * @return The combination of document builder features.
+     */
+    private int getDocumentBuilderFeatures() {
+        int result = 0;
+
+        if (isCoalescing()) {
+            result |= XmlPools.COALESCING;
+        }
+
+        if (isExpandingEntityRefs()) {
+            result |= XmlPools.EXPANDING_ENTITY_REFS;
+        }
+
+        if (isIgnoringComments()) {
+            result |= XmlPools.IGNORING_COMMENTS;
+        }
+
+        if (isIgnoringExtraWhitespaces()) {
+            result |= XmlPools.IGNORING_EXTRA_WHITESPACES;
+        }
+
+        if (isNamespaceAware()) {
+            result |= XmlPools.NAMESPACE_AWARE;
+        }
+
+        if (isValidatingDtd()) {
+            result |= XmlPools.VALIDATING_DTD;
+        }
+
+        if (isXIncludeAware()) {
+            result |= XmlPools.XINCLUDE_AWARE;
+        }
+
+        return result;
+    }
+
     // [ifndef android] method
     /**
      * Returns a DOM source.
@@ -420,11 +460,15 @@ public abstract class XmlRepresentation extends WriterRepresentation
         javax.xml.transform.dom.DOMSource result = null;
         Node document = null;
 
+        DocumentBuilder builder = getDocumentBuilder();
+
         try {
-            document = getDocumentBuilder().parse(getInputSource());
+            document = builder.parse(getInputSource());
         } catch (SAXException se) {
             throw new IOException("Couldn't read the XML representation. "
                     + se.getMessage());
+        } finally {
+            releaseDocumentBuilder(builder);
         }
 
         if (document != null) {
@@ -626,12 +670,18 @@ public abstract class XmlRepresentation extends WriterRepresentation
             javax.xml.namespace.QName returnType) {
         try {
             Object result = null;
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            xpath.setNamespaceContext(this);
             Document xmlDocument = getDocument();
 
             if (xmlDocument != null) {
-                result = xpath.evaluate(expression, xmlDocument, returnType);
+                XPath xpath = XmlPools.checkoutXPath();
+
+                try {
+                    xpath.setNamespaceContext(this);
+                    result = xpath.evaluate(expression, xmlDocument,
+                            returnType);
+                } finally {
+                    XmlPools.checkin(xpath);
+                }
             } else {
                 throw new Exception(
                         "Unable to obtain a DOM document for the XML representation. "
@@ -731,6 +781,18 @@ public abstract class XmlRepresentation extends WriterRepresentation
         super.release();
     }
 
+    /**
+     * Gives back a document builder obtained from
+     * {@link #getDocumentBuilder()} to the shared pool. Builders that weren't
+     * taken from the pool are simply ignored.
+     * 
+     * @param builder
+     *            The document builder to release.
+     */
+    protected void releaseDocumentBuilder(DocumentBuilder builder) {
+        XmlPools.checkin(builder);
+    }
+
     /**
      * Indicates if the parser should be coalescing text. If true the parser
      * will convert CDATA nodes to text nodes and append it to the adjacent (if
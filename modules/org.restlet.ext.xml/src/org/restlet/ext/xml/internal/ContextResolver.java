@@ -66,6 +66,21 @@ public class ContextResolver implements URIResolver {
         this.context = context;
     }
 
+    /**
+     * Indicates if both resolvers use the same context, so that sheets
+     * compiled with one of them can be shared with the other.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return (obj instanceof ContextResolver)
+                && (((ContextResolver) obj).context == this.context);
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this.context);
+    }
+
     /**
      * Resolves a target reference into a Source document.
      * 
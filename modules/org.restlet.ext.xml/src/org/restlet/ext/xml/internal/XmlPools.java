@@ -0,0 +1,525 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.xml.internal;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+import org.restlet.Context;
+import org.restlet.engine.util.Pool;
+import org.restlet.ext.xml.TemplatesCache;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Bounded pools of JAXP document builders, SAX parsers, XPath evaluators and
+ * identity transformers shared by the XML representations. The factory lookup
+ * and configuration is done once per combination of parser features, then the
+ * pooled objects are reset each time they are checked in. Parsers validating
+ * against a schema are never pooled, the factories returned by
+ * {@link #createDocumentBuilderFactory(int)} and
+ * {@link #createSaxParserFactory(int)} should be used instead.
+ * 
+ * @author Jerome Louvel
+ */
+public final class XmlPools {
+
+    /**
+     * Document builder that remembers the pool it was created by.
+     */
+    private static final class PooledDocumentBuilder extends DocumentBuilder {
+
+        /** The wrapped document builder. */
+        private final DocumentBuilder builder;
+
+        /** The parent pool. */
+        private final XmlPool<DocumentBuilder> pool;
+
+        /**
+         * Constructor.
+         * 
+         * @param pool
+         *            The parent pool.
+         * @param builder
+         *            The wrapped document builder.
+         */
+        private PooledDocumentBuilder(XmlPool<DocumentBuilder> pool,
+                DocumentBuilder builder) {
+            this.pool = pool;
+            this.builder = builder;
+        }
+
+        @Override
+        public DOMImplementation getDOMImplementation() {
+            return this.builder.getDOMImplementation();
+        }
+
+        // [ifndef android] method
+        @Override
+        public javax.xml.validation.Schema getSchema() {
+            return this.builder.getSchema();
+        }
+
+        @Override
+        public boolean isNamespaceAware() {
+            return this.builder.isNamespaceAware();
+        }
+
+        @Override
+        public boolean isValidating() {
+            return this.builder.isValidating();
+        }
+
+        @Override
+        public boolean isXIncludeAware() {
+            return this.builder.isXIncludeAware();
+        }
+
+        @Override
+        public Document newDocument() {
+            return this.builder.newDocument();
+        }
+
+        @Override
+        public Document parse(InputSource is) throws SAXException, IOException {
+            return this.builder.parse(is);
+        }
+
+        @Override
+        public void reset() {
+            this.builder.reset();
+        }
+
+        @Override
+        public void setEntityResolver(EntityResolver er) {
+            this.builder.setEntityResolver(er);
+        }
+
+        @Override
+        public void setErrorHandler(ErrorHandler eh) {
+            this.builder.setErrorHandler(eh);
+        }
+    }
+
+    /**
+     * Bounded pool of objects that are reset when checked in. Objects that
+     * can't be reset are dropped instead.
+     * 
+     * @param <T>
+     */
+    private static abstract class XmlPool<T> extends Pool<T> {
+
+        @Override
+        public void checkin(T object) {
+            if (object != null) {
+                try {
+                    clear(object);
+                    getStore().offer(object);
+                } catch (UnsupportedOperationException uoe) {
+                    // The JAXP implementation doesn't support reset
+                }
+            }
+        }
+
+        @Override
+        protected Queue<T> createStore() {
+            return new ArrayBlockingQueue<T>(MAX_IDLE);
+        }
+    }
+
+    /** Document builder feature: coalescing. */
+    public static final int COALESCING = 1;
+
+    /** Parser feature: expanding entity references. */
+    public static final int EXPANDING_ENTITY_REFS = 2;
+
+    /** Document builder feature: ignoring comments. */
+    public static final int IGNORING_COMMENTS = 4;
+
+    /** Document builder feature: ignoring extra whitespaces. */
+    public static final int IGNORING_EXTRA_WHITESPACES = 8;
+
+    /** Maximum number of idle objects kept by each pool. */
+    private static final int MAX_IDLE = Math.max(8, 2 * Runtime.getRuntime()
+            .availableProcessors());
+
+    /** Parser feature: namespace aware. */
+    public static final int NAMESPACE_AWARE = 16;
+
+    /** SAX parser feature: secure processing. */
+    public static final int SECURE_PROCESSING = 32;
+
+    /** Parser feature: validating against the DTD. */
+    public static final int VALIDATING_DTD = 64;
+
+    /** Parser feature: XInclude aware. */
+    public static final int XINCLUDE_AWARE = 128;
+
+    /** The document builder pools, per combination of features. */
+    private static final ConcurrentMap<Integer, XmlPool<DocumentBuilder>> documentBuilders = new ConcurrentHashMap<Integer, XmlPool<DocumentBuilder>>();
+
+    /** The SAX parser pools, per combination of features. */
+    private static final ConcurrentMap<Integer, XmlPool<SAXParser>> saxParsers = new ConcurrentHashMap<Integer, XmlPool<SAXParser>>();
+
+    // [ifndef android] member
+    /** The identity transformer pool. */
+    private static final XmlPool<Transformer> transformers = new XmlPool<Transformer>() {
+        @Override
+        protected void clear(Transformer transformer) {
+            transformer.reset();
+        }
+
+        @Override
+        protected Transformer createObject() {
+            TemplatesCache cache = TemplatesCache.getInstance();
+            SAXTransformerFactory factory = cache.borrowFactory();
+
+            try {
+                return factory.newTransformer();
+            } catch (TransformerConfigurationException tce) {
+                throw new IllegalStateException(tce);
+            } finally {
+                cache.release(factory);
+            }
+        }
+    };
+
+    // [ifndef android] member
+    /** The XPath evaluator pool. */
+    private static final XmlPool<XPath> xpaths = new XmlPool<XPath>() {
+        @Override
+        protected void clear(XPath xpath) {
+            xpath.reset();
+        }
+
+        @Override
+        protected XPath createObject() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+
+    /**
+     * Checks in a document builder previously checked out. Builders that
+     * weren't created by a pool are ignored.
+     * 
+     * @param builder
+     *            The document builder to check in.
+     */
+    public static void checkin(DocumentBuilder builder) {
+        if (builder instanceof PooledDocumentBuilder) {
+            PooledDocumentBuilder pooled = (PooledDocumentBuilder) builder;
+            pooled.pool.checkin(pooled);
+        }
+    }
+
+    /**
+     * Checks in a SAX parser previously checked out.
+     * 
+     * @param features
+     *            The features used when checking out the parser.
+     * @param parser
+     *            The SAX parser to check in.
+     */
+    public static void checkin(int features, SAXParser parser) {
+        XmlPool<SAXParser> pool = saxParsers.get(features);
+
+        if (pool != null) {
+            pool.checkin(parser);
+        }
+    }
+
+    // [ifndef android] method
+    /**
+     * Checks in an identity transformer previously checked out.
+     * 
+     * @param transformer
+     *            The identity transformer to check in.
+     */
+    public static void checkin(Transformer transformer) {
+        transformers.checkin(transformer);
+    }
+
+    // [ifndef android] method
+    /**
+     * Checks in an XPath evaluator previously checked out.
+     * 
+     * @param xpath
+     *            The XPath evaluator to check in.
+     */
+    public static void checkin(XPath xpath) {
+        xpaths.checkin(xpath);
+    }
+
+    /**
+     * Checks out a document builder configured with the given features. It
+     * should be returned with {@link #checkin(DocumentBuilder)}.
+     * 
+     * @param features
+     *            The combination of document builder features.
+     * @return A configured document builder.
+     * @throws ParserConfigurationException
+     */
+    public static DocumentBuilder checkoutDocumentBuilder(int features)
+            throws ParserConfigurationException {
+        XmlPool<DocumentBuilder> pool = documentBuilders.get(features);
+
+        if (pool == null) {
+            final DocumentBuilderFactory dbf = createDocumentBuilderFactory(
+                    features);
+
+            // Fails early in case of unsupported configuration
+            dbf.newDocumentBuilder();
+
+            pool = new XmlPool<DocumentBuilder>() {
+                @Override
+                protected void clear(DocumentBuilder builder) {
+                    builder.reset();
+                }
+
+                @Override
+                protected DocumentBuilder createObject() {
+                    try {
+                        synchronized (dbf) {
+                            return new PooledDocumentBuilder(this,
+                                    dbf.newDocumentBuilder());
+                        }
+                    } catch (ParserConfigurationException pce) {
+                        throw new IllegalStateException(pce);
+                    }
+                }
+            };
+
+            XmlPool<DocumentBuilder> existing = documentBuilders.putIfAbsent(
+                    features, pool);
+
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+
+        return pool.checkout();
+    }
+
+    /**
+     * Checks out a SAX parser configured with the given features. It should be
+     * returned with {@link #checkin(int, SAXParser)}.
+     * 
+     * @param features
+     *            The combination of SAX parser features.
+     * @return A configured SAX parser.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     */
+    public static SAXParser checkoutSaxParser(int features)
+            throws ParserConfigurationException, SAXException {
+        XmlPool<SAXParser> pool = saxParsers.get(features);
+
+        if (pool == null) {
+            final SAXParserFactory spf = createSaxParserFactory(features);
+
+            // Fails early in case of unsupported configuration
+            spf.newSAXParser();
+
+            pool = new XmlPool<SAXParser>() {
+                @Override
+                protected void clear(SAXParser parser) {
+                    parser.reset();
+                }
+
+                @Override
+                protected SAXParser createObject() {
+                    try {
+                        synchronized (spf) {
+                            return spf.newSAXParser();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+
+            XmlPool<SAXParser> existing = saxParsers.putIfAbsent(features,
+                    pool);
+
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+
+        return pool.checkout();
+    }
+
+    // [ifndef android] method
+    /**
+     * Checks out an identity transformer. It should be returned with
+     * {@link #checkin(Transformer)}.
+     * 
+     * @return An identity transformer.
+     * @throws TransformerConfigurationException
+     */
+    public static Transformer checkoutTransformer()
+            throws TransformerConfigurationException {
+        try {
+            return transformers.checkout();
+        } catch (IllegalStateException ise) {
+            if (ise.getCause() instanceof TransformerConfigurationException) {
+                throw (TransformerConfigurationException) ise.getCause();
+            }
+
+            throw ise;
+        }
+    }
+
+    // [ifndef android] method
+    /**
+     * Checks out an XPath evaluator. It should be returned with
+     * {@link #checkin(XPath)}.
+     * 
+     * @return An XPath evaluator.
+     */
+    public static XPath checkoutXPath() {
+        return xpaths.checkout();
+    }
+
+    /**
+     * Clears all the pools.
+     */
+    public static void clear() {
+        documentBuilders.clear();
+        saxParsers.clear();
+        // [ifndef android]
+        transformers.clear();
+        xpaths.clear();
+        // [enddef]
+    }
+
+    /**
+     * Creates a new document builder factory configured with the given
+     * features.
+     * 
+     * @param features
+     *            The combination of document builder features.
+     * @return A new document builder factory.
+     */
+    public static DocumentBuilderFactory createDocumentBuilderFactory(
+            int features) {
+        DocumentBuilderFactory result = DocumentBuilderFactory.newInstance();
+        result.setNamespaceAware(isEnabled(features, NAMESPACE_AWARE));
+        result.setValidating(isEnabled(features, VALIDATING_DTD));
+        result.setCoalescing(isEnabled(features, COALESCING));
+        result.setExpandEntityReferences(isEnabled(features,
+                EXPANDING_ENTITY_REFS));
+        result.setIgnoringComments(isEnabled(features, IGNORING_COMMENTS));
+        result.setIgnoringElementContentWhitespace(isEnabled(features,
+                IGNORING_EXTRA_WHITESPACES));
+
+        try {
+            result.setXIncludeAware(isEnabled(features, XINCLUDE_AWARE));
+        } catch (UnsupportedOperationException uoe) {
+            Context.getCurrentLogger().log(Level.FINE,
+                    "The JAXP parser doesn't support XInclude.", uoe);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new SAX parser factory configured with the given features.
+     * 
+     * @param features
+     *            The combination of SAX parser features.
+     * @return A new SAX parser factory.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     */
+    public static SAXParserFactory createSaxParserFactory(int features)
+            throws ParserConfigurationException, SAXException {
+        SAXParserFactory result = SAXParserFactory.newInstance();
+        result.setNamespaceAware(isEnabled(features, NAMESPACE_AWARE));
+
+        // Keep before the external entity preferences
+        result.setValidating(isEnabled(features, VALIDATING_DTD));
+
+        result.setXIncludeAware(isEnabled(features, XINCLUDE_AWARE));
+        result.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
+                isEnabled(features, SECURE_PROCESSING));
+        result.setFeature(
+                "http://xml.org/sax/features/external-general-entities",
+                isEnabled(features, EXPANDING_ENTITY_REFS));
+        result.setFeature(
+                "http://xml.org/sax/features/external-parameter-entities",
+                isEnabled(features, EXPANDING_ENTITY_REFS));
+        return result;
+    }
+
+    /**
+     * Indicates if a feature is part of a combination.
+     * 
+     * @param features
+     *            The combination of features.
+     * @param feature
+     *            The feature to test.
+     * @return True if the feature is enabled.
+     */
+    private static boolean isEnabled(int features, int feature) {
+        return (features & feature) != 0;
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility
+     * class i.e. it isn't instantiable and extensible.
+     */
+    private XmlPools() {
+    }
+}
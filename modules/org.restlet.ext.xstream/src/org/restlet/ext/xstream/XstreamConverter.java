@@ -36,6 +36,8 @@ package org.restlet.ext.xstream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
@@ -71,7 +73,13 @@ import com.thoughtworks.xstream.security.PrimitiveTypePermission;
  * You can configure the Xstream object used by this converter by overriding the
  * {@link #createXstream(MediaType, Class)} method and apply your own security
  * permissions, and provide this new converter to the Restlet Engine (see
- * org.restlet.engine.Engine#getRegisteredConverters method).
+ * org.restlet.engine.Engine#getRegisteredConverters method).<br>
+ * <br>
+ * As creating XStream objects is costly, the converter keeps one configured
+ * XStream object per media type family (JSON or XML) and per converted class.
+ * The annotations of the class are processed once, when the XStream object is
+ * created. Those shared XStream objects shouldn't be modified after their
+ * creation, as they are used concurrently.
  * 
  * @author Jerome Louvel
  */
@@ -92,15 +100,32 @@ public class XstreamConverter extends ConverterHelper {
     /** The XStream JSON driver class. */
     private Class<? extends HierarchicalStreamDriver> jsonDriverClass;
 
+    /** The shared XStream objects for JSON, per converted class. */
+    private final ConcurrentMap<Class<?>, XStream> jsonXstreams;
+
     /** The XStream XML driver class. */
     private Class<? extends HierarchicalStreamDriver> xmlDriverClass;
 
+    /** The shared XStream objects for XML, per converted class. */
+    private final ConcurrentMap<Class<?>, XStream> xmlXstreams;
+
     /**
      * Constructor.
      */
     public XstreamConverter() {
         this.jsonDriverClass = JettisonMappedXmlDriver.class;
+        this.jsonXstreams = new ConcurrentHashMap<Class<?>, XStream>();
         this.xmlDriverClass = DomDriver.class;
+        this.xmlXstreams = new ConcurrentHashMap<Class<?>, XStream>();
+    }
+
+    /**
+     * Clears the shared XStream objects. Useful after changing the driver
+     * classes.
+     */
+    public void clear() {
+        this.jsonXstreams.clear();
+        this.xmlXstreams.clear();
     }
 
     /**
@@ -114,7 +139,20 @@ public class XstreamConverter extends ConverterHelper {
      * @return The marshaling {@link XstreamRepresentation}.
      */
     protected <T> XstreamRepresentation<T> create(MediaType mediaType, T source) {
-        return new XstreamRepresentation<T>(mediaType, source);
+        XstreamRepresentation<T> representation = new XstreamRepresentation<T>(
+                mediaType, source);
+
+        if (source != null) {
+            try {
+                representation.setXstream(getXstream(mediaType,
+                        source.getClass()));
+                representation.setProcessingAnnotations(false);
+            } catch (IOException ioe) {
+                // Let the representation create its own XStream object
+            }
+        }
+
+        return representation;
     }
 
     /**
@@ -132,7 +170,8 @@ public class XstreamConverter extends ConverterHelper {
             Class<T> target) throws IOException {
         XstreamRepresentation<T> representation = new XstreamRepresentation<T>(
                 source, target);
-        representation.setXstream(createXstream(source.getMediaType(), target));
+        representation.setXstream(getXstream(source.getMediaType(), target));
+        representation.setProcessingAnnotations(false);
         return representation;
     }
 
@@ -229,6 +268,40 @@ public class XstreamConverter extends ConverterHelper {
         return xmlDriverClass;
     }
 
+    /**
+     * Returns the shared XStream object for a media type and a converted
+     * class. It is created on first use with the
+     * {@link #createXstream(MediaType, Class)} method, then the annotations of
+     * the class are processed.
+     * 
+     * @param <T>
+     * @param mediaType
+     *            The serialization media type.
+     * @param target
+     *            The converted class.
+     * @return The shared XStream object.
+     * @throws IOException
+     */
+    protected <T> XStream getXstream(MediaType mediaType, Class<T> target)
+            throws IOException {
+        ConcurrentMap<Class<?>, XStream> xstreams = MediaType.APPLICATION_JSON
+                .isCompatible(mediaType) ? this.jsonXstreams
+                : this.xmlXstreams;
+        XStream result = xstreams.get(target);
+
+        if (result == null) {
+            result = createXstream(mediaType, target);
+            result.processAnnotations(target);
+            XStream existing = xstreams.putIfAbsent(target, result);
+
+            if (existing != null) {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public float score(Object source, Variant target, Resource resource) {
         float result = -1.0F;
@@ -285,6 +358,7 @@ public class XstreamConverter extends ConverterHelper {
     public void setJsonDriverClass(
             Class<? extends HierarchicalStreamDriver> jsonDriverClass) {
         this.jsonDriverClass = jsonDriverClass;
+        this.jsonXstreams.clear();
     }
 
     /**
@@ -296,6 +370,7 @@ public class XstreamConverter extends ConverterHelper {
     public void setXmlDriverClass(
             Class<? extends HierarchicalStreamDriver> xmlDriverClass) {
         this.xmlDriverClass = xmlDriverClass;
+        this.xmlXstreams.clear();
     }
 
     @SuppressWarnings("unchecked")
@@ -309,7 +384,7 @@ public class XstreamConverter extends ConverterHelper {
 
         if (source instanceof XstreamRepresentation) {
             xstreamSource = (XstreamRepresentation<?>) source;
-            if (target != null) {
+            if ((target != null) && xstreamSource.isProcessingAnnotations()) {
                 xstreamSource.getXstream().processAnnotations(target);
             }
         } else if (VARIANT_JSON.isCompatible(source)) {
@@ -86,6 +86,12 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
     /** The (parsed) object to format. */
     private T object;
 
+    /**
+     * Indicates if the annotations of the object class are processed before
+     * each conversion.
+     */
+    private volatile boolean processingAnnotations;
+
     /** The target class of the object to serialize. */
     private Class<T> targetClass;
 
@@ -111,6 +117,7 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
         this.object = object;
         this.representation = null;
         this.jsonDriverClass = JettisonMappedXmlDriver.class;
+        this.processingAnnotations = true;
         this.xmlDriverClass = DomDriver.class;
         this.xstream = null;
     }
@@ -130,6 +137,7 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
         this.targetClass = targetClass;
         this.representation = representation;
         this.jsonDriverClass = JettisonMappedXmlDriver.class;
+        this.processingAnnotations = true;
         this.xmlDriverClass = DomDriver.class;
         this.xstream = null;
     }
@@ -197,10 +205,13 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
         T result = null;
 
         if (this.object != null) {
-            getXstream().processAnnotations(this.object.getClass());
+            if (isProcessingAnnotations()) {
+                getXstream().processAnnotations(this.object.getClass());
+            }
+
             result = this.object;
         } else if (this.representation != null) {
-            if (this.targetClass != null) {
+            if ((this.targetClass != null) && isProcessingAnnotations()) {
                 getXstream().processAnnotations(this.targetClass);
             }
 
@@ -258,6 +269,17 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
         return this.xstream;
     }
 
+    /**
+     * Indicates if the annotations of the object class are processed before
+     * each conversion. True by default. Set to false when the XStream object
+     * is shared and has already processed them, as this isn't thread-safe.
+     * 
+     * @return True if the annotations are processed before each conversion.
+     */
+    public boolean isProcessingAnnotations() {
+        return processingAnnotations;
+    }
+
     /**
      * Sets the XStream JSON driver class.
      * 
@@ -269,6 +291,18 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
         this.jsonDriverClass = jsonDriverClass;
     }
 
+    /**
+     * Indicates if the annotations of the object class are processed before
+     * each conversion.
+     * 
+     * @param processingAnnotations
+     *            True if the annotations are processed before each
+     *            conversion.
+     */
+    public void setProcessingAnnotations(boolean processingAnnotations) {
+        this.processingAnnotations = processingAnnotations;
+    }
+
     /**
      * Sets the XStream XML driver class.
      * 
@@ -81,7 +81,9 @@ import org.restlet.test.routing.FilterTestCase;
 import org.restlet.test.routing.RedirectTestCase;
 import org.restlet.test.routing.RouteListTestCase;
 import org.restlet.test.routing.ValidatorTestCase;
+import org.restlet.test.security.CachingVerifierTestCase;
 import org.restlet.test.security.HttpBasicTestCase;
+import org.restlet.test.security.MemoryRealmTestCase;
 import org.restlet.test.security.RoleTestCase;
 import org.restlet.test.security.SecurityTestCase;
 import org.restlet.test.service.ServiceTestSuite;
@@ -131,6 +133,8 @@ public class RestletTestSuite extends TestSuite {
         addTestSuite(RouteListTestCase.class);
         addTestSuite(DigestVerifierTestCase.class);
         addTestSuite(RecipientInfoTestCase.class);
+        addTestSuite(CachingVerifierTestCase.class);
+        addTestSuite(MemoryRealmTestCase.class);
         addTestSuite(RoleTestCase.class);
         addTestSuite(StatusTestCase.class);
         addTestSuite(TemplateTestCase.class);
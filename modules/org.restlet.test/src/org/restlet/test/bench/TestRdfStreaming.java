@@ -0,0 +1,138 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.bench;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.restlet.data.MediaType;
+import org.restlet.ext.rdf.RdfRepresentation;
+import org.restlet.representation.StringRepresentation;
+
+/**
+ * Measures the throughput of the streaming RDF conversion, from each of the
+ * four supported syntaxes to each other, compared to the conversion via a
+ * materialized graph.
+ * 
+ * @author Jerome Louvel
+ */
+public class TestRdfStreaming {
+
+    /** Character writer discarding its output. */
+    private static class NullWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            this.count += len;
+        }
+    }
+
+    private static final MediaType[] SYNTAXES = new MediaType[] {
+            MediaType.TEXT_RDF_NTRIPLES, MediaType.TEXT_TURTLE,
+            MediaType.TEXT_RDF_N3, MediaType.TEXT_XML };
+
+    private static String convert(String source, MediaType from, MediaType to)
+            throws IOException {
+        StringWriter result = new StringWriter();
+        new RdfRepresentation(new StringRepresentation(source, from), to)
+                .write(result);
+        return result.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int triples = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < triples; i++) {
+            sb.append("<http://example.com/s").append(i / 10);
+            sb.append("> <http://example.com/terms#p").append(i % 10);
+
+            if (i % 2 == 0) {
+                sb.append("> <http://example.com/o").append(i).append("> .\n");
+            } else {
+                sb.append("> \"value ").append(i).append("\" .\n");
+            }
+        }
+
+        String[] documents = new String[SYNTAXES.length];
+
+        for (int i = 0; i < SYNTAXES.length; i++) {
+            documents[i] = convert(sb.toString(), MediaType.TEXT_RDF_NTRIPLES,
+                    SYNTAXES[i]);
+        }
+
+        for (int i = 0; i < SYNTAXES.length; i++) {
+            for (MediaType to : SYNTAXES) {
+                // Warm up then measure
+                for (int round = 0; round < 2; round++) {
+                    NullWriter streamed = new NullWriter();
+                    long start = System.nanoTime();
+                    new RdfRepresentation(new StringRepresentation(
+                            documents[i], SYNTAXES[i]), to).write(streamed);
+                    long streamedTime = System.nanoTime() - start;
+
+                    NullWriter buffered = new NullWriter();
+                    start = System.nanoTime();
+                    new RdfRepresentation(new RdfRepresentation(
+                            new StringRepresentation(documents[i],
+                                    SYNTAXES[i])).getGraph(), to)
+                            .write(buffered);
+                    long bufferedTime = System.nanoTime() - start;
+
+                    if (round == 1) {
+                        System.out.println(SYNTAXES[i] + " -> " + to
+                                + ": streamed "
+                                + (triples * 1000000000L / streamedTime)
+                                + " triples/s (" + streamed.count
+                                + " chars), via graph "
+                                + (triples * 1000000000L / bufferedTime)
+                                + " triples/s (" + buffered.count + " chars)");
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -139,6 +139,19 @@ public class ReferenceTestCase extends RestletTestCase {
         reference.setSegments(segments); // must not produce NPE
     }
 
+    /**
+     * Tests that a clone keeps its parsed state.
+     */
+    public void testClone() {
+        Reference ref = new Reference("http://localhost/app/path?q=1");
+        ref.setBaseRef("http://localhost/app");
+        Reference clone = ref.clone();
+        assertEquals(ref, clone);
+        assertEquals("/path?q=1", clone.getRemainingPart());
+        assertEquals("/path", clone.getRemainingPart(false, false));
+        assertEquals("/app/path", clone.getPath());
+    }
+
     /**
      * Equality tests.
      */
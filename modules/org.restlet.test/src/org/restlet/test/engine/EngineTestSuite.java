@@ -42,6 +42,10 @@ import org.restlet.test.engine.io.BioUtilsTestCase;
 import org.restlet.test.engine.io.BufferTestCase;
 import org.restlet.test.engine.io.ReaderInputStreamTestCase;
 import org.restlet.test.engine.util.Base64TestCase;
+import org.restlet.test.engine.util.FormViewTestCase;
+import org.restlet.test.engine.util.IndexedSeriesTestCase;
+import org.restlet.test.engine.util.LruCacheTestCase;
+import org.restlet.test.engine.util.UriViewTestCase;
 
 /**
  * Suite of unit tests for the Restlet Framework.
@@ -70,13 +74,17 @@ public class EngineTestSuite extends TestSuite {
         addTestSuite(CookiesTestCase.class);
         addTestSuite(ContentTypeTestCase.class);
         addTestSuite(HeaderTestCase.class);
+        addTestSuite(FormViewTestCase.class);
         addTestSuite(HttpCallTestCase.class);
         addTestSuite(AsynchroneTestCase.class);
         addTestSuite(HttpInboundRequestTestCase.class);
         addTestSuite(ImmutableDateTestCase.class);
+        addTestSuite(IndexedSeriesTestCase.class);
+        addTestSuite(LruCacheTestCase.class);
         addTestSuite(UnclosableInputStreamTestCase.class);
         addTestSuite(UnclosableOutputStreamTestCase.class);
         addTestSuite(PreferencesTestCase.class);
+        addTestSuite(UriViewTestCase.class);
         addTestSuite(ReaderInputStreamTestCase.class);
 
         // Tests based on HTTP client connectors are not supported by the GAE
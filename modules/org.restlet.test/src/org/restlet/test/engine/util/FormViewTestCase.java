@@ -0,0 +1,93 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import org.restlet.data.Form;
+import org.restlet.data.Reference;
+import org.restlet.engine.util.FormView;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link FormView} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class FormViewTestCase extends RestletTestCase {
+
+    public void testParsing() {
+        FormView view = new FormView("a=1&b&&c=&d=x%20y+z&a=2");
+        assertEquals(5, view.size());
+        assertEquals("a", view.getName(0));
+        assertEquals("1", view.getValue(0));
+        assertNull(view.getValue(1));
+        assertEquals("", view.getValue(2));
+        assertEquals("x y z", view.getValue(3));
+        assertSame(view.getValue(3), view.getValue(3));
+        assertEquals("1", view.getFirstValue("a"));
+        assertNull(view.getFirstValue("e"));
+        assertTrue(view.contains("a", "2"));
+        assertTrue(view.contains("b", null));
+        assertFalse(view.contains("c", null));
+
+        Form form = new Form();
+        view.addTo(form);
+        assertEquals(new Form("a=1&b&&c=&d=x%20y+z&a=2"), form);
+    }
+
+    public void testIndex() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 20; i++) {
+            sb.append("p").append(i % 10).append('=').append(i).append('&');
+        }
+
+        FormView view = new FormView(sb.toString());
+        assertEquals(20, view.size());
+        assertEquals("3", view.getFirstValue("p3"));
+        assertEquals(3, view.indexOf("p3"));
+        assertEquals(-1, view.indexOf("p10"));
+        assertTrue(view.contains("p3", "13"));
+    }
+
+    public void testQueryView() {
+        Reference ref = new Reference("http://localhost/?q=a%2Bb&n=1#f");
+        assertSame(ref.getView().getQueryView(), ref.getView()
+                .getQueryView());
+        assertEquals("a+b", ref.getView().getQueryView().getFirstValue("q"));
+        assertEquals("1", ref.getQueryAsForm().getFirstValue("n"));
+        assertEquals(0, new Reference("http://localhost/").getView()
+                .getQueryView().size());
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.restlet.data.Parameter;
+import org.restlet.engine.header.Header;
+import org.restlet.engine.util.IndexedSeries;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Unit tests for the {@link IndexedSeries} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class IndexedSeriesTestCase extends RestletTestCase {
+
+    public void testLookups() {
+        Series<Header> headers = new IndexedSeries<Header>(Header.class);
+
+        for (int i = 0; i < 20; i++) {
+            headers.add("X-Header-" + i, "v" + i);
+        }
+
+        headers.add("Accept", "text/html");
+        headers.add("ACCEPT", "text/plain");
+        assertEquals("v3", headers.getFirstValue("X-Header-3"));
+        assertEquals("v3", headers.getFirstValue("x-header-3", true));
+        assertNull(headers.getFirstValue("x-header-3"));
+        assertEquals("text/html,text/plain", headers.getValues("accept"));
+        assertEquals(1, headers.subList("Accept").size());
+        assertEquals(2, headers.getValuesArray("accept", true).length);
+
+        // Modifications are taken into account
+        headers.removeAll("Accept", true);
+        assertNull(headers.getFirst("ACCEPT", true));
+        headers.set(0, new Header("Accept", "*/*"));
+        assertEquals("*/*", headers.getFirstValue("accept", true));
+        assertNull(headers.getFirst("X-Header-0"));
+
+        for (Iterator<Header> iter = headers.iterator(); iter.hasNext();) {
+            if (iter.next().getName().equals("X-Header-5")) {
+                iter.remove();
+            }
+        }
+
+        assertNull(headers.getFirst("X-Header-5"));
+        assertEquals("v6", headers.getFirstValue("X-Header-6"));
+    }
+
+    public void testAppends() {
+        Series<Header> headers = new IndexedSeries<Header>(Header.class);
+
+        for (int i = 0; i < 20; i++) {
+            headers.add("X-Header-" + i, "v" + i);
+        }
+
+        assertEquals("v3", headers.getFirstValue("X-Header-3"));
+
+        // Appended entries are added to the index
+        headers.add("x-header-3", "w3");
+        headers.add("X-Header-20", "v20");
+        assertEquals("v3,w3", headers.getValues("X-Header-3", ",", true));
+        assertEquals("v20", headers.getFirstValue("X-Header-20"));
+
+        // Inserted entries shift the positions
+        headers.add(0, new Header("X-Header-20", "u20"));
+        assertEquals("u20,v20", headers.getValues("X-Header-20"));
+        assertEquals("v3", headers.getFirstValue("X-Header-3"));
+        headers.add("X-Header-21", "v21");
+        assertEquals("v21", headers.getFirstValue("X-Header-21"));
+        assertEquals("v19", headers.get(20).getValue());
+
+        headers.clear();
+        headers.add("X-Header-3", "x3");
+        assertEquals("x3", headers.getValues("X-Header-3", ",", true));
+    }
+
+    public void testConsistency() {
+        Random random = new Random(1);
+        Series<Parameter> indexed = new IndexedSeries<Parameter>(
+                Parameter.class);
+        Series<Parameter> plain = new Series<Parameter>(Parameter.class);
+        String[] names = { "a", "A", "b", "B", "c", "d", "e", "f" };
+
+        for (int i = 0; i < 2000; i++) {
+            String name = names[random.nextInt(names.length)];
+            String value = Integer.toString(i);
+            boolean ignoreCase = random.nextBoolean();
+
+            switch (random.nextInt(5)) {
+            case 0:
+                indexed.removeFirst(name, ignoreCase);
+                plain.removeFirst(name, ignoreCase);
+                break;
+            case 1:
+                indexed.set(name, value, ignoreCase);
+                plain.set(name, value, ignoreCase);
+                break;
+            default:
+                indexed.add(name, value);
+                plain.add(name, value);
+            }
+
+            assertEquals(plain, indexed);
+            assertEquals(plain.getFirstValue(name, ignoreCase),
+                    indexed.getFirstValue(name, ignoreCase));
+            assertEquals(plain.getValues(name, ",", ignoreCase),
+                    indexed.getValues(name, ",", ignoreCase));
+            assertEquals(plain.subList(name, ignoreCase),
+                    indexed.subList(name, ignoreCase));
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import org.restlet.engine.util.LruCache;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link LruCache} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class LruCacheTestCase extends RestletTestCase {
+
+    public void testEviction() {
+        LruCache<String, String> cache = new LruCache<String, String>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // Accessing "a" makes "b" the least recently used entry
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    public void testBatchEviction() {
+        LruCache<Integer, Integer> cache = new LruCache<Integer, Integer>(64);
+        cache.put(-1, -1);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            assertEquals(Integer.valueOf(-1), cache.get(-1));
+            assertTrue(cache.size() <= cache.getMaxSize());
+        }
+
+        assertEquals(Integer.valueOf(999), cache.get(999));
+        assertNull(cache.get(0));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    public void testConcurrentAccess() throws Exception {
+        final LruCache<Integer, Integer> cache = new LruCache<Integer, Integer>(
+                100);
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int offset = i * 10000;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        cache.putIfAbsent(offset + j, j);
+                        cache.get(offset + j / 2);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(cache.size() <= cache.getMaxSize());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    public void testPutIfAbsent() {
+        LruCache<String, String> cache = new LruCache<String, String>(2);
+        assertNull(cache.putIfAbsent("a", "1"));
+        assertEquals("1", cache.putIfAbsent("a", "2"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("1", cache.remove("a"));
+        assertEquals(0, cache.size());
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.Arrays;
+
+import org.restlet.data.Reference;
+import org.restlet.engine.util.UriView;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link UriView} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class UriViewTestCase extends RestletTestCase {
+
+    public void testComponents() {
+        UriView view = new UriView("http://localhost:8182/a/b%20c/?q=1#f");
+        assertEquals(4, view.getSchemeIndex());
+        assertEquals("/a/b%20c/", view.getPath());
+        assertEquals(Arrays.asList("a", "b%20c", ""), view.getSegments(false));
+        assertEquals(Arrays.asList("a", "b c", ""), view.getSegments(true));
+        assertSame(view.getSegments(true), view.getSegments(true));
+        assertFalse(view.hasDotSegments());
+        assertTrue(new UriView("/a/../b").hasDotSegments());
+
+        try {
+            view.getSegments(false).add("d");
+            fail("Segments must be immutable");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+    }
+
+    public void testRemainingPart() {
+        UriView view = new UriView("http://localhost/users/123?q=1#f");
+        UriView base = new UriView("http://localhost/users");
+
+        assertEquals(22, view.getRemainingIndex(base, true));
+        assertEquals("/123?q=1", view.getRemainingPart(base, true));
+        assertSame(view.getRemainingPart(base, true),
+                view.getRemainingPart(base, true));
+        assertEquals("/123", view.getRemainingPart(base, false));
+        assertEquals(-1,
+                view.getRemainingIndex(new UriView("http://remote/"), true));
+        assertNull(view.getRemainingPart(new UriView("http://remote/"), true));
+    }
+
+    public void testReference() {
+        Reference ref = new Reference("http://localhost/a/b");
+        Reference copy = new Reference(ref);
+        assertSame(ref.getView(), copy.getView());
+
+        copy.addSegment("c");
+        assertEquals("http://localhost/a/b/c", copy.getView().toString());
+        assertEquals("http://localhost/a/b", ref.getView().toString());
+        assertNull(new Reference().getView());
+
+        Reference target = new Reference("http://localhost/a").getTargetRef();
+        assertEquals("http://localhost/a", target.toString());
+    }
+
+}
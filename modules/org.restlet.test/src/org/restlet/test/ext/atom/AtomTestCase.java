@@ -36,14 +36,19 @@ package org.restlet.test.ext.atom;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.engine.io.IoUtils;
 import org.restlet.ext.atom.Categories;
+import org.restlet.ext.atom.Entry;
 import org.restlet.ext.atom.Feed;
+import org.restlet.ext.atom.FeedReader;
 import org.restlet.ext.atom.Service;
 import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -98,4 +103,59 @@ public class AtomTestCase extends RestletTestCase {
         IoUtils.delete(testDir, true);
     }
 
+    public void testStreaming() throws Exception {
+        final int count = 1000;
+
+        // Write a feed whose entries are pulled from an iterator
+        Feed feed = new Feed();
+        feed.setTitle("Streamed feed");
+        feed.setEntryIterator(new Iterator<Entry>() {
+            private int index = 0;
+
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry entry = new Entry();
+                entry.setId("urn:entry:" + index);
+                entry.setTitle("Entry " + index++);
+                return entry;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+        String text = feed.getText();
+        assertTrue(feed.getEntries().isEmpty());
+
+        // Read it back, handing each entry to the callback only
+        final int[] received = new int[1];
+        FeedReader reader = new FeedReader() {
+            @Override
+            public void endEntry(Entry entry) {
+                assertEquals("urn:entry:" + received[0], entry.getId());
+                assertEquals("Entry " + received[0], entry.getTitle()
+                        .getContent());
+                received[0]++;
+            }
+        };
+        reader.setDiscardingEntries(true);
+        Feed parsed = new Feed(new StringRepresentation(text,
+                MediaType.APPLICATION_ATOM), reader);
+        assertEquals(count, received[0]);
+        assertEquals("Streamed feed", parsed.getTitle().getContent());
+        assertTrue(parsed.getEntries().isEmpty());
+
+        // The default mode still retains the entries
+        parsed = new Feed(new StringRepresentation(text,
+                MediaType.APPLICATION_ATOM));
+        assertEquals(count, parsed.getEntries().size());
+    }
+
 }
@@ -48,6 +48,7 @@ public class CryptoTestSuite extends TestCase {
         TestSuite result = new TestSuite();
         result.setName("Crypto extension");
         result.addTestSuite(CookieAuthenticatorTestCase.class);
+        result.addTestSuite(DigestUtilsTestCase.class);
         result.addTestSuite(HttpAwsS3HostNameTestCase.class);
         result.addTestSuite(HttpAwsS3SigningTestCase.class);
         result.addTestSuite(HttpAwsS3VerifierTestCase.class);
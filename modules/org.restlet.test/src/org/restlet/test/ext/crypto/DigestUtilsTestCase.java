@@ -0,0 +1,94 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.crypto;
+
+import org.restlet.engine.util.Base64;
+import org.restlet.ext.crypto.DigestUtils;
+import org.restlet.ext.crypto.internal.CryptoUtils;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit test for the {@link DigestUtils} class, checking that the pooled
+ * cryptographic primitives give the same results when reused.
+ * 
+ * @author Jerome Louvel
+ */
+public class DigestUtilsTestCase extends RestletTestCase {
+
+    public void testCipher() throws Exception {
+        byte[] key = "MyExtraSecretKey".getBytes();
+
+        for (int i = 0; i < 3; i++) {
+            byte[] encrypted = CryptoUtils.encrypt("AES", key, "scott" + i);
+            assertEquals("scott" + i, CryptoUtils.decrypt("AES", key,
+                    encrypted));
+        }
+
+        // The pools are keyed by secret key
+        byte[] otherKey = "MyOtherSecretKey".getBytes();
+        byte[] encrypted = CryptoUtils.encrypt("AES", otherKey, "tiger");
+        assertEquals("tiger", CryptoUtils.decrypt("AES", otherKey, encrypted));
+    }
+
+    public void testHMac() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("u7hohx+wjvZ9uJMBDkLSEgpHbZk=", Base64.encode(
+                    DigestUtils.toHMacSha1("Hello", "key"), false));
+            assertEquals("xwufTWZb1il0r8g1gt6BDnKkGljbgsU4qdc0ySZtMh4=",
+                    Base64.encode(DigestUtils.toHMacSha256("Hello", "key"),
+                            false));
+        }
+
+        // The pools are keyed by secret key
+        assertFalse(Base64.encode(DigestUtils.toHMacSha1("Hello", "key2"),
+                false).equals("u7hohx+wjvZ9uJMBDkLSEgpHbZk="));
+    }
+
+    public void testHMacManyKeys() {
+        // More keys than pools kept, the least recently used ones are evicted
+        for (int i = 0; i < 300; i++) {
+            DigestUtils.toHMacSha1("Hello", "key" + i);
+            assertEquals("u7hohx+wjvZ9uJMBDkLSEgpHbZk=", Base64.encode(
+                    DigestUtils.toHMacSha1("Hello", "key"), false));
+        }
+    }
+
+    public void testMd5() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("68e109f0f40ca72a15e05cc22786f8e6",
+                    DigestUtils.toMd5("HelloWorld"));
+        }
+    }
+
+}
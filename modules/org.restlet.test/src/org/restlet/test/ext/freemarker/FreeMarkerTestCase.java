@@ -35,15 +35,20 @@ package org.restlet.test.ext.freemarker;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
 
 import org.restlet.data.MediaType;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.ext.freemarker.TemplateFilter;
 import org.restlet.ext.freemarker.TemplateRepresentation;
+import org.restlet.ext.freemarker.TemplateService;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.test.RestletTestCase;
 
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 
 /**
  * Unit test for the FreeMarker extension.
@@ -52,6 +57,18 @@ import freemarker.template.Configuration;
  */
 public class FreeMarkerTestCase extends RestletTestCase {
 
+    public void testFilterConfiguration() throws Exception {
+        // Filters without a template service share a default configuration
+        TemplateFilter filter = new TemplateFilter();
+        assertNotNull(filter.getConfiguration());
+        assertSame(filter.getConfiguration(),
+                new TemplateFilter().getConfiguration());
+
+        Configuration configuration = new Configuration();
+        filter.setConfiguration(configuration);
+        assertSame(configuration, filter.getConfiguration());
+    }
+
     public void testTemplate() throws Exception {
         // Create a temporary directory for the tests
         final File testDir = new File(System.getProperty("java.io.tmpdir"),
@@ -78,4 +95,33 @@ public class FreeMarkerTestCase extends RestletTestCase {
         IoUtils.delete(testDir, true);
     }
 
+    public void testTemplateService() throws Exception {
+        TemplateService templateService = new TemplateService();
+        Date modificationDate = new Date(1000L);
+
+        StringRepresentation source = new StringRepresentation("Value=${value}");
+        source.setLocationRef("clap://class/test.ftl");
+        source.setModificationDate(modificationDate);
+        Template template = templateService.getTemplate(source);
+        assertNotNull(template);
+
+        // Same source, the compiled template is reused
+        source = new StringRepresentation("Value=${value}");
+        source.setLocationRef("clap://class/test.ftl");
+        source.setModificationDate(modificationDate);
+        assertSame(template, templateService.getTemplate(source));
+
+        // Modified source, the template is compiled again
+        source = new StringRepresentation("Other=${value}");
+        source.setLocationRef("clap://class/test.ftl");
+        source.setModificationDate(new Date(2000L));
+        Template modifiedTemplate = templateService.getTemplate(source);
+        assertNotSame(template, modifiedTemplate);
+
+        Map<String, Object> map = new TreeMap<String, Object>();
+        map.put("value", "myValue");
+        assertEquals("Other=myValue", new TemplateRepresentation(
+                modifiedTemplate, map, MediaType.TEXT_PLAIN).getText());
+    }
+
 }
@@ -35,7 +35,9 @@ package org.restlet.test.ext.gson;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -128,6 +130,22 @@ public class GsonTestCase {
 		c = new GsonConverter();
 	}
 
+	@Test
+	public final void testConverterSharesGson() throws IOException {
+		GsonRepresentation<?> rep = (GsonRepresentation<?>) c.toRepresentation(
+				user, new Variant(MediaType.APPLICATION_JSON), null);
+		GsonRepresentation<?> rep1 = (GsonRepresentation<?>) c
+				.toRepresentation(user, new Variant(MediaType.APPLICATION_JSON),
+						null);
+		assertSame(rep.getGson(), rep1.getGson());
+
+		User u = c.toObject(rep, User.class, null);
+		assertEquals(user, u);
+
+		rep1.getBuilder().setVersion(1.0);
+		assertNotSame(rep.getGson(), rep1.getGson());
+	}
+
 	@Test
 	public final void testCreateMediaTypeT() {
 		Representation rep = new GsonRepresentation<User>(user);
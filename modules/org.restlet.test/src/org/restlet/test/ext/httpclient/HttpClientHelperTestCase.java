@@ -0,0 +1,146 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.httpclient;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.Uniform;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.ext.httpclient.HttpClientHelper;
+import org.restlet.ext.httpclient.internal.MonitoredConnectionManager;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the Apache HTTP client connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class HttpClientHelperTestCase extends RestletTestCase {
+
+    private Client client;
+
+    private HttpClientHelper clientHelper;
+
+    private Component component;
+
+    private String uri;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.component = new Component();
+        Server server = this.component.getServers().add(Protocol.HTTP, 0);
+        this.component.getDefaultHost().attach(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setEntity("hello", MediaType.TEXT_PLAIN);
+            }
+        });
+        this.component.start();
+        this.uri = "http://localhost:" + server.getEphemeralPort() + "/";
+
+        this.client = new Client(new Context(), Protocol.HTTP);
+        this.client.getContext().getParameters()
+                .add("maxTotalConnections", "2");
+        this.clientHelper = new HttpClientHelper(this.client);
+        this.clientHelper.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.clientHelper.stop();
+        this.component.stop();
+        super.tearDown();
+    }
+
+    public void testAsynchronousCalls() throws Exception {
+        final int count = 10;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final AtomicInteger succeeded = new AtomicInteger();
+        final Thread caller = Thread.currentThread();
+
+        for (int i = 0; i < count; i++) {
+            Request request = new Request(Method.GET, this.uri);
+            request.setOnResponse(new Uniform() {
+                public void handle(Request request, Response response) {
+                    try {
+                        if (Status.SUCCESS_OK.equals(response.getStatus())
+                                && "hello".equals(response.getEntityAsText())
+                                && (Thread.currentThread() != caller)) {
+                            succeeded.incrementAndGet();
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+            this.clientHelper.handle(request, new Response(request));
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(count, succeeded.get());
+
+        MonitoredConnectionManager connectionManager = this.clientHelper
+                .getConnectionManager();
+        assertEquals(count, connectionManager.getLeaseCount());
+        assertEquals(0, connectionManager.getLeaseTimeoutCount());
+        assertTrue(connectionManager.getTotalStats().getAvailable() <= 2);
+    }
+
+    public void testSynchronousCall() throws Exception {
+        Request request = new Request(Method.GET, this.uri);
+        Response response = new Response(request);
+        this.clientHelper.handle(request, response);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("hello", response.getEntityAsText());
+
+        MonitoredConnectionManager connectionManager = this.clientHelper
+                .getConnectionManager();
+        assertEquals(1, connectionManager.getLeaseCount());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+    }
+
+}
@@ -34,12 +34,17 @@
 package org.restlet.test.ext.jackson;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 
 import org.restlet.data.MediaType;
+import org.restlet.ext.jackson.JacksonConverter;
 import org.restlet.ext.jackson.JacksonRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
 import org.restlet.resource.ClientResource;
 import org.restlet.test.RestletTestCase;
 
@@ -92,6 +97,30 @@ public class JacksonTestCase extends RestletTestCase {
         verify(invoice, rep.getObject());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testConverter() throws Exception {
+        JacksonConverter converter = new JacksonConverter();
+        Customer customer = createCustomer();
+        JacksonRepresentation<Customer> rep1 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer, new Variant(
+                        MediaType.APPLICATION_JSON), null);
+        JacksonRepresentation<Customer> rep2 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer, new Variant(
+                        MediaType.APPLICATION_JSON), null);
+        assertSame(rep1.getObjectMapper(), rep2.getObjectMapper());
+        assertSame(rep1.getObjectWriter(), rep2.getObjectWriter());
+        assertEquals(rep1.getText(), rep2.getText());
+
+        JacksonRepresentation<Customer> rep3 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer, new Variant(
+                        MediaType.APPLICATION_JSON_SMILE), null);
+        assertNotSame(rep1.getObjectMapper(), rep3.getObjectMapper());
+        verify(customer, converter.toObject(rep3, Customer.class, null));
+        verify(customer, converter.toObject(new StringRepresentation(
+                rep1.getText(), MediaType.APPLICATION_JSON), Customer.class,
+                null));
+    }
+
     public void testJson() throws Exception {
         Customer customer = createCustomer();
         JacksonRepresentation<Customer> rep = new JacksonRepresentation<Customer>(
@@ -114,6 +143,27 @@ public class JacksonTestCase extends RestletTestCase {
         verify(customer, rep.getObject());
     }
 
+    public void testStreaming() throws Exception {
+        List<Invoice> invoices = Arrays.asList(createInvoice(),
+                createInvoice());
+        JacksonRepresentation<List<Invoice>> rep = new JacksonRepresentation<List<Invoice>>(
+                MediaType.APPLICATION_JSON, invoices);
+        rep.setStreaming(true);
+        String text = rep.getText();
+        assertEquals(
+                "[{\"date\":1356533333882,\"amount\":12456,\"paid\":false},{\"date\":1356533333882,\"amount\":12456,\"paid\":false}]",
+                text);
+
+        rep = new JacksonRepresentation<List<Invoice>>(
+                MediaType.APPLICATION_JSON, invoices);
+        assertEquals(text, rep.getText());
+
+        JacksonRepresentation<Iterator<Invoice>> iteratorRep = new JacksonRepresentation<Iterator<Invoice>>(
+                MediaType.APPLICATION_JSON, invoices.iterator());
+        iteratorRep.setStreaming(true);
+        assertEquals(text, iteratorRep.getText());
+    }
+
     public void testXml() throws Exception {
         Customer customer = createCustomer();
         JacksonRepresentation<Customer> rep = new JacksonRepresentation<Customer>(
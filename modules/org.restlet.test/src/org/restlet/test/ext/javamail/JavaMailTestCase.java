@@ -33,10 +33,20 @@
 
 package org.restlet.test.ext.javamail;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Message;
+import javax.mail.Session;
 
 import org.restlet.Client;
+import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.ChallengeResponse;
@@ -45,7 +55,12 @@ import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Status;
+import org.restlet.ext.javamail.JavaMailClientHelper;
+import org.restlet.ext.javamail.MessagesRepresentation;
+import org.restlet.ext.javamail.RepresentationMessage;
+import org.restlet.ext.javamail.SmtpTransportPool;
 import org.restlet.ext.xml.DomRepresentation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.test.RestletTestCase;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
@@ -58,6 +73,95 @@ import org.w3c.dom.NodeList;
  */
 public class JavaMailTestCase extends RestletTestCase {
 
+    /**
+     * Minimal local SMTP server counting the connections and the messages it
+     * receives.
+     */
+    private static class LocalSmtpServer extends Thread {
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private final AtomicInteger messages = new AtomicInteger();
+
+        private volatile int rejectedMessage = -1;
+
+        private final ServerSocket serverSocket;
+
+        public LocalSmtpServer() throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            setDaemon(true);
+        }
+
+        public void close() throws IOException {
+            this.serverSocket.close();
+        }
+
+        public int getPort() {
+            return this.serverSocket.getLocalPort();
+        }
+
+        private void handle(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), "US-ASCII"));
+            OutputStream out = socket.getOutputStream();
+            reply(out, "220 localhost SMTP");
+            boolean data = false;
+            String line;
+
+            while ((line = in.readLine()) != null) {
+                if (data) {
+                    if (line.equals(".")) {
+                        data = false;
+
+                        if (this.messages.get() == this.rejectedMessage) {
+                            reply(out, "554 Rejected");
+                        } else {
+                            this.messages.incrementAndGet();
+                            reply(out, "250 OK");
+                        }
+                    }
+                } else if (line.toUpperCase().startsWith("DATA")) {
+                    data = true;
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                } else if (line.toUpperCase().startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    break;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+
+            socket.close();
+        }
+
+        private void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes("US-ASCII"));
+            out.flush();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final Socket socket = this.serverSocket.accept();
+                    this.connections.incrementAndGet();
+                    new Thread() {
+                        @Override
+                        public void run() {
+                            try {
+                                handle(socket);
+                            } catch (IOException e) {
+                                // Connection closed by the client
+                            }
+                        }
+                    }.start();
+                }
+            } catch (IOException e) {
+                // Server closed
+            }
+        }
+    }
+
     private static final String _TRUSTSTORE = "d:/temp/certificats/myClientKeystore";
 
     private static final String DEBUG = "false";
@@ -132,6 +236,114 @@ public class JavaMailTestCase extends RestletTestCase {
         }
     }
 
+    public void testPooledSmtp() throws Exception {
+        LocalSmtpServer server = new LocalSmtpServer();
+        server.start();
+        Client client = new Client(new Context(), Protocol.SMTP);
+        client.getContext().getParameters().add("debug", DEBUG);
+        client.start();
+
+        try {
+            String uri = "smtp://localhost:" + server.getPort();
+
+            // Consecutive messages reuse the same connection
+            for (int i = 0; i < 3; i++) {
+                Request request = new Request(Method.POST, uri);
+                request.setEntity(MAIL, MediaType.APPLICATION_XML);
+                assertEquals(Status.SUCCESS_OK, client.handle(request)
+                        .getStatus());
+            }
+
+            assertEquals(1, server.connections.get());
+            assertEquals(3, server.messages.get());
+
+            // A batch is sent over the same connection
+            Session session = Session.getInstance(System.getProperties());
+            Message message = new RepresentationMessage(
+                    new StringRepresentation(MAIL, MediaType.APPLICATION_XML),
+                    session);
+            Request request = new Request(Method.POST, uri);
+            request.setEntity(new MessagesRepresentation(new Message[] {
+                    message, message }));
+            assertEquals(Status.SUCCESS_OK, client.handle(request).getStatus());
+            assertEquals(1, server.connections.get());
+            assertEquals(5, server.messages.get());
+
+            SmtpTransportPool pool = ((JavaMailClientHelper) client
+                    .getContext().getAttributes()
+                    .get("org.restlet.engine.helper")).getTransportPool();
+            assertEquals(1, pool.getCreatedCount());
+            assertEquals(3, pool.getReusedCount());
+            assertEquals(1, pool.getIdleCount());
+
+            // A batch failing part-way tells how many messages were sent
+            server.rejectedMessage = 6;
+            request = new Request(Method.POST, uri);
+            request.setEntity(new MessagesRepresentation(new Message[] {
+                    message, message, message }));
+            Response response = client.handle(request);
+            assertEquals(Status.SERVER_ERROR_INTERNAL.getCode(), response
+                    .getStatus().getCode());
+            assertTrue(response.getStatus().getDescription()
+                    .startsWith("Only the 1 first message(s) of the batch of 3"));
+            assertEquals(6, server.messages.get());
+        } finally {
+            client.stop();
+            server.close();
+        }
+    }
+
+    public void testSmtpPoolSweep() throws Exception {
+        LocalSmtpServer server = new LocalSmtpServer();
+        server.start();
+        Client client = new Client(new Context(), Protocol.SMTP);
+        client.getContext().getParameters().add("debug", DEBUG);
+        client.getContext().getParameters().add("idleTimeout", "200");
+        client.start();
+
+        try {
+            Request request = new Request(Method.POST, "smtp://localhost:"
+                    + server.getPort());
+            request.setEntity(MAIL, MediaType.APPLICATION_XML);
+            assertEquals(Status.SUCCESS_OK, client.handle(request).getStatus());
+
+            SmtpTransportPool pool = ((JavaMailClientHelper) client
+                    .getContext().getAttributes()
+                    .get("org.restlet.engine.helper")).getTransportPool();
+            assertEquals(1, pool.getIdleCount());
+            assertEquals(1, pool.getKeyCount());
+
+            // Idle connections and unused keys are swept in the background
+            Thread.sleep(1000);
+            assertEquals(0, pool.getIdleCount());
+            assertEquals(0, pool.getKeyCount());
+            assertEquals(1, pool.getClosedCount());
+        } finally {
+            client.stop();
+            server.close();
+        }
+    }
+
+    public void testSmtpPoolKey() {
+        SmtpTransportPool.Key key = new SmtpTransportPool.Key("smtp",
+                "localhost", 25, false, "a/b", "secret");
+        assertEquals(key, new SmtpTransportPool.Key("smtp", "localhost", 25,
+                false, "a/b", "secret"));
+        assertEquals(key.hashCode(), new SmtpTransportPool.Key("smtp",
+                "localhost", 25, false, "a/b", "secret").hashCode());
+
+        // Logins containing separators are not ambiguous
+        assertFalse(key.equals(new SmtpTransportPool.Key("smtp", "localhost",
+                25, false, "a", "b/secret")));
+        assertFalse(key.equals(new SmtpTransportPool.Key("smtp", "localhost",
+                25, false, "a/b", "other")));
+        assertFalse(key.equals(new SmtpTransportPool.Key("smtp", "localhost",
+                25, false, "a/b", null)));
+
+        // The password is never exposed
+        assertFalse(key.toString().contains("secret"));
+    }
+
     public void testPop() throws Exception {
         final Client client = new Client(Protocol.POP);
         client.getContext().getParameters().add("debug", DEBUG);
@@ -40,6 +40,7 @@ import javax.xml.bind.JAXBException;
 import org.restlet.data.MediaType;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.representation.Variant;
 import org.restlet.service.ConverterService;
 import org.restlet.test.RestletTestCase;
@@ -65,4 +66,27 @@ public class JaxbBasicConverterTestCase extends RestletTestCase {
         Object rep = cs.toObject(sampleRep, Sample.class, null);
         assertTrue(rep instanceof Sample);
     }
+
+    public void testStreamingRoundTrip() throws IOException, JAXBException {
+        JaxbRepresentation.preloadContexts(Sample.class.getClassLoader(),
+                Sample.class.getPackage().getName());
+        assertSame(
+                JaxbRepresentation.getContext(Sample.class.getPackage()
+                        .getName()),
+                JaxbRepresentation.getContext(Sample.class.getPackage()
+                        .getName(), Sample.class.getClassLoader()));
+
+        for (int i = 0; i < 3; i++) {
+            JaxbRepresentation<Sample> sampleRep = new JaxbRepresentation<Sample>(
+                    MediaType.APPLICATION_XML, new Sample("value" + i));
+            String text = sampleRep.getText();
+            sampleRep.setStreaming(true);
+            assertEquals(text, sampleRep.getText());
+
+            JaxbRepresentation<Sample> parsedRep = new JaxbRepresentation<Sample>(
+                    new StringRepresentation(text, MediaType.APPLICATION_XML),
+                    Sample.class);
+            assertEquals("value" + i, parsedRep.getObject().getVal());
+        }
+    }
 }
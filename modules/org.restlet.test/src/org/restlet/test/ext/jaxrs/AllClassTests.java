@@ -44,6 +44,7 @@ import org.restlet.test.ext.jaxrs.util.ConverterTests;
 import org.restlet.test.ext.jaxrs.util.EncodeOrCheckTests;
 import org.restlet.test.ext.jaxrs.util.OrderedMapTest;
 import org.restlet.test.ext.jaxrs.util.PathRegExpTests;
+import org.restlet.test.ext.jaxrs.util.PathTreeTests;
 import org.restlet.test.ext.jaxrs.util.RemainingPathTests;
 import org.restlet.test.ext.jaxrs.util.SortedOrderedBagTest;
 import org.restlet.test.ext.jaxrs.util.UtilTests;
@@ -73,6 +74,7 @@ public class AllClassTests extends TestCase {
         mySuite.addTestSuite(EncodeOrCheckTests.class);
         mySuite.addTestSuite(OrderedMapTest.class);
         mySuite.addTestSuite(PathRegExpTests.class);
+        mySuite.addTestSuite(PathTreeTests.class);
         mySuite.addTestSuite(RemainingPathTests.class);
         mySuite.addTestSuite(SortedOrderedBagTest.class);
         mySuite.addTestSuite(UtilTests.class);
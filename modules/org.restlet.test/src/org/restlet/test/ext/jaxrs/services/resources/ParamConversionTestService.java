@@ -0,0 +1,126 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jaxrs.services.resources;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.restlet.test.ext.jaxrs.services.tests.ParamConversionTest;
+
+/**
+ * Resource converting its parameters with a String constructor or a static
+ * factory method.
+ * 
+ * @author Jerome Louvel
+ * @see ParamConversionTest
+ */
+@Path("paramConversion")
+public class ParamConversionTestService {
+
+    /** Value created by its String constructor. */
+    public static class ConstructorValue {
+        private final String value;
+
+        public ConstructorValue(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "constructor:" + this.value;
+        }
+    }
+
+    /** Value created by its static valueOf() method. */
+    public static class FactoryValue {
+        public static FactoryValue valueOf(String value) {
+            return new FactoryValue(value);
+        }
+
+        private final String value;
+
+        private FactoryValue(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "valueOf:" + this.value;
+        }
+    }
+
+    /**
+     * Value created by its static fromString() method, as its valueOf()
+     * method isn't static.
+     */
+    public static class FromStringValue {
+        public static FromStringValue fromString(String value) {
+            return new FromStringValue(value);
+        }
+
+        private final String value;
+
+        private FromStringValue(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "fromString:" + this.value;
+        }
+
+        public FromStringValue valueOf(String other) {
+            return new FromStringValue(this.value + other);
+        }
+    }
+
+    @GET
+    @Produces("text/plain")
+    @Path("path/{c}/{f}/{s}")
+    public String getPath(@PathParam("c") ConstructorValue c,
+            @PathParam("f") FactoryValue f, @PathParam("s") FromStringValue s) {
+        return c + " " + f + " " + s;
+    }
+
+    @GET
+    @Produces("text/plain")
+    @Path("query")
+    public String getQuery(@QueryParam("c") ConstructorValue c,
+            @QueryParam("f") FactoryValue f, @QueryParam("s") FromStringValue s) {
+        return c + " " + f + " " + s;
+    }
+}
@@ -73,6 +73,7 @@ public class AllServiceTests extends TestCase {
         mySuite.addTestSuite(MethodAheadLocatorTest.class);
         mySuite.addTestSuite(NoProviderTest.class);
         mySuite.addTestSuite(OwnProviderTest.class);
+        mySuite.addTestSuite(ParamConversionTest.class);
         mySuite.addTestSuite(PathParamTest.class);
         mySuite.addTestSuite(PathParamTest2.class);
         mySuite.addTestSuite(PathParamTest3.class);
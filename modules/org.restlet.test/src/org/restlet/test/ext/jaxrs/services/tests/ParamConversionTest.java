@@ -0,0 +1,89 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jaxrs.services.tests;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.ws.rs.core.Application;
+
+import org.restlet.Response;
+import org.restlet.data.Status;
+import org.restlet.test.ext.jaxrs.services.resources.ParamConversionTestService;
+
+/**
+ * Checks the conversion of the path and query parameters with the String
+ * constructors and factory methods resolved once per parameter.
+ * 
+ * @author Jerome Louvel
+ * @see ParamConversionTestService
+ */
+public class ParamConversionTest extends JaxRsTestCase {
+
+    /**
+     * Requests the given path twice, in order to use the resolved conversion
+     * members again.
+     */
+    private void check(String relPath, String expected) throws IOException {
+        for (int i = 0; i < 2; i++) {
+            Response response = get(relPath);
+            sysOutEntityIfError(response);
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            assertEquals(expected, response.getEntity().getText());
+        }
+    }
+
+    @Override
+    protected Application getApplication() {
+        return new Application() {
+            @Override
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            public Set<Class<?>> getClasses() {
+                return (Set) Collections
+                        .singleton(ParamConversionTestService.class);
+            }
+        };
+    }
+
+    public void testPathParams() throws IOException {
+        check("path/a/b/c", "constructor:a valueOf:b fromString:c");
+    }
+
+    public void testQueryParams() throws IOException {
+        check("query?c=a&f=b&s=c", "constructor:a valueOf:b fromString:c");
+        check("query?c=x", "constructor:x null null");
+    }
+
+}
@@ -73,7 +73,7 @@ public class PathRegExpTests extends TestCase {
     public static final RemainingPath VALID_PATH_2_RP = new RemainingPath(
             VALID_PATH_2);
 
-    private static final PathRegExp newPathRegExp(String pathPattern) {
+    static final PathRegExp newPathRegExp(String pathPattern) {
         try {
             final Constructor<PathRegExp> constructor;
             final Class<PathRegExp> pathRegExpClass = PathRegExp.class;
@@ -194,6 +194,16 @@ public class PathRegExpTests extends TestCase {
                 .getFinalCapturingGroup());
     }
 
+    public void testLiteralPrefix() {
+        assertEquals("abc/", this.regExpMultipleSegments1.getLiteralPrefix());
+        assertEquals("abc/def/", newPathRegExp("/abc/def").getLiteralPrefix());
+        assertEquals("abc/def/", newPathRegExp("abc/def/").getLiteralPrefix());
+        assertEquals("abc", newPathRegExp("abc{id}").getLiteralPrefix());
+        assertEquals("abc", newPathRegExp("abc.html").getLiteralPrefix());
+        assertEquals("", newPathRegExp("{id}").getLiteralPrefix());
+        assertEquals("", PathRegExp.EMPTY.getLiteralPrefix());
+    }
+
     /**
      * @param rest
      */
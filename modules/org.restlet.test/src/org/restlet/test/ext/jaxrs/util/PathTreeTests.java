@@ -0,0 +1,136 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jaxrs.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.restlet.ext.jaxrs.internal.util.PathRegExp;
+import org.restlet.ext.jaxrs.internal.util.PathTree;
+import org.restlet.ext.jaxrs.internal.util.RemainingPath;
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
+
+/**
+ * @author Jerome Louvel
+ * @see PathTree
+ */
+public class PathTreeTests extends TestCase {
+
+    private static class Template implements RrcOrRml {
+
+        private final PathRegExp pathRegExp;
+
+        private Template(String path) {
+            this.pathRegExp = PathRegExpTests.newPathRegExp(path);
+        }
+
+        public PathRegExp getPathRegExp() {
+            return this.pathRegExp;
+        }
+
+        @Override
+        public String toString() {
+            return this.pathRegExp.getPathTemplateEnc();
+        }
+    }
+
+    private final List<Template> templates = new ArrayList<Template>();
+
+    private final Template abc = add("abc");
+
+    private final Template abcId = add("abc/{id}");
+
+    private final Template abcDef = add("abc/def");
+
+    private final Template abcPrefixed = add("abc{suffix}");
+
+    private final Template id = add("{id}");
+
+    private final Template empty = add("");
+
+    private final Template xyz = add("xyz/{id}/uvw");
+
+    private final PathTree<Template> tree = new PathTree<Template>(
+            this.templates);
+
+    private Template add(String path) {
+        Template template = new Template(path);
+        this.templates.add(template);
+        return template;
+    }
+
+    private void assertCandidates(String path, Template... expected) {
+        List<Template> candidates = this.tree.getCandidates(new RemainingPath(
+                path));
+        assertEquals(path, java.util.Arrays.asList(expected), candidates);
+    }
+
+    /**
+     * Checks that the candidates contain every matching template, in the order
+     * of the original collection.
+     */
+    public void testCandidates() {
+        // A slash is always added at the end of the remaining path
+        assertCandidates("abc", this.abc, this.abcId, this.abcPrefixed,
+                this.id, this.empty);
+        assertCandidates("abc/def", this.abc, this.abcId, this.abcDef,
+                this.abcPrefixed, this.id, this.empty);
+        assertCandidates("abc/12", this.abc, this.abcId, this.abcPrefixed,
+                this.id, this.empty);
+        assertCandidates("abcd", this.abcPrefixed, this.id, this.empty);
+        assertCandidates("xyz/1/uvw", this.id, this.empty, this.xyz);
+        assertCandidates("other", this.id, this.empty);
+        assertCandidates("", this.id, this.empty);
+    }
+
+    /**
+     * Checks that no matching template is excluded by the tree.
+     */
+    public void testNoMatchExcluded() {
+        String[] paths = { "", "abc", "abc/", "abc/def", "abc/def/ghi",
+                "abcd/e", "xyz/1/uvw", "xyz/1/uvw/2", "xyz", "a/b/c" };
+        for (String path : paths) {
+            RemainingPath remainingPath = new RemainingPath(path);
+            List<Template> candidates = this.tree.getCandidates(remainingPath);
+            for (Template template : this.templates) {
+                if (template.getPathRegExp().match(remainingPath) != null) {
+                    assertTrue(template + " should match " + path, candidates
+                            .contains(template));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Protocol;
+import org.restlet.ext.jdbc.JdbcClientHelper;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the JDBC client connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class JdbcClientHelperTestCase extends RestletTestCase {
+
+    /**
+     * JDBC client helper recording the calls made on its connections.
+     */
+    private static class RecordingClientHelper extends JdbcClientHelper {
+
+        private final List<String> calls = new ArrayList<String>();
+
+        public RecordingClientHelper() {
+            super(new Client(new Context(), Protocol.JDBC));
+        }
+
+        private Object createProxy(Class<?> type) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { type }, new InvocationHandler() {
+                        public Object invoke(Object proxy, Method method,
+                                Object[] args) throws Throwable {
+                            StringBuilder call = new StringBuilder(method
+                                    .getName());
+
+                            if (args != null && args.length > 0) {
+                                call.append('(').append(args[0]);
+
+                                for (int i = 1; i < args.length; i++) {
+                                    call.append(", ").append(args[i]);
+                                }
+
+                                call.append(')');
+                            }
+
+                            calls.add(call.toString());
+
+                            if ("createStatement".equals(method.getName())) {
+                                return createProxy(Statement.class);
+                            } else if ("prepareStatement".equals(method
+                                    .getName())) {
+                                return createProxy(PreparedStatement.class);
+                            } else if (method.getReturnType() == boolean.class) {
+                                return Boolean.FALSE;
+                            } else if (method.getReturnType() == int.class) {
+                                return Integer.valueOf(0);
+                            }
+
+                            return null;
+                        }
+                    });
+        }
+
+        public List<String> getCalls() {
+            return calls;
+        }
+
+        @Override
+        protected Connection getConnection(String uri, Properties properties,
+                boolean usePooling) throws SQLException {
+            return (Connection) createProxy(Connection.class);
+        }
+    }
+
+    private RecordingClientHelper helper;
+
+    private Response handle(String statements) {
+        String body = "<request><header><connection>"
+                + "<usePooling>false</usePooling></connection>"
+                + "<returnGeneratedKeys>false</returnGeneratedKeys>"
+                + "</header><body>" + statements + "</body></request>";
+        Request request = JdbcClientHelper.create("jdbc:test:db",
+                new StringRepresentation(body));
+        Response response = new Response(request);
+        this.helper.handle(request, response);
+        return response;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.helper = new RecordingClientHelper();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.helper = null;
+        super.tearDown();
+    }
+
+    public void testParameters() {
+        Response response = handle("<statement>SELECT b FROM t WHERE a = ?"
+                + "<parameter>x</parameter> AND c = ?"
+                + "<parameter>y</parameter></statement>");
+
+        assertTrue(response.getStatus().isSuccess());
+        List<String> calls = this.helper.getCalls();
+        assertTrue(calls
+                .contains("prepareStatement(SELECT b FROM t WHERE a = ? AND c = ?)"));
+        assertTrue(calls.contains("setString(1, x)"));
+        assertTrue(calls.contains("setString(2, y)"));
+        assertFalse(calls.contains("createStatement"));
+    }
+
+    public void testPlainStatements() {
+        Response response = handle("<statement>SELECT '?' FROM t</statement>"
+                + "<statement>DELETE FROM t</statement>");
+
+        assertTrue(response.getStatus().isSuccess());
+        List<String> calls = this.helper.getCalls();
+        // The plain statement is reused
+        assertEquals(calls.indexOf("createStatement"),
+                calls.lastIndexOf("createStatement"));
+        assertTrue(calls.contains("execute(SELECT '?' FROM t, "
+                + Statement.NO_GENERATED_KEYS + ")"));
+        assertTrue(calls.contains("execute(DELETE FROM t, "
+                + Statement.NO_GENERATED_KEYS + ")"));
+
+        for (String call : calls) {
+            assertFalse(call.startsWith("prepareStatement"));
+        }
+    }
+
+}
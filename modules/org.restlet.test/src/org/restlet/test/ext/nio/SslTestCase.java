@@ -0,0 +1,161 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.nio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.restlet.Context;
+import org.restlet.Server;
+import org.restlet.data.Parameter;
+import org.restlet.data.Protocol;
+import org.restlet.engine.ssl.DefaultSslContextFactory;
+import org.restlet.ext.nio.HttpsServerHelper;
+import org.restlet.ext.nio.internal.util.SslStatistics;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Unit tests for the SSL/TLS support of the NIO connectors.
+ * 
+ * @author Jerome Louvel
+ */
+public class SslTestCase extends RestletTestCase {
+
+    /**
+     * HTTPS server helper exposing its SSL task service.
+     */
+    private static class TestHttpsServerHelper extends HttpsServerHelper {
+
+        public TestHttpsServerHelper(Server server) {
+            super(server);
+        }
+
+        @Override
+        public ThreadPoolExecutor createSslTaskService() {
+            return super.createSslTaskService();
+        }
+    }
+
+    public void testSessionCacheParameters() throws Exception {
+        Series<Parameter> parameters = new Series<Parameter>(Parameter.class);
+        parameters.add("keyStorePath", "NONE");
+        parameters.add("sessionCacheSize", "10");
+        parameters.add("sessionTimeout", "60");
+
+        DefaultSslContextFactory factory = new DefaultSslContextFactory();
+        factory.init(parameters);
+        assertEquals(10, factory.getSessionCacheSize());
+        assertEquals(60, factory.getSessionTimeout());
+
+        SSLContext sslContext = factory.createSslContext();
+        assertEquals(10, sslContext.getClientSessionContext()
+                .getSessionCacheSize());
+        assertEquals(10, sslContext.getServerSessionContext()
+                .getSessionCacheSize());
+        assertEquals(60, sslContext.getClientSessionContext()
+                .getSessionTimeout());
+        assertEquals(60, sslContext.getServerSessionContext()
+                .getSessionTimeout());
+    }
+
+    public void testSslStatistics() {
+        SslStatistics statistics = new SslStatistics();
+        assertEquals(0D, statistics.getAverageHandshakeTimeMs());
+        assertEquals(0D, statistics.getResumptionRatio());
+
+        statistics.record(TimeUnit.MILLISECONDS.toNanos(30), false);
+        statistics.record(TimeUnit.MILLISECONDS.toNanos(10), true);
+        statistics.record(TimeUnit.MILLISECONDS.toNanos(20), true);
+        statistics.record(TimeUnit.MILLISECONDS.toNanos(20), true);
+
+        assertEquals(4, statistics.getHandshakeCount());
+        assertEquals(3, statistics.getResumedCount());
+        assertEquals(0.75D, statistics.getResumptionRatio());
+        assertEquals(20D, statistics.getAverageHandshakeTimeMs());
+        assertEquals(30D, statistics.getMaxHandshakeTimeMs());
+
+        statistics.reset();
+        assertEquals(0, statistics.getHandshakeCount());
+        assertEquals(0D, statistics.getMaxHandshakeTimeMs());
+    }
+
+    public void testSslTaskServiceDefersTasks() throws Exception {
+        Server server = new Server(new Context(), Protocol.HTTPS, 0);
+        server.getContext().getParameters().add("sslTaskThreads", "1");
+        server.getContext().getParameters().add("sslTaskQueued", "1");
+        ThreadPoolExecutor service = new TestHttpsServerHelper(server)
+                .createSslTaskService();
+
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(4);
+        final List<Thread> threads = Collections
+                .synchronizedList(new ArrayList<Thread>());
+        Runnable task = new Runnable() {
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                threads.add(Thread.currentThread());
+                done.countDown();
+            }
+        };
+
+        try {
+            // One running task, one queued and two deferred ones
+            for (int i = 0; i < 4; i++) {
+                service.execute(task);
+            }
+
+            // The submitting thread isn't used to run the tasks
+            assertTrue(threads.isEmpty());
+            blocker.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertFalse(threads.contains(Thread.currentThread()));
+        } finally {
+            blocker.countDown();
+            service.shutdown();
+        }
+    }
+
+}
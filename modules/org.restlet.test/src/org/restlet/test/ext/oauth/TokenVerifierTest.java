@@ -36,6 +36,7 @@ package org.restlet.test.ext.oauth;
 import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.restlet.ext.oauth.OAuthResourceDefs.ACCESS_TOKEN;
 import static org.restlet.ext.oauth.OAuthResourceDefs.SCOPE;
 import static org.restlet.ext.oauth.OAuthResourceDefs.USERNAME;
@@ -55,6 +56,7 @@ import org.restlet.data.ClientInfo;
 import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Reference;
+import org.restlet.data.Status;
 import org.restlet.ext.json.JsonRepresentation;
 import org.restlet.ext.oauth.OAuthError;
 import org.restlet.ext.oauth.OAuthException;
@@ -62,6 +64,7 @@ import org.restlet.ext.oauth.TokenVerifier;
 import org.restlet.ext.oauth.internal.Scopes;
 import org.restlet.representation.Representation;
 import org.restlet.resource.Post;
+import org.restlet.resource.ResourceException;
 import org.restlet.resource.ServerResource;
 import org.restlet.routing.Router;
 import org.restlet.security.Verifier;
@@ -225,4 +228,27 @@ public class TokenVerifierTest extends OAuthTestBase {
         assertThat(Scopes.parseScope(info.getRoles()),
                 is(arrayContainingInAnyOrder("a", "b")));
     }
+
+    /**
+     * Test case 7: Authorization server unavailable.
+     */
+    @Test
+    public void testCase7() {
+        TokenVerifier verifier = new TokenVerifier(new Reference(
+                "http://localhost:8081/oauth/token_auth"));
+
+        Request request = new Request();
+        ChallengeResponse cr = new ChallengeResponse(
+                ChallengeScheme.HTTP_OAUTH_BEARER);
+        cr.setRawValue(STUB_ACCESS_TOKEN);
+        request.setChallengeResponse(cr);
+
+        try {
+            verifier.verify(request, new Response(request));
+            fail("The token mustn't be rejected");
+        } catch (ResourceException e) {
+            assertThat(e.getStatus(),
+                    is(Status.SERVER_ERROR_SERVICE_UNAVAILABLE));
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.oauth.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restlet.ext.oauth.OAuthException;
+import org.restlet.ext.oauth.internal.Client;
+import org.restlet.ext.oauth.internal.Client.ClientType;
+import org.restlet.ext.oauth.internal.Token;
+import org.restlet.ext.oauth.internal.memory.ExpiringTokenManager;
+import org.restlet.ext.oauth.internal.memory.MemoryClientManager;
+
+/**
+ * 
+ * @author Shotaro Uchida <fantom@xmaker.mx>
+ */
+public class TokenManagerTest {
+
+    private static Client client;
+
+    @BeforeClass
+    public static void setupClient() {
+        client = new MemoryClientManager().createClient(
+                ClientType.CONFIDENTIAL, null, null);
+    }
+
+    @Test
+    public void testLookups() throws Exception {
+        ExpiringTokenManager tokens = new ExpiringTokenManager();
+        Token token = tokens.generateToken(client, "alice",
+                new String[] { "a" });
+        assertSame(token, tokens.validateToken(token.getAccessToken()));
+        assertSame(token, tokens.findToken(client, "alice"));
+        assertNull(tokens.findToken(client));
+
+        // A new token replaces the previous one
+        Token token2 = tokens.generateToken(client, "alice",
+                new String[] { "a" });
+        assertSame(token2, tokens.findToken(client, "alice"));
+        assertInvalid(tokens, token.getAccessToken());
+
+        Token refreshed = tokens.refreshToken(client,
+                token2.getRefreshToken(), null);
+        assertSame(refreshed, tokens.findToken(client, "alice"));
+        assertInvalid(tokens, token2.getAccessToken());
+
+        tokens.revokeToken(client, "alice");
+        assertNull(tokens.findToken(client, "alice"));
+        assertInvalid(tokens, refreshed.getAccessToken());
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        ExpiringTokenManager tokens = new ExpiringTokenManager();
+        tokens.setExpirePeriod(0);
+        tokens.setRefreshExpirePeriod(0);
+        Token token = tokens.generateToken(client, "bob", new String[] {});
+        assertNotNull(tokens.findToken(client, "bob"));
+
+        Thread.sleep(2500);
+        tokens.expire();
+        assertNull(tokens.findToken(client, "bob"));
+        assertInvalid(tokens, token.getAccessToken());
+
+        // Evictions of refreshed tokens are skipped
+        token = tokens.generateToken(client, "bob", new String[] {});
+        Token refreshed = tokens.refreshToken(client, token.getRefreshToken(),
+                null);
+        tokens.setRefreshExpirePeriod(3600);
+        Thread.sleep(2500);
+        tokens.expire();
+        assertInvalid(tokens, token.getAccessToken());
+        assertNotNull(tokens.findToken(client, "bob"));
+        assertEquals(refreshed.getAccessToken(),
+                tokens.findToken(client, "bob").getAccessToken());
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        File file = File.createTempFile("tokens", ".log");
+        file.deleteOnExit();
+
+        try {
+            ExpiringTokenManager tokens = new ExpiringTokenManager(file);
+            Token alice = tokens.generateToken(client, "alice", new String[] {
+                    "a", "b" });
+            Token bob = tokens.generateToken(client, "bob", null);
+            Token app = tokens.generateToken(client, new String[] { "c" });
+            tokens.revokeToken(client, "bob");
+            alice = tokens.refreshToken(client, alice.getRefreshToken(), null);
+            tokens.close();
+
+            tokens = new ExpiringTokenManager(file);
+            Token restored = tokens.validateToken(alice.getAccessToken());
+            assertEquals(alice.getRefreshToken(), restored.getRefreshToken());
+            assertEquals(2, restored.getScope().length);
+            assertNotNull(tokens.findToken(client));
+            assertEquals(app.getAccessToken(), tokens.findToken(client)
+                    .getAccessToken());
+            assertInvalid(tokens, bob.getAccessToken());
+            tokens.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    private void assertInvalid(ExpiringTokenManager tokens, String accessToken) {
+        try {
+            tokens.validateToken(accessToken);
+            fail("OAuthException expected.");
+        } catch (OAuthException ex) {
+            // Expected
+        }
+    }
+}
@@ -33,11 +33,14 @@
 
 package org.restlet.test.ext.odata;
 
+import java.io.Closeable;
 import java.util.Iterator;
 
 import org.restlet.Component;
 import org.restlet.data.Protocol;
+import org.restlet.data.Status;
 import org.restlet.ext.odata.Query;
+import org.restlet.resource.ResourceException;
 import org.restlet.test.RestletTestCase;
 import org.restlet.test.ext.odata.cafe.Cafe;
 import org.restlet.test.ext.odata.cafe.CafeService;
@@ -202,6 +205,61 @@ public class ODataCafeTestCase extends RestletTestCase {
         assertEquals("Chief", contact.getTitle());
     }
 
+    /**
+     * Tests the streaming of entities, including the prefetch of pages.
+     */
+    public void testStreamingServerPaging() throws Exception {
+        Query<Cafe> query = service.createCafeQuery("/Cafes").skipToken(
+                "Skip1");
+        Iterator<Cafe> iterator = query.streamingIterator(1);
+        String[] ids = new String[] { "1", "2", "1", "2" };
+
+        for (String id : ids) {
+            assertTrue(iterator.hasNext());
+            Cafe cafe = iterator.next();
+            assertEquals(id, cafe.getId());
+            assertNotNull(cafe.getName());
+        }
+
+        assertFalse(iterator.hasNext());
+
+        // Stop streaming early
+        iterator = service.createCafeQuery("/Cafes").streamingIterator();
+        assertTrue(iterator.hasNext());
+        assertEquals("Le Cafe Louis", iterator.next().getName());
+        ((Closeable) iterator).close();
+        assertFalse(iterator.hasNext());
+
+        // Failures are reported to the consumer
+        iterator = service.createCafeQuery("/Missing").streamingIterator();
+
+        try {
+            iterator.hasNext();
+            fail("The failure must be reported");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_NOT_FOUND, e.getStatus());
+        }
+
+        // Interruptions aren't reported as the end of the stream
+        iterator = service.createCafeQuery("/Cafes").streamingIterator();
+        Thread.currentThread().interrupt();
+
+        try {
+            iterator.hasNext();
+            fail("The interruption must be reported");
+        } catch (ResourceException e) {
+            assertTrue(Thread.interrupted());
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+
+        try {
+            iterator.hasNext();
+            fail("The stream must remain failed");
+        } catch (ResourceException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+    }
+
     /**
      * Tests the server paging feature.
      */
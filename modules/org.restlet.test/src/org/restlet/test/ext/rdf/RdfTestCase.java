@@ -33,7 +33,14 @@
 
 package org.restlet.test.ext.rdf;
 
+import java.io.StringWriter;
+import java.util.Iterator;
+
 import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.ext.rdf.Graph;
+import org.restlet.ext.rdf.Link;
+import org.restlet.ext.rdf.Literal;
 import org.restlet.ext.rdf.RdfRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
@@ -44,6 +51,134 @@ import org.restlet.test.RestletTestCase;
  */
 public class RdfTestCase extends RestletTestCase {
 
+    public void testGraph() throws Exception {
+        Graph graph = new Graph();
+        Link link = graph.addReference("http://a", "http://knows",
+                "http://b");
+        graph.addLiteral("http://a", "http://name", "A");
+        graph.addLiteral("http://b", "http://name", "B");
+        graph.add(link.getSourceAsReference(), "http://knows",
+                new Reference("http://c"));
+
+        assertEquals(4, graph.size());
+        assertFalse(graph.add(new Link(new Reference("http://a"),
+                "http://knows", new Reference("http://b"))));
+        assertFalse(graph.add(new Link(new Reference("http://a"),
+                "http://name", new Literal("A"))));
+        assertTrue(graph.add(new Link(new Reference("http://a"),
+                "http://name", new Literal("A", null,
+                        org.restlet.data.Language.FRENCH))));
+        assertEquals(5, graph.size());
+        assertTrue(graph.contains(new Link(new Reference("http://a"),
+                "http://knows", new Reference("http://b"))));
+
+        assertEquals(4, graph.getLinks(new Reference("http://a"), null, null)
+                .size());
+        assertEquals(2, graph.getLinks(null, new Reference("http://knows"),
+                null).size());
+        assertSame(link, graph.getLinks(null, null,
+                new Reference("http://b")).get(0));
+        assertEquals(1, graph.getLinks(new Reference("http://b"),
+                new Reference("http://name"), null).size());
+        assertEquals(0, graph.getLinks(new Reference("http://z"), null, null)
+                .size());
+        assertEquals(5, graph.getLinks(null, null, null).size());
+
+        assertTrue(graph.remove(new Link(new Reference("http://a"),
+                "http://knows", new Reference("http://b"))));
+        assertEquals(4, graph.size());
+        assertFalse(graph.contains(link));
+        assertTrue(graph.add(link));
+        assertSame(link, graph.getLinks(null, null,
+                new Reference("http://b")).get(0));
+
+        Graph copy = new Graph();
+        copy.addAll(graph);
+        assertEquals(graph, copy);
+        assertEquals(graph.hashCode(), copy.hashCode());
+    }
+
+    public void testGraphConcurrentLoad() throws Exception {
+        Graph graph = new Graph();
+
+        for (int i = 0; i < 1000; i++) {
+            graph.addReference("http://s" + (i % 10), "http://p",
+                    "http://o" + i);
+        }
+
+        int count = 0;
+
+        for (Iterator<Link> iter = graph.iterator(); iter.hasNext();) {
+            Link link = iter.next();
+
+            // Links added while iterating aren't visible
+            graph.addReference("http://t" + count, "http://p", "http://o");
+
+            if (count % 2 == 0) {
+                iter.remove();
+            }
+
+            assertNotNull(link.getTypeRef());
+            count++;
+        }
+
+        assertEquals(1000, count);
+        assertEquals(1500, graph.size());
+        assertEquals(100, graph.getLinks(new Reference("http://s1"), null,
+                null).size());
+        assertEquals(1000, graph.getLinks(null, null,
+                new Reference("http://o")).size());
+    }
+
+    public void testGraphParsing() throws Exception {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++) {
+            sb.append("<http://s").append(i % 100)
+                    .append("> <http://p> <http://o").append(i)
+                    .append("> .\n");
+        }
+
+        // Duplicated statements are only indexed once
+        sb.append("<http://s1> <http://p> <http://o1> .\n");
+        Graph graph = new RdfRepresentation(new StringRepresentation(
+                sb.toString(), MediaType.TEXT_PLAIN)).getGraph();
+        assertEquals(2000, graph.size());
+        assertEquals(20, graph.getLinks(new Reference("http://s1"), null,
+                null).size());
+    }
+
+    public void testStreaming() throws Exception {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++) {
+            sb.append("<http://s").append(i % 100)
+                    .append("> <http://p> \"v").append(i).append("\" .\n");
+        }
+
+        String ntriples = sb.toString();
+
+        // N-Triples to Turtle then back to N-Triples, without any graph
+        StringWriter turtle = new StringWriter();
+        new RdfRepresentation(new StringRepresentation(ntriples,
+                MediaType.TEXT_RDF_NTRIPLES), MediaType.TEXT_TURTLE)
+                .write(turtle);
+        StringWriter result = new StringWriter();
+        new RdfRepresentation(new StringRepresentation(turtle.toString(),
+                MediaType.TEXT_TURTLE), MediaType.TEXT_RDF_NTRIPLES)
+                .write(result);
+
+        Graph expected = new RdfRepresentation(new StringRepresentation(
+                ntriples, MediaType.TEXT_RDF_NTRIPLES)).getGraph();
+        Graph actual = new RdfRepresentation(new StringRepresentation(
+                result.toString(), MediaType.TEXT_RDF_NTRIPLES)).getGraph();
+        assertEquals(2000, actual.size());
+        assertEquals(20, actual.getLinks(new Reference("http://s7"), null,
+                null).size());
+        assertEquals(expected.getRdfNTriplesRepresentation().getText(),
+                actual.getRdfNTriplesRepresentation().getText());
+    }
+
     public void testN3() throws Exception {
         Representation rep = new StringRepresentation(
                 "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> ."
@@ -40,8 +40,11 @@ import org.restlet.resource.ServerResource;
 import org.restlet.test.RestletTestCase;
 import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigUtils;
 import org.springframework.context.support.StaticApplicationContext;
 
 /**
@@ -52,6 +55,36 @@ public class SpringBeanFinderTestCase extends RestletTestCase {
     private static class AnotherResource extends ServerResource {
     }
 
+    private static class Dependency {
+    }
+
+    private static class WiredServerResource extends SomeServerResource {
+        private Dependency dependency;
+
+        public Dependency getDependency() {
+            return dependency;
+        }
+
+        @SuppressWarnings("unused")
+        public void setDependency(Dependency dependency) {
+            this.dependency = dependency;
+        }
+    }
+
+    private static class AutowiredServerResource extends SomeServerResource {
+        private Dependency dependency;
+
+        public Dependency getDependency() {
+            return dependency;
+        }
+
+        @Autowired
+        @SuppressWarnings("unused")
+        public void setDependency(Dependency dependency) {
+            this.dependency = dependency;
+        }
+    }
+
     private static class SomeResource extends ServerResource {
     }
 
@@ -202,6 +235,78 @@ public class SpringBeanFinderTestCase extends RestletTestCase {
                 + actual.getClass().getName(), actual instanceof SomeResource);
     }
 
+    public void testPrecompiledFallsBackToBeanFactoryForSingletons()
+            throws Exception {
+        registerBeanFactoryBean(BEAN_NAME, SomeServerResource.class,
+                createServerResourcePropertyValues());
+
+        this.finder.setBeanFactory(beanFactory);
+        this.finder.setPrecompiled(true);
+
+        assertNull(this.finder.getPrototypeFactory());
+        assertSame(this.finder.create(), this.finder.create());
+    }
+
+    public void testPrecompiledFallsBackToApplicationContextForAutowiring()
+            throws Exception {
+        AnnotationConfigUtils
+                .registerAnnotationConfigProcessors(this.applicationContext);
+        this.applicationContext.getBeanFactory().registerSingleton(
+                "dependency", new Dependency());
+        this.applicationContext.registerPrototype(BEAN_NAME,
+                AutowiredServerResource.class);
+        this.applicationContext.refresh();
+
+        this.finder.setApplicationContext(applicationContext);
+        this.finder.setPrecompiled(true);
+
+        assertNull(this.finder.getPrototypeFactory());
+        AutowiredServerResource actual = (AutowiredServerResource) this.finder
+                .create();
+        assertSame(this.applicationContext.getBean("dependency"),
+                actual.getDependency());
+    }
+
+    public void testPrecompiledPrototypeFromApplicationContext()
+            throws Exception {
+        this.applicationContext.registerPrototype(BEAN_NAME,
+                SomeServerResource.class, createServerResourcePropertyValues());
+        this.applicationContext.refresh();
+
+        this.finder.setApplicationContext(applicationContext);
+        this.finder.setPrecompiled(true);
+
+        assertNotNull(this.finder.getPrototypeFactory());
+        SomeServerResource actual = (SomeServerResource) this.finder.create();
+        assertEquals("spring", actual.getSrc());
+    }
+
+    public void testPrecompiledPrototypeIsWired() throws Exception {
+        this.beanFactory.registerSingleton("dependency", new Dependency());
+        RootBeanDefinition definition = new RootBeanDefinition(
+                WiredServerResource.class);
+        definition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        definition.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_NAME);
+        definition.setPropertyValues(createServerResourcePropertyValues());
+        this.beanFactory.registerBeanDefinition(BEAN_NAME, definition);
+
+        this.finder.setBeanFactory(beanFactory);
+        this.finder.setPrecompiled(true);
+
+        assertNotNull(this.finder.getPrototypeFactory());
+        WiredServerResource first = (WiredServerResource) this.finder
+                .create();
+        WiredServerResource second = (WiredServerResource) this.finder
+                .create();
+
+        assertNotSame(first, second);
+        assertEquals("spring", first.getSrc());
+        assertEquals("spring", second.getSrc());
+        assertSame(this.beanFactory.getBean("dependency"),
+                first.getDependency());
+        assertSame(first.getDependency(), second.getDependency());
+    }
+
     public void testReturnsResourceBeanWhenExists() throws Exception {
         registerBeanFactoryBean(BEAN_NAME, SomeResource.class);
 
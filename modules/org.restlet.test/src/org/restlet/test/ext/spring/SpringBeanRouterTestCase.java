@@ -231,6 +231,20 @@ public class SpringBeanRouterTestCase extends RestletTestCase {
         assertFinderForBean("fish", fishRoute.getNext());
     }
 
+    public void testPrecompiledFindersCreateResources() throws Exception {
+        String expected = "/renewable/wood";
+        registerBeanDefinition("wood", expected, TestResource.class,
+                BeanDefinition.SCOPE_PROTOTYPE);
+        this.router.setPrecompiled(true);
+        doPostProcess();
+
+        SpringBeanFinder finder = (SpringBeanFinder) matchRouteFor(expected)
+                .getNext();
+        assertTrue(finder.isPrecompiled());
+        assertNotNull(finder.getPrototypeFactory());
+        assertNotSame(finder.create(), finder.create());
+    }
+
     public void testRoutingIncludesAuthenticators() throws Exception {
         String expected = "/protected/timber";
         registerBeanDefinition("timber", expected, TestAuthenticator.class,
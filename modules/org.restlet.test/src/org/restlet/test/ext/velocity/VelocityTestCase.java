@@ -35,15 +35,23 @@ package org.restlet.test.ext.velocity;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.StringWriter;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.MethodInvocationException;
+import org.restlet.Application;
 import org.restlet.data.LocalReference;
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.engine.io.IoUtils;
 import org.restlet.ext.velocity.TemplateRepresentation;
+import org.restlet.ext.velocity.TemplateService;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.ClientResource;
 import org.restlet.test.RestletTestCase;
 
@@ -83,6 +91,61 @@ public class VelocityTestCase extends RestletTestCase {
         IoUtils.delete(testDir, true);
     }
 
+    public void testServiceTemplate() throws Exception {
+        // Create a temporary directory for the tests
+        File testDir = new File(System.getProperty("java.io.tmpdir"),
+                "VelocityTestCase");
+        testDir.mkdir();
+
+        // Create a temporary template file
+        File testFile = File.createTempFile("test", ".vm", testDir);
+        FileWriter fw = new FileWriter(testFile);
+        fw.write("Value=$value");
+        fw.close();
+
+        Map<String, Object> map = new TreeMap<String, Object>();
+        map.put("value", "myValue");
+
+        VelocityEngine engine = new VelocityEngine();
+        engine.setProperty("file.resource.loader.path",
+                testDir.getAbsolutePath());
+        engine.setProperty("runtime.references.strict", "true");
+        TemplateService service = new TemplateService(engine);
+        Application application = new Application();
+        application.getServices().add(service);
+        Application current = Application.getCurrent();
+        Application.setCurrent(application);
+
+        try {
+            service.start();
+
+            // Named templates use the engine of the service
+            TemplateRepresentation tr = new TemplateRepresentation(
+                    testFile.getName(), map, MediaType.TEXT_PLAIN);
+            assertSame(engine, tr.getEngine());
+            assertEquals("Value=myValue", tr.getText());
+
+            // So do templates provided as representations
+            Template template = service.getTemplate(new StringRepresentation(
+                    "Value=$missing"));
+            StringWriter writer = new StringWriter();
+
+            try {
+                template.merge(new VelocityContext(map), writer);
+                fail("The strict reference mode of the engine was ignored");
+            } catch (MethodInvocationException e) {
+                // Expected
+            }
+        } finally {
+            Application.setCurrent(current);
+            service.stop();
+
+            // Clean-up
+            IoUtils.delete(testFile);
+            IoUtils.delete(testDir, true);
+        }
+    }
+
     public void testStandardTemplate() throws Exception {
         // Create a temporary directory for the tests
         final File testDir = new File(System.getProperty("java.io.tmpdir"),
@@ -33,8 +33,18 @@
 
 package org.restlet.test.ext.wadl;
 
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Preference;
+import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.WadlApplication;
 import org.restlet.ext.wadl.WadlComponent;
+import org.restlet.routing.Router;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -44,6 +54,65 @@ import org.restlet.test.RestletTestCase;
  */
 public class WadlTestCase extends RestletTestCase {
 
+    private static Response describe(WadlApplication app) {
+        return describe(app, null);
+    }
+
+    private static Response describe(WadlApplication app, Tag noneMatch) {
+        Request request = new Request(Method.OPTIONS, "http://localhost/app/");
+
+        if (noneMatch != null) {
+            request.getConditions().getNoneMatch().add(noneMatch);
+        }
+
+        request.getResourceRef().setBaseRef("http://localhost/app/");
+        request.getClientInfo().getAcceptedMediaTypes()
+                .add(new Preference<MediaType>(MediaType.APPLICATION_WADL));
+        Response response = new Response(request);
+        app.handle(request, response);
+        return response;
+    }
+
+    public void testDescriptionCaching() throws Exception {
+        WadlApplication app = new WadlApplication(new Context()) {
+            @Override
+            public Restlet createInboundRoot() {
+                Router router = new Router(getContext());
+                router.attach("/news", NewsSearchResource.class);
+                return router;
+            }
+        };
+        assertFalse(app.isDescriptionCaching());
+        app.setDescriptionCaching(true);
+        app.start();
+
+        Response response = describe(app);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        Tag tag = response.getEntity().getTag();
+        assertNotNull(tag);
+        String wadl = response.getEntity().getText();
+        assertTrue(wadl.contains("news"));
+
+        // The cached description is served again
+        response = describe(app);
+        assertEquals(tag, response.getEntity().getTag());
+        assertEquals(wadl, response.getEntity().getText());
+
+        // Unless the client already has it
+        response = describe(app, tag);
+        assertEquals(Status.REDIRECTION_NOT_MODIFIED, response.getStatus());
+        assertEquals(tag, response.getEntity().getTag());
+
+        // Changing the routes invalidates the cached description
+        ((Router) app.getInboundRoot()).attach("/weather",
+                NewsSearchResource.class);
+        response = describe(app);
+        assertFalse(tag.equals(response.getEntity().getTag()));
+        assertTrue(response.getEntity().getText().contains("weather"));
+
+        app.stop();
+    }
+
     public void testWadl() throws Exception {
         WadlComponent comp = new WadlComponent(
                 "clap://class/org/restlet/test/ext/wadl/YahooSearch.wadl");
@@ -35,8 +35,16 @@ package org.restlet.test.ext.xml;
 
 import java.io.ByteArrayOutputStream;
 
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.sax.SAXTransformerFactory;
+
 import org.restlet.Component;
 import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.data.Tag;
+import org.restlet.ext.xml.TemplatesCache;
 import org.restlet.ext.xml.TransformRepresentation;
 import org.restlet.ext.xml.Transformer;
 import org.restlet.representation.Representation;
@@ -149,5 +157,79 @@ public class TransformerTestCase extends RestletTestCase {
 
         assertEquals(this.output, result);
     }
-    
+
+    public void testTemplatesCache() throws Exception {
+        TemplatesCache cache = new TemplatesCache();
+        this.xslt.setLocationRef("clap://class/transform.xsl");
+        this.xslt.setTag(new Tag("v1"));
+
+        Templates templates = cache.getTemplates(this.xslt, null);
+        assertSame(templates, cache.getTemplates(this.xslt, null));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        // A new version of the sheet is compiled again
+        this.xslt.setTag(new Tag("v2"));
+        assertNotSame(templates, cache.getTemplates(this.xslt, null));
+        assertEquals(2, cache.getMissCount());
+
+        // Sheets without location are never cached
+        this.xslt.setLocationRef((Reference) null);
+        cache.getTemplates(this.xslt, null);
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    public void testTemplatesCacheEviction() throws Exception {
+        TemplatesCache cache = new TemplatesCache(1, 1);
+        this.xslt.setTag(new Tag("v1"));
+        this.xslt.setLocationRef("clap://class/transform1.xsl");
+        cache.getTemplates(this.xslt, null);
+        this.xslt.setLocationRef("clap://class/transform2.xsl");
+        cache.getTemplates(this.xslt, null);
+        cache.getTemplates(this.xslt, null);
+        assertEquals(2, cache.getMissCount());
+
+        // The least recently used sheet was evicted
+        this.xslt.setLocationRef("clap://class/transform1.xsl");
+        cache.getTemplates(this.xslt, null);
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    public void testTemplatesCacheFactoryPool() throws Exception {
+        TemplatesCache cache = new TemplatesCache(1);
+        SAXTransformerFactory factory1 = cache.borrowFactory();
+        SAXTransformerFactory factory2 = cache.borrowFactory();
+        cache.release(factory1);
+        cache.release(factory2);
+
+        // Only one idle factory is kept
+        assertSame(factory1, cache.borrowFactory());
+        assertNotSame(factory2, cache.borrowFactory());
+    }
+
+    public void testTemplatesCacheUriResolver() throws Exception {
+        TemplatesCache cache = new TemplatesCache();
+        this.xslt.setLocationRef("clap://class/transform.xsl");
+        this.xslt.setTag(new Tag("v1"));
+        URIResolver uriResolver = new URIResolver() {
+            public Source resolve(String href, String base) {
+                return null;
+            }
+        };
+
+        Templates templates = cache.getTemplates(this.xslt, null);
+        Templates resolved = cache.getTemplates(this.xslt, uriResolver);
+
+        // Sheets compiled with another resolver aren't shared
+        assertNotSame(templates, resolved);
+        assertSame(resolved, cache.getTemplates(this.xslt, uriResolver));
+        assertSame(templates, cache.getTemplates(this.xslt, null));
+        assertEquals(2, cache.getMissCount());
+
+        cache.remove("clap://class/transform.xsl");
+        assertNotSame(resolved, cache.getTemplates(this.xslt, uriResolver));
+    }
+
 }
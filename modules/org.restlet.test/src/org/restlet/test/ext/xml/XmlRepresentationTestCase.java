@@ -0,0 +1,115 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.xml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.data.MediaType;
+import org.restlet.ext.xml.DomRepresentation;
+import org.restlet.ext.xml.SaxRepresentation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Test case for the DOM and SAX representations, which parse with pooled JAXP
+ * objects.
+ * 
+ * @author Jerome Louvel
+ */
+public class XmlRepresentationTestCase extends RestletTestCase {
+
+    private static final String XML = "<?xml version=\"1.0\"?>\n"
+            + "<a:root xmlns:a=\"http://www.restlet.org/a\">"
+            + "<a:item>1</a:item><a:item>2</a:item></a:root>";
+
+    private DomRepresentation createDom(boolean namespaceAware) {
+        DomRepresentation result = new DomRepresentation(
+                new StringRepresentation(XML, MediaType.TEXT_XML));
+        result.setNamespaceAware(namespaceAware);
+        result.getNamespaces().put("a", "http://www.restlet.org/a");
+        return result;
+    }
+
+    private List<String> parse(String xml) throws IOException {
+        final List<String> result = new ArrayList<String>();
+        SaxRepresentation sax = new SaxRepresentation(new StringRepresentation(
+                xml, MediaType.TEXT_XML));
+        sax.setNamespaceAware(true);
+        sax.parse(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName,
+                    String qName, Attributes attributes) {
+                result.add(uri + "|" + qName);
+            }
+        });
+        return result;
+    }
+
+    public void testDomRepresentation() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("2", createDom(true).getText("/a:root/a:item[2]"));
+            assertEquals(2, createDom(true).getNodes("//a:item").size());
+            assertEquals("a:root", createDom(false).getDocument()
+                    .getDocumentElement().getNodeName());
+            assertNull(createDom(false).getDocument().getDocumentElement()
+                    .getNamespaceURI());
+            assertEquals("http://www.restlet.org/a", createDom(true)
+                    .getDocument().getDocumentElement().getNamespaceURI());
+        }
+
+        DomRepresentation empty = new DomRepresentation();
+        assertNotNull(empty.getDocument());
+        assertNull(empty.getDocument().getDocumentElement());
+    }
+
+    public void testSaxRepresentation() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            List<String> elements = parse(XML);
+            assertEquals(3, elements.size());
+            assertEquals("http://www.restlet.org/a|a:root", elements.get(0));
+
+            try {
+                parse("<root><item></root>");
+                fail("The XML document isn't well-formed");
+            } catch (IOException ioe) {
+                // Expected, the parser must still be reusable
+            }
+        }
+    }
+
+}
@@ -51,6 +51,7 @@ public class XmlTestSuite extends TestCase {
         result.addTestSuite(RestletXmlTestCase.class);
         result.addTestSuite(TransformerTestCase.class);
         result.addTestSuite(TransformRepresentationTestCase.class);
+        result.addTestSuite(XmlRepresentationTestCase.class);
         return result;
     }
 
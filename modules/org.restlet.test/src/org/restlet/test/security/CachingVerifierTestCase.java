@@ -0,0 +1,293 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.security;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Application;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.resource.ResourceException;
+import org.restlet.security.CachingVerifier;
+import org.restlet.security.Role;
+import org.restlet.security.User;
+import org.restlet.security.Verifier;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link CachingVerifier} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class CachingVerifierTestCase extends RestletTestCase {
+
+    private static class TokenVerifier implements Verifier {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private volatile long delay;
+
+        private volatile boolean failing;
+
+        private volatile Request lastRequest;
+
+        private final Role role = new Role(new Application(), "reader", null);
+
+        public int verify(Request request, Response response) {
+            count.incrementAndGet();
+            lastRequest = request;
+
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    return RESULT_INVALID;
+                }
+            }
+
+            if (failing) {
+                throw new ResourceException(
+                        Status.SERVER_ERROR_SERVICE_UNAVAILABLE);
+            }
+
+            String token = request.getChallengeResponse().getRawValue();
+
+            if (token.startsWith("good")) {
+                request.getClientInfo().setUser(new User("scott"));
+                request.getClientInfo().getRoles().add(role);
+                return RESULT_VALID;
+            }
+
+            return RESULT_INVALID;
+        }
+    }
+
+    private Request createRequest(ChallengeScheme scheme, String token) {
+        Request request = new Request(Method.GET, "http://localhost/");
+        ChallengeResponse cr = new ChallengeResponse(scheme);
+        cr.setRawValue(token);
+        request.setChallengeResponse(cr);
+        return request;
+    }
+
+    private int verify(Verifier verifier, String token) {
+        return verify(verifier, ChallengeScheme.HTTP_OAUTH_BEARER, token);
+    }
+
+    private int verify(Verifier verifier, ChallengeScheme scheme, String token) {
+        Request request = createRequest(scheme, token);
+        int result = verifier.verify(request, new Response(request));
+
+        if (result == Verifier.RESULT_VALID) {
+            assertEquals("scott", request.getClientInfo().getUser()
+                    .getIdentifier());
+            assertEquals(1, request.getClientInfo().getRoles().size());
+        }
+
+        return result;
+    }
+
+    public void testCache() {
+        TokenVerifier tokens = new TokenVerifier();
+        CachingVerifier verifier = new CachingVerifier(tokens);
+
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        assertEquals(1, tokens.count.get());
+
+        // Negative results are cached as well
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad"));
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad"));
+        assertEquals(2, tokens.count.get());
+
+        // Unless disabled
+        verifier.setNegativeTimeToLive(0);
+        verifier.clear();
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad"));
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad"));
+        assertEquals(4, tokens.count.get());
+
+        // Schemes relying on nonces are never cached
+        assertEquals(Verifier.RESULT_VALID, verify(verifier,
+                ChallengeScheme.HTTP_DIGEST, "good"));
+        assertEquals(Verifier.RESULT_VALID, verify(verifier,
+                ChallengeScheme.HTTP_DIGEST, "good"));
+        assertEquals(6, tokens.count.get());
+    }
+
+    public void testEviction() {
+        TokenVerifier tokens = new TokenVerifier();
+        CachingVerifier verifier = new CachingVerifier(tokens);
+        verifier.setMaxEntries(2);
+        verifier.setMaxNegativeEntries(1);
+
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good1"));
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good2"));
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good1"));
+        assertEquals(2, tokens.count.get());
+
+        // The least recently used result is evicted
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good3"));
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good1"));
+        assertEquals(3, tokens.count.get());
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good2"));
+        assertEquals(4, tokens.count.get());
+
+        // Invalid results don't evict the valid ones
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad1"));
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad2"));
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad2"));
+        assertEquals(6, tokens.count.get());
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good2"));
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good1"));
+        assertEquals(6, tokens.count.get());
+        assertEquals(Verifier.RESULT_INVALID, verify(verifier, "bad1"));
+        assertEquals(7, tokens.count.get());
+    }
+
+    public void testCoalescing() throws Exception {
+        TokenVerifier tokens = new TokenVerifier();
+        tokens.delay = 200;
+        final CachingVerifier verifier = new CachingVerifier(tokens);
+        final CountDownLatch latch = new CountDownLatch(4);
+        final AtomicInteger valid = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    if (verify(verifier, "good") == Verifier.RESULT_VALID) {
+                        valid.incrementAndGet();
+                    }
+
+                    latch.countDown();
+                }
+            }.start();
+        }
+
+        latch.await();
+        assertEquals(4, valid.get());
+        assertEquals(1, tokens.count.get());
+    }
+
+    public void testErrors() {
+        TokenVerifier tokens = new TokenVerifier();
+        CachingVerifier verifier = new CachingVerifier(tokens, 1000, 0);
+        verifier.setRefreshAheadTime(0);
+
+        // Errors aren't cached
+        tokens.failing = true;
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                verify(verifier, "good");
+                fail("The error must be reported");
+            } catch (ResourceException e) {
+                assertEquals(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                        e.getStatus());
+            }
+        }
+
+        assertEquals(2, tokens.count.get());
+        tokens.failing = false;
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        assertEquals(3, tokens.count.get());
+    }
+
+    public void testRefreshAhead() throws Exception {
+        TokenVerifier tokens = new TokenVerifier();
+        CachingVerifier verifier = new CachingVerifier(tokens, 1000, 0);
+        verifier.setRefreshAheadTime(500);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        verifier.setExecutorService(executorService);
+
+        try {
+            assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+            assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+            assertEquals(1, tokens.count.get());
+            Thread.sleep(600);
+
+            // Refreshed in the background, with a copy of the actual request
+            tokens.delay = 200;
+            long start = System.currentTimeMillis();
+            Request request = createRequest(ChallengeScheme.HTTP_OAUTH_BEARER,
+                    "good");
+            assertEquals(Verifier.RESULT_VALID,
+                    verifier.verify(request, new Response(request)));
+            assertEquals("scott", request.getClientInfo().getUser()
+                    .getIdentifier());
+            assertTrue(System.currentTimeMillis() - start < 150);
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(1, TimeUnit.SECONDS));
+            assertEquals(2, tokens.count.get());
+            assertNotSame(request, tokens.lastRequest);
+            assertEquals("http://localhost/", tokens.lastRequest
+                    .getResourceRef().toString());
+            assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+            assertEquals(2, tokens.count.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    public void testRefreshError() throws Exception {
+        TokenVerifier tokens = new TokenVerifier();
+        CachingVerifier verifier = new CachingVerifier(tokens, 1000, 0);
+        verifier.setRefreshAheadTime(500);
+
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        Thread.sleep(600);
+
+        // Without executor service, the refresh runs on the request thread
+        tokens.failing = true;
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        assertEquals(2, tokens.count.get());
+
+        // The cached result is kept, and refreshed again on the next request
+        tokens.failing = false;
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        assertEquals(3, tokens.count.get());
+        assertEquals(Verifier.RESULT_VALID, verify(verifier, "good"));
+        assertEquals(3, tokens.count.get());
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.security;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.ListIterator;
+
+import org.restlet.Application;
+import org.restlet.data.ClientInfo;
+import org.restlet.security.Group;
+import org.restlet.security.MemoryRealm;
+import org.restlet.security.Role;
+import org.restlet.security.User;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link MemoryRealm} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class MemoryRealmTestCase extends RestletTestCase {
+
+    private ClientInfo enrole(MemoryRealm realm, String identifier) {
+        ClientInfo clientInfo = new ClientInfo();
+        clientInfo.setUser(new User(identifier));
+        realm.getEnroler().enrole(clientInfo);
+        return clientInfo;
+    }
+
+    public void testEnrolerInvalidation() {
+        Application application = new Application();
+        Role admin = new Role(application, "admin", null);
+        Role member = new Role(application, "member", null);
+
+        MemoryRealm realm = new MemoryRealm();
+        User scott = new User("scott", "tiger");
+        realm.getUsers().add(scott);
+
+        Group staff = new Group("staff", null);
+        Group admins = new Group("admins", null);
+        staff.getMemberGroups().add(admins);
+        admins.getMemberUsers().add(scott);
+        realm.getRootGroups().add(staff);
+        realm.map(staff, member);
+        realm.map(admins, admin);
+
+        assertSame(scott, realm.findUser("scott"));
+        assertNull(realm.findUser("bob"));
+        assertEquals(2, realm.findGroups(scott).size());
+        assertEquals(2, enrole(realm, "scott").getRoles().size());
+
+        // Membership changes are taken into account
+        admins.getMemberUsers().remove(scott);
+        assertTrue(realm.findGroups(scott).isEmpty());
+        assertTrue(enrole(realm, "scott").getRoles().isEmpty());
+
+        staff.getMemberUsers().add(scott);
+        assertEquals(1, enrole(realm, "scott").getRoles().size());
+        assertTrue(enrole(realm, "scott").getRoles().contains(member));
+
+        // So are users changes
+        User bob = new User("bob", "pwd");
+        realm.getUsers().add(bob);
+        assertSame(bob, realm.findUser("bob"));
+        bob.setIdentifier("robert");
+        assertNull(realm.findUser("bob"));
+        assertSame(bob, realm.findUser("robert"));
+        assertNull(realm.findUser("nobody"));
+        bob.setIdentifier("nobody");
+        assertSame(bob, realm.findUser("nobody"));
+        assertNull(realm.findUser("robert"));
+
+        // And role mapping changes
+        realm.map(scott, admin);
+        assertEquals(2, enrole(realm, "scott").getRoles().size());
+        realm.unmap(scott, admin);
+        assertEquals(1, enrole(realm, "scott").getRoles().size());
+    }
+
+    public void testListWrites() {
+        MemoryRealm realm = new MemoryRealm();
+        User scott = new User("scott", "tiger");
+        User bob = new User("bob", "pwd");
+        User alice = new User("alice", "pwd");
+        realm.getUsers().add(scott);
+        realm.getUsers().add(bob);
+        realm.getUsers().add(alice);
+        assertSame(bob, realm.findUser("bob"));
+
+        // Removals via iterators are taken into account
+        for (Iterator<User> iter = realm.getUsers().iterator(); iter
+                .hasNext();) {
+            if (iter.next() == bob) {
+                iter.remove();
+            }
+        }
+
+        assertNull(realm.findUser("bob"));
+        assertEquals(2, realm.getUsers().size());
+
+        // So are replacements via list iterators, as used for sorting
+        User robert = new User("robert", "pwd");
+        ListIterator<User> listIter = realm.getUsers().listIterator();
+        listIter.next();
+        listIter.set(robert);
+        assertNull(realm.findUser("scott"));
+        assertSame(robert, realm.findUser("robert"));
+
+        Collections.sort(realm.getUsers(), new Comparator<User>() {
+            public int compare(User user1, User user2) {
+                return user1.getIdentifier().compareTo(user2.getIdentifier());
+            }
+        });
+        assertSame(alice, realm.getUsers().get(0));
+
+        // And sub-list modifications
+        realm.getUsers().subList(0, 1).clear();
+        assertNull(realm.findUser("alice"));
+        assertSame(robert, realm.findUser("robert"));
+    }
+
+    public void testSeparateRealms() {
+        MemoryRealm realm1 = new MemoryRealm();
+        MemoryRealm realm2 = new MemoryRealm();
+        User scott = new User("scott", "tiger");
+        realm1.getUsers().add(scott);
+        assertSame(scott, realm1.findUser("scott"));
+        assertNull(realm2.findUser("scott"));
+
+        // Each list has its own version
+        realm2.getUsers().add(new User("bob", "pwd"));
+        assertSame(scott, realm1.findUser("scott"));
+        assertNotNull(realm2.findUser("bob"));
+    }
+
+}
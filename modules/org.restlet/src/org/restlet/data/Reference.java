@@ -40,6 +40,7 @@ import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.engine.Edition;
+import org.restlet.engine.util.UriView;
 
 /**
  * Reference to a Uniform Resource Identifier (URI). Contrary to the
@@ -91,7 +92,9 @@ import org.restlet.engine.Edition;
  * The Reference stores its data as a single string, the one passed to the
  * constructor. This string can always be obtained using the toString() method.
  * A couple of integer indexes are maintained to improve the extraction time of
- * various reference properties (URI components).
+ * various reference properties (URI components). They are provided by an
+ * immutable {@link UriView} which also caches the path segments and can be
+ * shared by copies of the reference, see the {@link #getView()} method.
  * </p>
  * <p>
  * When you modify a specific component of the URI reference, via the setPath()
@@ -171,6 +174,12 @@ public class Reference {
         }
         String result = null;
         // [ifndef gwt]
+        if ((toDecode != null) && (toDecode.indexOf('%') == -1)
+                && (toDecode.indexOf('+') == -1)) {
+            // Nothing to decode
+            return toDecode;
+        }
+
         try {
             result = (characterSet == null) ? toDecode : java.net.URLDecoder
                     .decode(toDecode, characterSet.getName());
@@ -536,6 +545,9 @@ public class Reference {
     /** The scheme separator index. */
     private volatile int schemeIndex;
 
+    /** The immutable view of the internal reference. */
+    private volatile UriView view;
+
     /**
      * Empty constructor.
      */
@@ -599,7 +611,16 @@ public class Reference {
      *            The reference to clone.
      */
     public Reference(Reference ref) {
-        this(ref.baseRef, ref.internalRef);
+        UriView view = ref.view;
+        this.baseRef = ref.baseRef;
+
+        if (view == null) {
+            this.internalRef = null;
+            updateIndexes();
+        } else {
+            // The internal reference was already checked
+            setView(view);
+        }
     }
 
     /**
@@ -657,6 +678,25 @@ public class Reference {
         this((Reference) null, uriReference);
     }
 
+    /**
+     * Constructor from an immutable URI view. The parsed state of the view is
+     * reused if the URI reference string is valid.
+     * 
+     * @param view
+     *            The URI view.
+     */
+    private Reference(UriView view) {
+        String uriRef = view.toString();
+        String encodedRef = encodeInvalidCharacters(uriRef);
+
+        if (encodedRef == uriRef) {
+            setView(view);
+        } else {
+            this.internalRef = encodedRef;
+            updateIndexes();
+        }
+    }
+
     /**
      * Constructor from an identifier and a fragment.
      * 
@@ -792,6 +832,7 @@ public class Reference {
         newRef.internalRef = this.internalRef;
         newRef.queryIndex = this.queryIndex;
         newRef.schemeIndex = this.schemeIndex;
+        newRef.view = this.view;
         return newRef;
     }
 
@@ -1371,45 +1412,8 @@ public class Reference {
      * @return The path component for hierarchical identifiers.
      */
     public String getPath() {
-        String result = null;
-        String part = isRelative() ? getRelativePart()
-                : getSchemeSpecificPart();
-
-        if (part != null) {
-            if (part.startsWith("//")) {
-                // Authority found
-                int index1 = part.indexOf('/', 2);
-
-                if (index1 != -1) {
-                    // Path found
-                    int index2 = part.indexOf('?');
-
-                    if (index2 != -1) {
-                        // Query found
-                        result = part.substring(Math.min(index1, index2),
-                                index2);
-                    } else {
-                        // No query found
-                        result = part.substring(index1);
-                    }
-                } else {
-                    // Path must be empty in this case
-                }
-            } else {
-                // No authority found
-                int index = part.indexOf('?');
-
-                if (index != -1) {
-                    // Query found
-                    result = part.substring(0, index);
-                } else {
-                    // No query found
-                    result = part;
-                }
-            }
-        }
-
-        return result;
+        UriView view = this.view;
+        return (view == null) ? null : view.getPath();
     }
 
     /**
@@ -1472,7 +1476,14 @@ public class Reference {
      * @return The optional query component as a form.
      */
     public Form getQueryAsForm() {
-        return new Form(getQuery());
+        Form result = new Form();
+        UriView view = this.view;
+
+        if (view != null) {
+            view.getQueryView().addTo(result);
+        }
+
+        return result;
     }
 
     /**
@@ -1484,7 +1495,7 @@ public class Reference {
      * @return The optional query component as a form.
      */
     public Form getQueryAsForm(boolean decode) {
-        return new Form(getQuery(), decode);
+        return decode ? getQueryAsForm() : new Form(getQuery(), decode);
     }
 
     /**
@@ -1495,7 +1506,8 @@ public class Reference {
      * @return The optional query component as a form submission.
      */
     public Form getQueryAsForm(CharacterSet characterSet) {
-        return new Form(getQuery(), characterSet);
+        return CharacterSet.UTF_8.equals(characterSet) ? getQueryAsForm()
+                : new Form(getQuery(), characterSet);
     }
 
     /**
@@ -1759,16 +1771,19 @@ public class Reference {
      */
     public String getRemainingPart(boolean decode, boolean query) {
         String result = null;
-        final String all = toString(query, false);
+        UriView view = this.view;
+        Reference baseRef = getBaseRef();
 
-        if (getBaseRef() != null) {
-            final String base = getBaseRef().toString(query, false);
+        if (view != null) {
+            if (baseRef == null) {
+                result = view.getRemainingPart(null, query);
+            } else {
+                UriView baseView = baseRef.getView();
 
-            if ((base != null) && all.startsWith(base)) {
-                result = all.substring(base.length());
+                if (baseView != null) {
+                    result = view.getRemainingPart(baseView, query);
+                }
             }
-        } else {
-            result = all;
         }
 
         return decode ? decode(result) : result;
@@ -1858,42 +1873,7 @@ public class Reference {
      * @return The segments of a hierarchical path.
      */
     public List<String> getSegments() {
-        final List<String> result = new ArrayList<String>();
-        final String path = getPath();
-        int start = -2; // The index of the slash starting the segment
-        char current;
-
-        if (path != null) {
-            for (int i = 0; i < path.length(); i++) {
-                current = path.charAt(i);
-
-                if (current == '/') {
-                    if (start == -2) {
-                        // Beginning of an absolute path or sequence of two
-                        // separators
-                        start = i;
-                    } else {
-                        // End of a segment
-                        result.add(path.substring(start + 1, i));
-                        start = i;
-                    }
-                } else {
-                    if (start == -2) {
-                        // Starting a new segment for a relative path
-                        start = -1;
-                    } else {
-                        // Looking for the next character
-                    }
-                }
-            }
-
-            if (start != -2) {
-                // Add the last segment
-                result.add(path.substring(start + 1));
-            }
-        }
-
-        return result;
+        return getSegments(false);
     }
 
     /**
@@ -1906,15 +1886,9 @@ public class Reference {
      * @see #getSegments()
      */
     public List<String> getSegments(boolean decode) {
-        final List<String> result = getSegments();
-
-        if (decode) {
-            for (int i = 0; i < result.size(); i++) {
-                result.set(i, decode(result.get(i)));
-            }
-        }
-
-        return result;
+        UriView view = this.view;
+        return (view == null) ? new ArrayList<String>()
+                : new ArrayList<String>(view.getSegments(decode));
     }
 
     /**
@@ -2008,7 +1982,7 @@ public class Reference {
                     "Relative references are only usable when a base reference is set.");
         } else {
             // Absolute URI detected
-            result = new Reference(this.internalRef);
+            result = new Reference(this.view);
         }
 
         // Step 2 - Normalize the target reference
@@ -2053,6 +2027,16 @@ public class Reference {
         return decode ? decode(getUserInfo()) : getUserInfo();
     }
 
+    /**
+     * Returns the immutable view of the current URI reference string. A new
+     * view is created each time the reference is modified.
+     * 
+     * @return The immutable view or null if the reference is empty.
+     */
+    public UriView getView() {
+        return this.view;
+    }
+
     /**
      * Indicates if this reference has file-like extensions on its last path
      * segment.
@@ -2201,6 +2185,48 @@ public class Reference {
      * @return The current reference.
      */
     public Reference normalize() {
+        // Setting a non empty path without dot segments has no effect
+        UriView view = this.view;
+        String path = getPath();
+
+        if ((path == null) || (path.length() == 0) || view.hasDotSegments()) {
+            normalizePath();
+        }
+
+        // Ensure that the scheme and host names are reset in lower case
+        String scheme = getScheme();
+
+        if ((scheme != null) && !scheme.equals(scheme.toLowerCase())) {
+            setScheme(scheme);
+        }
+
+        String hostDomain = getHostDomain();
+
+        if ((hostDomain == null)
+                || !hostDomain.equals(hostDomain.toLowerCase())) {
+            setHostDomain(hostDomain);
+        }
+
+        // Remove the port if it is equal to the default port of the reference's
+        // Protocol.
+        final int hostPort = getHostPort();
+        if (hostPort != -1) {
+            final int defaultPort = Protocol.valueOf(getScheme())
+                    .getDefaultPort();
+            if (hostPort == defaultPort) {
+                setHostPort(null);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes the "." and ".." segments from the path, following the algorithm
+     * of the RFC 3986. Paths without such segments are left untouched by the
+     * {@link #normalize()} method.
+     */
+    private void normalizePath() {
         // 1. The input buffer is initialized with the now-appended path
         // components and the output buffer is initialized to the empty string.
         StringBuilder output = new StringBuilder();
@@ -2285,23 +2311,6 @@ public class Reference {
 
         // Finally, the output buffer is returned as the result
         setPath(output.toString());
-
-        // Ensure that the scheme and host names are reset in lower case
-        setScheme(getScheme());
-        setHostDomain(getHostDomain());
-
-        // Remove the port if it is equal to the default port of the reference's
-        // Protocol.
-        final int hostPort = getHostPort();
-        if (hostPort != -1) {
-            final int defaultPort = Protocol.valueOf(getScheme())
-                    .getDefaultPort();
-            if (hostPort == defaultPort) {
-                setHostPort(null);
-            }
-        }
-
-        return this;
     }
 
     /**
@@ -3047,46 +3056,31 @@ public class Reference {
         return result;
     }
 
+    /**
+     * Sets the internal reference and indexes from an immutable view.
+     * 
+     * @param view
+     *            The immutable view.
+     */
+    private void setView(UriView view) {
+        this.internalRef = view.toString();
+        this.schemeIndex = view.getSchemeIndex();
+        this.queryIndex = view.getQueryIndex();
+        this.fragmentIndex = view.getFragmentIndex();
+        this.view = view;
+    }
+
     /**
      * Updates internal indexes.
      */
     private void updateIndexes() {
         if (this.internalRef != null) {
-            // Compute the indexes
-            final int firstSlashIndex = this.internalRef.indexOf('/');
-            this.schemeIndex = this.internalRef.indexOf(':');
-
-            if ((firstSlashIndex != -1) && (this.schemeIndex > firstSlashIndex)) {
-                // We are in the rare case of a relative reference where one of
-                // the path segments contains a colon character. In this case,
-                // we ignore the colon as a valid scheme index.
-                // Note that this colon can't be in the first segment as it is
-                // forbidden by the URI RFC.
-                this.schemeIndex = -1;
-            }
-
-            this.queryIndex = this.internalRef.indexOf('?');
-            this.fragmentIndex = this.internalRef.indexOf('#');
-
-            if (hasQuery() && hasFragment()
-                    && (this.queryIndex > this.fragmentIndex)) {
-                // Query sign inside fragment
-                this.queryIndex = -1;
-            }
-
-            if (hasQuery() && this.schemeIndex > this.queryIndex) {
-                // Colon sign inside query
-                this.schemeIndex = -1;
-            }
-
-            if (hasFragment() && this.schemeIndex > this.fragmentIndex) {
-                // Colon sign inside fragment
-                this.schemeIndex = -1;
-            }
+            setView(new UriView(this.internalRef));
         } else {
             this.schemeIndex = -1;
             this.queryIndex = -1;
             this.fragmentIndex = -1;
+            this.view = null;
         }
     }
 }
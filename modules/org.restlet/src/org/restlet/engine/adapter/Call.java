@@ -41,6 +41,7 @@ import org.restlet.Context;
 import org.restlet.data.Protocol;
 import org.restlet.engine.header.Header;
 import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.util.IndexedSeries;
 import org.restlet.representation.InputRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.util.Series;
@@ -139,12 +140,12 @@ public abstract class Call {
         this.protocol = null;
         this.reasonPhrase = "";
         // [ifndef gwt] instruction
-        this.requestHeaders = new Series<Header>(Header.class);
+        this.requestHeaders = new IndexedSeries<Header>(Header.class);
         // [ifdef gwt] instruction uncomment
         // this.requestHeaders = new org.restlet.engine.util.HeaderSeries();
         this.requestUri = null;
         // [ifndef gwt] instruction
-        this.responseHeaders = new Series<Header>(Header.class);
+        this.responseHeaders = new IndexedSeries<Header>(Header.class);
         // [ifdef gwt] instruction uncomment
         // this.responseHeaders = new org.restlet.engine.util.HeaderSeries();
         this.serverAddress = null;
@@ -42,7 +42,6 @@ import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.data.CharacterSet;
 import org.restlet.data.Encoding;
-import org.restlet.data.Form;
 import org.restlet.data.Language;
 import org.restlet.data.MediaType;
 import org.restlet.data.Metadata;
@@ -50,6 +49,7 @@ import org.restlet.data.Parameter;
 import org.restlet.data.Preference;
 import org.restlet.engine.resource.AnnotationInfo;
 import org.restlet.engine.resource.VariantInfo;
+import org.restlet.engine.util.FormView;
 import org.restlet.representation.Variant;
 import org.restlet.service.MetadataService;
 
@@ -129,12 +129,12 @@ public class StrictConneg extends Conneg {
                     result = -1.0F;
                 } else {
                     // Query constraint defined and a query provided, see if fit
-                    Form constraintParams = new Form(annotation.getQuery());
-                    Form actualParams = getRequest().getResourceRef()
-                            .getQueryAsForm();
+                    FormView constraintParams = annotation.getQueryView();
+                    FormView actualParams = getRequest().getResourceRef()
+                            .getView().getQueryView();
                     Set<Parameter> matchedParams = new HashSet<Parameter>();
-                    Parameter constraintParam;
-                    Parameter actualParam;
+                    String constraintName;
+                    String constraintValue;
 
                     boolean allConstraintsMatched = true;
                     boolean constraintMatched = false;
@@ -142,21 +142,21 @@ public class StrictConneg extends Conneg {
                     // Verify that each query constraint has been matched
                     for (int i = 0; (i < constraintParams.size())
                             && allConstraintsMatched; i++) {
-                        constraintParam = constraintParams.get(i);
+                        constraintName = constraintParams.getName(i);
+                        constraintValue = constraintParams.getValue(i);
                         constraintMatched = false;
 
                         for (int j = 0; j < actualParams.size(); j++) {
-                            actualParam = actualParams.get(j);
-
-                            if (constraintParam.getName().equals(
-                                    actualParam.getName())) {
+                            if (constraintName.equals(actualParams.getName(j))) {
                                 // Potential match found based on name
-                                if ((constraintParam.getValue() == null)
-                                        || constraintParam.getValue().equals(
-                                                actualParam.getValue())) {
+                                if ((constraintValue == null)
+                                        || constraintValue.equals(actualParams
+                                                .getValue(j))) {
                                     // Actual match found!
                                     constraintMatched = true;
-                                    matchedParams.add(actualParam);
+                                    matchedParams.add(new Parameter(
+                                            actualParams.getName(j),
+                                            actualParams.getValue(j)));
                                 }
                             }
                         }
@@ -62,6 +62,7 @@ import org.restlet.data.Tag;
 import org.restlet.engine.Engine;
 import org.restlet.engine.util.CaseInsensitiveHashSet;
 import org.restlet.engine.util.DateUtils;
+import org.restlet.engine.util.IndexedSeries;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.representation.EmptyRepresentation;
 import org.restlet.representation.Representation;
@@ -630,7 +631,7 @@ public class HeaderUtils {
                     .getAttributes().get(HeaderConstants.ATTRIBUTE_HEADERS);
             if (extensionHeaders == null) {
                 // [ifndef gwt] instruction
-                extensionHeaders = new Series<Header>(Header.class);
+                extensionHeaders = new IndexedSeries<Header>(Header.class);
                 // [ifdef gwt] instruction uncomment
                 // extensionHeaders = new
                 // org.restlet.engine.util.HeaderSeries();
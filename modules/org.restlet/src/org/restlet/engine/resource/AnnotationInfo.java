@@ -40,7 +40,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.restlet.Context;
@@ -51,6 +50,7 @@ import org.restlet.data.MediaType;
 import org.restlet.data.Metadata;
 import org.restlet.data.Method;
 import org.restlet.data.Parameter;
+import org.restlet.engine.util.FormView;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.service.MetadataService;
@@ -171,6 +171,9 @@ public class AnnotationInfo {
     /** The optional query part of the annotation value. */
     private final String query;
 
+    /** The parsed query part of the annotation value. */
+    private volatile FormView queryView;
+
     /** The class that hosts the annotated Java method. */
     private final Class<?> resourceClass;
 
@@ -399,6 +402,22 @@ public class AnnotationInfo {
         return query;
     }
 
+    /**
+     * Returns the parsed query part of the annotation value, computed once.
+     * 
+     * @return The parsed query part of the annotation value or null.
+     */
+    public FormView getQueryView() {
+        FormView result = this.queryView;
+
+        if ((result == null) && (getQuery() != null)) {
+            result = new FormView(getQuery());
+            this.queryView = result;
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Returns a list of request variants based on the annotation value.
@@ -589,11 +608,11 @@ public class AnnotationInfo {
 
         // Verify query parameters
         if (getQuery() != null) {
-            Form requiredParams = new Form(getQuery());
+            FormView requiredParams = getQueryView();
 
-            for (Iterator<Parameter> iter = requiredParams.iterator(); iter
-                    .hasNext() && result;) {
-                result = queryParams.contains(iter.next());
+            for (int i = 0; result && (i < requiredParams.size()); i++) {
+                result = queryParams.contains(new Parameter(requiredParams
+                        .getName(i), requiredParams.getValue(i)));
             }
         }
 
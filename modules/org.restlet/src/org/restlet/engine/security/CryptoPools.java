@@ -0,0 +1,386 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.security;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.restlet.engine.util.LruCache;
+import org.restlet.engine.util.Pool;
+
+/**
+ * Pools of message digests, message authentication codes and ciphers shared by
+ * the authentication helpers and the digester representation. The provider
+ * lookup is done once per algorithm and the key initialization once per
+ * algorithm and secret key, then the pooled objects are reset and reused. Each
+ * object is used by a single thread at a time. Ciphers relying on an
+ * initialization vector are never reused, so that each encryption gets a fresh
+ * one.
+ * 
+ * @author Jerome Louvel
+ */
+public final class CryptoPools {
+
+    /**
+     * Identifies a pool of keyed objects.
+     */
+    private static final class PoolKey {
+
+        /** The algorithm name. */
+        private final String algorithm;
+
+        /** The cipher mode, or 0 for a message authentication code. */
+        private final int mode;
+
+        /** The SHA-256 digest of the secret key. */
+        private final byte[] secretDigest;
+
+        /**
+         * Constructor.
+         * 
+         * @param algorithm
+         *            The algorithm name.
+         * @param mode
+         *            The cipher mode, or 0 for a message authentication code.
+         * @param secretKey
+         *            The secret key, only kept as a digest.
+         */
+        private PoolKey(String algorithm, int mode, byte[] secretKey) {
+            this.algorithm = algorithm;
+            this.mode = mode;
+
+            try {
+                this.secretDigest = digest("SHA-256", secretKey);
+            } catch (NoSuchAlgorithmException nsae) {
+                throw new IllegalStateException(nsae);
+            }
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof PoolKey)) {
+                return false;
+            }
+
+            PoolKey that = (PoolKey) object;
+            return (this.mode == that.mode)
+                    && this.algorithm.equals(that.algorithm)
+                    && MessageDigest.isEqual(this.secretDigest,
+                            that.secretDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * (31 * this.algorithm.hashCode() + this.mode))
+                    + Arrays.hashCode(this.secretDigest);
+        }
+    }
+
+    /**
+     * Maximum number of keyed pools. When exceeded, the least recently used
+     * pools are dropped to prevent an unbounded growth with short-lived secret
+     * keys. Looking up a pool doesn't lock, see {@link LruCache}.
+     */
+    private static final int MAX_KEYED_POOLS = 256;
+
+    /** The cipher pools, per algorithm, mode and secret key. */
+    private static final LruCache<PoolKey, Pool<Cipher>> CIPHER_POOLS = new LruCache<PoolKey, Pool<Cipher>>(
+            MAX_KEYED_POOLS);
+
+    /** The message digest pools, per algorithm. */
+    private static final ConcurrentMap<String, Pool<MessageDigest>> DIGEST_POOLS = new ConcurrentHashMap<String, Pool<MessageDigest>>();
+
+    /** The message authentication code pools, per algorithm and secret key. */
+    private static final LruCache<PoolKey, Pool<Mac>> MAC_POOLS = new LruCache<PoolKey, Pool<Mac>>(
+            MAX_KEYED_POOLS);
+
+    /**
+     * Checks in a message digest previously checked out with
+     * {@link #checkoutDigest(String)}. It is reset before being reused.
+     * 
+     * @param digest
+     *            The message digest to check in.
+     */
+    public static void checkin(MessageDigest digest) {
+        if (digest != null) {
+            Pool<MessageDigest> pool = DIGEST_POOLS.get(digest.getAlgorithm());
+
+            if (pool != null) {
+                pool.checkin(digest);
+            }
+        }
+    }
+
+    /**
+     * Checks out a message digest for the given algorithm. It must be checked
+     * in with {@link #checkin(MessageDigest)} once the digest is computed.
+     * 
+     * @param algorithm
+     *            The digest algorithm.
+     * @return A message digest ready to be updated.
+     * @throws NoSuchAlgorithmException
+     */
+    public static MessageDigest checkoutDigest(final String algorithm)
+            throws NoSuchAlgorithmException {
+        Pool<MessageDigest> pool = DIGEST_POOLS.get(algorithm);
+
+        if (pool == null) {
+            // Fails early if the algorithm is not supported
+            MessageDigest digest = MessageDigest.getInstance(algorithm);
+            pool = new Pool<MessageDigest>() {
+                @Override
+                protected void clear(MessageDigest object) {
+                    object.reset();
+                }
+
+                @Override
+                protected MessageDigest createObject() {
+                    try {
+                        return MessageDigest.getInstance(algorithm);
+                    } catch (NoSuchAlgorithmException nsae) {
+                        throw new IllegalStateException(nsae);
+                    }
+                }
+            };
+
+            DIGEST_POOLS.putIfAbsent(algorithm, pool);
+            return digest;
+        }
+
+        return pool.checkout();
+    }
+
+    /**
+     * Encrypts or decrypts the given bytes with a pooled cipher.
+     * 
+     * @param algorithm
+     *            The cipher algorithm.
+     * @param secretKey
+     *            The secret key.
+     * @param mode
+     *            The cipher mode, either {@link Cipher#ENCRYPT_MODE} or
+     *            {@link Cipher#DECRYPT_MODE}.
+     * @param input
+     *            The bytes to process.
+     * @return The processed bytes.
+     * @throws GeneralSecurityException
+     */
+    public static byte[] cipher(final String algorithm, byte[] secretKey,
+            final int mode, byte[] input) throws GeneralSecurityException {
+        PoolKey key = new PoolKey(algorithm, mode, secretKey);
+        Pool<Cipher> pool = CIPHER_POOLS.get(key);
+        Cipher cipher = null;
+
+        if (pool == null) {
+            final byte[] secret = secretKey.clone();
+            cipher = createCipher(algorithm, secret, mode);
+            pool = getPool(CIPHER_POOLS, key, new Pool<Cipher>() {
+                @Override
+                protected Cipher createObject() {
+                    try {
+                        return createCipher(algorithm, secret, mode);
+                    } catch (GeneralSecurityException gse) {
+                        throw new IllegalStateException(gse);
+                    }
+                }
+            });
+        } else {
+            cipher = pool.checkout();
+        }
+
+        byte[] result = cipher.doFinal(input);
+
+        // The cipher is back to its initial state, unless it needs a fresh
+        // initialization vector
+        if (cipher.getIV() == null) {
+            pool.checkin(cipher);
+        }
+
+        return result;
+    }
+
+    /**
+     * Clears all the pools.
+     */
+    public static void clear() {
+        CIPHER_POOLS.clear();
+        DIGEST_POOLS.clear();
+        MAC_POOLS.clear();
+    }
+
+    /**
+     * Creates a cipher for a given algorithm and secret.
+     * 
+     * @param algorithm
+     *            The cryptographic algorithm.
+     * @param secretKey
+     *            The cryptographic secret.
+     * @param mode
+     *            The cipher mode.
+     * @return The new cipher.
+     * @throws GeneralSecurityException
+     */
+    private static Cipher createCipher(String algorithm, byte[] secretKey,
+            int mode) throws GeneralSecurityException {
+        Cipher result = Cipher.getInstance(algorithm);
+        result.init(mode, new SecretKeySpec(secretKey, algorithm));
+        return result;
+    }
+
+    /**
+     * Creates a message authentication code for a given algorithm and secret.
+     * 
+     * @param algorithm
+     *            The MAC algorithm.
+     * @param secretKey
+     *            The secret key.
+     * @return The new message authentication code.
+     * @throws NoSuchAlgorithmException
+     * @throws InvalidKeyException
+     */
+    private static Mac createMac(String algorithm, byte[] secretKey)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        Mac result = Mac.getInstance(algorithm);
+        result.init(new SecretKeySpec(secretKey, algorithm));
+        return result;
+    }
+
+    /**
+     * Computes the digest of the given bytes with a pooled message digest.
+     * 
+     * @param algorithm
+     *            The digest algorithm.
+     * @param input
+     *            The bytes to digest.
+     * @return The digest value.
+     * @throws NoSuchAlgorithmException
+     */
+    public static byte[] digest(String algorithm, byte[] input)
+            throws NoSuchAlgorithmException {
+        MessageDigest digest = checkoutDigest(algorithm);
+
+        try {
+            return digest.digest(input);
+        } finally {
+            checkin(digest);
+        }
+    }
+
+    /**
+     * Returns the pool registered for the given key, registering the given
+     * one if none exists yet.
+     * 
+     * @param pools
+     *            The map of keyed pools.
+     * @param key
+     *            The pool key.
+     * @param pool
+     *            The pool to register.
+     * @return The registered pool.
+     */
+    private static <T> Pool<T> getPool(LruCache<PoolKey, Pool<T>> pools,
+            PoolKey key, Pool<T> pool) {
+        Pool<T> existing = pools.putIfAbsent(key, pool);
+        return (existing == null) ? pool : existing;
+    }
+
+    /**
+     * Computes the message authentication code of the given bytes with a
+     * pooled MAC initialized with the given secret key.
+     * 
+     * @param algorithm
+     *            The MAC algorithm, such as "HmacSHA1" or "HmacSHA256".
+     * @param secretKey
+     *            The secret key.
+     * @param input
+     *            The bytes to authenticate.
+     * @return The message authentication code.
+     * @throws NoSuchAlgorithmException
+     * @throws InvalidKeyException
+     */
+    public static byte[] mac(final String algorithm, byte[] secretKey,
+            byte[] input) throws NoSuchAlgorithmException, InvalidKeyException {
+        PoolKey key = new PoolKey(algorithm, 0, secretKey);
+        Pool<Mac> pool = MAC_POOLS.get(key);
+        Mac mac = null;
+
+        if (pool == null) {
+            final byte[] secret = secretKey.clone();
+            mac = createMac(algorithm, secret);
+            pool = getPool(MAC_POOLS, key, new Pool<Mac>() {
+                @Override
+                protected void clear(Mac object) {
+                    object.reset();
+                }
+
+                @Override
+                protected Mac createObject() {
+                    try {
+                        return createMac(algorithm, secret);
+                    } catch (GeneralSecurityException gse) {
+                        throw new IllegalStateException(gse);
+                    }
+                }
+            });
+        } else {
+            mac = pool.checkout();
+        }
+
+        // The MAC is reset with the same key once the value is computed
+        byte[] result = mac.doFinal(input);
+        pool.checkin(mac);
+        return result;
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private CryptoPools() {
+    }
+
+}
@@ -140,6 +140,21 @@ import org.restlet.util.Series;
  * <td>Name of the RNG algorithm. (see java.security.SecureRandom class)</td>
  * </tr>
  * <tr>
+ * <td>sessionCacheSize</td>
+ * <td>int</td>
+ * <td>-1 (JSSE default)</td>
+ * <td>Maximum number of SSL/TLS sessions cached by the client and server
+ * session contexts, allowing abbreviated handshakes when a peer resumes a
+ * previous session. '0' means unlimited.</td>
+ * </tr>
+ * <tr>
+ * <td>sessionTimeout</td>
+ * <td>int</td>
+ * <td>-1 (JSSE default)</td>
+ * <td>Time in seconds after which cached SSL/TLS sessions can't be resumed
+ * anymore. '0' means unlimited.</td>
+ * </tr>
+ * <tr>
  * <td>trustManagerAlgorithm</td>
  * <td>String</td>
  * <td>System property "ssl.TrustManagerFactory.algorithm" or "SunX509"</td>
@@ -244,6 +259,12 @@ public class DefaultSslContextFactory extends SslContextFactory {
     /** The name of the SecureRandom algorithm. */
     private volatile String secureRandomAlgorithm = null;
 
+    /** The maximum number of cached SSL sessions or -1 for the default. */
+    private volatile int sessionCacheSize = -1;
+
+    /** The timeout of cached SSL sessions in seconds or -1 for the default. */
+    private volatile int sessionTimeout = -1;
+
     /** The name of the TrustManager algorithm. */
     private volatile String trustManagerAlgorithm = null;
 
@@ -370,6 +391,21 @@ public class DefaultSslContextFactory extends SslContextFactory {
         sslContext.init(kmf != null ? kmf.getKeyManagers() : null,
                 tmf != null ? tmf.getTrustManagers() : null, sr);
 
+        // Sizes the session caches used to resume previous sessions
+        if (this.sessionCacheSize >= 0) {
+            sslContext.getClientSessionContext().setSessionCacheSize(
+                    this.sessionCacheSize);
+            sslContext.getServerSessionContext().setSessionCacheSize(
+                    this.sessionCacheSize);
+        }
+
+        if (this.sessionTimeout >= 0) {
+            sslContext.getClientSessionContext().setSessionTimeout(
+                    this.sessionTimeout);
+            sslContext.getServerSessionContext().setSessionTimeout(
+                    this.sessionTimeout);
+        }
+
         // Wraps the SSL context to be able to set cipher suites and other
         // properties after SSL engine creation for example
         result = createWrapper(sslContext);
@@ -555,6 +591,26 @@ public class DefaultSslContextFactory extends SslContextFactory {
         return resultSet.toArray(result);
     }
 
+    /**
+     * Returns the maximum number of SSL/TLS sessions cached by the client and
+     * server session contexts, or -1 for the JSSE default.
+     * 
+     * @return The maximum number of cached SSL/TLS sessions.
+     */
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Returns the time in seconds after which cached SSL/TLS sessions can't be
+     * resumed anymore, or -1 for the JSSE default.
+     * 
+     * @return The timeout of cached SSL/TLS sessions in seconds.
+     */
+    public int getSessionTimeout() {
+        return sessionTimeout;
+    }
+
     /**
      * Returns the name of the TrustManager algorithm.
      * 
@@ -710,6 +766,10 @@ public class DefaultSslContextFactory extends SslContextFactory {
         setProtocol(helperParameters.getFirstValue("protocol", true, "TLS"));
         setSecureRandomAlgorithm(helperParameters.getFirstValue(
                 "secureRandomAlgorithm", true));
+        setSessionCacheSize(Integer.parseInt(helperParameters.getFirstValue(
+                "sessionCacheSize", true, "-1")));
+        setSessionTimeout(Integer.parseInt(helperParameters.getFirstValue(
+                "sessionTimeout", true, "-1")));
         setTrustManagerAlgorithm(helperParameters.getFirstValue(
                 "trustManagerAlgorithm", true, System.getProperty(
                         "ssl.TrustManagerFactory.algorithm", "SunX509")));
@@ -911,6 +971,29 @@ public class DefaultSslContextFactory extends SslContextFactory {
         this.secureRandomAlgorithm = secureRandomAlgorithm;
     }
 
+    /**
+     * Sets the maximum number of SSL/TLS sessions cached by the client and
+     * server session contexts. Use -1 for the JSSE default and '0' for an
+     * unlimited cache.
+     * 
+     * @param sessionCacheSize
+     *            The maximum number of cached SSL/TLS sessions.
+     */
+    public void setSessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    /**
+     * Sets the time in seconds after which cached SSL/TLS sessions can't be
+     * resumed anymore. Use -1 for the JSSE default and '0' for no timeout.
+     * 
+     * @param sessionTimeout
+     *            The timeout of cached SSL/TLS sessions in seconds.
+     */
+    public void setSessionTimeout(int sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
     /**
      * Sets the TrustManager algorithm. The default value is that of the
      * <i>ssl.TrustManagerFactory.algorithm</i> system property, or
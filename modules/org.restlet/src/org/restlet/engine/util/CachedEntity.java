@@ -0,0 +1,125 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Tag;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.security.CryptoPools;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.Representation;
+
+/**
+ * Serialized entity cached along with the state it was built from. The entity
+ * tag is computed from the content, so that conditional requests can be
+ * answered. Used to avoid building again descriptions that are costly to
+ * generate, such as WADL or Swagger documents, until the described state
+ * changes.
+ * 
+ * @author Jerome Louvel
+ */
+public final class CachedEntity {
+
+    /** The character set of the entity. */
+    private final CharacterSet characterSet;
+
+    /** The serialized entity. */
+    private final byte[] content;
+
+    /** The media type of the entity. */
+    private final MediaType mediaType;
+
+    /** The state the entity was built from. */
+    private final Object state;
+
+    /** The entity tag. */
+    private final Tag tag;
+
+    /**
+     * Constructor. Serializes the given representation.
+     * 
+     * @param state
+     *            The state the entity was built from.
+     * @param representation
+     *            The entity to serialize.
+     * @throws IOException
+     */
+    public CachedEntity(Object state, Representation representation)
+            throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        representation.write(baos);
+        this.state = state;
+        this.content = baos.toByteArray();
+        this.mediaType = representation.getMediaType();
+        this.characterSet = representation.getCharacterSet();
+
+        try {
+            this.tag = new Tag(IoUtils.toHexString(CryptoPools.digest("MD5",
+                    this.content)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Indicates if the entity was built from the given state.
+     * 
+     * @param state
+     *            The current state.
+     * @return True if the entity was built from the given state.
+     */
+    public boolean isUpToDate(Object state) {
+        return this.state.equals(state);
+    }
+
+    /**
+     * Returns a new representation of the cached entity.
+     * 
+     * @return A new representation of the cached entity.
+     */
+    public Representation toRepresentation() {
+        Representation result = new ByteArrayRepresentation(this.content);
+        result.setMediaType(this.mediaType);
+        result.setCharacterSet(this.characterSet);
+        result.setSize(this.content.length);
+        result.setTag(this.tag);
+        return result;
+    }
+
+}
@@ -34,6 +34,7 @@
 package org.restlet.engine.util;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.logging.Level;
@@ -44,6 +45,7 @@ import org.restlet.data.Form;
 import org.restlet.data.MediaType;
 import org.restlet.data.Parameter;
 import org.restlet.data.Reference;
+import org.restlet.engine.io.IoUtils;
 import org.restlet.representation.Representation;
 
 /**
@@ -269,18 +271,22 @@ public class FormUtils {
     public static void parse(Form form, Representation post, boolean decode) {
         if (post != null) {
             if (post.isAvailable()) {
-                FormReader fr = null;
+                String source = null;
 
                 try {
-                    fr = new FormReader(post, decode);
+                    // Read the bytes as characters, like the form reader does
+                    source = IoUtils.toString(post.getStream(),
+                            CharacterSet.ISO_8859_1);
                 } catch (IOException ioe) {
                     Context.getCurrentLogger().log(Level.WARNING,
-                            "Unable to create a form reader. Parsing aborted.",
-                            ioe);
+                            "Unable to read the form. Parsing aborted.", ioe);
                 }
 
-                if (fr != null) {
-                    fr.addParameters(form);
+                if (source != null) {
+                    CharacterSet characterSet = (post.getCharacterSet() == null) ? CharacterSet.UTF_8
+                            : post.getCharacterSet();
+                    new FormView(source, characterSet, '&', decode)
+                            .addTo(form);
                 }
             } else {
                 Context.getCurrentLogger()
@@ -308,10 +314,24 @@ public class FormUtils {
     public static void parse(Form form, String parametersString,
             CharacterSet characterSet, boolean decode, char separator) {
         if ((parametersString != null) && !parametersString.equals("")) {
-            FormReader fr = null;
-            fr = new FormReader(parametersString, characterSet, separator,
-                    decode);
-            fr.addParameters(form);
+            String source = parametersString;
+
+            // [ifndef gwt]
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) > 127) {
+                    // Read the bytes as characters, like the form reader does
+                    try {
+                        source = new String(source.getBytes(), "ISO-8859-1");
+                    } catch (UnsupportedEncodingException uee) {
+                        // This character set is always supported
+                    }
+
+                    break;
+                }
+            }
+            // [enddef]
+
+            new FormView(source, characterSet, separator, decode).addTo(form);
         }
     }
 
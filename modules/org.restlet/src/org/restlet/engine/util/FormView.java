@@ -0,0 +1,331 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.data.CharacterSet;
+import org.restlet.data.Parameter;
+import org.restlet.data.Reference;
+import org.restlet.util.Series;
+
+/**
+ * Immutable view of the parameters of a query string or of a Web form. The
+ * parameters string is scanned once into offsets and each name or value is
+ * only decoded the first time it is accessed. Lookups by name use a hash index
+ * when there are many parameters.<br>
+ * <br>
+ * The string is split exactly like the {@link FormReader} class does. As
+ * instances can be shared, the decoded names and values are cached without
+ * locking, which is safe as computing them is idempotent.
+ * 
+ * @author Jerome Louvel
+ */
+public final class FormView {
+
+    /** The number of parameters above which lookups use a hash index. */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /** The character set used to decode the parameters. */
+    private final CharacterSet characterSet;
+
+    /** Indicates if the parameters should be decoded. */
+    private final boolean decode;
+
+    /** The index of the first parameter of each decoded name. */
+    private volatile Map<String, Integer> index;
+
+    /** The decoded names. */
+    private final String[] names;
+
+    /**
+     * The offsets of each parameter: name start, name end, value start or -1
+     * and value end.
+     */
+    private final int[] offsets;
+
+    /** The number of parameters. */
+    private final int size;
+
+    /** The parameters string. */
+    private final String source;
+
+    /** The decoded values. */
+    private final String[] values;
+
+    /**
+     * Constructor for query strings, decoded with the UTF-8 character set.
+     * 
+     * @param queryString
+     *            The query string.
+     */
+    public FormView(String queryString) {
+        this(queryString, CharacterSet.UTF_8, '&', true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param parametersString
+     *            The parameters string.
+     * @param characterSet
+     *            The supported character encoding.
+     * @param separator
+     *            The separator character between parameters.
+     * @param decode
+     *            Indicates if the parameters should be decoded using the given
+     *            character set.
+     */
+    public FormView(String parametersString, CharacterSet characterSet,
+            char separator, boolean decode) {
+        String source = (parametersString == null) ? "" : parametersString;
+        int[] offsets = new int[16];
+        int count = 0;
+        int start = 0;
+        int length = source.length();
+
+        while (start <= length) {
+            int end = source.indexOf(separator, start);
+
+            if (end == -1) {
+                end = length;
+            }
+
+            if (start == end) {
+                if (end < length) {
+                    Context.getCurrentLogger()
+                            .fine("Empty parameter name detected. Please check your form data");
+                }
+            } else {
+                int equals = -1;
+
+                for (int i = start; (equals == -1) && (i < end); i++) {
+                    if (source.charAt(i) == '=') {
+                        equals = i;
+                    }
+                }
+
+                if (equals == start) {
+                    Context.getCurrentLogger()
+                            .log(Level.WARNING,
+                                    "Empty parameter name detected. Skipping the remaining parameters.");
+                    break;
+                }
+
+                if (offsets.length < (count + 1) * 4) {
+                    int[] newOffsets = new int[offsets.length * 2];
+                    System.arraycopy(offsets, 0, newOffsets, 0, offsets.length);
+                    offsets = newOffsets;
+                }
+
+                int i = count * 4;
+                offsets[i] = start;
+
+                if (equals == -1) {
+                    // No value
+                    offsets[i + 1] = end;
+                    offsets[i + 2] = -1;
+                    offsets[i + 3] = -1;
+                } else {
+                    offsets[i + 1] = equals;
+                    offsets[i + 2] = equals + 1;
+                    offsets[i + 3] = end;
+                }
+
+                count++;
+            }
+
+            start = end + 1;
+        }
+
+        this.source = source;
+        this.characterSet = characterSet;
+        this.decode = decode;
+        this.offsets = offsets;
+        this.size = count;
+        this.names = new String[count];
+        this.values = new String[count];
+    }
+
+    /**
+     * Adds new parameters, built from the view, to a series.
+     * 
+     * @param parameters
+     *            The series to update.
+     */
+    public void addTo(Series<Parameter> parameters) {
+        for (int i = 0; i < this.size; i++) {
+            parameters.add(new Parameter(getName(i), getValue(i)));
+        }
+    }
+
+    /**
+     * Indicates if a parameter with the given name and value exists. A null
+     * value only matches parameters without value.
+     * 
+     * @param name
+     *            The parameter name.
+     * @param value
+     *            The parameter value.
+     * @return True if a matching parameter exists.
+     */
+    public boolean contains(String name, String value) {
+        for (int i = indexOf(name); (i != -1) && (i < this.size); i++) {
+            if (name.equals(getName(i))
+                    && ((value == null) ? getValue(i) == null : value
+                            .equals(getValue(i)))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Decodes a part of the parameters string.
+     * 
+     * @param start
+     *            The start index.
+     * @param end
+     *            The end index.
+     * @return The decoded part.
+     */
+    private String decode(int start, int end) {
+        String result = this.source.substring(start, end);
+        return this.decode ? Reference.decode(result, this.characterSet)
+                : result;
+    }
+
+    /**
+     * Returns the value of the first parameter with the given name.
+     * 
+     * @param name
+     *            The parameter name.
+     * @return The value of the first parameter found or null.
+     */
+    public String getFirstValue(String name) {
+        int i = indexOf(name);
+        return (i == -1) ? null : getValue(i);
+    }
+
+    /**
+     * Returns the decoded name of a parameter.
+     * 
+     * @param index
+     *            The parameter index.
+     * @return The decoded name.
+     */
+    public String getName(int index) {
+        String result = this.names[index];
+
+        if (result == null) {
+            result = decode(this.offsets[index * 4],
+                    this.offsets[index * 4 + 1]);
+            this.names[index] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the decoded value of a parameter.
+     * 
+     * @param index
+     *            The parameter index.
+     * @return The decoded value or null.
+     */
+    public String getValue(int index) {
+        String result = this.values[index];
+
+        if ((result == null) && (this.offsets[index * 4 + 2] != -1)) {
+            result = decode(this.offsets[index * 4 + 2],
+                    this.offsets[index * 4 + 3]);
+            this.values[index] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index of the first parameter with the given name.
+     * 
+     * @param name
+     *            The parameter name.
+     * @return The index of the first parameter found or -1.
+     */
+    public int indexOf(String name) {
+        if (this.size > INDEX_THRESHOLD) {
+            Map<String, Integer> index = this.index;
+
+            if (index == null) {
+                index = new HashMap<String, Integer>();
+
+                for (int i = this.size - 1; i >= 0; i--) {
+                    index.put(getName(i), i);
+                }
+
+                this.index = index;
+            }
+
+            Integer result = index.get(name);
+            return (result == null) ? -1 : result.intValue();
+        }
+
+        for (int i = 0; i < this.size; i++) {
+            if (getName(i).equals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the number of parameters.
+     * 
+     * @return The number of parameters.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public String toString() {
+        return this.source;
+    }
+
+}
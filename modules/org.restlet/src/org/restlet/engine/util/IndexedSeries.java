@@ -0,0 +1,376 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.util.NamedValue;
+import org.restlet.util.Series;
+
+/**
+ * Series that indexes its entries by name in order to look them up in constant
+ * time. The insertion order is preserved as the entries are still stored in a
+ * list. The index maps case-folded names to the positions of the matching
+ * entries, so it serves both case sensitive and insensitive lookups. It is
+ * only built once the series contains more than a few entries. It is then
+ * updated as entries are appended, and built again after entries are
+ * inserted, removed or replaced.<br>
+ * <br>
+ * Note that entries renamed after being added to the series aren't detected,
+ * they should be removed then added again instead.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The contained type
+ */
+public class IndexedSeries<T extends NamedValue<String>> extends Series<T> {
+
+    /**
+     * Immutable snapshot of the index, published along with the number of
+     * modifications of the list it reflects. The positions are only updated in
+     * place by the thread appending entries to the list.
+     */
+    private static final class Index {
+
+        /** The number of modifications of the list reflected. */
+        private final int modCount;
+
+        /** The positions of the entries for each folded name. */
+        private final Map<String, List<Integer>> positions;
+
+        /**
+         * Constructor.
+         * 
+         * @param positions
+         *            The positions of the entries for each folded name.
+         * @param modCount
+         *            The number of modifications of the list reflected.
+         */
+        private Index(Map<String, List<Integer>> positions, int modCount) {
+            this.positions = positions;
+            this.modCount = modCount;
+        }
+
+        /**
+         * Adds the position of an entry.
+         * 
+         * @param name
+         *            The entry name.
+         * @param position
+         *            The entry position.
+         */
+        private void add(String name, int position) {
+            String key = fold(name);
+            List<Integer> list = this.positions.get(key);
+
+            if (list == null) {
+                list = new ArrayList<Integer>(1);
+                this.positions.put(key, list);
+            }
+
+            list.add(position);
+        }
+    }
+
+    /**
+     * List counting all its modifications, including the replacement of
+     * elements, and maintaining the index of its elements once built.
+     * 
+     * @param <E>
+     *            The element type.
+     */
+    private static class IndexedList<E extends NamedValue<String>> extends
+            AbstractList<E> {
+
+        /** The index of the elements or null. */
+        private volatile Index index;
+
+        /** The actual list. */
+        private final ArrayList<E> list;
+
+        /**
+         * Constructor.
+         * 
+         * @param initialCapacity
+         *            The initial list capacity.
+         */
+        public IndexedList(int initialCapacity) {
+            this.list = new ArrayList<E>(initialCapacity);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            boolean append = (index == this.list.size());
+            this.list.add(index, element);
+            this.modCount++;
+            Index current = this.index;
+
+            // Appended elements are indexed incrementally
+            if (append && (current != null)
+                    && (current.modCount == this.modCount - 1)) {
+                current.add(element.getName(), index);
+                this.index = new Index(current.positions, this.modCount);
+            }
+        }
+
+        @Override
+        public void clear() {
+            this.modCount++;
+            this.list.clear();
+        }
+
+        @Override
+        public E get(int index) {
+            return this.list.get(index);
+        }
+
+        /**
+         * Returns the index of the elements, built again if the list was
+         * modified other than by appending elements.
+         * 
+         * @return The index of the elements.
+         */
+        public Index getIndex() {
+            Index result = this.index;
+            int modCount = this.modCount;
+
+            if ((result == null) || (result.modCount != modCount)) {
+                result = new Index(new HashMap<String, List<Integer>>(),
+                        modCount);
+
+                for (int i = 0; i < this.list.size(); i++) {
+                    result.add(this.list.get(i).getName(), i);
+                }
+
+                this.index = result;
+            }
+
+            return result;
+        }
+
+        @Override
+        public E remove(int index) {
+            this.modCount++;
+            return this.list.remove(index);
+        }
+
+        @Override
+        public E set(int index, E element) {
+            this.modCount++;
+            return this.list.set(index, element);
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+    }
+
+    /** The number of entries above which the index is used. */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Folds the case of a name, consistently with the
+     * {@link String#equalsIgnoreCase(String)} method.
+     * 
+     * @param name
+     *            The name to fold.
+     * @return The folded name.
+     */
+    private static String fold(String name) {
+        String result = name;
+
+        if (name != null) {
+            char[] chars = null;
+
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                char folded = Character.toLowerCase(Character.toUpperCase(c));
+
+                if (folded != c) {
+                    if (chars == null) {
+                        chars = name.toCharArray();
+                    }
+
+                    chars[i] = folded;
+                }
+            }
+
+            if (chars != null) {
+                result = new String(chars);
+            }
+        }
+
+        return result;
+    }
+
+    /** The class of the entries. */
+    private final Class<T> entryClass;
+
+    /** The list of entries. */
+    private final IndexedList<T> list;
+
+    /**
+     * Constructor.
+     * 
+     * @param entryClass
+     *            The class of the entries.
+     */
+    public IndexedSeries(Class<T> entryClass) {
+        this(entryClass, new IndexedList<T>(10));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param entryClass
+     *            The class of the entries.
+     * @param initialCapacity
+     *            The initial list capacity.
+     */
+    public IndexedSeries(Class<T> entryClass, int initialCapacity) {
+        this(entryClass, new IndexedList<T>(initialCapacity));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param entryClass
+     *            The class of the entries.
+     * @param list
+     *            The list of entries.
+     */
+    private IndexedSeries(Class<T> entryClass, IndexedList<T> list) {
+        super(entryClass, list);
+        this.entryClass = entryClass;
+        this.list = list;
+    }
+
+    /**
+     * Returns the entries with the given name, in insertion order, or null if
+     * the series is too small to be indexed.
+     * 
+     * @param name
+     *            The name to match.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return The matching entries or null.
+     */
+    private List<T> find(String name, boolean ignoreCase) {
+        if (size() <= INDEX_THRESHOLD) {
+            return null;
+        }
+
+        List<T> result = new ArrayList<T>(1);
+        List<Integer> positions = this.list.getIndex().positions
+                .get(fold(name));
+
+        if (positions != null) {
+            for (Integer position : positions) {
+                T entry = this.list.get(position);
+                String entryName = entry.getName();
+
+                if ((entryName == name)
+                        || ((entryName != null) && (ignoreCase ? entryName
+                                .equalsIgnoreCase(name) : entryName
+                                .equals(name)))) {
+                    result.add(entry);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public T getFirst(String name, boolean ignoreCase) {
+        List<T> entries = find(name, ignoreCase);
+
+        if (entries == null) {
+            return super.getFirst(name, ignoreCase);
+        }
+
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    @Override
+    public String getValues(String name, String separator, boolean ignoreCase) {
+        List<T> entries = find(name, ignoreCase);
+
+        if (entries == null) {
+            return super.getValues(name, separator, ignoreCase);
+        }
+
+        String result = null;
+        StringBuilder sb = null;
+
+        for (T entry : entries) {
+            if (sb == null) {
+                if (result == null) {
+                    result = entry.getValue();
+                } else {
+                    sb = new StringBuilder();
+                    sb.append(result).append(separator)
+                            .append(entry.getValue());
+                }
+            } else {
+                sb.append(separator).append(entry.getValue());
+            }
+        }
+
+        if (sb != null) {
+            result = sb.toString();
+        }
+
+        return result;
+    }
+
+    @Override
+    public Series<T> subList(String name, boolean ignoreCase) {
+        List<T> entries = find(name, ignoreCase);
+
+        if (entries == null) {
+            return super.subList(name, ignoreCase);
+        }
+
+        Series<T> result = new Series<T>(this.entryClass);
+        result.addAll(entries);
+        return result;
+    }
+
+}
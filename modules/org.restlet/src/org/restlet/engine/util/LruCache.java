@@ -0,0 +1,316 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe map of bounded size, evicting the least recently used entries
+ * when new ones are added while full. Lookups and updates don't lock: the
+ * entries are stored in a concurrent map and record their last access. When
+ * the maximum size is exceeded, the thread adding the entry evicts the least
+ * recently used eighth of the entries in one pass, while the other threads
+ * keep going. The size can thus briefly exceed the maximum when entries are
+ * concurrently added.
+ * 
+ * @author Jerome Louvel
+ * 
+ * @param <K>
+ *            The key type.
+ * @param <V>
+ *            The value type.
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Cache entry.
+     * 
+     * @param <V>
+     *            The value type.
+     */
+    private static final class Node<V> {
+
+        /** The last access time, as given by the cache clock. */
+        private volatile long lastAccess;
+
+        /** The value. */
+        private final V value;
+
+        /**
+         * Constructor.
+         * 
+         * @param value
+         *            The value.
+         * @param lastAccess
+         *            The last access time.
+         */
+        private Node(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /** The clock ordering the accesses. */
+    private final AtomicLong clock;
+
+    /** The entries. */
+    private final ConcurrentMap<K, Node<V>> entries;
+
+    /** Indicates if a thread is evicting entries. */
+    private final AtomicBoolean evicting;
+
+    /** The maximum number of entries. */
+    private final int maxSize;
+
+    /** The current number of entries. */
+    private final AtomicInteger size;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of entries.
+     */
+    public LruCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(
+                    "The maximum size must be strictly positive");
+        }
+
+        this.clock = new AtomicLong();
+        this.entries = new ConcurrentHashMap<K, Node<V>>();
+        this.evicting = new AtomicBoolean();
+        this.maxSize = maxSize;
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Indicates that an entry was added, evicting the least recently used
+     * entries if the cache is now too large and no other thread is already
+     * doing it.
+     */
+    private void added() {
+        if ((this.size.incrementAndGet() > this.maxSize)
+                && this.evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                this.evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        for (K key : this.entries.keySet()) {
+            if (this.entries.remove(key) != null) {
+                this.size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries, keeping seven eighths of the
+     * maximum number of entries.
+     */
+    private void evict() {
+        long[] accesses = new long[this.size.get() + 16];
+        int count = 0;
+
+        for (Node<V> node : this.entries.values()) {
+            if (count == accesses.length) {
+                accesses = Arrays.copyOf(accesses, count * 2);
+            }
+
+            accesses[count++] = node.lastAccess;
+        }
+
+        int evictions = count - (this.maxSize - this.maxSize / 8);
+
+        if (evictions > 0) {
+            Arrays.sort(accesses, 0, count);
+            long threshold = accesses[evictions - 1];
+
+            for (Map.Entry<K, Node<V>> entry : this.entries.entrySet()) {
+                if ((entry.getValue().lastAccess <= threshold)
+                        && this.entries.remove(entry.getKey(),
+                                entry.getValue())) {
+                    this.size.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the value of an entry and marks it as recently used.
+     * 
+     * @param key
+     *            The entry key.
+     * @return The entry value or null.
+     */
+    public V get(K key) {
+        Node<V> node = this.entries.get(key);
+
+        if (node == null) {
+            return null;
+        }
+
+        node.lastAccess = this.clock.incrementAndGet();
+        return node.value;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     * 
+     * @return The maximum number of entries.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns an unmodifiable view of the keys. The view is weakly consistent
+     * with the concurrent updates, and iterating it doesn't count as an access
+     * to the entries.
+     * 
+     * @return An unmodifiable view of the keys.
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * Adds or replaces an entry, evicting the least recently used ones if the
+     * cache is full.
+     * 
+     * @param key
+     *            The entry key.
+     * @param value
+     *            The entry value.
+     * @return The previous value or null.
+     */
+    public V put(K key, V value) {
+        Node<V> previous = this.entries.put(key, new Node<V>(value,
+                this.clock.incrementAndGet()));
+
+        if (previous == null) {
+            added();
+            return null;
+        }
+
+        return previous.value;
+    }
+
+    /**
+     * Adds an entry unless one already exists for the given key, evicting the
+     * least recently used ones if the cache is full.
+     * 
+     * @param key
+     *            The entry key.
+     * @param value
+     *            The entry value.
+     * @return The existing value or null if the entry was added.
+     */
+    public V putIfAbsent(K key, V value) {
+        Node<V> node = new Node<V>(value, this.clock.incrementAndGet());
+        Node<V> existing = this.entries.putIfAbsent(key, node);
+
+        if (existing == null) {
+            added();
+            return null;
+        }
+
+        existing.lastAccess = node.lastAccess;
+        return existing.value;
+    }
+
+    /**
+     * Removes an entry.
+     * 
+     * @param key
+     *            The entry key.
+     * @return The removed value or null.
+     */
+    public V remove(K key) {
+        Node<V> node = this.entries.remove(key);
+
+        if (node == null) {
+            return null;
+        }
+
+        this.size.decrementAndGet();
+        return node.value;
+    }
+
+    /**
+     * Removes an entry only if it currently has the given value.
+     * 
+     * @param key
+     *            The entry key.
+     * @param value
+     *            The expected entry value.
+     * @return True if the entry was removed.
+     */
+    public boolean remove(K key, V value) {
+        Node<V> node = this.entries.get(key);
+
+        if ((value != null) && (node != null) && (node.value == value)
+                && this.entries.remove(key, node)) {
+            this.size.decrementAndGet();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the current number of entries.
+     * 
+     * @return The current number of entries.
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+}
@@ -0,0 +1,479 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.restlet.data.Reference;
+
+/**
+ * Immutable and lightweight view of a URI reference string. The indexes of the
+ * URI components are computed once at construction time while the path, its
+ * segments, the query parameters and the remaining part relatively to a base
+ * view are lazily computed then cached. As instances never change, they can be
+ * safely shared between threads and between references, for example when a
+ * {@link Reference} is copied.<br>
+ * <br>
+ * The {@link Reference} class relies on this class for its parsing and acts as
+ * a mutable facade. The routing classes use it to match references without
+ * copying them.
+ * 
+ * @author Jerome Louvel
+ */
+public final class UriView {
+
+    /** Cached remaining part relatively to a given base view. */
+    private static final class RemainingPart {
+
+        /** The base view. */
+        private final UriView base;
+
+        /** Indicates if the query was included. */
+        private final boolean query;
+
+        /** The remaining part. */
+        private final String value;
+
+        /**
+         * Constructor.
+         * 
+         * @param base
+         *            The base view.
+         * @param query
+         *            Indicates if the query was included.
+         * @param value
+         *            The remaining part.
+         */
+        private RemainingPart(UriView base, boolean query, String value) {
+            this.base = base;
+            this.query = query;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Returns the index of a character in a region of a string.
+     * 
+     * @param value
+     *            The string to search.
+     * @param character
+     *            The character to look for.
+     * @param fromIndex
+     *            The start index, inclusive.
+     * @param toIndex
+     *            The end index, exclusive.
+     * @return The index found or -1.
+     */
+    private static int indexOf(String value, char character, int fromIndex,
+            int toIndex) {
+        int result = value.indexOf(character, fromIndex);
+        return (result < toIndex) ? result : -1;
+    }
+
+    /** Indicates if the path contains "." or ".." segments. */
+    private volatile Boolean dotSegments;
+
+    /** The fragment separator index. */
+    private final int fragmentIndex;
+
+    /** The end index of the path or -1. */
+    private final int pathEnd;
+
+    /** The start index of the path or -1. */
+    private final int pathStart;
+
+    /** The query separator index. */
+    private final int queryIndex;
+
+    /** The last remaining part computed. */
+    private volatile RemainingPart remainingPart;
+
+    /** The scheme separator index. */
+    private final int schemeIndex;
+
+    /** The decoded path segments. */
+    private volatile List<String> decodedSegments;
+
+    /** The path segments. */
+    private volatile List<String> segments;
+
+    /** The query parameters. */
+    private volatile FormView queryView;
+
+    /** The URI reference string. */
+    private final String value;
+
+    /**
+     * Constructor.
+     * 
+     * @param value
+     *            The URI reference string, assumed to be properly encoded.
+     */
+    public UriView(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(
+                    "The URI reference string can't be null");
+        }
+
+        this.value = value;
+
+        // Compute the indexes
+        int firstSlashIndex = value.indexOf('/');
+        int schemeIndex = value.indexOf(':');
+
+        if ((firstSlashIndex != -1) && (schemeIndex > firstSlashIndex)) {
+            // We are in the rare case of a relative reference where one of
+            // the path segments contains a colon character. In this case,
+            // we ignore the colon as a valid scheme index.
+            // Note that this colon can't be in the first segment as it is
+            // forbidden by the URI RFC.
+            schemeIndex = -1;
+        }
+
+        int queryIndex = value.indexOf('?');
+        int fragmentIndex = value.indexOf('#');
+
+        if ((queryIndex != -1) && (fragmentIndex != -1)
+                && (queryIndex > fragmentIndex)) {
+            // Query sign inside fragment
+            queryIndex = -1;
+        }
+
+        if ((queryIndex != -1) && (schemeIndex > queryIndex)) {
+            // Colon sign inside query
+            schemeIndex = -1;
+        }
+
+        if ((fragmentIndex != -1) && (schemeIndex > fragmentIndex)) {
+            // Colon sign inside fragment
+            schemeIndex = -1;
+        }
+
+        this.schemeIndex = schemeIndex;
+        this.queryIndex = queryIndex;
+        this.fragmentIndex = fragmentIndex;
+
+        // Compute the path bounds, within the relative part for relative
+        // references and within the scheme specific part otherwise
+        int partStart = (schemeIndex == -1) ? 0 : schemeIndex + 1;
+        int partEnd = (schemeIndex == -1) ? getEndIndex(false)
+                : getEndIndex(true);
+        int start = -1;
+        int end = -1;
+
+        if (value.startsWith("//", partStart) && (partStart + 2 <= partEnd)) {
+            // Authority found
+            int slashIndex = indexOf(value, '/', partStart + 2, partEnd);
+
+            if (slashIndex != -1) {
+                // Path found
+                int index = indexOf(value, '?', partStart, partEnd);
+
+                if (index != -1) {
+                    // Query found
+                    start = Math.min(slashIndex, index);
+                    end = index;
+                } else {
+                    start = slashIndex;
+                    end = partEnd;
+                }
+            }
+        } else {
+            // No authority found
+            int index = indexOf(value, '?', partStart, partEnd);
+            start = partStart;
+            end = (index != -1) ? index : partEnd;
+        }
+
+        this.pathStart = start;
+        this.pathEnd = end;
+    }
+
+    /**
+     * Returns the end index of the reference string, excluding the fragment
+     * and optionally the query.
+     * 
+     * @param query
+     *            Indicates if the query should be included.
+     * @return The end index.
+     */
+    public int getEndIndex(boolean query) {
+        if (!query && hasQuery()) {
+            return this.queryIndex;
+        }
+
+        return hasFragment() ? this.fragmentIndex : this.value.length();
+    }
+
+    /**
+     * Returns the fragment separator index or -1.
+     * 
+     * @return The fragment separator index or -1.
+     */
+    public int getFragmentIndex() {
+        return this.fragmentIndex;
+    }
+
+    /**
+     * Returns the path component or null.
+     * 
+     * @return The path component or null.
+     * @see Reference#getPath()
+     */
+    public String getPath() {
+        return (this.pathStart == -1) ? null : this.value.substring(
+                this.pathStart, this.pathEnd);
+    }
+
+    /**
+     * Returns the query separator index or -1.
+     * 
+     * @return The query separator index or -1.
+     */
+    public int getQueryIndex() {
+        return this.queryIndex;
+    }
+
+    /**
+     * Returns the view of the query parameters, decoded with the UTF-8
+     * character set. An empty view is returned if there is no query.
+     * 
+     * @return The view of the query parameters.
+     * @see Reference#getQueryAsForm()
+     */
+    public FormView getQueryView() {
+        FormView result = this.queryView;
+
+        if (result == null) {
+            String query = null;
+
+            if (hasQuery()) {
+                query = this.value.substring(this.queryIndex + 1,
+                        hasFragment() ? this.fragmentIndex : this.value
+                                .length());
+            }
+
+            result = new FormView(query);
+            this.queryView = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index where the part remaining after the given base view
+     * starts, or -1 if this view doesn't start with the base view.
+     * 
+     * @param base
+     *            The base view.
+     * @param query
+     *            Indicates if the query should be included.
+     * @return The index where the remaining part starts or -1.
+     */
+    public int getRemainingIndex(UriView base, boolean query) {
+        int baseEnd = base.getEndIndex(query);
+
+        if ((baseEnd <= getEndIndex(query))
+                && this.value.regionMatches(0, base.value, 0, baseEnd)) {
+            return baseEnd;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the part remaining after the given base view, excluding the
+     * fragment and optionally the query. The last result is cached as routers
+     * successively score the same reference against all their routes.
+     * 
+     * @param base
+     *            The base view or null.
+     * @param query
+     *            Indicates if the query should be included.
+     * @return The remaining part or null if this view doesn't start with the
+     *         base view.
+     * @see Reference#getRemainingPart(boolean, boolean)
+     */
+    public String getRemainingPart(UriView base, boolean query) {
+        RemainingPart cached = this.remainingPart;
+
+        if ((cached != null) && (cached.base == base)
+                && (cached.query == query)) {
+            return cached.value;
+        }
+
+        String result = null;
+        int start = (base == null) ? 0 : getRemainingIndex(base, query);
+
+        if (start != -1) {
+            result = this.value.substring(start, getEndIndex(query));
+        }
+
+        this.remainingPart = new RemainingPart(base, query, result);
+        return result;
+    }
+
+    /**
+     * Returns the scheme separator index or -1.
+     * 
+     * @return The scheme separator index or -1.
+     */
+    public int getSchemeIndex() {
+        return this.schemeIndex;
+    }
+
+    /**
+     * Returns the unmodifiable list of path segments.
+     * 
+     * @param decode
+     *            Indicates if the segments should be decoded.
+     * @return The unmodifiable list of path segments.
+     * @see Reference#getSegments(boolean)
+     */
+    public List<String> getSegments(boolean decode) {
+        List<String> result = decode ? this.decodedSegments : this.segments;
+
+        if (result == null) {
+            if (decode) {
+                List<String> decoded = new ArrayList<String>(
+                        getSegments(false));
+
+                for (int i = 0; i < decoded.size(); i++) {
+                    decoded.set(i, Reference.decode(decoded.get(i)));
+                }
+
+                result = Collections.unmodifiableList(decoded);
+                this.decodedSegments = result;
+            } else {
+                List<String> parsed = new ArrayList<String>();
+
+                if (this.pathStart != -1) {
+                    // The index of the slash starting the segment
+                    int start = -2;
+
+                    for (int i = this.pathStart; i < this.pathEnd; i++) {
+                        if (this.value.charAt(i) == '/') {
+                            if (start != -2) {
+                                // End of a segment
+                                parsed.add(this.value.substring(start + 1, i));
+                            }
+
+                            start = i;
+                        } else if (start == -2) {
+                            // Starting a new segment for a relative path
+                            start = this.pathStart - 1;
+                        }
+                    }
+
+                    if (start != -2) {
+                        // Add the last segment
+                        parsed.add(this.value.substring(start + 1,
+                                this.pathEnd));
+                    }
+                }
+
+                result = Collections.unmodifiableList(parsed);
+                this.segments = result;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if the path contains "." or ".." segments that a normalization
+     * would remove.
+     * 
+     * @return True if the path contains "." or ".." segments.
+     */
+    public boolean hasDotSegments() {
+        Boolean result = this.dotSegments;
+
+        if (result == null) {
+            boolean found = false;
+
+            for (String segment : getSegments(false)) {
+                if (".".equals(segment) || "..".equals(segment)) {
+                    found = true;
+                    break;
+                }
+            }
+
+            result = Boolean.valueOf(found);
+            this.dotSegments = result;
+        }
+
+        return result.booleanValue();
+    }
+
+    /**
+     * Indicates if the reference has a fragment.
+     * 
+     * @return True if the reference has a fragment.
+     */
+    public boolean hasFragment() {
+        return (this.fragmentIndex != -1);
+    }
+
+    /**
+     * Indicates if the reference has a query.
+     * 
+     * @return True if the reference has a query.
+     */
+    public boolean hasQuery() {
+        return (this.queryIndex != -1);
+    }
+
+    /**
+     * Indicates if the reference has a scheme.
+     * 
+     * @return True if the reference has a scheme.
+     */
+    public boolean hasScheme() {
+        return (this.schemeIndex != -1);
+    }
+
+    /**
+     * Returns the URI reference string.
+     * 
+     * @return The URI reference string.
+     */
+    @Override
+    public String toString() {
+        return this.value;
+    }
+
+}
@@ -49,6 +49,7 @@ import java.util.logging.Level;
 import org.restlet.Context;
 import org.restlet.data.Digest;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.security.CryptoPools;
 import org.restlet.util.WrapperRepresentation;
 
 /**
@@ -184,9 +185,10 @@ public class DigesterRepresentation extends WrapperRepresentation {
         if (this.algorithm != null && this.algorithm.equals(algorithm)) {
             result = getComputedDigest();
         } else if (isAvailable()) {
+            java.security.MessageDigest md = null;
+
             try {
-                java.security.MessageDigest md = java.security.MessageDigest
-                        .getInstance(algorithm);
+                md = CryptoPools.checkoutDigest(algorithm);
                 java.security.DigestInputStream dis = new java.security.DigestInputStream(
                         getStream(), md);
                 org.restlet.engine.io.IoUtils.exhaust(dis);
@@ -197,6 +199,8 @@ public class DigesterRepresentation extends WrapperRepresentation {
             } catch (IOException e) {
                 Context.getCurrentLogger().log(Level.WARNING,
                         "Unable to check the digest of the representation.", e);
+            } finally {
+                CryptoPools.checkin(md);
             }
         }
 
@@ -0,0 +1,674 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.security;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
+import org.restlet.data.ClientInfo;
+import org.restlet.engine.security.CryptoPools;
+import org.restlet.engine.util.Base64;
+import org.restlet.engine.util.LruCache;
+
+/**
+ * Verifier caching the results of a wrapped verifier, such as a
+ * {@link SecretVerifier} or a verifier calling a remote authorization server.
+ * The results are cached by salted hash of the credentials found in the
+ * {@link ChallengeResponse}, so the credentials themselves are never kept.<br>
+ * <br>
+ * Valid results are cached along with the verified user and roles. Shortly
+ * before they expire, the next request with the same credentials triggers a
+ * verification in the background, see {@link #getExecutorService()}, while
+ * all the requests keep relying on the cached result. Invalid results and
+ * unknown identifiers are cached for a shorter time, in a separate cache of
+ * smaller size, so that random credentials can't evict the valid results. Both
+ * caches evict their least recently used results when full. Concurrent
+ * verifications of the same credentials are coalesced into a single call to
+ * the wrapped verifier.<br>
+ * <br>
+ * Exceptions thrown by the wrapped verifier are never cached, and a failed
+ * refresh keeps the previous result until it expires. Verifiers that can't
+ * reach their authorization server should thus throw an exception rather than
+ * return {@link Verifier#RESULT_INVALID}.<br>
+ * <br>
+ * Only the challenge schemes whose credentials are the same for each request
+ * are cached, by default HTTP BASIC and OAuth Bearer. Schemes based on a
+ * nonce, such as HTTP DIGEST, must not be added.
+ * 
+ * @author Jerome Louvel
+ */
+public class CachingVerifier implements Verifier {
+
+    /**
+     * Cached verification result.
+     */
+    private static final class Entry {
+
+        /** The expiration time, in milliseconds. */
+        private final long expirationTime;
+
+        /** Indicates if a refresh is in progress. */
+        private final AtomicBoolean refreshing;
+
+        /** The verification result. */
+        private final int result;
+
+        /** The verified roles. */
+        private final List<Role> roles;
+
+        /** The verified user. */
+        private final User user;
+
+        /**
+         * Constructor.
+         * 
+         * @param result
+         *            The verification result.
+         * @param clientInfo
+         *            The client info updated by the verification.
+         * @param expirationTime
+         *            The expiration time, in milliseconds.
+         */
+        private Entry(int result, ClientInfo clientInfo, long expirationTime) {
+            this.result = result;
+            this.user = clientInfo.getUser();
+            this.roles = new ArrayList<Role>(clientInfo.getRoles());
+            this.expirationTime = expirationTime;
+            this.refreshing = new AtomicBoolean();
+        }
+    }
+
+    /** The charset used to hash the credentials. */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** The challenge schemes whose verifications can be cached. */
+    private final Set<ChallengeScheme> cacheableSchemes;
+
+    /** The cached valid results, by hash of the credentials. */
+    private volatile LruCache<String, Entry> entries;
+
+    /** The executor service refreshing the valid results. */
+    private volatile ExecutorService executorService;
+
+    /** The cached invalid results, by hash of the credentials. */
+    private volatile LruCache<String, Entry> negativeEntries;
+
+    /** The time to live of invalid results, in milliseconds. */
+    private volatile long negativeTimeToLive;
+
+    /** The verifications in progress, by hash of the credentials. */
+    private final ConcurrentMap<String, FutureTask<Entry>> pendingEntries;
+
+    /** The remaining time to live triggering a refresh, in milliseconds. */
+    private volatile long refreshAheadTime;
+
+    /** The salt of the hashed credentials. */
+    private final byte[] salt;
+
+    /** The time to live of valid results, in milliseconds. */
+    private volatile long timeToLive;
+
+    /** The wrapped verifier. */
+    private final Verifier wrappedVerifier;
+
+    /**
+     * Constructor. Valid results are cached for one minute and refreshed
+     * during the last 15 seconds, invalid results are cached for 5 seconds.
+     * 
+     * @param wrappedVerifier
+     *            The wrapped verifier.
+     */
+    public CachingVerifier(Verifier wrappedVerifier) {
+        this(wrappedVerifier, 60000L, 5000L);
+    }
+
+    /**
+     * Constructor. Valid results are refreshed during the last quarter of
+     * their time to live.
+     * 
+     * @param wrappedVerifier
+     *            The wrapped verifier.
+     * @param timeToLive
+     *            The time to live of valid results, in milliseconds.
+     * @param negativeTimeToLive
+     *            The time to live of invalid results, in milliseconds.
+     */
+    public CachingVerifier(Verifier wrappedVerifier, long timeToLive,
+            long negativeTimeToLive) {
+        this.wrappedVerifier = wrappedVerifier;
+        this.timeToLive = timeToLive;
+        this.negativeTimeToLive = negativeTimeToLive;
+        this.refreshAheadTime = timeToLive / 4;
+        this.entries = new LruCache<String, Entry>(10000);
+        this.negativeEntries = new LruCache<String, Entry>(1000);
+        this.pendingEntries = new ConcurrentHashMap<String, FutureTask<Entry>>();
+        this.cacheableSchemes = new CopyOnWriteArraySet<ChallengeScheme>();
+        this.cacheableSchemes.add(ChallengeScheme.HTTP_BASIC);
+        this.cacheableSchemes.add(ChallengeScheme.HTTP_OAUTH_BEARER);
+        this.salt = new byte[16];
+        new SecureRandom().nextBytes(this.salt);
+    }
+
+    /**
+     * Applies a cached result to a request.
+     * 
+     * @param entry
+     *            The cached result.
+     * @param request
+     *            The request to update.
+     * @return The cached verification result.
+     */
+    private int apply(Entry entry, Request request) {
+        if (entry.result == RESULT_VALID) {
+            ClientInfo clientInfo = request.getClientInfo();
+            clientInfo.setUser(entry.user);
+
+            for (Role role : entry.roles) {
+                if (!clientInfo.getRoles().contains(role)) {
+                    clientInfo.getRoles().add(role);
+                }
+            }
+        }
+
+        return entry.result;
+    }
+
+    /**
+     * Removes all the cached results.
+     */
+    public void clear() {
+        this.entries.clear();
+        this.negativeEntries.clear();
+    }
+
+    /**
+     * Creates the entry caching a verification result, or null if the result
+     * can't be cached.
+     * 
+     * @param result
+     *            The verification result.
+     * @param clientInfo
+     *            The client info updated by the verification.
+     * @return The new entry or null.
+     */
+    private Entry createEntry(int result, ClientInfo clientInfo) {
+        long now = System.currentTimeMillis();
+
+        if (result == RESULT_VALID) {
+            return (getTimeToLive() > 0) ? new Entry(result, clientInfo, now
+                    + getTimeToLive()) : null;
+        } else if ((result == RESULT_INVALID) || (result == RESULT_UNKNOWN)) {
+            return (getNegativeTimeToLive() > 0) ? new Entry(result,
+                    clientInfo, now + getNegativeTimeToLive()) : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the modifiable set of challenge schemes whose verifications can
+     * be cached.
+     * 
+     * @return The modifiable set of cacheable challenge schemes.
+     */
+    public Set<ChallengeScheme> getCacheableSchemes() {
+        return cacheableSchemes;
+    }
+
+    /**
+     * Returns the cache holding an entry.
+     * 
+     * @param entry
+     *            The entry.
+     * @return The cache of valid or invalid results.
+     */
+    private LruCache<String, Entry> getCache(Entry entry) {
+        return (entry.result == RESULT_VALID) ? this.entries
+                : this.negativeEntries;
+    }
+
+    /**
+     * Returns the cached result of some credentials.
+     * 
+     * @param key
+     *            The hash of the credentials.
+     * @return The cached result or null.
+     */
+    private Entry getEntry(String key) {
+        Entry result = this.entries.get(key);
+        return (result != null) ? result : this.negativeEntries.get(key);
+    }
+
+    /**
+     * Returns the salted hash of the credentials of a challenge response.
+     * 
+     * @param challengeResponse
+     *            The challenge response.
+     * @return The hash of the credentials.
+     * @throws NoSuchAlgorithmException
+     */
+    private String getKey(ChallengeResponse challengeResponse)
+            throws NoSuchAlgorithmException {
+        MessageDigest digest = CryptoPools.checkoutDigest("SHA-256");
+
+        try {
+            digest.update(this.salt);
+            update(digest, challengeResponse.getScheme().getName());
+            update(digest, challengeResponse.getIdentifier());
+
+            if (challengeResponse.getSecret() != null) {
+                digest.update(UTF_8.encode(CharBuffer.wrap(challengeResponse
+                        .getSecret())));
+            }
+
+            digest.update((byte) 0);
+            update(digest, challengeResponse.getRawValue());
+            return Base64.encode(digest.digest(), false);
+        } finally {
+            CryptoPools.checkin(digest);
+        }
+    }
+
+    /**
+     * Returns the executor service refreshing the valid results about to
+     * expire. If null, the executor service of the current context is used,
+     * or the results are refreshed on the request thread if there is none.
+     * 
+     * @return The executor service refreshing the valid results.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Returns the maximum number of cached valid results. Defaults to 10000.
+     * 
+     * @return The maximum number of cached valid results.
+     */
+    public int getMaxEntries() {
+        return this.entries.getMaxSize();
+    }
+
+    /**
+     * Returns the maximum number of cached invalid results. Defaults to 1000.
+     * 
+     * @return The maximum number of cached invalid results.
+     */
+    public int getMaxNegativeEntries() {
+        return this.negativeEntries.getMaxSize();
+    }
+
+    /**
+     * Returns the time to live of invalid results, in milliseconds. A value of
+     * 0 disables the caching of invalid results.
+     * 
+     * @return The time to live of invalid results, in milliseconds.
+     */
+    public long getNegativeTimeToLive() {
+        return negativeTimeToLive;
+    }
+
+    /**
+     * Returns the remaining time to live below which a valid result is
+     * verified again in the background on the next request, in milliseconds.
+     * 
+     * @return The remaining time to live triggering a refresh.
+     */
+    public long getRefreshAheadTime() {
+        return refreshAheadTime;
+    }
+
+    /**
+     * Returns the time to live of valid results, in milliseconds. A value of 0
+     * disables the caching of valid results.
+     * 
+     * @return The time to live of valid results, in milliseconds.
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Returns the wrapped verifier.
+     * 
+     * @return The wrapped verifier.
+     */
+    public Verifier getWrappedVerifier() {
+        return wrappedVerifier;
+    }
+
+    /**
+     * Indicates if the verification of a challenge response can be cached.
+     * 
+     * @param challengeResponse
+     *            The challenge response.
+     * @return True if the verification can be cached.
+     */
+    protected boolean isCacheable(ChallengeResponse challengeResponse) {
+        return (challengeResponse != null)
+                && (challengeResponse.getScheme() != null)
+                && getCacheableSchemes()
+                        .contains(challengeResponse.getScheme());
+    }
+
+    /**
+     * Stores an entry, evicting the least recently used result of the same
+     * kind if the maximum number of entries is reached.
+     * 
+     * @param key
+     *            The hash of the credentials.
+     * @param entry
+     *            The entry to store.
+     */
+    private void put(String key, Entry entry) {
+        getCache(entry).put(key, entry);
+
+        // Drop any result of the other kind
+        if (entry.result == RESULT_VALID) {
+            this.negativeEntries.remove(key);
+        } else {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Verifies again in the background the credentials of a valid result about
+     * to expire, and updates the cache accordingly. The wrapped verifier is
+     * given a copy of the actual request, without its entity. If the
+     * verification fails with an exception, the cached result is kept until it
+     * expires.
+     * 
+     * @param key
+     *            The hash of the credentials.
+     * @param entry
+     *            The entry to refresh.
+     * @param request
+     *            The request sent.
+     */
+    private void refresh(final String key, final Entry entry, Request request) {
+        final Request refreshRequest = new Request(request);
+        refreshRequest.setEntity(null);
+        Runnable task = new Runnable() {
+            public void run() {
+                boolean refreshed = false;
+
+                try {
+                    int result = getWrappedVerifier().verify(refreshRequest,
+                            new Response(refreshRequest));
+                    Entry created = createEntry(result,
+                            refreshRequest.getClientInfo());
+
+                    if (created != null) {
+                        put(key, created);
+                    } else {
+                        getCache(entry).remove(key, entry);
+                    }
+
+                    refreshed = true;
+                } catch (RuntimeException e) {
+                    Context.getCurrentLogger().log(Level.FINE,
+                            "Unable to refresh a cached verification", e);
+                } finally {
+                    if (!refreshed) {
+                        // Let another request try again
+                        entry.refreshing.set(false);
+                    }
+                }
+            }
+        };
+        ExecutorService executorService = getExecutorService();
+
+        if (executorService == null) {
+            Context context = Context.getCurrent();
+            executorService = (context != null) ? context.getExecutorService()
+                    : null;
+        }
+
+        if (executorService == null) {
+            task.run();
+        } else {
+            try {
+                executorService.execute(task);
+            } catch (RejectedExecutionException e) {
+                entry.refreshing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sets the executor service refreshing the valid results about to expire.
+     * 
+     * @param executorService
+     *            The executor service refreshing the valid results.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Sets the maximum number of cached valid results. The results currently
+     * cached are discarded.
+     * 
+     * @param maxEntries
+     *            The maximum number of cached valid results.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.entries = new LruCache<String, Entry>(maxEntries);
+    }
+
+    /**
+     * Sets the maximum number of cached invalid results. The results currently
+     * cached are discarded.
+     * 
+     * @param maxNegativeEntries
+     *            The maximum number of cached invalid results.
+     */
+    public void setMaxNegativeEntries(int maxNegativeEntries) {
+        this.negativeEntries = new LruCache<String, Entry>(maxNegativeEntries);
+    }
+
+    /**
+     * Sets the time to live of invalid results, in milliseconds. A value of 0
+     * disables the caching of invalid results.
+     * 
+     * @param negativeTimeToLive
+     *            The time to live of invalid results, in milliseconds.
+     */
+    public void setNegativeTimeToLive(long negativeTimeToLive) {
+        this.negativeTimeToLive = negativeTimeToLive;
+    }
+
+    /**
+     * Sets the remaining time to live below which a valid result is verified
+     * again in the background on the next request, in milliseconds. A value of
+     * 0 disables the refresh.
+     * 
+     * @param refreshAheadTime
+     *            The remaining time to live triggering a refresh.
+     */
+    public void setRefreshAheadTime(long refreshAheadTime) {
+        this.refreshAheadTime = refreshAheadTime;
+    }
+
+    /**
+     * Sets the time to live of valid results, in milliseconds. A value of 0
+     * disables the caching of valid results.
+     * 
+     * @param timeToLive
+     *            The time to live of valid results, in milliseconds.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Updates a digest with a nullable string, followed by a separator.
+     * 
+     * @param digest
+     *            The digest to update.
+     * @param value
+     *            The string or null.
+     */
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(UTF_8));
+        }
+
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Verifies the credentials of a request, relying on the cached result if
+     * available. Otherwise, the wrapped verifier is invoked once for all the
+     * concurrent requests with the same credentials.
+     * 
+     * @param request
+     *            The request sent.
+     * @param response
+     *            The response to update.
+     * @return Result of the verification based on the RESULT_* constants.
+     */
+    public int verify(final Request request, final Response response) {
+        ChallengeResponse challengeResponse = request.getChallengeResponse();
+
+        if (!isCacheable(challengeResponse)) {
+            return getWrappedVerifier().verify(request, response);
+        }
+
+        String key = null;
+
+        try {
+            key = getKey(challengeResponse);
+        } catch (NoSuchAlgorithmException e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Unable to hash the credentials, verification not cached",
+                    e);
+            return getWrappedVerifier().verify(request, response);
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = getEntry(key);
+
+        if (entry != null) {
+            if (entry.expirationTime > now) {
+                if ((entry.result == RESULT_VALID)
+                        && (entry.expirationTime - now < getRefreshAheadTime())
+                        && entry.refreshing.compareAndSet(false, true)) {
+                    // Meanwhile, the cached result keeps being used
+                    refresh(key, entry, request);
+                }
+
+                return apply(entry, request);
+            }
+
+            getCache(entry).remove(key, entry);
+        }
+
+        // Coalesce the concurrent verifications of the same credentials
+        FutureTask<Entry> task = new FutureTask<Entry>(new Callable<Entry>() {
+            public Entry call() throws Exception {
+                int result = getWrappedVerifier().verify(request, response);
+                Entry created = createEntry(result, request.getClientInfo());
+                return (created != null) ? created : new Entry(result,
+                        request.getClientInfo(), 0L);
+            }
+        });
+        FutureTask<Entry> pendingTask = this.pendingEntries.putIfAbsent(key,
+                task);
+
+        if (pendingTask == null) {
+            // Verify the credentials with the actual request and response
+            try {
+                task.run();
+                entry = task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return RESULT_INVALID;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                this.pendingEntries.remove(key, task);
+            }
+
+            if (entry.expirationTime > 0L) {
+                put(key, entry);
+            }
+
+            return entry.result;
+        }
+
+        // Wait for the verification in progress
+        try {
+            entry = pendingTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return RESULT_INVALID;
+        } catch (ExecutionException e) {
+            entry = null;
+        }
+
+        if ((entry == null) || (entry.expirationTime == 0L)) {
+            // Not cacheable, verify the credentials again
+            return getWrappedVerifier().verify(request, response);
+        }
+
+        return apply(entry, request);
+    }
+
+}
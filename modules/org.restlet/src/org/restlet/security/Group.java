@@ -34,7 +34,6 @@
 package org.restlet.security;
 
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Group that contains member groups and users.
@@ -53,10 +52,10 @@ public class Group {
     private volatile boolean inheritingRoles;
 
     /** The modifiable list of child groups. */
-    private final List<Group> memberGroups;
+    private final ModelList<Group> memberGroups;
 
     /** The modifiable list of members user references. */
-    private final List<User> memberUsers;
+    private final ModelList<User> memberUsers;
 
     /** The display name. */
     private volatile String name;
@@ -95,8 +94,8 @@ public class Group {
         this.name = name;
         this.description = description;
         this.inheritingRoles = inheritingRoles;
-        this.memberGroups = new CopyOnWriteArrayList<Group>();
-        this.memberUsers = new CopyOnWriteArrayList<User>();
+        this.memberGroups = new ModelList<Group>();
+        this.memberUsers = new ModelList<User>();
     }
 
     /**
@@ -159,6 +158,9 @@ public class Group {
      */
     public void setInheritingRoles(boolean inheritingRoles) {
         this.inheritingRoles = inheritingRoles;
+
+        // The roles inherited by the member users have changed
+        this.memberUsers.modified();
     }
 
     /**
@@ -34,10 +34,14 @@
 package org.restlet.security;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.Application;
 import org.restlet.Request;
@@ -47,7 +51,15 @@ import org.restlet.engine.security.RoleMapping;
 
 /**
  * Security realm based on a memory model. The model is composed of root groups,
- * users and mapping to associated roles.
+ * users and mapping to associated roles.<br>
+ * <br>
+ * Users are indexed by identifier, and the groups and roles of each user are
+ * resolved once, then cached until the model is modified via the lists of
+ * users, root groups, member groups or member users, via the role mappings or
+ * via the {@link Group#setInheritingRoles(boolean)} method. Each of those
+ * lists has its own version, checked before using the indexes. The changes
+ * of identifier via {@link User#setIdentifier(String)} are counted as well, so
+ * a user missing from up to date indexes is known to be unknown.
  * 
  * @author Jerome Louvel
  */
@@ -62,21 +74,223 @@ public class MemoryRealm extends Realm {
             User user = findUser(clientInfo.getUser().getIdentifier());
 
             if (user != null) {
-                // Find all the inherited groups of this user
-                Set<Group> userGroups = findGroups(user);
+                Index index = getIndex();
 
-                // Add roles specific to this user
-                Set<Role> userRoles = findRoles(user);
-
-                for (Role role : userRoles) {
+                // Add roles specific to this user and roles common to the
+                // members of its inherited groups
+                for (Role role : index.getEnroledRoles(user)) {
                     clientInfo.getRoles().add(role);
                 }
+            }
+        }
+    }
+
+    /**
+     * Indexes of the security model, valid as long as the model isn't
+     * modified.
+     */
+    private static final class Index {
+
+        /** The roles of each user, including the roles of its groups. */
+        private final ConcurrentMap<User, Set<Role>> enroledRoles;
+
+        /** The inheritable groups where each user is a member. */
+        private final Map<User, Set<Group>> groups;
+
+        /** The number of user identifier changes when indexing. */
+        private final long identifierChanges;
+
+        /** The roles mapped to each user or group. */
+        private final Map<Object, Set<Role>> roles;
+
+        /** The lists of the security model that were indexed. */
+        private final List<ModelList<?>> lists;
+
+        /** The users by identifier. */
+        private final Map<String, User> users;
+
+        /** The versions of the indexed lists, in the same order. */
+        private final long[] versions;
+
+        /**
+         * Constructor.
+         * 
+         * @param users
+         *            The users to index.
+         * @param rootGroups
+         *            The root groups to index.
+         * @param roleMappings
+         *            The role mappings to index.
+         */
+        private Index(List<User> users, List<Group> rootGroups,
+                List<RoleMapping> roleMappings) {
+            // Record the versions before reading the lists, so that any
+            // concurrent modification leaves the indexes outdated
+            this.identifierChanges = User.IDENTIFIER_CHANGES.get();
+            List<Long> listVersions = new ArrayList<Long>();
+            this.lists = new ArrayList<ModelList<?>>();
+            track(users, listVersions);
+            track(roleMappings, listVersions);
+            track(rootGroups, listVersions);
+            Set<Group> trackedGroups = new HashSet<Group>();
+
+            for (Group group : rootGroups) {
+                trackGroups(group, trackedGroups, listVersions);
+            }
 
-                // Add roles common to group members
-                Set<Role> groupRoles = findRoles(userGroups);
+            this.versions = new long[listVersions.size()];
 
-                for (Role role : groupRoles) {
-                    clientInfo.getRoles().add(role);
+            for (int i = 0; i < this.versions.length; i++) {
+                this.versions[i] = listVersions.get(i);
+            }
+
+            this.enroledRoles = new ConcurrentHashMap<User, Set<Role>>();
+            this.users = new HashMap<String, User>();
+            this.roles = new HashMap<Object, Set<Role>>();
+            this.groups = new HashMap<User, Set<Group>>();
+
+            for (User user : users) {
+                // Keep the first user for a given identifier
+                if ((user.getIdentifier() != null)
+                        && !this.users.containsKey(user.getIdentifier())) {
+                    this.users.put(user.getIdentifier(), user);
+                }
+            }
+
+            Set<Role> sourceRoles;
+
+            for (RoleMapping mapping : roleMappings) {
+                sourceRoles = this.roles.get(mapping.getSource());
+
+                if (sourceRoles == null) {
+                    sourceRoles = new HashSet<Role>();
+                    this.roles.put(mapping.getSource(), sourceRoles);
+                }
+
+                sourceRoles.add(mapping.getTarget());
+            }
+
+            for (Group group : rootGroups) {
+                addGroups(this.groups, group, new ArrayList<Group>(), true);
+            }
+        }
+
+        /**
+         * Returns the roles of a user, including the roles common to the
+         * members of its inherited groups.
+         * 
+         * @param user
+         *            The user.
+         * @return The roles of the user.
+         */
+        private Set<Role> getEnroledRoles(User user) {
+            Set<Role> result = this.enroledRoles.get(user);
+
+            if (result == null) {
+                result = new HashSet<Role>(getRoles(user));
+
+                for (Group group : getGroups(user)) {
+                    result.addAll(getRoles(group));
+                }
+
+                result = Collections.unmodifiableSet(result);
+                this.enroledRoles.putIfAbsent(user, result);
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the inheritable groups where a user is a member.
+         * 
+         * @param user
+         *            The member user.
+         * @return The set of groups, not to be modified.
+         */
+        private Set<Group> getGroups(User user) {
+            Set<Group> result = this.groups.get(user);
+            return (result == null) ? Collections.<Group> emptySet() : result;
+        }
+
+        /**
+         * Returns the roles mapped to a user or group.
+         * 
+         * @param source
+         *            The source user or group.
+         * @return The set of roles, not to be modified.
+         */
+        private Set<Role> getRoles(Object source) {
+            Set<Role> result = (source == null) ? null : this.roles
+                    .get(source);
+            return (result == null) ? Collections.<Role> emptySet() : result;
+        }
+
+        /**
+         * Returns the user with the given identifier.
+         * 
+         * @param identifier
+         *            The identifier to match.
+         * @return The matched user or null.
+         */
+        private User getUser(String identifier) {
+            return this.users.get(identifier);
+        }
+
+        /**
+         * Indicates if none of the indexed lists and user identifiers was
+         * modified since the indexes were built.
+         * 
+         * @return True if the indexes are up to date.
+         */
+        private boolean isValid() {
+            if (User.IDENTIFIER_CHANGES.get() != this.identifierChanges) {
+                return false;
+            }
+
+            for (int i = 0; i < this.versions.length; i++) {
+                if (this.lists.get(i).getVersion() != this.versions[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Records the current version of a list of the security model.
+         * 
+         * @param list
+         *            The list to track.
+         * @param listVersions
+         *            The versions recorded so far.
+         */
+        private void track(List<?> list, List<Long> listVersions) {
+            if (list instanceof ModelList) {
+                ModelList<?> modelList = (ModelList<?>) list;
+                this.lists.add(modelList);
+                listVersions.add(modelList.getVersion());
+            }
+        }
+
+        /**
+         * Recursively records the current version of the member lists of a
+         * group and of its member groups.
+         * 
+         * @param group
+         *            The group to track.
+         * @param trackedGroups
+         *            The groups already tracked.
+         * @param listVersions
+         *            The versions recorded so far.
+         */
+        private void trackGroups(Group group, Set<Group> trackedGroups,
+                List<Long> listVersions) {
+            if ((group != null) && trackedGroups.add(group)) {
+                track(group.getMemberUsers(), listVersions);
+                track(group.getMemberGroups(), listVersions);
+
+                for (Group memberGroup : group.getMemberGroups()) {
+                    trackGroups(memberGroup, trackedGroups, listVersions);
                 }
             }
         }
@@ -120,6 +334,9 @@ public class MemoryRealm extends Realm {
         }
     }
 
+    /** The indexes of the security model. */
+    private volatile Index index;
+
     /** The modifiable list of role mappings. */
     private final List<RoleMapping> roleMappings;
 
@@ -135,18 +352,16 @@ public class MemoryRealm extends Realm {
     public MemoryRealm() {
         setVerifier(new DefaultVerifier());
         setEnroler(new DefaultEnroler());
-        this.rootGroups = new CopyOnWriteArrayList<Group>();
-        this.roleMappings = new CopyOnWriteArrayList<RoleMapping>();
-        this.users = new CopyOnWriteArrayList<User>();
+        this.rootGroups = new ModelList<Group>();
+        this.roleMappings = new ModelList<RoleMapping>();
+        this.users = new ModelList<User>();
     }
 
     /**
-     * Recursively adds groups where a given user is a member.
+     * Recursively adds groups to the users that are members of them.
      * 
-     * @param user
-     *            The member user.
      * @param userGroups
-     *            The set of user groups to update.
+     *            The map of user groups to update.
      * @param currentGroup
      *            The current group to inspect.
      * @param stack
@@ -155,32 +370,67 @@ public class MemoryRealm extends Realm {
      *            Indicates if only the ancestors groups that have their
      *            "inheritRoles" property enabled should be added.
      */
-    private void addGroups(User user, Set<Group> userGroups,
+    private static void addGroups(Map<User, Set<Group>> userGroups,
             Group currentGroup, List<Group> stack, boolean inheritOnly) {
         if ((currentGroup != null) && !stack.contains(currentGroup)) {
             stack.add(currentGroup);
 
-            if (currentGroup.getMemberUsers().contains(user)) {
-                userGroups.add(currentGroup);
-
-                // Add the ancestor groups as well
+            if (!currentGroup.getMemberUsers().isEmpty()) {
+                // Collect the group and its ancestor groups once for all
+                // the member users
+                List<Group> groups = new ArrayList<Group>();
+                groups.add(currentGroup);
                 boolean inherit = !inheritOnly
                         || currentGroup.isInheritingRoles();
                 Group group;
 
                 for (int i = stack.size() - 2; inherit && (i >= 0); i--) {
                     group = stack.get(i);
-                    userGroups.add(group);
+                    groups.add(group);
                     inherit = !inheritOnly || group.isInheritingRoles();
                 }
+
+                Set<Group> groupSet;
+
+                for (User user : currentGroup.getMemberUsers()) {
+                    groupSet = userGroups.get(user);
+
+                    if (groupSet == null) {
+                        groupSet = new HashSet<Group>();
+                        userGroups.put(user, groupSet);
+                    }
+
+                    groupSet.addAll(groups);
+                }
             }
 
             for (Group group : currentGroup.getMemberGroups()) {
-                addGroups(user, userGroups, group, stack, inheritOnly);
+                addGroups(userGroups, group, stack, inheritOnly);
             }
         }
     }
 
+    /**
+     * Filters the roles belonging to a given application.
+     * 
+     * @param application
+     *            The parent application.
+     * @param roles
+     *            The roles to filter.
+     * @return The roles found.
+     */
+    private Set<Role> filterRoles(Application application, Set<Role> roles) {
+        Set<Role> result = new HashSet<Role>();
+
+        for (Role role : roles) {
+            if (role.getApplication() == application) {
+                result.add(role);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Finds the set of groups where a given user is a member. Note that
      * inheritable ancestors groups are also returned.
@@ -190,7 +440,7 @@ public class MemoryRealm extends Realm {
      * @return The set of groups.
      */
     public Set<Group> findGroups(User user) {
-        return findGroups(user, true);
+        return new HashSet<Group>(getIndex().getGroups(user));
     }
 
     /**
@@ -204,16 +454,19 @@ public class MemoryRealm extends Realm {
      * @return The set of groups.
      */
     public Set<Group> findGroups(User user, boolean inheritOnly) {
-        Set<Group> result = new HashSet<Group>();
-        List<Group> stack;
+        if (inheritOnly) {
+            return findGroups(user);
+        }
+
+        Map<User, Set<Group>> userGroups = new HashMap<User, Set<Group>>();
 
         // Recursively find user groups
         for (Group group : getRootGroups()) {
-            stack = new ArrayList<Group>();
-            addGroups(user, result, group, stack, inheritOnly);
+            addGroups(userGroups, group, new ArrayList<Group>(), inheritOnly);
         }
 
-        return result;
+        Set<Group> result = userGroups.get(user);
+        return (result == null) ? new HashSet<Group>() : result;
     }
 
     /**
@@ -233,20 +486,7 @@ public class MemoryRealm extends Realm {
                     "The application argument can't be null");
         }
 
-        Set<Role> result = new HashSet<Role>();
-        Object source;
-
-        for (RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((userGroup != null) && userGroup.equals(source)) {
-                if (mapping.getTarget().getApplication() == application) {
-                    result.add(mapping.getTarget());
-                }
-            }
-        }
-
-        return result;
+        return filterRoles(application, getIndex().getRoles(userGroup));
     }
 
     /**
@@ -267,15 +507,13 @@ public class MemoryRealm extends Realm {
         }
 
         Set<Role> result = new HashSet<Role>();
-        Object source;
 
-        for (RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
+        if (userGroups != null) {
+            Index index = getIndex();
 
-            if ((userGroups != null) && userGroups.contains(source)) {
-                if (mapping.getTarget().getApplication() == application) {
-                    result.add(mapping.getTarget());
-                }
+            for (Group userGroup : userGroups) {
+                result.addAll(filterRoles(application,
+                        index.getRoles(userGroup)));
             }
         }
 
@@ -299,20 +537,7 @@ public class MemoryRealm extends Realm {
                     "The application argument can't be null");
         }
 
-        Set<Role> result = new HashSet<Role>();
-        Object source;
-
-        for (RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((user != null) && user.equals(source)) {
-                if (mapping.getTarget().getApplication() == application) {
-                    result.add(mapping.getTarget());
-                }
-            }
-        }
-
-        return result;
+        return filterRoles(application, getIndex().getRoles(user));
     }
 
     /**
@@ -323,18 +548,7 @@ public class MemoryRealm extends Realm {
      * @return The roles found.
      */
     public Set<Role> findRoles(Group userGroup) {
-        Set<Role> result = new HashSet<Role>();
-        Object source;
-
-        for (RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((userGroup != null) && userGroup.equals(source)) {
-                result.add(mapping.getTarget());
-            }
-        }
-
-        return result;
+        return new HashSet<Role>(getIndex().getRoles(userGroup));
     }
 
     /**
@@ -346,13 +560,12 @@ public class MemoryRealm extends Realm {
      */
     public Set<Role> findRoles(Set<Group> userGroups) {
         Set<Role> result = new HashSet<Role>();
-        Object source;
 
-        for (RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
+        if (userGroups != null) {
+            Index index = getIndex();
 
-            if ((userGroups != null) && userGroups.contains(source)) {
-                result.add(mapping.getTarget());
+            for (Group userGroup : userGroups) {
+                result.addAll(index.getRoles(userGroup));
             }
         }
 
@@ -367,18 +580,7 @@ public class MemoryRealm extends Realm {
      * @return The roles found.
      */
     public Set<Role> findRoles(User user) {
-        Set<Role> result = new HashSet<Role>();
-        Object source;
-
-        for (RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((user != null) && user.equals(source)) {
-                result.add(mapping.getTarget());
-            }
-        }
-
-        return result;
+        return new HashSet<Role>(getIndex().getRoles(user));
     }
 
     /**
@@ -389,15 +591,21 @@ public class MemoryRealm extends Realm {
      * @return The matched user or null.
      */
     public User findUser(String userIdentifier) {
-        User result = null;
-        User user;
+        return getIndex().getUser(userIdentifier);
+    }
 
-        for (int i = 0; (result == null) && (i < getUsers().size()); i++) {
-            user = getUsers().get(i);
+    /**
+     * Returns the indexes of the security model, rebuilding them if the model
+     * was modified since they were built.
+     * 
+     * @return The indexes of the security model.
+     */
+    private Index getIndex() {
+        Index result = this.index;
 
-            if (user.getIdentifier().equals(userIdentifier)) {
-                result = user;
-            }
+        if ((result == null) || !result.isValid()) {
+            result = new Index(getUsers(), getRootGroups(), getRoleMappings());
+            this.index = result;
         }
 
         return result;
@@ -550,7 +758,7 @@ public class MemoryRealm extends Realm {
     private void unmap(Object source, Role role) {
         RoleMapping mapping;
 
-        for (int i = getRoleMappings().size(); i >= 0; i--) {
+        for (int i = getRoleMappings().size() - 1; i >= 0; i--) {
             mapping = getRoleMappings().get(i);
 
             if (mapping.getSource().equals(source)
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2005-2013 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.security;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * List of security model elements such as users, groups or role mappings,
+ * backed by a copy-on-write list. Each list has its own version, incremented
+ * by every modification, which lets {@link MemoryRealm} detect that its
+ * indexes are outdated without walking the model again.<br>
+ * <br>
+ * All the modifications go through the methods of this class, including the
+ * ones made via iterators or sub-lists, so they are all taken into account.
+ * Iterators work on a snapshot of the list, as for a
+ * {@link CopyOnWriteArrayList}.
+ * 
+ * @author Jerome Louvel
+ * 
+ * @param <E>
+ *            The type of the elements.
+ */
+class ModelList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * Iterator on a snapshot of the list. Removals are made on the list.
+     */
+    private class SnapshotIterator implements Iterator<E> {
+
+        /** The index of the next element. */
+        private int cursor;
+
+        /** The index of the last returned element, or -1. */
+        private int lastReturned;
+
+        /** The snapshot of the elements. */
+        private final Object[] snapshot;
+
+        /**
+         * Constructor.
+         */
+        private SnapshotIterator() {
+            this.cursor = 0;
+            this.lastReturned = -1;
+            this.snapshot = elements.toArray();
+        }
+
+        public boolean hasNext() {
+            return this.cursor < this.snapshot.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            this.lastReturned = this.cursor++;
+            return (E) this.snapshot[this.lastReturned];
+        }
+
+        public void remove() {
+            if (this.lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+
+            removeIdentical(this.snapshot[this.lastReturned]);
+            this.lastReturned = -1;
+        }
+    }
+
+    /** The elements. */
+    private final CopyOnWriteArrayList<E> elements;
+
+    /** The version of the list. */
+    private final AtomicLong version;
+
+    /**
+     * Constructor.
+     */
+    public ModelList() {
+        this.elements = new CopyOnWriteArrayList<E>();
+        this.version = new AtomicLong();
+    }
+
+    @Override
+    public synchronized boolean add(E element) {
+        try {
+            return this.elements.add(element);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized void add(int index, E element) {
+        try {
+            this.elements.add(index, element);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends E> collection) {
+        try {
+            return this.elements.addAll(collection);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized boolean addAll(int index,
+            Collection<? extends E> collection) {
+        try {
+            return this.elements.addAll(index, collection);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        try {
+            this.elements.clear();
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return this.elements.contains(element);
+    }
+
+    @Override
+    public E get(int index) {
+        return this.elements.get(index);
+    }
+
+    /**
+     * Returns the current version of the list.
+     * 
+     * @return The current version of the list.
+     */
+    long getVersion() {
+        return this.version.get();
+    }
+
+    @Override
+    public int indexOf(Object element) {
+        return this.elements.indexOf(element);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator();
+    }
+
+    @Override
+    public int lastIndexOf(Object element) {
+        return this.elements.lastIndexOf(element);
+    }
+
+    /**
+     * Notifies that the list, or the model element owning it, has been
+     * modified.
+     */
+    void modified() {
+        this.version.incrementAndGet();
+    }
+
+    @Override
+    public synchronized E remove(int index) {
+        try {
+            return this.elements.remove(index);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(Object element) {
+        try {
+            return this.elements.remove(element);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> collection) {
+        try {
+            return this.elements.removeAll(collection);
+        } finally {
+            modified();
+        }
+    }
+
+    /**
+     * Removes the first occurrence of the given instance.
+     * 
+     * @param element
+     *            The instance to remove.
+     */
+    private synchronized void removeIdentical(Object element) {
+        for (int i = 0; i < this.elements.size(); i++) {
+            if (this.elements.get(i) == element) {
+                remove(i);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> collection) {
+        try {
+            return this.elements.retainAll(collection);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized E set(int index, E element) {
+        try {
+            return this.elements.set(index, element);
+        } finally {
+            modified();
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.elements.size();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return this.elements.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+        return this.elements.toArray(array);
+    }
+
+}
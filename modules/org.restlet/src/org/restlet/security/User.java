@@ -34,6 +34,7 @@
 package org.restlet.security;
 
 import java.security.Principal;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * User part of a security realm. Note the same user can be member of several
@@ -45,6 +46,12 @@ import java.security.Principal;
  */
 public class User implements Principal {
 
+    /**
+     * The number of identifier changes of all the users, used by
+     * {@link MemoryRealm} to detect outdated indexes.
+     */
+    static final AtomicLong IDENTIFIER_CHANGES = new AtomicLong();
+
     /** The email. */
     private volatile String email;
 
@@ -225,6 +232,7 @@ public class User implements Principal {
      */
     public void setIdentifier(String identifier) {
         this.identifier = identifier;
+        IDENTIFIER_CHANGES.incrementAndGet();
     }
 
     /**